@@ -15,6 +15,7 @@ package bridgedesigner;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Iterator;
 
 /**
@@ -30,12 +31,47 @@ public class Analysis {
      * Steel code factors.
      */
     private static final double deadLoadFactor = 1.35;
-    private static final double liveLoadFactor = 1.75 * 1.33;
+    private static final double impactFactor = 1.33;
+    private static final double liveLoadFactor = 1.75 * impactFactor;
+
+    /**
+     * Fraction of critical damping of every vibration mode in moving load analysis, typical of steel bridges.
+     */
+    private static final double modalDampingRatio = 0.02;
+
+    /**
+     * Time steps per period of the highest vibration mode kept in moving load analysis and the most
+     * steps allowed for one crossing.  Newmark's average acceleration method is stable with any step,
+     * so slow crossings just resolve the fastest mode less finely.
+     */
+    private static final int stepsPerPeriod = 20;
+    private static final int maxMovingLoadSteps = 20000;
+
+    /**
+     * Large displacement analysis stops when each load case's residual force is this fraction of its load,
+     * or fails after too many iterations.  When one iteration shrinks the residual by less than the stall
+     * ratio, the current matrix is too far from the tangent, so the tangent is factored afresh.
+     */
+    private static final double nonlinearTolerance = 1e-9;
+    private static final int maxNonlinearIterations = 40;
+    private static final double nonlinearStallRatio = 0.5;
     
     /**
      * Multiplier for degrading the strength of members to animate the bridge failure.
      */
     private static final double failedMemberDegradation = 1.0 / 50.0;
+
+    /**
+     * Work, measured as factor profile size times number of load cases, above which load cases are
+     * back-substituted in parallel blocks.  Below this, thread handoff costs more than it saves.
+     */
+    private static final long parallelSolveThreshold = 1000000;
+
+    /**
+     * Largest rank of an update applied to an existing factorization.  Each member that changes stock adds
+     * one to the rank, and each that changes direction adds two.  Beyond this, refactoring is cheaper.
+     */
+    private static final int maxLowRankUpdate = 24;
     
     /**
      * Special values so that a double can be used to encode a flag for a 
@@ -46,6 +82,11 @@ public class Analysis {
     private static final double NOT_FAILED = -1;
     private static final double FAILED = 1e6;
     
+    /**
+     * Number of load case variants of a geometry: each load type with each deck type.
+     */
+    public static final int N_LOAD_CASE_VARIANTS = 4;
+
     /**
      * Analysis has not been initialized yet.
      */
@@ -91,6 +132,91 @@ public class Analysis {
     private double[] maxMemberTensileForces;
     private int status = NO_STATUS;
 
+    /**
+     * Members of the bridge last analyzed with their lengths and direction cosines.
+     */
+    private Member[] members;
+    private double[] length;
+    private double[] cosX;
+    private double[] cosY;
+    /**
+     * Axial stiffness of each member of the bridge last analyzed.
+     */
+    private double[] memberStiffness;
+
+    /**
+     * Influence lines of the last analysis and the factored axle loads of its truck.
+     */
+    private InfluenceLines influenceLines;
+    private double frontAxleLoad;
+    private double rearAxleLoad;
+
+    /**
+     * Factored stiffness matrix of the last successful analysis, kept so later analyses that change only
+     * member stock can be done with low-rank updates.  Null if there is none.
+     */
+    private SkylineSolver stiffness;
+    /**
+     * Factored symmetric and antisymmetric half systems used instead of <code>stiffness</code> when the
+     * bridge is mirror-symmetric and splitting saves work.  Null if there are none.
+     */
+    private MirrorSolver mirrorSolver;
+    /**
+     * Factored panel superelements and boundary system used instead of <code>stiffness</code> when
+     * condensing panels saves work.  Null if there are none.
+     */
+    private SuperelementSolver superelementSolver;
+    /**
+     * Whether large bridges are split into domains that are condensed in parallel.
+     */
+    private boolean domainDecomposition = false;
+    /**
+     * Whether results account for the change of geometry under load.
+     */
+    private boolean nonlinear = false;
+    /**
+     * Number of iterations the last large displacement analysis needed for its slowest load case and
+     * the number of tangent matrices it factored.
+     */
+    private int nonlinearIterations = 0;
+    private int nonlinearFactorizations = 0;
+    /**
+     * Set to abandon an update in progress at its next checkpoint.
+     */
+    private volatile boolean cancelled = false;
+    /**
+     * Map from joint-ordered equation numbers to the equation numbers of the factored matrix.
+     */
+    private int[] equation;
+    /**
+     * Restraint flags indexed by joint-ordered equation number.
+     */
+    private boolean[] restrained;
+    /**
+     * Symbolic structure of the factored matrix, which depends only on connectivity and design conditions.
+     */
+    private StiffnessPattern pattern;
+    /**
+     * Member axial stiffnesses and direction cosines used to build the factored matrix.
+     */
+    private double[] factoredMemberStiffness;
+    private double[] factoredCosX;
+    private double[] factoredCosY;
+    /**
+     * Buckling modes of the last analysis and the number of modes asked for, or null if not computed yet.
+     */
+    private BucklingModes bucklingModes;
+    private int bucklingModeCount;
+    /**
+     * Vibration modes of the last analysis and the number of modes asked for, or null if not computed yet.
+     */
+    private VibrationModes vibrationModes;
+    private int vibrationModeCount;
+    /**
+     * Moving load response of the last analysis, or null if not computed yet.
+     */
+    private MovingLoadResponse movingLoadResponse;
+
     /**
      * Return the analysis status.
      * <pre>
@@ -175,220 +301,1376 @@ public class Analysis {
     public double getMemberCompressiveStrength(int i) {
         return memberCompressiveStrength[i];
     }
-    
+    
+    /**
+     * Return the max allowable tensile force that may act on a given member before it fails.
+     * 
+     * @param i member index
+     * @return tensile strength
+     */
+    public double getMemberTensileStrength(int i) {
+        return memberTensileStrength[i];
+    }
+    
+    /**
+     * Analyze the given bridge and store the results internally for future queries.
+     * Loads and restraints mimic the WPBD code exactly.
+     * 
+     * @param bridge bridge to analyze
+     */
+    public void initialize(BridgeModel bridge) {
+        initialize(bridge, null);
+    }
+
+    /**
+     * Analyze the given bridge and store the results internally for future queries.
+     * Artificially decrease the strength of failed members to support the failure animation.
+     * Loads and restraints mimic the original WPBD code exactly.  Rather than inverting the full
+     * stiffness matrix, we factor its skyline once as L D L^T and back-substitute for each load case.
+     * A pivot below the original elimination's threshold still signals an unstable bridge.
+     * 
+     * @param bridge bridge to analyze
+     * @param failureStatus status of failed members: FAILED, NOT_FAILED, base member getLength, which implies FAILED.
+     */
+    public void initialize(BridgeModel bridge, double [] failureStatus) {
+        this.bridge = bridge;
+        status = NO_STATUS;
+        setGeometry(null, null);
+        final double [] aeOverL = getMemberStiffness(failureStatus);
+        final double [][] influenceLoads = getInfluenceLoads();
+        if (!factor(aeOverL)) {
+            status = UNSTABLE;
+            return;
+        }
+        setResults(getLoadCaseDisplacements(solve(influenceLoads), aeOverL), aeOverL, failureStatus, failureStatus == null);
+    }
+
+    /**
+     * Analyze the given bridge, reusing the factorization of the previous analysis if the bridge
+     * has the same connectivity.  Since each member contributes a rank one term to the stiffness
+     * matrix, a change of member stock is applied to the old factorization as a rank one
+     * Sherman-Morrison-Woodbury correction, and a change of member direction as a rank two one
+     * that removes the old term and adds the new.  Falls back to a full analysis when connectivity
+     * has changed or when too many members differ for an update to pay.
+     *
+     * @param bridge bridge to analyze
+     * @return true iff the previous factorization was reused
+     */
+    public boolean update(BridgeModel bridge) {
+        return update(bridge, null, null);
+    }
+
+    /**
+     * Analyze the given bridge as though one of its joints were at a different location, leaving the
+     * bridge itself and the force/strength ratios of its members untouched.  This supports live feedback
+     * while a joint is dragged: the factorization of the first preview is kept, so later ones are low-rank
+     * updates confined to the members incident on the moving joint.  Results are queried as for any
+     * other analysis.
+     *
+     * @param bridge bridge to analyze
+     * @param joint joint to move
+     * @param ptWorld location of the moved joint
+     * @return true iff the previous factorization was reused
+     */
+    public boolean preview(BridgeModel bridge, Joint joint, Affine.Point ptWorld) {
+        return update(bridge, joint, ptWorld);
+    }
+
+    /**
+     * Analyze the given bridge with no failed members in preparation for simulating its collapse, leaving
+     * the force/strength ratios of its members untouched.  This does the one full factorization the
+     * simulation needs ahead of time, so a later collapse needs only low-rank updates.
+     *
+     * @param bridge bridge to analyze
+     */
+    public void initializeCollapse(BridgeModel bridge) {
+        this.bridge = bridge;
+        status = NO_STATUS;
+        setGeometry(null, null);
+        final double [] aeOverL = getMemberStiffness(null);
+        if (!factor(aeOverL)) {
+            status = UNSTABLE;
+            return;
+        }
+        setResults(getLoadCaseDisplacements(solve(getInfluenceLoads()), aeOverL), aeOverL, null, false);
+    }
+
+    /**
+     * Simulate the progressive collapse of the given bridge with the load at a given location, starting
+     * from members that have already failed there.  Each failed member's stiffness is degraded as for
+     * <code>initialize(bridge, failureStatus)</code> and its load redistributed.  The member that then
+     * reaches its strength at the lowest load level fails next, and so on until no member is overstressed
+     * or the bridge becomes a mechanism.  Each round solves only for the dead and live loads at the given
+     * location by a low-rank downdate of the factorization kept by <code>initializeCollapse</code>, one rank
+     * per failed member, with a fresh factorization only when the rank grows too large for an update to pay.
+     * Afterward this analysis holds the results for the final damaged bridge, as though it had been
+     * initialized with the final failure status.
+     *
+     * @param bridge bridge to analyze
+     * @param xLoadParameter location of load in panel lengths
+     * @param failureStatus status of members that have already failed or null if none
+     * @return ordered sequence of member failures
+     */
+    public CollapseSequence collapse(BridgeModel bridge, double xLoadParameter, double [] failureStatus) {
+        this.bridge = bridge;
+        status = NO_STATUS;
+        setGeometry(null, null);
+        final int nMembers = members.length;
+        final CollapseSequence sequence = new CollapseSequence();
+        final double [] collapseStatus = new double [nMembers];
+        Arrays.fill(collapseStatus, NOT_FAILED);
+        final double [] compressiveStrength = new double [nMembers];
+        final double [] tensileStrength = new double [nMembers];
+        for (int im = 0; im < nMembers; im++) {
+            final Material material = members[im].getMaterial();
+            final Shape shape = members[im].getShape();
+            compressiveStrength[im] = Inventory.compressiveStrength(material, shape, length[im]);
+            tensileStrength[im] = Inventory.tensileStrength(material, shape);
+        }
+        final double [][] influenceLoads = getInfluenceLoads();
+        final double [][] collapseLoads = getCollapseLoads(influenceLoads, xLoadParameter);
+        // Factor the undamaged bridge unless initializeCollapse already has.
+        double [] aeOverL = getMemberStiffness(collapseStatus);
+        if (!isFactorizationOf(bridge) || getUpdateRank(aeOverL) != 0) {
+            if (!factor(aeOverL)) {
+                status = UNSTABLE;
+                sequence.setMechanism();
+                return sequence;
+            }
+        }
+        double [][] base = solve(collapseLoads);
+        double [][] force = getCollapseForces(aeOverL, base);
+        // Initial failures happen together under the original load distribution. Record them in the order
+        // they would have reached their strengths as the load grew.
+        if (failureStatus != null) {
+            final int [] initial = new int [nMembers];
+            final double [] initialLevel = new double [nMembers];
+            int nInitial = 0;
+            for (int im = 0; im < nMembers; im++) {
+                if (failureStatus[im] != NOT_FAILED) {
+                    final double level = Math.min(1, getCollapseLoadLevel(force[0][im], force[1][im],
+                            compressiveStrength[im], tensileStrength[im]));
+                    int i = nInitial++;
+                    while (i > 0 && initialLevel[i - 1] > level) {
+                        initial[i] = initial[i - 1];
+                        initialLevel[i] = initialLevel[i - 1];
+                        --i;
+                    }
+                    initial[i] = im;
+                    initialLevel[i] = level;
+                }
+            }
+            for (int i = 0; i < nInitial; i++) {
+                final int im = initial[i];
+                sequence.addStep(im, initialLevel[i],
+                        getCollapseForceRatio(force[0][im] + force[1][im], compressiveStrength[im], tensileStrength[im]));
+                collapseStatus[im] = FAILED;
+            }
+        }
+        sequence.setInitialSteps();
+        // Downdate columns of failed members not in the factorization, their solutions, and coefficients.
+        // Each failure costs one more solve, not a new factorization.
+        final double [][] u = new double [maxLowRankUpdate][];
+        final double [][] z = new double [maxLowRankUpdate][];
+        final double [] c = new double [maxLowRankUpdate];
+        final int [] dofs = new int [4];
+        final double [] v = new double [4];
+        int rank = 0;
+        int nApplied = 0;
+        while (nApplied < sequence.getStepCount()) {
+            aeOverL = getMemberStiffness(collapseStatus);
+            double [][] displacement = null;
+            if (rank + sequence.getStepCount() - nApplied <= maxLowRankUpdate) {
+                for (; nApplied < sequence.getStepCount(); nApplied++) {
+                    final int im = sequence.getMember(nApplied);
+                    u[rank] = new double [equation.length];
+                    getMemberDofs(members[im], dofs);
+                    getMemberDirection(cosX[im], cosY[im], v);
+                    setUpdateColumn(u[rank], dofs, v);
+                    z[rank] = solve(new double [][] { u[rank] })[0];
+                    c[rank] = aeOverL[im] - factoredMemberStiffness[im];
+                    ++rank;
+                }
+                displacement = getDowndatedDisplacements(base, u, z, c, rank);
+            }
+            if (displacement == null) {
+                if (!factor(aeOverL)) {
+                    // The last failure left a mechanism. Show the bridge just before it.
+                    sequence.setMechanism();
+                    collapseStatus[sequence.getMember(sequence.getStepCount() - 1)] = NOT_FAILED;
+                    aeOverL = getMemberStiffness(collapseStatus);
+                    break;
+                }
+                rank = 0;
+                nApplied = sequence.getStepCount();
+                base = displacement = solve(collapseLoads);
+            }
+            force = getCollapseForces(aeOverL, displacement);
+            int iNext = -1;
+            double nextLevel = Double.MAX_VALUE;
+            double nextRatio = 0;
+            for (int im = 0; im < nMembers; im++) {
+                if (collapseStatus[im] == NOT_FAILED) {
+                    final double ratio = getCollapseForceRatio(force[0][im] + force[1][im],
+                            compressiveStrength[im], tensileStrength[im]);
+                    if (Math.abs(ratio) > 1) {
+                        final double level = getCollapseLoadLevel(force[0][im], force[1][im],
+                                compressiveStrength[im], tensileStrength[im]);
+                        if (level < nextLevel) {
+                            iNext = im;
+                            nextLevel = level;
+                            nextRatio = ratio;
+                        }
+                    }
+                }
+            }
+            if (iNext < 0) {
+                break;
+            }
+            sequence.addStep(iNext, nextLevel, nextRatio);
+            collapseStatus[iNext] = FAILED;
+        }
+        // Reuse the downdate for the influence lines of the final damaged bridge if it's still good.
+        double [][] solutions = null;
+        if (isFactorizationOf(bridge)) {
+            solutions = solve(influenceLoads);
+            if (rank > 0) {
+                solutions = getDowndatedDisplacements(solutions, u, z, c, rank);
+            }
+        }
+        if (solutions == null) {
+            solutions = solveDamaged(aeOverL, influenceLoads);
+        }
+        if (solutions == null) {
+            status = UNSTABLE;
+            return sequence;
+        }
+        setResults(getLoadCaseDisplacements(solutions, aeOverL), aeOverL, collapseStatus, false);
+        return sequence;
+    }
+
+    /**
+     * Return the dead load and the live load with the load at a given location.  The truck's axle loads
+     * are carried to the deck joints on either side of each axle as for the influence lines.
+     *
+     * @param influenceLoads influence loads of the bridge
+     * @param xLoadParameter location of load in panel lengths
+     * @return dead and live loads indexed by equation
+     */
+    private double [][] getCollapseLoads(double [][] influenceLoads, double xLoadParameter) {
+        final DesignConditions conditions = bridge.getDesignConditions();
+        final double pointDeadLoad = getPointDeadLoad(conditions);
+        final double front = getFrontAxleLoad(conditions);
+        final double rear = getRearAxleLoad(conditions);
+        final int nLoadedJoints = influenceLoads.length - 1;
+        final int nEquations = influenceLoads[0].length;
+        final double [][] loads = new double [2][];
+        loads[0] = influenceLoads[0].clone();
+        loads[1] = new double [nEquations];
+        for (int ij = 0; ij < nLoadedJoints; ij++) {
+            final double dead = (ij == 0 || ij == nLoadedJoints - 1) ? 0.5 * pointDeadLoad : pointDeadLoad;
+            final double live = front * getDeckShare(ij, xLoadParameter, nLoadedJoints) +
+                    rear * getDeckShare(ij, xLoadParameter - 1, nLoadedJoints);
+            final double [] unit = influenceLoads[ij + 1];
+            for (int ie = 0; ie < nEquations; ie++) {
+                loads[0][ie] += dead * unit[ie];
+                loads[1][ie] += live * unit[ie];
+            }
+        }
+        return loads;
+    }
+
+    /**
+     * Return the fraction of a load at a given position that the deck carries to a given deck joint.
+     *
+     * @param ij deck joint index
+     * @param x load position in panel lengths
+     * @param nLoadedJoints number of deck joints
+     * @return fraction of the load carried to the joint
+     */
+    private static double getDeckShare(int ij, double x, int nLoadedJoints) {
+        if (x < 0 || x > nLoadedJoints - 1) {
+            return 0;
+        }
+        final double d = Math.abs(x - ij);
+        return d < 1 ? 1 - d : 0;
+    }
+
+    /**
+     * Return member forces of the current bridge due to given joint displacements.
+     *
+     * @param aeOverL axial stiffness of each member
+     * @param displacement joint displacements indexed by load case and equation
+     * @return member forces indexed by load case and member
+     */
+    private double [][] getCollapseForces(double [] aeOverL, double [][] displacement) {
+        final int nMembers = members.length;
+        final double [][] force = new double [displacement.length][nMembers];
+        for (int i = 0; i < displacement.length; i++) {
+            final double [] d = displacement[i];
+            for (int im = 0; im < nMembers; im++) {
+                final int ia = 2 * members[im].getJointA().getIndex();
+                final int ib = 2 * members[im].getJointB().getIndex();
+                force[i][im] = aeOverL[im] *
+                        (cosX[im] * (d[ib] - d[ia]) + cosY[im] * (d[ib + 1] - d[ia + 1]));
+            }
+        }
+        return force;
+    }
+
+    /**
+     * Return displacements of the factored stiffness matrix with a low-rank downdate applied, given those of
+     * the matrix itself and the solutions for the update columns.  This is the Sherman-Morrison-Woodbury
+     * correction of <code>applyLowRankUpdate</code> with the update solutions kept from one round of a
+     * collapse to the next.
+     *
+     * @param displacement displacements of the factored matrix indexed by load case and equation
+     * @param u update columns
+     * @param z solutions of the factored matrix for the update columns
+     * @param c update coefficients
+     * @param rank number of update columns
+     * @return updated displacements or null if the update can't be applied
+     */
+    private static double [][] getDowndatedDisplacements(double [][] displacement,
+            double [][] u, double [][] z, double [] c, int rank) {
+        final double [][] s = new double [rank][rank];
+        for (int i = 0; i < rank; i++) {
+            for (int j = 0; j < rank; j++) {
+                s[i][j] = dot(u[i], z[j]);
+            }
+            s[i][i] += 1.0 / c[i];
+        }
+        final int nLoadInstances = displacement.length;
+        final double [][] w = new double [nLoadInstances][rank];
+        for (int ilc = 0; ilc < nLoadInstances; ilc++) {
+            for (int i = 0; i < rank; i++) {
+                w[ilc][i] = dot(u[i], displacement[ilc]);
+            }
+        }
+        if (!solveDense(s, w)) {
+            return null;
+        }
+        final double [][] updated = new double [nLoadInstances][];
+        for (int ilc = 0; ilc < nLoadInstances; ilc++) {
+            final double [] d = displacement[ilc].clone();
+            for (int i = 0; i < rank; i++) {
+                final double wi = w[ilc][i];
+                for (int ie = 0; ie < d.length; ie++) {
+                    d[ie] -= wi * z[i][ie];
+                }
+            }
+            updated[ilc] = d;
+        }
+        return updated;
+    }
+
+    /**
+     * Solve the stiffness equations of the current bridge with given member stiffnesses, using a low-rank
+     * update of the kept factorization if possible.
+     *
+     * @param aeOverL axial stiffness of each member
+     * @param loads load vectors indexed by load case and equation
+     * @return displacement vectors indexed by load case and equation or null if the bridge is a mechanism
+     */
+    private double [][] solveDamaged(double [] aeOverL, double [][] loads) {
+        if (isFactorizationOf(bridge)) {
+            final int rank = getUpdateRank(aeOverL);
+            if (rank <= maxLowRankUpdate) {
+                final double [][] solutions = solve(loads);
+                if (rank == 0 || applyLowRankUpdate(solutions, aeOverL, rank)) {
+                    return solutions;
+                }
+            }
+        }
+        return factor(aeOverL) ? solve(loads) : null;
+    }
+
+    /**
+     * Return member forces of the analyzed bridge due to given joint loads.  The kept factorization is
+     * reused with a low-rank update for any stiffness changes since it was made, so many loads cost little
+     * more than their back-substitutions.  The analysis must have found the bridge stable.
+     *
+     * @param loads load vectors indexed by load instance and equation
+     * @return member forces indexed by load instance and member or null if the bridge is a mechanism
+     */
+    double [][] getMemberForces(double [][] loads) {
+        final double [][] displacement = solveDamaged(memberStiffness, loads);
+        return (displacement == null) ? null : getCollapseForces(memberStiffness, displacement);
+    }
+
+    /**
+     * Return the force/strength ratio of a member, negative for compression.
+     *
+     * @param force member force
+     * @param compressiveStrength compressive strength of the member
+     * @param tensileStrength tensile strength of the member
+     * @return force/strength ratio
+     */
+    private static double getCollapseForceRatio(double force, double compressiveStrength, double tensileStrength) {
+        return (force > 0) ? force / tensileStrength : force / compressiveStrength;
+    }
+
+    /**
+     * Return the fraction of the live load that, added to the full dead load, brings a member to its
+     * strength.  This is zero if the dead load alone is too much and infinite if no amount of live load is.
+     *
+     * @param dead dead load force in the member
+     * @param live live load force in the member
+     * @param compressiveStrength compressive strength of the member
+     * @param tensileStrength tensile strength of the member
+     * @return live load fraction
+     */
+    private static double getCollapseLoadLevel(double dead, double live,
+            double compressiveStrength, double tensileStrength) {
+        if (dead > tensileStrength || dead < -compressiveStrength) {
+            return 0;
+        }
+        if (live > 0) {
+            return (tensileStrength - dead) / live;
+        }
+        if (live < 0) {
+            return (-compressiveStrength - dead) / live;
+        }
+        return Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Analyze the given bridge with an optionally moved joint, using a low-rank update of the kept
+     * factorization if possible.
+     *
+     * @param bridge bridge to analyze
+     * @param movedJoint joint to treat as moved or null if none
+     * @param ptMoved location of the moved joint
+     * @return true iff the previous factorization was reused
+     */
+    private boolean update(BridgeModel bridge, Joint movedJoint, Affine.Point ptMoved) {
+        this.bridge = bridge;
+        status = NO_STATUS;
+        setGeometry(movedJoint, ptMoved);
+        // A joint moved onto a neighbor leaves a member with no direction.
+        for (int im = 0; im < length.length; im++) {
+            if (length[im] == 0) {
+                status = UNSTABLE;
+                return false;
+            }
+        }
+        final boolean copyRatios = (movedJoint == null);
+        final double [] aeOverL = getMemberStiffness(null);
+        final double [][] influenceLoads = getInfluenceLoads();
+        if (isFactorizationOf(bridge)) {
+            final int rank = getUpdateRank(aeOverL);
+            if (rank <= maxLowRankUpdate) {
+                final double [][] solutions = solve(influenceLoads);
+                if (cancelled) {
+                    return false;
+                }
+                if (rank == 0 || applyLowRankUpdate(solutions, aeOverL, rank)) {
+                    if (cancelled) {
+                        return false;
+                    }
+                    setResults(getLoadCaseDisplacements(solutions, aeOverL), aeOverL, null, copyRatios);
+                    return true;
+                }
+            }
+        }
+        if (cancelled) {
+            return false;
+        }
+        if (!factor(aeOverL)) {
+            status = UNSTABLE;
+            return false;
+        }
+        if (cancelled) {
+            return false;
+        }
+        final double [][] solutions = solve(influenceLoads);
+        if (cancelled) {
+            return false;
+        }
+        setResults(getLoadCaseDisplacements(solutions, aeOverL), aeOverL, null, copyRatios);
+        return false;
+    }
+
+    /**
+     * Make this analysis hold the results of another one, which must be of a bridge with the same structure
+     * as the given one, e.g. a snapshot of it.  Result arrays are shared, not copied, since analyses never
+     * change them after they're made.  The force/strength ratios are copied to the members of the given bridge.
+     * Any kept factorization of this analysis is unaffected.
+     *
+     * @param source analysis with results to assign
+     * @param bridge bridge the results are for
+     */
+    public void assign(Analysis source, BridgeModel bridge) {
+        this.bridge = bridge;
+        status = source.status;
+        members = bridge.getMembers().toArray(new Member[bridge.getMembers().size()]);
+        length = source.length;
+        cosX = source.cosX;
+        cosY = source.cosY;
+        memberStiffness = source.memberStiffness;
+        memberForce = source.memberForce;
+        jointDisplacement = source.jointDisplacement;
+        influenceLines = source.influenceLines;
+        frontAxleLoad = source.frontAxleLoad;
+        rearAxleLoad = source.rearAxleLoad;
+        memberFails = source.memberFails;
+        memberCompressiveStrength = source.memberCompressiveStrength;
+        memberTensileStrength = source.memberTensileStrength;
+        maxMemberCompressiveForces = source.maxMemberCompressiveForces;
+        maxMemberTensileForces = source.maxMemberTensileForces;
+        bucklingModes = source.bucklingModes;
+        bucklingModeCount = source.bucklingModeCount;
+        vibrationModes = source.vibrationModes;
+        movingLoadResponse = source.movingLoadResponse;
+        vibrationModeCount = source.vibrationModeCount;
+        if (status != NO_STATUS && status != UNSTABLE) {
+            for (int im = 0; im < members.length; im++) {
+                members[im].setCompressionForceStrengthRatio(maxMemberCompressiveForces[im] / memberCompressiveStrength[im]);
+                members[im].setTensionForceStrengthRatio(maxMemberTensileForces[im] / memberTensileStrength[im]);
+            }
+        }
+    }
+
+    /**
+     * Set whether bridges large enough to benefit are split into contiguous spans of joints, each condensed
+     * to its interface on its own processor, with only the interface system solved as a whole.  This does
+     * more arithmetic than a single factorization, so it pays only on machines with several processors.
+     * The split doesn't depend on the number of processors, so neither do the results.
+     *
+     * @param domainDecomposition whether to use domain decomposition
+     */
+    public void setDomainDecomposition(boolean domainDecomposition) {
+        this.domainDecomposition = domainDecomposition;
+    }
+
+    /**
+     * Return true iff large bridges are split into domains.
+     *
+     * @return true iff domain decomposition is on
+     */
+    public boolean isDomainDecomposition() {
+        return domainDecomposition;
+    }
+
+    /**
+     * Set whether analyses account for the change of geometry under load.  The linear analysis is done
+     * first as usual, then each load case is brought to equilibrium in its deflected shape by modified
+     * Newton-Raphson iteration: residuals are solved with the matrix already factored, and the tangent
+     * matrix is factored only when convergence stalls.  This applies to the load test and to previews,
+     * not to the weakened bridges of the failure animation.  Influence lines stay linear, so results
+     * between load cases, e.g. in the animation, are still superimposed.
+     *
+     * @param nonlinear whether to do large displacement analysis
+     */
+    public void setNonlinear(boolean nonlinear) {
+        this.nonlinear = nonlinear;
+    }
+
+    /**
+     * Return true iff analyses account for the change of geometry under load.
+     *
+     * @return true iff large displacement analysis is on
+     */
+    public boolean isNonlinear() {
+        return nonlinear;
+    }
+
+    /**
+     * Return the number of iterations the last large displacement analysis needed for its slowest load case,
+     * or zero if it wasn't done.
+     *
+     * @return iteration count
+     */
+    public int getNonlinearIterations() {
+        return nonlinearIterations;
+    }
+
+    /**
+     * Return the number of tangent matrices the last large displacement analysis factored.
+     *
+     * @return factorization count
+     */
+    public int getNonlinearFactorizations() {
+        return nonlinearFactorizations;
+    }
+
+    /**
+     * Set or clear the flag that abandons an update in progress.  Updates check it after each costly step:
+     * factoring, solving, and setting results.  An abandoned update leaves no status, but any factorization
+     * it finished is kept for the next one.  This may be called from any thread.
+     *
+     * @param cancelled whether to abandon updates
+     */
+    public void setCancelled(boolean cancelled) {
+        this.cancelled = cancelled;
+    }
+
+    /**
+     * Return true iff updates are being abandoned.
+     *
+     * @return true iff cancelled
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Return the influence lines found by the analysis.  The caller must ensure the analysis completed.
+     *
+     * @return influence lines
+     */
+    public InfluenceLines getInfluenceLines() {
+        return influenceLines;
+    }
+
+    /**
+     * Return the indices of joints found to be under-braced, i.e. free to move because of missing members
+     * or restraints regardless of joint locations.  Empty unless the analysis is unstable for that reason.
+     * Instability due only to special geometry, such as collinear members, is not reported here.
+     *
+     * @return indices of under-braced joints in increasing order
+     */
+    public int [] getUnderbracedJoints() {
+        if (status != UNSTABLE || pattern == null || !pattern.matches(bridge)) {
+            return new int [0];
+        }
+        return pattern.getUnderbracedJoints().clone();
+    }
+
+    /**
+     * Return the lowest critical load factors and mode shapes of a linearized buckling analysis of the load
+     * case whose compressive forces are nearest the strengths of their members.  Each member adds a geometric
+     * stiffness N/L across its axis, which softens the bridge where the member is in compression and stiffens
+     * it where in tension, and we find the smallest positive factors lambda with (K + lambda K_G) x = 0 by
+     * Lanczos iteration on the sparse stiffness, reusing the kept factorization.
+     * That's one solve per Lanczos step, a few dozen in all, so this is cheap next to the load test itself.
+     * Results are kept until the next analysis.  The caller must ensure the analysis completed.
+     *
+     * @param nModes number of modes wanted
+     * @return buckling modes or null if the stiffness can't be factored
+     */
+    public BucklingModes getBucklingModes(int nModes) {
+        if (bucklingModes != null && bucklingModeCount == nModes) {
+            return bucklingModes;
+        }
+        final int nMembers = members.length;
+        // Find the governing load case.
+        int loadCase = 0;
+        double maxRatio = 0;
+        for (int ilc = 0; ilc < memberForce.length; ilc++) {
+            for (int im = 0; im < nMembers; im++) {
+                final double ratio = -memberForce[ilc][im] / memberCompressiveStrength[im];
+                if (ratio > maxRatio) {
+                    maxRatio = ratio;
+                    loadCase = ilc;
+                }
+            }
+        }
+        final LanczosSolver.Operator inverse = getStiffnessInverse();
+        if (inverse == null) {
+            return null;
+        }
+        final double [] force = memberForce[loadCase];
+        // The negative of the geometric stiffness, so buckling modes give positive eigenvalues 1 / lambda.
+        // Tension members make it indefinite; their modes give negative eigenvalues, which the solver skips.
+        final LanczosSolver.Operator geometricStiffness = new LanczosSolver.Operator() {
+            public void apply(double [] x, double [] y) {
+                Arrays.fill(y, 0);
+                for (int im = 0; im < nMembers; im++) {
+                    final int ia = 2 * members[im].getJointA().getIndex();
+                    final int ib = 2 * members[im].getJointB().getIndex();
+                    // Transverse direction and the relative displacement along it.
+                    final double tx = -cosY[im];
+                    final double ty = cosX[im];
+                    final double g = -force[im] / length[im] * (tx * (x[ib] - x[ia]) + ty * (x[ib + 1] - x[ia + 1]));
+                    y[ia] -= g * tx;
+                    y[ia + 1] -= g * ty;
+                    y[ib] += g * tx;
+                    y[ib + 1] += g * ty;
+                }
+            }
+        };
+        final LanczosSolver solver = new LanczosSolver(restrained);
+        final boolean converged = solver.solve(inverse, geometricStiffness, nModes);
+        final int nFound = solver.getEigenvalueCount();
+        final double [] loadFactor = new double [nFound];
+        final double [][] shape = new double [nFound][];
+        for (int i = 0; i < nFound; i++) {
+            loadFactor[i] = 1 / solver.getEigenvalue(i);
+            shape[i] = getUnitPeakShape(solver.getEigenvector(i));
+        }
+        bucklingModes = new BucklingModes(loadCase, loadFactor, shape, converged);
+        bucklingModeCount = nModes;
+        return bucklingModes;
+    }
+
+    /**
+     * Return the lowest natural frequencies and mode shapes of free vibration of the bridge.  Mass is lumped
+     * at the joints: half of each member's mass at either end, plus the mass of the deck at the deck joints,
+     * taken from its dead load without the load factor.  The frequencies are those of K x = omega^2 M x,
+     * found by Lanczos iteration for the largest eigenvalues 1 / omega^2 of M x = mu K x, reusing the kept
+     * factorization.  Results are kept until the next analysis.  The caller must ensure the analysis
+     * completed.
+     *
+     * @param nModes number of modes wanted
+     * @return vibration modes or null if the stiffness can't be factored
+     */
+    public VibrationModes getVibrationModes(int nModes) {
+        if (vibrationModes != null && vibrationModeCount == nModes) {
+            return vibrationModes;
+        }
+        final LanczosSolver.Operator inverse = getStiffnessInverse();
+        if (inverse == null) {
+            return null;
+        }
+        final double [] mass = getLumpedMass();
+        final LanczosSolver.Operator massMatrix = new LanczosSolver.Operator() {
+            public void apply(double [] x, double [] y) {
+                for (int ie = 0; ie < x.length; ie++) {
+                    y[ie] = mass[ie] * x[ie];
+                }
+            }
+        };
+        final LanczosSolver solver = new LanczosSolver(restrained);
+        final boolean converged = solver.solve(inverse, massMatrix, nModes);
+        final int nFound = solver.getEigenvalueCount();
+        final double [] frequency = new double [nFound];
+        final double [][] shape = new double [nFound][];
+        for (int i = 0; i < nFound; i++) {
+            frequency[i] = 1 / (2 * Math.PI * Math.sqrt(solver.getEigenvalue(i)));
+            shape[i] = getUnitPeakShape(solver.getEigenvector(i));
+        }
+        vibrationModes = new VibrationModes(frequency, shape, converged);
+        vibrationModeCount = nModes;
+        return vibrationModes;
+    }
+
+    /**
+     * Return the dynamic response of the bridge to the truck crossing at a given speed.  The truck is a pair
+     * of moving axle forces without the impact allowance of the load test.  The bridge is reduced to its
+     * lowest vibration modes, each a damped oscillator integrated over the crossing by Newmark's average
+     * acceleration method.  Only the difference between each mode's response and its static deflection is
+     * kept, so the static response from the influence lines, which is exact, is never truncated to the modes
+     * (the mode acceleration method).  Results are kept until the next analysis.  The caller must ensure the
+     * analysis completed.
+     *
+     * @param speed speed of the truck in kilometers per hour, which must be positive
+     * @param nModes number of vibration modes to keep
+     * @return moving load response or null if the stiffness can't be factored
+     */
+    public MovingLoadResponse getMovingLoadResponse(double speed, int nModes) {
+        if (movingLoadResponse != null && movingLoadResponse.getSpeed() == speed && vibrationModeCount == nModes) {
+            return movingLoadResponse;
+        }
+        final VibrationModes modes = getVibrationModes(nModes);
+        if (modes == null) {
+            return null;
+        }
+        final int nModesFound = modes.getModeCount();
+        final double [] mass = getLumpedMass();
+        final double [][] shape = new double [nModesFound][];
+        final double [] omega = new double [nModesFound];
+        final double [] modalMass = new double [nModesFound];
+        double minPeriod = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < nModesFound; i++) {
+            shape[i] = modes.getShape(i);
+            omega[i] = 2 * Math.PI * modes.getFrequency(i);
+            for (int ie = 0; ie < mass.length; ie++) {
+                modalMass[i] += mass[ie] * sqr(shape[i][ie]);
+            }
+            minPeriod = Math.min(minPeriod, modes.getPeriod(i));
+        }
+        final double [][] modeForce = getCollapseForces(memberStiffness, shape);
+
+        // The front axle moves from the first deck joint until the rear axle leaves the last.
+        final int nLoadedJoints = bridge.getDesignConditions().getNLoadedJoints();
+        final double duration = nLoadedJoints * DesignConditions.panelSizeWorld / (speed / 3.6);
+        final int nSteps = (int)Math.min(maxMovingLoadSteps,
+                Math.max(stepsPerPeriod * nLoadedJoints, Math.ceil(stepsPerPeriod * duration / minPeriod)));
+        final double dt = duration / nSteps;
+        final double dx = (double)nLoadedJoints / nSteps;
+        final double front = frontAxleLoad / impactFactor;
+        final double rear = rearAxleLoad / impactFactor;
+
+        // Integrate each mode per unit modal mass.  With average acceleration, the step is
+        // (omega^2 + 2 c / dt + 4 / dt^2) q' = f' + (4 / dt^2 + 2 c / dt) q + (4 / dt + c) v + a.
+        final double [] q = new double [nModesFound];
+        final double [] v = new double [nModesFound];
+        final double [] a = new double [nModesFound];
+        final double [][] correction = new double [nSteps + 1][nModesFound];
+        for (int i = 0; i < nModesFound; i++) {
+            a[i] = getModalLoad(shape[i], front, rear, 0, nLoadedJoints) / modalMass[i];
+        }
+        for (int step = 1; step <= nSteps; step++) {
+            final double x = step * dx;
+            for (int i = 0; i < nModesFound; i++) {
+                final double f = getModalLoad(shape[i], front, rear, x, nLoadedJoints) / modalMass[i];
+                final double k = sqr(omega[i]);
+                final double c = 2 * modalDampingRatio * omega[i];
+                final double qNew = (f + (4 / (dt * dt) + 2 * c / dt) * q[i] + (4 / dt + c) * v[i] + a[i]) /
+                        (k + 2 * c / dt + 4 / (dt * dt));
+                final double vNew = 2 * (qNew - q[i]) / dt - v[i];
+                a[i] = 4 * (qNew - q[i]) / (dt * dt) - 4 * v[i] / dt - a[i];
+                q[i] = qNew;
+                v[i] = vNew;
+                correction[step][i] = qNew - f / k;
+            }
+        }
+
+        // Compare peak live load forces with and without the dynamic correction.
+        final int nMembers = members.length;
+        final double [] maxStatic = new double [nMembers];
+        final double [] maxDynamic = new double [nMembers];
+        final double [] live = new double [nMembers];
+        final double [] dynamic = new double [nMembers];
+        for (int step = 0; step <= nSteps; step++) {
+            final double x = step * dx;
+            Arrays.fill(live, 0);
+            influenceLines.addMemberForces(x, front, live);
+            influenceLines.addMemberForces(x - 1, rear, live);
+            System.arraycopy(live, 0, dynamic, 0, nMembers);
+            for (int i = 0; i < nModesFound; i++) {
+                final double c = correction[step][i];
+                final double [] force = modeForce[i];
+                for (int im = 0; im < nMembers; im++) {
+                    dynamic[im] += c * force[im];
+                }
+            }
+            for (int im = 0; im < nMembers; im++) {
+                maxStatic[im] = Math.max(maxStatic[im], Math.abs(live[im]));
+                maxDynamic[im] = Math.max(maxDynamic[im], Math.abs(dynamic[im]));
+            }
+        }
+        double maxLive = 0;
+        for (int im = 0; im < nMembers; im++) {
+            maxLive = Math.max(maxLive, maxStatic[im]);
+        }
+        final double [] amplification = new double [nMembers];
+        for (int im = 0; im < nMembers; im++) {
+            // Members the truck hardly loads, like zero-force members, would give meaningless ratios.
+            amplification[im] = maxStatic[im] > 1e-6 * maxLive ? maxDynamic[im] / maxStatic[im] : 1;
+        }
+        movingLoadResponse = new MovingLoadResponse(speed, dt, dx, shape, modeForce, correction, amplification);
+        return movingLoadResponse;
+    }
+
+    /**
+     * Return the generalized load of a mode shape due to the truck axles: the work the axle forces do
+     * moving through the shape's deck deflection.
+     *
+     * @param shape mode shape indexed by equation
+     * @param front front axle load
+     * @param rear rear axle load
+     * @param xLoadParameter location of the front axle in panel lengths
+     * @param nLoadedJoints number of deck joints
+     * @return generalized load
+     */
+    private static double getModalLoad(double [] shape, double front, double rear, double xLoadParameter, int nLoadedJoints) {
+        double load = 0;
+        for (int ij = 0; ij < nLoadedJoints; ij++) {
+            final double share = front * getDeckShare(ij, xLoadParameter, nLoadedJoints) +
+                    rear * getDeckShare(ij, xLoadParameter - 1, nLoadedJoints);
+            // Axle loads act downward.
+            load -= share * shape[2 * ij + 1];
+        }
+        return load;
+    }
+
+    /**
+     * Return the lumped mass of the bridge in tonnes indexed by equation: half of each member's mass at
+     * either end and the deck's mass at the deck joints.  With stiffness in kN/m, this gives frequencies
+     * in radians per second.
+     *
+     * @return lumped mass
+     */
+    private double [] getLumpedMass() {
+        final int nEquations = 2 * bridge.getJoints().size();
+        final double [] mass = new double [nEquations];
+        for (int im = 0; im < members.length; im++) {
+            final double halfMass = 0.5 * members[im].getShape().getArea() * length[im] *
+                    members[im].getMaterial().getDensity() / 1000.0;
+            final int ia = 2 * members[im].getJointA().getIndex();
+            final int ib = 2 * members[im].getJointB().getIndex();
+            mass[ia] += halfMass;
+            mass[ia + 1] += halfMass;
+            mass[ib] += halfMass;
+            mass[ib + 1] += halfMass;
+        }
+        final DesignConditions conditions = bridge.getDesignConditions();
+        final int nLoadedJoints = conditions.getNLoadedJoints();
+        final double deckMass = getPointDeadLoad(conditions) / deadLoadFactor / 9.8066;
+        for (int ij = 0; ij < nLoadedJoints; ij++) {
+            final double m = (ij == 0 || ij == nLoadedJoints - 1) ? 0.5 * deckMass : deckMass;
+            mass[2 * ij] += m;
+            mass[2 * ij + 1] += m;
+        }
+        return mass;
+    }
+
+    /**
+     * Return an operator that solves with the stiffness matrix of the last analysis, factoring it first if
+     * the kept factorization is of some other matrix.
+     *
+     * @return inverse stiffness operator or null if the stiffness can't be factored
+     */
+    private LanczosSolver.Operator getStiffnessInverse() {
+        if (!isFactorizationOf(bridge) || getUpdateRank(memberStiffness) != 0) {
+            if (!factor(memberStiffness)) {
+                return null;
+            }
+        }
+        return new LanczosSolver.Operator() {
+            public void apply(double [] x, double [] y) {
+                final double [][] b = { x.clone() };
+                System.arraycopy(solve(b)[0], 0, y, 0, y.length);
+            }
+        };
+    }
+
+    /**
+     * Return a mode shape scaled so its largest component is one, which also makes its sign repeatable.
+     *
+     * @param x mode shape
+     * @return scaled copy of the mode shape
+     */
+    private static double [] getUnitPeakShape(double [] x) {
+        double max = 0;
+        for (int ie = 0; ie < x.length; ie++) {
+            if (Math.abs(x[ie]) > Math.abs(max)) {
+                max = x[ie];
+            }
+        }
+        final double [] shape = x.clone();
+        for (int ie = 0; ie < shape.length; ie++) {
+            shape[ie] /= max;
+        }
+        return shape;
+    }
+
+    /**
+     * Return true iff the kept factorization was computed for the connectivity and design conditions
+     * of the given bridge, so only member stiffnesses and directions can differ.
+     *
+     * @param bridge bridge to check
+     * @return true iff the factorization can be updated for the bridge
+     */
+    public boolean isFactorizationOf(BridgeModel bridge) {
+        return (stiffness != null || mirrorSolver != null || superelementSolver != null) && pattern.matches(bridge);
+    }
+
+    /**
+     * Return the rank of the update that takes the factored stiffness matrix to the one with given
+     * member stiffnesses and current member directions: one for each member that changed only
+     * stiffness and two for each that changed direction.
+     *
+     * @param aeOverL axial stiffness of each member
+     * @return rank of the update
+     */
+    private int getUpdateRank(double [] aeOverL) {
+        int rank = 0;
+        for (int im = 0; im < aeOverL.length; im++) {
+            if (cosX[im] != factoredCosX[im] || cosY[im] != factoredCosY[im]) {
+                rank += 2;
+            }
+            else if (aeOverL[im] != factoredMemberStiffness[im]) {
+                rank++;
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * Load member geometry of the current bridge: lengths and direction cosines.
+     *
+     * @param movedJoint joint to treat as being at a different location or null if none
+     * @param ptMoved location of the moved joint
+     */
+    private void setGeometry(Joint movedJoint, Affine.Point ptMoved) {
+        final int nMembers = bridge.getMembers().size();
+        members = bridge.getMembers().toArray(new Member[nMembers]);
+        length = new double[nMembers];
+        cosX = new double[nMembers];
+        cosY = new double[nMembers];
+        for (int i = 0; i < nMembers; i++) {
+            Affine.Point a = (members[i].getJointA() == movedJoint) ? ptMoved : members[i].getJointA().getPointWorld();
+            Affine.Point b = (members[i].getJointB() == movedJoint) ? ptMoved : members[i].getJointB().getPointWorld();
+            double dx = b.x - a.x;
+            double dy = b.y - a.y;
+            length[i] = hypot(dx, dy);
+            cosX[i] = dx / length[i];
+            cosY[i] = dy / length[i];
+        }
+    }
+
+    /**
+     * Return the axial stiffness AE/L of each member, degraded for failed members.
+     *
+     * @param failureStatus status of failed members or null if none have failed
+     * @return member axial stiffnesses
+     */
+    private double [] getMemberStiffness(double [] failureStatus) {
+        final double [] aeOverL = new double[members.length];
+        for (int im = 0; im < members.length; im++) {
+            double e = members[im].getMaterial().getE();
+            if (failureStatus != null && failureStatus[im] != NOT_FAILED) {
+                e *= failedMemberDegradation;
+            }
+            aeOverL[im] = members[im].getShape().getArea() * e / length[im];
+        }
+        return aeOverL;
+    }
+
+    /**
+     * Return the loads whose solutions give the influence lines of the bridge: factored member self weight,
+     * then a unit downward load at each loaded joint.  Self weight is split equally between member joints.
+     *
+     * @return loads indexed by influence load and equation
+     */
+    private double [][] getInfluenceLoads() {
+        final DesignConditions conditions = bridge.getDesignConditions();
+        final int nEquations = 2 * bridge.getJoints().size();
+        final int nMembers = members.length;
+        final int nLoadedJoints = conditions.getNLoadedJoints();
+        final double loads[][] = new double[nLoadedJoints + 1][nEquations];
+        for (int im = 0; im < nMembers; im++) {
+            double deadLoad = getMemberDeadLoad(members[im].getMaterial(), members[im].getShape(), length[im]);
+            int dof1 = 2 * members[im].getJointA().getIndex() + 1;
+            int dof2 = 2 * members[im].getJointB().getIndex() + 1;
+            loads[0][dof1] -= deadLoad;
+            loads[0][dof2] -= deadLoad;
+        }
+        for (int ij = 0; ij < nLoadedJoints; ij++) {
+            loads[ij + 1][2 * ij + 1] = -1;
+        }
+        return loads;
+    }
+
+    /**
+     * Return the factored self weight of a member carried by each of its joints.
+     *
+     * @param material material of the member
+     * @param shape shape of the member
+     * @param length length of the member
+     * @return dead load at each joint
+     */
+    static double getMemberDeadLoad(Material material, Shape shape, double length) {
+        return deadLoadFactor * shape.getArea() * length * material.getDensity() * 9.8066 / 2.0 / 1000.0;
+    }
+
+    /**
+     * Return the factored deck dead load carried by each interior deck joint for given design conditions.
+     * The first and last deck joints carry half this.
+     *
+     * @param conditions design conditions
+     * @return point dead load
+     */
+    public static double getPointDeadLoad(DesignConditions conditions) {
+        return (conditions.getDeckType() == DesignConditions.MEDIUM_STRENGTH_DECK) ?
+            deadLoadFactor * 120.265 + 33.097 :
+            deadLoadFactor * 82.608 + 33.097;
+    }
+
+    /**
+     * Return the factored front axle load of the truck for given design conditions.
+     *
+     * @param conditions design conditions
+     * @return front axle load
+     */
+    public static double getFrontAxleLoad(DesignConditions conditions) {
+        // Standard (light) truck or heavy truck.
+        return liveLoadFactor * (conditions.getLoadType() == DesignConditions.STANDARD_TRUCK ? 44 : 124);
+    }
+
+    /**
+     * Return the factored rear axle load of the truck for given design conditions.
+     *
+     * @param conditions design conditions
+     * @return rear axle load
+     */
+    public static double getRearAxleLoad(DesignConditions conditions) {
+        return liveLoadFactor * (conditions.getLoadType() == DesignConditions.STANDARD_TRUCK ? 181 : 124);
+    }
+
+    /**
+     * Find influence lines from solutions for the influence loads, then superimpose them to get displacements
+     * for the standard load cases, one for each loaded joint.  The first is dead load only.  In each of the others,
+     * the truck's front axle is at the deck joint with the same index and its rear axle is one panel behind.
+     *
+     * @param solutions displacements due to the loads of <code>getInfluenceLoads</code>
+     * @param aeOverL axial stiffness of each member
+     * @return displacements indexed by load case and equation
+     */
+    private double [][] getLoadCaseDisplacements(double [][] solutions, double [] aeOverL) {
+        influenceLines = new InfluenceLines(solutions, members, aeOverL, cosX, cosY);
+        return getLoadCaseDisplacements(bridge.getDesignConditions());
+    }
+
     /**
-     * Return the max allowable tensile force that may act on a given member before it fails.
-     * 
-     * @param i member index
-     * @return tensile strength
+     * Set the axle loads for given design conditions and return displacements for the standard load cases
+     * superimposed from the influence lines.
+     *
+     * @param conditions design conditions giving the load and deck types
+     * @return displacements indexed by load case and equation
      */
-    public double getMemberTensileStrength(int i) {
-        return memberTensileStrength[i];
+    private double [][] getLoadCaseDisplacements(DesignConditions conditions) {
+        frontAxleLoad = getFrontAxleLoad(conditions);
+        rearAxleLoad = getRearAxleLoad(conditions);
+        return influenceLines.getLoadCaseDisplacements(getPointDeadLoad(conditions), frontAxleLoad, rearAxleLoad);
     }
-    
+
     /**
-     * Analyze the given bridge and store the results internally for future queries.
-     * This mimics the WPBD code exactly. There exists a more precise and efficient algorithm.
-     * 
+     * Analyze the given bridge as <code>update</code> does, then find results for every combination of load
+     * type and deck type with the same geometry.  These differ only in loads, so all share one factorization
+     * and one set of influence lines; each variant costs only a superposition and a member force computation.
+     * Force/strength ratios of the bridge's members are set for its own conditions only.
+     *
      * @param bridge bridge to analyze
+     * @return analyses indexed by load type plus two times deck type, or null if the bridge is unstable
      */
-    public void initialize(BridgeModel bridge) {
-        initialize(bridge, null);
+    public Analysis [] updateLoadCaseVariants(BridgeModel bridge) {
+        update(bridge);
+        if (status == NO_STATUS || status == UNSTABLE) {
+            return null;
+        }
+        final DesignConditions conditions = bridge.getDesignConditions();
+        final Analysis [] variants = new Analysis[N_LOAD_CASE_VARIANTS];
+        for (int deckType = DesignConditions.MEDIUM_STRENGTH_DECK; deckType <= DesignConditions.HI_STRENGTH_DECK; deckType++) {
+            for (int loadType = DesignConditions.STANDARD_TRUCK; loadType <= DesignConditions.HEAVY_TRUCK; loadType++) {
+                final Analysis variant = new Analysis();
+                variant.bridge = bridge;
+                variant.members = members;
+                variant.length = length;
+                variant.cosX = cosX;
+                variant.cosY = cosY;
+                variant.influenceLines = influenceLines;
+                variant.setResults(variant.getLoadCaseDisplacements(conditions.getLoadCaseVariant(loadType, deckType)),
+                        memberStiffness, null, false);
+                variants[loadType + 2 * deckType] = variant;
+            }
+        }
+        return variants;
     }
 
     /**
-     * Analyze the given bridge and store the results internally for future queries.
-     * Artificially decrease the strength of failed members to support the failure animation.
-     * This mimics the original WPBD code exactly. There exists a more precise and efficient algorithm.
-     * 
-     * @param bridge bridge to analyze
-     * @param failureStatus status of failed members: FAILED, NOT_FAILED, base member getLength, which implies FAILED.
+     * Assemble and factor the stiffness matrix of the current bridge with given member stiffnesses.
+     * The symbolic structure is shared with earlier analyses of the same connectivity, and the
+     * factorization is kept for later solves and updates.  A bridge that is a mechanism by connectivity
+     * alone is rejected before any numerical work.  If it's less work, a mirror-symmetric bridge is split
+     * into symmetric and antisymmetric half systems, or panels are condensed into superelements.  With
+     * domain decomposition on, a large bridge is always split into domains.
+     *
+     * @param aeOverL axial stiffness of each member
+     * @return true iff the bridge is stable
      */
-    public void initialize(BridgeModel bridge, double [] failureStatus) {
-        this.bridge = bridge;
-        DesignConditions conditions = bridge.getDesignConditions();
-        status = NO_STATUS;
-        int nJoints = bridge.getJoints().size();
-        int nEquations = 2 * nJoints;
-        int nMembers = bridge.getMembers().size();
-        Member[] members = bridge.getMembers().toArray(new Member[nMembers]);
-        double[] length = new double[members.length];
-        double[] cosX = new double[members.length];
-        double[] cosY = new double[members.length];
-        for (int i = 0; i < members.length; i++) {
-            Affine.Point a = members[i].getJointA().getPointWorld();
-            Affine.Point b = members[i].getJointB().getPointWorld();
-            double dx = b.x - a.x;
-            double dy = b.y - a.y;
-            length[i] = hypot(dx, dy);
-            cosX[i] = dx / length[i];
-            cosY[i] = dy / length[i];
+    private boolean factor(double [] aeOverL) {
+        final StiffnessPattern newPattern = StiffnessPattern.get(bridge);
+        final SkylineSolver oldStiffness = (newPattern == pattern) ? stiffness : null;
+        stiffness = null;
+        mirrorSolver = null;
+        superelementSolver = null;
+        pattern = newPattern;
+        restrained = pattern.getRestraints();
+        equation = pattern.getEquations();
+        // Don't bother factoring a mechanism.
+        if (pattern.getUnderbracedJoints().length > 0) {
+            return false;
         }
-        final int nLoadInstances = conditions.getNLoadedJoints();
-        final double pointLoads[][] = new double[nLoadInstances][nEquations];
-        for (int im = 0; im < nMembers; im++) {
-            double deadLoad =
-                    deadLoadFactor *
-                    members[im].getShape().getArea() *
-                    length[im] *
-                    members[im].getMaterial().getDensity() * 9.8066 / 2.0 / 1000.0;
-            int dof1 = 2 * members[im].getJointA().getIndex() + 1;
-            int dof2 = 2 * members[im].getJointB().getIndex() + 1;
-            for (int ilc = 0; ilc < nLoadInstances; ilc++) {
-                pointLoads[ilc][dof1] -= deadLoad;
-                pointLoads[ilc][dof2] -= deadLoad;
+        final SuperelementSolver domains = domainDecomposition ?
+            SuperelementSolver.getDomains(bridge, pattern, aeOverL, cosX, cosY) : null;
+        if (domains != null) {
+            if (!domains.factor(bridge, aeOverL, cosX, cosY, 0.99)) {
+                return false;
             }
+            superelementSolver = domains;
+            factoredMemberStiffness = aeOverL.clone();
+            factoredCosX = cosX.clone();
+            factoredCosY = cosY.clone();
+            return true;
         }
-        final double pointDeadLoad = (conditions.getDeckType() == DesignConditions.MEDIUM_STRENGTH_DECK) ? 
-            deadLoadFactor * 120.265 + 33.097 : 
-            deadLoadFactor * 82.608 + 33.097;
-        for (int ij = 0; ij < conditions.getNLoadedJoints(); ij++) {
-            int dof = 2 * ij + 1;
-            for (int ilc = 0; ilc < nLoadInstances; ilc++) {
-                double load = pointDeadLoad;
-                if (ij == 0 || ij == conditions.getNLoadedJoints() - 1) {
-                    load /= 2;
-                }
-                pointLoads[ilc][dof] -= load;
-            }
-        }
-        // Standard (light) truck.
-        double frontAxleLoad = 44;
-        double rearAxleLoad = 181;
-        if (conditions.getLoadType() != DesignConditions.STANDARD_TRUCK) {
-            // Heavy truck.
-            frontAxleLoad = 124;
-            rearAxleLoad = 124;
-        }
-        for (int ilc = 1; ilc < nLoadInstances; ilc++) {
-            int iFront = 2 * ilc + 1;
-            int iRear = iFront - 2;
-            pointLoads[ilc][iFront] -= liveLoadFactor * frontAxleLoad;
-            pointLoads[ilc][iRear] -= liveLoadFactor * rearAxleLoad;
-        }
-        boolean xRestraint[] = new boolean[nJoints];
-        boolean yRestraint[] = new boolean[nJoints];
-        xRestraint[0] = yRestraint[0] = yRestraint[conditions.getNLoadedJoints() - 1] = true;
-        if (conditions.isPier()) {
-            int i = conditions.getPierJointIndex();
-            xRestraint[i] = yRestraint[i] = true;
-            if (conditions.isHiPier()) {
-                xRestraint[0] = false;
-            }
-        }
-        if (conditions.isArch()) {
-            int i = conditions.getArchJointIndex();
-            xRestraint[0] = yRestraint[0] = yRestraint[conditions.getNLoadedJoints() - 1] = false;
-            xRestraint[i] = yRestraint[i] = true;
-            xRestraint[i + 1] = yRestraint[i + 1] = true;
-        }
-        if (conditions.isLeftAnchorage()) {
-            int i = conditions.getLeftAnchorageJointIndex();
-            xRestraint[i] = yRestraint[i] = true;
-        }
-        if (conditions.isRightAnchorage()) {
-            int i = conditions.getRightAnchorageJointIndex();
-            xRestraint[i] = yRestraint[i] = true;
-        }
-        double stiffness[][] = new double[nEquations][nEquations];
-        for (int im = 0; im < nMembers; im++) {
-            double e = members[im].getMaterial().getE();
-            if (failureStatus != null && failureStatus[im] != NOT_FAILED) {
-                e *= failedMemberDegradation;
+        final MirrorSolver mirror = MirrorSolver.get(bridge, pattern, aeOverL, cosX, cosY);
+        final SuperelementSolver superelements = SuperelementSolver.get(bridge, pattern, aeOverL, cosX, cosY);
+        final long fullWork = pattern.getFactorWork();
+        final long mirrorWork = (mirror == null) ? Long.MAX_VALUE : mirror.getFactorWork();
+        final long superelementWork = (superelements == null) ? Long.MAX_VALUE : superelements.getFactorWork();
+        if (mirrorWork < fullWork && mirrorWork <= superelementWork) {
+            if (!mirror.factor(bridge, aeOverL, cosX, cosY, 0.99)) {
+                return false;
+            }
+            mirrorSolver = mirror;
+        }
+        else if (superelementWork < fullWork) {
+            if (!superelements.factor(bridge, aeOverL, cosX, cosY, 0.99)) {
+                return false;
+            }
+            superelementSolver = superelements;
+        }
+        else {
+            // Reuse the old matrix storage if the profile is the same.
+            final SkylineSolver k = (oldStiffness != null) ? oldStiffness : pattern.newMatrix();
+            pattern.assemble(k, aeOverL, cosX, cosY);
+            if (!k.factor(0.99)) {
+                return false;
             }
-            double aEOverL = members[im].getShape().getArea() * e / length[im];
-            double xx = aEOverL * sqr(cosX[im]);
-            double yy = aEOverL * sqr(cosY[im]);
-            double xy = aEOverL * cosX[im] * cosY[im];
-            int j1 = members[im].getJointA().getIndex();
-            int j2 = members[im].getJointB().getIndex();
-            int j1x = 2 * j1;
-            int j1y = 2 * j1 + 1;
-            int j2x = 2 * j2;
-            int j2y = 2 * j2 + 1;
-            stiffness[j1x][j1x] += xx;
-            stiffness[j1x][j1y] += xy;
-            stiffness[j1x][j2x] -= xx;
-            stiffness[j1x][j2y] -= xy;
-            stiffness[j1y][j1x] += xy;
-            stiffness[j1y][j1y] += yy;
-            stiffness[j1y][j2x] -= xy;
-            stiffness[j1y][j2y] -= yy;
-            stiffness[j2x][j1x] -= xx;
-            stiffness[j2x][j1y] -= xy;
-            stiffness[j2x][j2x] += xx;
-            stiffness[j2x][j2y] += xy;
-            stiffness[j2y][j1x] -= xy;
-            stiffness[j2y][j1y] -= yy;
-            stiffness[j2y][j2x] += xy;
-            stiffness[j2y][j2y] += yy;
+            stiffness = k;
+        }
+        factoredMemberStiffness = aeOverL.clone();
+        factoredCosX = cosX.clone();
+        factoredCosY = cosY.clone();
+        return true;
+    }
+
+    /**
+     * Solve the factored stiffness equations for a set of load vectors.  Loads on restrained
+     * equations are ignored.
+     *
+     * @param loads load vectors indexed by load case and equation
+     * @return displacement vectors indexed by load case and equation
+     */
+    private double [][] solve(double [][] loads) {
+        if (mirrorSolver != null) {
+            return mirrorSolver.solve(loads);
         }
+        if (superelementSolver != null) {
+            return superelementSolver.solve(loads);
+        }
+        final int nLoadInstances = loads.length;
+        final int nEquations = equation.length;
+        // Solve all load cases together against the one factorization.
+        double rhs[][] = new double[nLoadInstances][nEquations];
         for (int ilc = 0; ilc < nLoadInstances; ilc++) {
-            for (int ij = 0; ij < nJoints; ij++) {
-                if (xRestraint[ij]) {
-                    int ix = 2 * ij;
-                    for (int ie = 0; ie < nEquations; ie++) {
-                        stiffness[ix][ie] = stiffness[ie][ix] = 0;
-                    }
-                    stiffness[ix][ix] = 1;
-                    pointLoads[ilc][ix] = 0;
-                }
-                if (yRestraint[ij]) {
-                    int iy = 2 * ij + 1;
-                    for (int ie = 0; ie < nEquations; ie++) {
-                        stiffness[iy][ie] = stiffness[ie][iy] = 0;
-                    }
-                    stiffness[iy][iy] = 1;
-                    pointLoads[ilc][iy] = 0;
+            for (int ie = 0; ie < nEquations; ie++) {
+                if (!restrained[ie]) {
+                    rhs[ilc][equation[ie]] = loads[ilc][ie];
                 }
             }
         }
-        for (int ie = 0; ie < nEquations; ie++) {
-            double pivot = stiffness[ie][ie];
-            if (Math.abs(pivot) < 0.99) {
-                status = UNSTABLE;
-                return;
+        int nThreads = ComputePool.getParallelism();
+        if (nThreads > 1 && (long)stiffness.getProfileSize() * nLoadInstances >= parallelSolveThreshold) {
+            stiffness.solveParallel(rhs, (nLoadInstances + nThreads - 1) / nThreads);
+        }
+        else {
+            stiffness.solve(rhs);
+        }
+        double displacement[][] = new double[nLoadInstances][nEquations];
+        for (int ilc = 0; ilc < nLoadInstances; ilc++) {
+            for (int ie = 0; ie < nEquations; ie++) {
+                displacement[ilc][ie] = rhs[ilc][equation[ie]];
+            }
+        }
+        return displacement;
+    }
+
+    /**
+     * Correct displacements computed with the factored stiffness matrix for members whose stiffness or
+     * direction has since changed.  With U holding member direction vectors as columns and C the diagonal
+     * matrix of the corresponding stiffness changes, the updated stiffness is K + U C U^T, and by the Woodbury
+     * identity its solutions are x - Z S^-1 U^T x where Z = K^-1 U and S = C^-1 + U^T Z.  A member that
+     * changed only stiffness contributes one column with the stiffness difference.  One that changed direction
+     * contributes its new direction with the new stiffness and its old direction with the negated old one.
+     *
+     * @param displacement displacements for the factored stiffness on entry, updated on return
+     * @param aeOverL current axial stiffness of each member
+     * @param rank rank of the update as returned by <code>getUpdateRank</code>
+     * @return true iff the update succeeded; false means S was numerically singular
+     */
+    private boolean applyLowRankUpdate(double [][] displacement, double [] aeOverL, int rank) {
+        final int nEquations = equation.length;
+        final double [] c = new double[rank];
+        final double [][] u = new double[rank][nEquations];
+        final int [] dofs = new int[4];
+        final double [] v = new double[4];
+        for (int im = 0, i = 0; im < aeOverL.length; im++) {
+            if (cosX[im] != factoredCosX[im] || cosY[im] != factoredCosY[im]) {
+                getMemberDofs(members[im], dofs);
+                getMemberDirection(cosX[im], cosY[im], v);
+                setUpdateColumn(u[i], dofs, v);
+                c[i++] = aeOverL[im];
+                getMemberDirection(factoredCosX[im], factoredCosY[im], v);
+                setUpdateColumn(u[i], dofs, v);
+                c[i++] = -factoredMemberStiffness[im];
             }
-            double pivr = 1.0 / pivot;
-            for (int k = 0; k < nEquations; k++) {
-                stiffness[ie][k] /= pivot;
+            else if (aeOverL[im] != factoredMemberStiffness[im]) {
+                getMemberDofs(members[im], dofs);
+                getMemberDirection(cosX[im], cosY[im], v);
+                setUpdateColumn(u[i], dofs, v);
+                c[i++] = aeOverL[im] - factoredMemberStiffness[im];
             }
-            for (int k = 0; k < nEquations; k++) {
-                if (k != ie) {
-                    pivot = stiffness[k][ie];
-                    for (int j = 0; j < nEquations; j++) {
-                        stiffness[k][j] -= stiffness[ie][j] * pivot;
-                    }
-                    stiffness[k][ie] = -pivot * pivr;
+        }
+        final double [][] z = solve(u);
+        final double [][] s = new double[rank][rank];
+        for (int i = 0; i < rank; i++) {
+            for (int j = 0; j < rank; j++) {
+                s[i][j] = dot(u[i], z[j]);
+            }
+            s[i][i] += 1.0 / c[i];
+        }
+        final int nLoadInstances = displacement.length;
+        final double [][] w = new double[nLoadInstances][rank];
+        for (int ilc = 0; ilc < nLoadInstances; ilc++) {
+            for (int i = 0; i < rank; i++) {
+                w[ilc][i] = dot(u[i], displacement[ilc]);
+            }
+        }
+        if (!solveDense(s, w)) {
+            return false;
+        }
+        for (int ilc = 0; ilc < nLoadInstances; ilc++) {
+            for (int i = 0; i < rank; i++) {
+                final double wi = w[ilc][i];
+                for (int ie = 0; ie < nEquations; ie++) {
+                    displacement[ilc][ie] -= wi * z[i][ie];
                 }
             }
-            stiffness[ie][ie] = pivr;
         }
+        return true;
+    }
+
+    /**
+     * Scatter a member direction vector into a column of the update matrix, leaving out restrained equations.
+     *
+     * @param u column to fill
+     * @param dofs equation numbers of the member
+     * @param v member direction vector
+     */
+    private void setUpdateColumn(double [] u, int [] dofs, double [] v) {
+        for (int p = 0; p < 4; p++) {
+            if (!restrained[dofs[p]]) {
+                u[dofs[p]] = v[p];
+            }
+        }
+    }
+
+    /**
+     * Compute member forces and strengths, find the analysis status, and store results for queries.
+     *
+     * @param displacement joint displacements indexed by load case and equation
+     * @param aeOverL axial stiffness of each member
+     * @param failureStatus status of failed members or null if none have failed
+     * @param copyRatios whether to copy force/strength ratios back to the members of the bridge
+     */
+    private void setResults(double [][] displacement, double [] aeOverL, double [] failureStatus, boolean copyRatios) {
+        final int nLoadInstances = displacement.length;
+        final int nMembers = members.length;
+        memberStiffness = aeOverL;
+        jointDisplacement = displacement;
+        bucklingModes = null;
+        vibrationModes = null;
+        movingLoadResponse = null;
         memberForce = new double[nLoadInstances][nMembers];
         memberFails = new boolean[nLoadInstances][nMembers];
-        jointDisplacement = new double[nLoadInstances][nEquations];
         for (int ilc = 0; ilc < nLoadInstances; ilc++) {
-            for (int ie = 0; ie < nEquations; ie++) {
-                double tmp = 0;
-                for (int je = 0; je < nEquations; je++) {
-                    tmp += stiffness[ie][je] * pointLoads[ilc][je];
-                }
-                jointDisplacement[ilc][ie] = tmp;
-            }
             // Compute member forces.
             for (int im = 0; im < nMembers; im++) {
-                double e = members[im].getMaterial().getE();
-                if (failureStatus != null && failureStatus[im] != NOT_FAILED) {
-                    e *= failedMemberDegradation;
-                }
-                double aeOverL = members[im].getShape().getArea() * e / length[im];
                 int ija = members[im].getJointA().getIndex();
                 int ijb = members[im].getJointB().getIndex();
-                memberForce[ilc][im] = aeOverL *
+                memberForce[ilc][im] = aeOverL[im] *
                         ((cosX[im] * (getXJointDisplacement(ilc, ijb) - getXJointDisplacement(ilc, ija))) +
                         (cosY[im] * (getYJointDisplacement(ilc, ijb) - getYJointDisplacement(ilc, ija))));
             }
         }
+        // A bridge with no equilibrium in its deflected shape snaps through or buckles as a whole.
+        nonlinearIterations = nonlinearFactorizations = 0;
+        final boolean nonlinearFailure = nonlinear && failureStatus == null && !setNonlinearResults(aeOverL);
         
         memberCompressiveStrength = new double[nMembers];
         memberTensileStrength = new double[nMembers];
@@ -427,17 +1709,352 @@ public class Analysis {
                 status = FAILS_LOAD_TEST;
             }
             // Copy ratio information back to the bridge unless we're computing the intentionally distorted 
-            // failure bridge.
-            if (failureStatus == null) {
+            // failure bridge or a preview.
+            if (copyRatios) {
                 members[im].setCompressionForceStrengthRatio(cRatio);
                 members[im].setTensionForceStrengthRatio(tRatio);
             }
             maxMemberCompressiveForces[im] = maxCompression;
             maxMemberTensileForces[im] = maxTension;
         }
-        if (!bridge.isPassingSlendernessCheck()) {
-            status = FAILS_SLENDERNESS;
+        if (nonlinearFailure) {
+            status = FAILS_LOAD_TEST;
+        }
+        // Check slenderness with analyzed lengths, which differ from the bridge's for a preview.
+        final double allowableSlenderness = bridge.getDesignConditions().getAllowableSlenderness();
+        for (int im = 0; im < nMembers; im++) {
+            if (length[im] * members[im].getShape().getInverseRadiusOfGyration() > allowableSlenderness) {
+                status = FAILS_SLENDERNESS;
+                break;
+            }
+        }
+    }
+
+    /**
+     * Replace the linear displacements and member forces of each load case with those of equilibrium in the
+     * deflected shape.  Iteration starts from the linear results and solves for all load cases not yet
+     * converged at once.  Residuals are solved with the kept factorization while it contracts them quickly
+     * enough, then with a tangent matrix factored at the state of the load case that stalled.  A bridge
+     * without a kept factorization of its own starts with a tangent.  If some load case doesn't converge,
+     * the linear results are left as they were.
+     *
+     * @param aeOverL axial stiffness of each member
+     * @return true iff every load case converged
+     */
+    private boolean setNonlinearResults(double [] aeOverL) {
+        final int nLoadInstances = jointDisplacement.length;
+        final int nMembers = members.length;
+        final StiffnessPattern tangentPattern = StiffnessPattern.get(bridge);
+        final boolean [] fixed = tangentPattern.getRestraints();
+        final double [][] loads = getLoadCaseLoads();
+        final double [][] u = new double [nLoadInstances][];
+        final double [][] force = new double [nLoadInstances][nMembers];
+        final double [] loadNorm = new double [nLoadInstances];
+        final double [] lastResidualNorm = new double [nLoadInstances];
+        final boolean [] converged = new boolean [nLoadInstances];
+        for (int ilc = 0; ilc < nLoadInstances; ilc++) {
+            u[ilc] = jointDisplacement[ilc].clone();
+            loadNorm[ilc] = getNorm(loads[ilc], fixed);
+            lastResidualNorm[ilc] = Double.POSITIVE_INFINITY;
+        }
+        final boolean useKept = isFactorizationOf(bridge);
+        SkylineSolver tangent = null;
+        final double [][] residual = new double [nLoadInstances][];
+        final int [] active = new int [nLoadInstances];
+        for (int iteration = 0; ; iteration++) {
+            int nActive = 0;
+            int stalled = -1;
+            for (int ilc = 0; ilc < nLoadInstances; ilc++) {
+                if (converged[ilc]) {
+                    continue;
+                }
+                final double [] r = getNonlinearResidual(u[ilc], loads[ilc], aeOverL, force[ilc], fixed);
+                final double norm = getNorm(r, fixed);
+                if (norm <= nonlinearTolerance * loadNorm[ilc]) {
+                    converged[ilc] = true;
+                    continue;
+                }
+                if (norm > nonlinearStallRatio * lastResidualNorm[ilc]) {
+                    stalled = ilc;
+                }
+                lastResidualNorm[ilc] = norm;
+                residual[nActive] = r;
+                active[nActive++] = ilc;
+            }
+            if (nActive == 0) {
+                break;
+            }
+            if (iteration == maxNonlinearIterations) {
+                return false;
+            }
+            nonlinearIterations = iteration + 1;
+            if (stalled >= 0 || (tangent == null && !useKept)) {
+                final int ilc = (stalled >= 0) ? stalled : active[0];
+                tangent = factorTangent(tangentPattern, tangent, u[ilc], aeOverL, force[ilc]);
+                if (tangent == null) {
+                    return false;
+                }
+                ++nonlinearFactorizations;
+            }
+            final double [][] r = Arrays.copyOf(residual, nActive);
+            final double [][] du = (tangent == null) ? solve(r) : solveTangent(tangentPattern, tangent, r);
+            for (int i = 0; i < nActive; i++) {
+                final double [] ui = u[active[i]];
+                for (int ie = 0; ie < ui.length; ie++) {
+                    ui[ie] += du[i][ie];
+                }
+            }
+        }
+        jointDisplacement = u;
+        memberForce = force;
+        return true;
+    }
+
+    /**
+     * Return the total loads of the standard load cases: dead load alone, then dead load with the truck's
+     * front axle at each deck joint after the first and its rear axle one panel behind.
+     *
+     * @return loads indexed by load case and equation
+     */
+    private double [][] getLoadCaseLoads() {
+        final double [][] influenceLoads = getInfluenceLoads();
+        final int nLoadedJoints = influenceLoads.length - 1;
+        final int nEquations = influenceLoads[0].length;
+        final double pointDeadLoad = getPointDeadLoad(bridge.getDesignConditions());
+        final double [][] loads = new double [nLoadedJoints][];
+        final double [] dead = influenceLoads[0].clone();
+        for (int ij = 0; ij < nLoadedJoints; ij++) {
+            final double load = (ij == 0 || ij == nLoadedJoints - 1) ? 0.5 * pointDeadLoad : pointDeadLoad;
+            final double [] unit = influenceLoads[ij + 1];
+            for (int ie = 0; ie < nEquations; ie++) {
+                dead[ie] += load * unit[ie];
+            }
+        }
+        loads[0] = dead;
+        for (int ilc = 1; ilc < nLoadedJoints; ilc++) {
+            final double [] front = influenceLoads[ilc + 1];
+            final double [] rear = influenceLoads[ilc];
+            loads[ilc] = new double [nEquations];
+            for (int ie = 0; ie < nEquations; ie++) {
+                loads[ilc][ie] = dead[ie] + frontAxleLoad * front[ie] + rearAxleLoad * rear[ie];
+            }
+        }
+        return loads;
+    }
+
+    /**
+     * Return the loads less the forces the members exert on the joints in their displaced positions, and
+     * fill in the member forces.  Each member's force is its axial stiffness times its stretch, and it acts
+     * along the member's displaced direction.
+     *
+     * @param u joint displacements indexed by equation
+     * @param load loads indexed by equation
+     * @param aeOverL axial stiffness of each member
+     * @param force array to receive member forces
+     * @param fixed restraint flags indexed by equation
+     * @return residual forces, zero at restrained equations
+     */
+    private double [] getNonlinearResidual(double [] u, double [] load, double [] aeOverL, double [] force, boolean [] fixed) {
+        final double [] r = load.clone();
+        for (int im = 0; im < members.length; im++) {
+            final int ia = 2 * members[im].getJointA().getIndex();
+            final int ib = 2 * members[im].getJointB().getIndex();
+            final double dx0 = length[im] * cosX[im];
+            final double dy0 = length[im] * cosY[im];
+            final double ddx = u[ib] - u[ia];
+            final double ddy = u[ib + 1] - u[ia + 1];
+            final double dx = dx0 + ddx;
+            final double dy = dy0 + ddy;
+            final double len = Math.sqrt(dx * dx + dy * dy);
+            // Stretch without the cancellation of subtracting nearly equal lengths.
+            final double stretch = (2 * (dx0 * ddx + dy0 * ddy) + ddx * ddx + ddy * ddy) / (len + length[im]);
+            force[im] = aeOverL[im] * stretch;
+            final double fx = force[im] * dx / len;
+            final double fy = force[im] * dy / len;
+            r[ia] += fx;
+            r[ia + 1] += fy;
+            r[ib] -= fx;
+            r[ib + 1] -= fy;
+        }
+        for (int ie = 0; ie < r.length; ie++) {
+            if (fixed[ie]) {
+                r[ie] = 0;
+            }
+        }
+        return r;
+    }
+
+    /**
+     * Return the Euclidean norm of a vector over unrestrained equations.
+     *
+     * @param x vector indexed by equation
+     * @param fixed restraint flags indexed by equation
+     * @return norm
+     */
+    private static double getNorm(double [] x, boolean [] fixed) {
+        double sum = 0;
+        for (int ie = 0; ie < x.length; ie++) {
+            if (!fixed[ie]) {
+                sum += x[ie] * x[ie];
+            }
+        }
+        return Math.sqrt(sum);
+    }
+
+    /**
+     * Assemble and factor the tangent stiffness matrix at a displaced state: the axial stiffness of each
+     * member along its displaced direction plus the geometric stiffness of its force across it.
+     *
+     * @param tangentPattern stiffness pattern of the bridge
+     * @param k matrix to reuse or null to allocate one
+     * @param u joint displacements indexed by equation
+     * @param aeOverL axial stiffness of each member
+     * @param force member forces at the displaced state
+     * @return factored tangent matrix or null if it's singular
+     */
+    private SkylineSolver factorTangent(StiffnessPattern tangentPattern, SkylineSolver k,
+            double [] u, double [] aeOverL, double [] force) {
+        final int nMembers = members.length;
+        final double [] cx = new double [nMembers];
+        final double [] cy = new double [nMembers];
+        final double [] transverse = new double [nMembers];
+        for (int im = 0; im < nMembers; im++) {
+            final int ia = 2 * members[im].getJointA().getIndex();
+            final int ib = 2 * members[im].getJointB().getIndex();
+            final double dx = length[im] * cosX[im] + u[ib] - u[ia];
+            final double dy = length[im] * cosY[im] + u[ib + 1] - u[ia + 1];
+            final double len = Math.sqrt(dx * dx + dy * dy);
+            cx[im] = dx / len;
+            cy[im] = dy / len;
+            transverse[im] = force[im] / len;
+        }
+        if (k == null) {
+            k = tangentPattern.newMatrix();
+        }
+        tangentPattern.assemble(k, aeOverL, cx, cy, transverse);
+        return k.factor(0.99) ? k : null;
+    }
+
+    /**
+     * Solve a factored tangent matrix for a set of load vectors.  Loads on restrained equations are ignored.
+     *
+     * @param tangentPattern stiffness pattern the tangent was assembled with
+     * @param k factored tangent matrix
+     * @param loads load vectors indexed by load case and equation
+     * @return displacement vectors indexed by load case and equation
+     */
+    private static double [][] solveTangent(StiffnessPattern tangentPattern, SkylineSolver k, double [][] loads) {
+        final boolean [] fixed = tangentPattern.getRestraints();
+        final int [] eq = tangentPattern.getEquations();
+        final int nEquations = eq.length;
+        final double [][] rhs = new double [loads.length][nEquations];
+        for (int i = 0; i < loads.length; i++) {
+            for (int ie = 0; ie < nEquations; ie++) {
+                if (!fixed[ie]) {
+                    rhs[i][eq[ie]] = loads[i][ie];
+                }
+            }
+        }
+        k.solve(rhs);
+        final double [][] displacement = new double [loads.length][nEquations];
+        for (int i = 0; i < loads.length; i++) {
+            for (int ie = 0; ie < nEquations; ie++) {
+                displacement[i][ie] = fixed[ie] ? 0 : rhs[i][eq[ie]];
+            }
+        }
+        return displacement;
+    }
+
+    /**
+     * Fill in the x- and y-equation numbers of both joints of a member.
+     * 
+     * @param member member
+     * @param dofs array of four to receive equation numbers: a.x, a.y, b.x, b.y
+     */
+    private static void getMemberDofs(Member member, int [] dofs) {
+        int j1 = member.getJointA().getIndex();
+        int j2 = member.getJointB().getIndex();
+        dofs[0] = 2 * j1;
+        dofs[1] = 2 * j1 + 1;
+        dofs[2] = 2 * j2;
+        dofs[3] = 2 * j2 + 1;
+    }
+
+    /**
+     * Fill in the components of the unit direction vector of a member with respect to the
+     * equations returned by <code>getMemberDofs</code>.
+     * 
+     * @param cx x-direction cosine of the member
+     * @param cy y-direction cosine of the member
+     * @param v array of four to receive the vector
+     */
+    private static void getMemberDirection(double cx, double cy, double [] v) {
+        v[0] = -cx;
+        v[1] = -cy;
+        v[2] = cx;
+        v[3] = cy;
+    }
+
+    private static double dot(double [] a, double [] b) {
+        double s = 0;
+        for (int i = 0; i < a.length; i++) {
+            s += a[i] * b[i];
+        }
+        return s;
+    }
+
+    /**
+     * Solve a small dense system with several right hand sides by Gaussian elimination with partial pivoting.
+     * 
+     * @param a matrix, destroyed
+     * @param b right hand sides as rows b[k], replaced by solutions
+     * @return true iff the matrix was not numerically singular
+     */
+    private static boolean solveDense(double [][] a, double [][] b) {
+        final int n = a.length;
+        double scale = 0;
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                scale = Math.max(scale, Math.abs(a[i][j]));
+            }
+        }
+        for (int j = 0; j < n; j++) {
+            int p = j;
+            for (int i = j + 1; i < n; i++) {
+                if (Math.abs(a[i][j]) > Math.abs(a[p][j])) {
+                    p = i;
+                }
+            }
+            if (Math.abs(a[p][j]) <= 1e-12 * scale) {
+                return false;
+            }
+            double [] t = a[p]; a[p] = a[j]; a[j] = t;
+            for (int k = 0; k < b.length; k++) {
+                double tb = b[k][p]; b[k][p] = b[k][j]; b[k][j] = tb;
+            }
+            for (int i = j + 1; i < n; i++) {
+                final double f = a[i][j] / a[j][j];
+                if (f != 0) {
+                    for (int c = j; c < n; c++) {
+                        a[i][c] -= f * a[j][c];
+                    }
+                    for (int k = 0; k < b.length; k++) {
+                        b[k][i] -= f * b[k][j];
+                    }
+                }
+            }
+        }
+        for (int k = 0; k < b.length; k++) {
+            final double [] x = b[k];
+            for (int i = n - 1; i >= 0; i--) {
+                double sum = x[i];
+                for (int c = i + 1; c < n; c++) {
+                    sum -= a[i][c] * x[c];
+                }
+                x[i] = sum / a[i][i];
+            }
         }
+        return true;
     }
 
     // This is about 50 times faster than Math.hypot() !.
@@ -451,22 +2068,23 @@ public class Analysis {
         
     /**
      * Interpolator used for animation purposes. Could also be used to decide failure case
-     * at other than panel point resolution.  We are interpolating either between two load cases
-     * corresponding to load location at given joint indices (including a pseudo-joint that puts
-     * the load entirely right of the bridge) or we are interpolating between two different
-     * interpolations with the load at the same place.  The latter supports the failure animation.
+     * at other than panel point resolution.  We are either evaluating the response to the load at
+     * a given location, exact between panel points by way of the influence lines, or we are interpolating
+     * between two different interpolations with the load at the same place.  The latter supports the
+     * failure animation.
      */
     public class Interpolation {
         private final TerrainModel terrain;
-        private final Affine.Vector [] displacement = initialDisp();
-        private final double forceRatio [] = new double [DesignConditions.maxMemberCount];
+        private Affine.Vector [] displacement = new Affine.Vector [0];
+        private double forceRatio [] = new double [0];
         private final Affine.Point ptLoad = new Affine.Point();
         private final Affine.Vector zeroDisp = new Affine.Vector(0.0, 0.0);
         private final Affine.Point ptRightApproach = new Affine.Point(-100.0, 0.0);
         private final Affine.Vector loadRotation = new Affine.Vector();
         private double xLoadParameter;
         private int nFailures = 0;
-        private final double [] failureStatus = new double [DesignConditions.maxMemberCount];
+        private double [] failureStatus = new double [0];
+        private double [] modalCorrection = new double [0];
         
         /**
          * Make a new interpolation with roadway elevations taken from the given terrain.
@@ -475,6 +2093,7 @@ public class Analysis {
          */
         public Interpolation(TerrainModel terrain) {
             this.terrain = terrain;
+            ensureCapacity(DesignConditions.maxJointCount, DesignConditions.maxMemberCount);
         }
 
         /**
@@ -488,16 +2107,33 @@ public class Analysis {
         }
         
         /**
-         * Create an initial array of displacement vectors.
+         * Grow the result buffers if necessary to hold at least the given numbers of joints and members.
+         * Existing contents are kept, and new displacements are zero.
          * 
-         * @return array of zero displacement vectors
+         * @param nJoints number of joints
+         * @param nMembers number of members
          */
-        private Affine.Vector [] initialDisp() {
-            Affine.Vector [] v = new Affine.Vector [DesignConditions.maxJointCount];
-            for (int i = 0; i < v.length; i++) {
-                v[i] = new Affine.Vector();
+        private void ensureCapacity(int nJoints, int nMembers) {
+            if (displacement.length < nJoints) {
+                Affine.Vector [] v = new Affine.Vector [Math.max(nJoints, 2 * displacement.length)];
+                System.arraycopy(displacement, 0, v, 0, displacement.length);
+                for (int i = displacement.length; i < v.length; i++) {
+                    v[i] = new Affine.Vector();
+                }
+                displacement = v;
+            }
+            if (forceRatio.length < nMembers) {
+                final int n = Math.max(nMembers, 2 * forceRatio.length);
+                forceRatio = Arrays.copyOf(forceRatio, n);
+                failureStatus = Arrays.copyOf(failureStatus, n);
             }
-            return v;
+        }
+
+        /**
+         * Grow the result buffers if necessary to hold results for the analyzed bridge.
+         */
+        private void ensureCapacity() {
+            ensureCapacity(bridge.getJoints().size(), bridge.getMembers().size());
         }
 
         /**
@@ -643,6 +2279,7 @@ public class Analysis {
          */
         public void initializeDeadLoadOnly(double deadLoadApplied, double xLoadParameter, double displacementExaggeration) {     
             this.xLoadParameter = xLoadParameter;
+            ensureCapacity();
             Iterator<Joint> je = bridge.getJoints().iterator();
             while (je.hasNext()) {
                 Joint joint = je.next();
@@ -682,8 +2319,22 @@ public class Analysis {
          * @param xLoadParameter location of load in panel lengths
          * @param displacementExaggeration exaggeration factor for displacements
          */
-        public void initialize(double xLoadParameter, double displacementExaggeration) {            
+        public void initialize(double xLoadParameter, double displacementExaggeration) {
+            initialize(xLoadParameter, displacementExaggeration, null);
+        }
+
+        /**
+         * Initialize an interpolation for the current position of the load as above, but with the live load
+         * response of a truck crossing at speed rather than the static response with the impact allowance.
+         * Failures are then those of the dynamic forces alone.
+         *
+         * @param xLoadParameter location of load in panel lengths
+         * @param displacementExaggeration exaggeration factor for displacements
+         * @param dynamic moving load response of the crossing or null for the static response
+         */
+        public void initialize(double xLoadParameter, double displacementExaggeration, MovingLoadResponse dynamic) {
             this.xLoadParameter = xLoadParameter;
+            ensureCapacity();
             final DesignConditions dc = bridge.getDesignConditions();
             ptRightApproach.x = dc.getXRightmostDeckJoint() + 100.0;
             int nLoadedJoints = dc.getNLoadedJoints();
@@ -730,26 +2381,54 @@ public class Analysis {
                 return;
             }
             
-            // General case.  Truck has at least one axle on the bridge. 
+            // General case.  Truck has at least one axle on the bridge.  Superimpose dead load and the
+            // influence lines at the exact axle positions.
             final int ilcLeft = (int)xLoadParameter;
             final int ilcRight = (ilcLeft < nLoadedJoints - 1) ? ilcLeft + 1 : 0;
             final double t1 = xLoadParameter - ilcLeft;
             final double t0 = 1 - t1;
+            final double xFront = xLoadParameter;
+            final double xRear = xLoadParameter - 1;
+            // A dynamic response replaces the impact allowance of the static axle loads.
+            final double front = (dynamic == null) ? frontAxleLoad : frontAxleLoad / impactFactor;
+            final double rear = (dynamic == null) ? rearAxleLoad : rearAxleLoad / impactFactor;
+            final int nModes = (dynamic == null) ? 0 : dynamic.getModeCount();
+            if (modalCorrection.length < nModes) {
+                modalCorrection = new double [nModes];
+            }
+            for (int mode = 0; mode < nModes; mode++) {
+                modalCorrection[mode] = dynamic.getCorrection(mode, xLoadParameter);
+            }
             Iterator<Joint> je = bridge.getJoints().iterator();
             while (je.hasNext()) {
                 int i = je.next().getIndex();
-                displacement[i].x = displacementExaggeration * (t0 * getXJointDisplacement(ilcLeft, i) + t1 * getXJointDisplacement(ilcRight, i));
-                displacement[i].y = displacementExaggeration * (t0 * getYJointDisplacement(ilcLeft, i) + t1 * getYJointDisplacement(ilcRight, i));
+                double dx = getXJointDisplacement(0, i) +
+                        front * influenceLines.getDisplacement(2 * i, xFront) +
+                        rear * influenceLines.getDisplacement(2 * i, xRear);
+                double dy = getYJointDisplacement(0, i) +
+                        front * influenceLines.getDisplacement(2 * i + 1, xFront) +
+                        rear * influenceLines.getDisplacement(2 * i + 1, xRear);
+                for (int mode = 0; mode < nModes; mode++) {
+                    dx += modalCorrection[mode] * dynamic.getXJointDisplacement(mode, i);
+                    dy += modalCorrection[mode] * dynamic.getYJointDisplacement(mode, i);
+                }
+                displacement[i].x = displacementExaggeration * dx;
+                displacement[i].y = displacementExaggeration * dy;
             }
             nFailures = 0;
             Iterator<Member> me = bridge.getMembers().iterator();
             while (me.hasNext()) {
                 Member member = me.next();
                 int i = member.getIndex();
-                final double force = t0 * memberForce[ilcLeft][i] + t1 * memberForce[ilcRight][i];
+                double force = memberForce[0][i] +
+                        front * influenceLines.getMemberForce(i, xFront) +
+                        rear * influenceLines.getMemberForce(i, xRear);
+                for (int mode = 0; mode < nModes; mode++) {
+                    force += modalCorrection[mode] * dynamic.getMemberForce(mode, i);
+                }
                 final double ratio = (force > 0) ? force / memberTensileStrength[i] : force / memberCompressiveStrength[i];
                 // We allow left force to trigger failures so we can't step past one.
-                if (memberFails[ilcLeft][i] || ratio < -1.0 || ratio > 1.0) {
+                if ((dynamic == null && memberFails[ilcLeft][i]) || ratio < -1.0 || ratio > 1.0) {
                     failureStatus[i] = FAILED;
                     ++nFailures;
                 }
@@ -816,7 +2495,24 @@ public class Analysis {
          * @param displacementParameter parameter 
          */
         public void initialize(Interpolation base, Interpolation target, double displacementParameter) {
+            initialize(base, target, displacementParameter, null, 0);
+        }
+
+        /**
+         * Initialize this interpolation by interpolating two others as above, but with the failed members
+         * those of the first steps of a collapse sequence rather than those of the base.  This lets a
+         * collapse be shown as it progresses.
+         *
+         * @param base base interpolation
+         * @param target target interpolation
+         * @param displacementParameter parameter
+         * @param collapse collapse sequence or null to take failures from the base
+         * @param nSteps number of steps of the collapse sequence that have happened
+         */
+        public void initialize(Interpolation base, Interpolation target, double displacementParameter,
+                CollapseSequence collapse, int nSteps) {
             xLoadParameter = base.xLoadParameter;
+            ensureCapacity();
             final DesignConditions dc = bridge.getDesignConditions();
             ptRightApproach.x = dc.getXRightmostDeckJoint() + 100.0;
             int nLoadedJoints = dc.getNLoadedJoints();
@@ -831,10 +2527,20 @@ public class Analysis {
             final int nMembers = bridge.getMembers().size();
             for (int i = 0; i < nMembers; i++) {
                 forceRatio[i] = base.forceRatio[i];
-                if (base.failureStatus[i] == NOT_FAILED) {
-                    failureStatus[i] = NOT_FAILED;
+                failureStatus[i] = (collapse == null) ? base.failureStatus[i] : NOT_FAILED;
+            }
+            if (collapse != null) {
+                final int n = Math.min(nSteps, collapse.getStepCount());
+                for (int step = 0; step < n; step++) {
+                    failureStatus[collapse.getMember(step)] = FAILED;
                 }
-                else {
+                nFailures = n;
+            }
+            else {
+                nFailures = base.nFailures;
+            }
+            for (int i = 0; i < nMembers; i++) {
+                if (failureStatus[i] != NOT_FAILED) {
                     // All this is just to calculate the lengths of members
                     // with displacements and not generate any garbage.
                     final Member m = bridge.getMembers().get(i);
@@ -849,7 +2555,6 @@ public class Analysis {
                     failureStatus[i] = Math.sqrt(dx * dx + dy * dy);
                 }
             }
-            nFailures = base.nFailures;
 
             // Handle case where truck is not on bridge.
             if (xLoadParameter <= 0 || xLoadParameter >= nLoadedJoints) {
@@ -950,6 +2655,16 @@ public class Analysis {
         private BridgeModel bridge = new BridgeModel();
         private Analysis analysis = new Analysis();
 
+        private boolean buckling;
+        private boolean dynamic;
+
+        private Runnable(boolean domainDecomposition, boolean buckling, boolean dynamic, boolean nonlinear) {
+            analysis.setDomainDecomposition(domainDecomposition);
+            analysis.setNonlinear(nonlinear);
+            this.buckling = buckling;
+            this.dynamic = dynamic;
+        }
+
         private void run(String fileName) {
             try {
                 bridge.read(new File(fileName));
@@ -957,6 +2672,65 @@ public class Analysis {
                 if (analysis.getStatus() >= FAILS_SLENDERNESS) {
                     System.out.print(fileName + ": ");
                     System.out.println(analysis.getStatus() == PASSES ? "passes." : "fails.");
+                    if (analysis.isNonlinear()) {
+                        System.out.println("  large displacement analysis: " + analysis.getNonlinearIterations() +
+                                " iterations, " + analysis.getNonlinearFactorizations() + " tangent factorizations.");
+                    }
+                    if (buckling) {
+                        printBucklingModes();
+                    }
+                    if (dynamic) {
+                        printDynamicAmplification();
+                    }
+                }
+            } catch (IOException ex) {
+                System.err.println("could not open '" + fileName + "' as a bridge file.");
+            }
+        }
+
+        // Print the lowest buckling load factors of the last analysis.
+        private void printBucklingModes() {
+            final BucklingModes modes = analysis.getBucklingModes(4);
+            if (modes == null || modes.getModeCount() == 0) {
+                System.out.println("  no buckling modes.");
+                return;
+            }
+            System.out.print("  buckling load factors for load case " + modes.getLoadCase() + ":");
+            for (int i = 0; i < modes.getModeCount(); i++) {
+                System.out.printf(" %.4g", modes.getLoadFactor(i));
+            }
+            System.out.println(modes.isConverged() ? "" : " (not converged)");
+        }
+
+        // Print the largest dynamic amplification of live load force for a few truck speeds.
+        private void printDynamicAmplification() {
+            final double [] speeds = { 10, 25, 50, 100 };
+            System.out.print("  dynamic amplification (impact allowance " + impactFactor + "):");
+            for (int i = 0; i < speeds.length; i++) {
+                final MovingLoadResponse response = analysis.getMovingLoadResponse(speeds[i], 4);
+                if (response == null) {
+                    System.out.println(" unstable.");
+                    return;
+                }
+                System.out.printf(" %.3f at %.0f km/hr", response.getMaxAmplification(), speeds[i]);
+            }
+            System.out.println();
+        }
+
+        // Check all load and deck variants of the bridge's scenario with one factorization.
+        private void runVariants(String fileName) {
+            try {
+                bridge.read(new File(fileName));
+                Analysis [] variants = analysis.updateLoadCaseVariants(bridge);
+                if (variants == null) {
+                    System.out.println(fileName + ": unstable.");
+                    return;
+                }
+                for (int i = 0; i < variants.length; i++) {
+                    System.out.print(fileName + " (" +
+                            (i % 2 == DesignConditions.STANDARD_TRUCK ? "standard truck, " : "heavy truck, ") +
+                            (i / 2 == DesignConditions.MEDIUM_STRENGTH_DECK ? "medium strength deck" : "high strength deck") + "): ");
+                    System.out.println(variants[i].getStatus() == PASSES ? "passes." : "fails.");
                 }
             } catch (IOException ex) {
                 System.err.println("could not open '" + fileName + "' as a bridge file.");
@@ -965,11 +2739,41 @@ public class Analysis {
     }
    
     public static void main(String [] args) {
-        if (args.length != 1) {
-            System.err.println("usage: java Analysis FileName");
+        boolean variants = false;
+        boolean domains = false;
+        boolean buckling = false;
+        boolean dynamic = false;
+        boolean nonlinear = false;
+        int iArg = 0;
+        while (iArg < args.length - 1) {
+            if (args[iArg].equals("-variants")) {
+                variants = true;
+            }
+            else if (args[iArg].equals("-domains")) {
+                domains = true;
+            }
+            else if (args[iArg].equals("-buckling")) {
+                buckling = true;
+            }
+            else if (args[iArg].equals("-dynamic")) {
+                dynamic = true;
+            }
+            else if (args[iArg].equals("-nonlinear")) {
+                nonlinear = true;
+            }
+            else {
+                break;
+            }
+            iArg++;
+        }
+        if (iArg != args.length - 1) {
+            System.err.println("usage: java Analysis [-variants] [-domains] [-buckling] [-dynamic] [-nonlinear] FileName");
+        }
+        else if (variants) {
+            new Runnable(domains, buckling, dynamic, nonlinear).runVariants(args[iArg]);
         }
         else {
-            new Runnable().run(args[0]);
+            new Runnable(domains, buckling, dynamic, nonlinear).run(args[iArg]);
         }
     }
 }
@@ -0,0 +1,127 @@
+/*
+ * AnalysisCache.java
+ *
+ * Copyright (C) 2026 agent
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package bridgedesigner;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache of analysis results keyed by bridge structure, so that returning to an already-analyzed
+ * bridge by undo, redo, or iteration loading doesn't require analyzing it again.  The least recently
+ * used entries are evicted when the cache holds more than a given number of members' worth of results.
+ *
+ * @author agent
+ */
+public class AnalysisCache {
+
+    /**
+     * A cached analysis and whether it was a preview, i.e. one without a recorded design iteration.
+     */
+    public static class Entry {
+        private final Analysis analysis;
+        private final boolean preview;
+        private final int size;
+
+        private Entry(Analysis analysis, boolean preview, int size) {
+            this.analysis = analysis;
+            this.preview = preview;
+            this.size = size;
+        }
+
+        /**
+         * Return the cached analysis.
+         *
+         * @return cached analysis
+         */
+        public Analysis getAnalysis() {
+            return analysis;
+        }
+
+        /**
+         * Return true iff the cached analysis was a preview.
+         *
+         * @return true iff the analysis was a preview
+         */
+        public boolean isPreview() {
+            return preview;
+        }
+    }
+
+    /**
+     * Maximum total number of members over all cached analyses.
+     */
+    private final int capacity;
+    /**
+     * Total number of members over all cached analyses.
+     */
+    private int size = 0;
+    /**
+     * Entries keyed by bridge structure in least to most recently used order.
+     */
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+
+    /**
+     * Construct an empty cache.
+     *
+     * @param capacity maximum total number of members over all cached analyses
+     */
+    public AnalysisCache(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Cache a copy of the results of an analysis of the given bridge.  Unsuccessful analyses are not cached.
+     *
+     * @param bridge analyzed bridge
+     * @param analysis analysis of the bridge
+     * @param preview whether the analysis is a preview
+     */
+    public void put(BridgeModel bridge, Analysis analysis, boolean preview) {
+        if (analysis.getStatus() <= Analysis.UNSTABLE) {
+            return;
+        }
+        Analysis copy = new Analysis();
+        copy.assign(analysis, bridge);
+        Entry entry = new Entry(copy, preview, Math.max(1, bridge.getMembers().size()));
+        Entry old = entries.put(bridge.getStructureKey(), entry);
+        if (old != null) {
+            size -= old.size;
+        }
+        size += entry.size;
+        // Evict least recently used entries, but always keep the new one.
+        while (size > capacity && entries.size() > 1) {
+            Map.Entry<String, Entry> eldest = entries.entrySet().iterator().next();
+            size -= eldest.getValue().size;
+            entries.remove(eldest.getKey());
+        }
+    }
+
+    /**
+     * Return the cached analysis of a bridge with the same structure as the given one or null if there is none.
+     *
+     * @param bridge bridge to look up
+     * @return cache entry or null
+     */
+    public Entry get(BridgeModel bridge) {
+        return entries.get(bridge.getStructureKey());
+    }
+
+    /**
+     * Remove all cached analyses.
+     */
+    public void clear() {
+        entries.clear();
+        size = 0;
+    }
+}
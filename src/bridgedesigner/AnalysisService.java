@@ -0,0 +1,191 @@
+/*
+ * AnalysisService.java
+ *
+ * Copyright (C) 2026 agent
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package bridgedesigner;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+
+/**
+ * Background analysis of an editable bridge.  Structure changes restart a short timer so that bursts of
+ * edits are coalesced.  When the timer fires, an immutable snapshot of the bridge is analyzed on a worker
+ * thread.  If the bridge is still in the snapshot state when the analysis completes, its results are
+ * installed in the bridge, which fires an analysis change.  A newer edit cancels any run in progress,
+ * which stops after the factoring or solving step it's in, so a stale run of a large bridge can't hold
+ * up the worker for long.
+ *
+ * All methods must be called on the event dispatch thread.
+ *
+ * @author agent
+ */
+public class AnalysisService {
+
+    /**
+     * Milliseconds of quiet after a structure change before analysis starts.
+     */
+    private static final int debounceDelay = 300;
+    /**
+     * Bridge being analyzed.
+     */
+    private final EditableBridgeModel bridge;
+    /**
+     * Analysis used only on the worker thread.  Keeping it between runs lets it reuse its factorization.
+     */
+    private final Analysis workerAnalysis = new Analysis();
+    /**
+     * Single worker thread, created lazily.
+     */
+    private ExecutorService executor = null;
+    /**
+     * Timer that starts analysis once edits stop.
+     */
+    private final Timer timer;
+    /**
+     * The run most recently submitted to the worker or null if none.
+     */
+    private Future<?> pending = null;
+    /**
+     * Serial number of the most recent run.  Results of other runs are stale and discarded.
+     */
+    private int generation = 0;
+    /**
+     * Listener that triggers analysis on structure changes.
+     */
+    private final ChangeListener structureChangeListener = new ChangeListener() {
+
+        public void stateChanged(ChangeEvent e) {
+            cancel();
+            timer.restart();
+        }
+    };
+
+    /**
+     * Construct a stopped analysis service for the given bridge.
+     *
+     * @param bridge bridge to analyze
+     */
+    public AnalysisService(EditableBridgeModel bridge) {
+        this.bridge = bridge;
+        timer = new Timer(debounceDelay, new ActionListener() {
+
+            public void actionPerformed(ActionEvent e) {
+                submit();
+            }
+        });
+        timer.setRepeats(false);
+    }
+
+    /**
+     * Start analyzing the bridge after structure changes.
+     */
+    public void start() {
+        bridge.addStructureChangeListener(structureChangeListener);
+        timer.restart();
+    }
+
+    /**
+     * Stop analyzing the bridge.  Any run in progress is discarded.
+     */
+    public void stop() {
+        bridge.removeStructureChangeListener(structureChangeListener);
+        cancel();
+    }
+
+    /**
+     * Cancel pending and running analyses.  A run already under way stops at its next checkpoint, and its
+     * results are discarded.
+     */
+    public void cancel() {
+        timer.stop();
+        ++generation;
+        if (pending != null) {
+            pending.cancel(true);
+            workerAnalysis.setCancelled(true);
+            pending = null;
+        }
+    }
+
+    /**
+     * Return the worker thread executor, creating it if necessary.
+     *
+     * @return executor
+     */
+    private ExecutorService getExecutor() {
+        if (executor == null) {
+            executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "AnalysisService");
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.NORM_PRIORITY - 1);
+                    return thread;
+                }
+            });
+        }
+        return executor;
+    }
+
+    /**
+     * Snapshot the bridge and submit its analysis to the worker, unless there's nothing to do.
+     */
+    private void submit() {
+        if (bridge.isAnalysisValid() || !bridge.isAnalyzable()) {
+            return;
+        }
+        cancel();
+        final int runGeneration = generation;
+        final Object mark = bridge.getUndoManager().getMark();
+        final byte [] snapshotBytes = bridge.toBytes();
+        pending = getExecutor().submit(new Runnable() {
+
+            public void run() {
+                // Any cancel from here on is for this run.  Earlier ones were for runs now finished.
+                workerAnalysis.setCancelled(false);
+                BridgeModel snapshot = new BridgeModel();
+                try {
+                    snapshot.parseBytes(snapshotBytes);
+                } catch (IOException ex) {
+                    return;
+                }
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+                workerAnalysis.update(snapshot);
+                if (workerAnalysis.isCancelled() || Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+                // Hand off a copy so the next run can't change results being installed.
+                final Analysis result = new Analysis();
+                result.assign(workerAnalysis, snapshot);
+                SwingUtilities.invokeLater(new Runnable() {
+
+                    public void run() {
+                        if (runGeneration == generation) {
+                            pending = null;
+                            bridge.installAnalysis(result, mark);
+                        }
+                    }
+                });
+            }
+        });
+    }
+}
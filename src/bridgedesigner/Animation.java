@@ -64,6 +64,10 @@ abstract public class Animation {
     public static class Config {
         public double displacementExaggeration = standardExaggeration;
         public double truckSpeed = defaultTruckSpeedKmPerHr;
+        /**
+         * Whether the bridge responds to the truck dynamically at its speed rather than statically.
+         */
+        public boolean dynamicLoading = false;
         public boolean paused = false;
     }
 
@@ -178,8 +182,8 @@ abstract public class Animation {
      */
     private final Analysis.Interpolation animationInterpolation;
     /**
-     * An analysis object used to hold the analysis of the artificially weakened
-     * bridge that is the final failure animation configuration.
+     * An analysis object used to simulate the collapse of the bridge and then hold the
+     * analysis of the artificially weakened bridge that is the final failure animation configuration.
      */
     private final Analysis failureAnalysis;
     /**
@@ -187,6 +191,10 @@ abstract public class Animation {
      * base member lengths for showing bucking and torn members.
      */
     private final Analysis.Interpolation failureInterpolation;
+    /**
+     * Ordered member failures of the collapse in progress.
+     */
+    private CollapseSequence collapse;
     /**
      * An interpolation between the normal interpolation where failure first occurred and
      * the analysis of the weakened bridge that is the final failure animation configuration.
@@ -261,6 +269,10 @@ abstract public class Animation {
             updateView(0);
             animationInterpolation.initializeDeadLoadOnly(0.0, loadLocation, 0.0);
             getDistanceMoved(); // zero the accumulator
+            // Factor now, while nothing is moving, so a collapse later needs only low-rank updates.
+            if (bridge.getAnalysis().getStatus() != Analysis.PASSES) {
+                failureAnalysis.initializeCollapse(bridge);
+            }
             return animationInterpolation;
         }
 
@@ -296,7 +308,8 @@ abstract public class Animation {
                 return animationInterpolation;
             case LOAD_MOVING_STATE:
                 updateLoadLocation(elapsed);
-                animationInterpolation.initialize(loadLocation, config.displacementExaggeration);
+                animationInterpolation.initialize(loadLocation, config.displacementExaggeration,
+                        config.dynamicLoading ? bridge.getMovingLoadResponse(config.truckSpeed) : null);
                 updateDistanceMoved();
                 checkForFailure(animationInterpolation, time);
                 return animationInterpolation;
@@ -308,7 +321,8 @@ abstract public class Animation {
                 // This is the easy way to implement this, but if we could go
                 // faster with a specialized failure initialization.
                 animationInterpolation.initialize(loadLocation, config.displacementExaggeration);
-                failureAnimationInterpolation.initialize(animationInterpolation, failureInterpolation, 1.0);
+                failureAnimationInterpolation.initialize(animationInterpolation, failureInterpolation, 1.0,
+                        collapse, collapse.getStepCount());
                 updateDistanceMoved();
                 return failureAnimationInterpolation;
             case FAILING_STATE:
@@ -317,7 +331,11 @@ abstract public class Animation {
                     t = 1;
                     state = FAILED_STATE;
                 }
-                failureAnimationInterpolation.initialize(animationInterpolation, failureInterpolation, t);
+                // Show initial failures at once and the rest of the collapse sequence as it progresses.
+                final int nInitialSteps = collapse.getInitialStepCount();
+                final int nShown = nInitialSteps + (int)(t * (collapse.getStepCount() - nInitialSteps + 1));
+                failureAnimationInterpolation.initialize(animationInterpolation, failureInterpolation, t,
+                        collapse, nShown);
                 return failureAnimationInterpolation;
             case FAILED_STATE:
                 if (loadLocation < emergencyStopLocation) {
@@ -338,7 +356,7 @@ abstract public class Animation {
         // If the interpolation shows the bridge has failed and we're not already
         // handling this condition, go to the failing state.
         if (state < FAILING_STATE && interpolation.isFailure()) {
-            failureAnalysis.initialize(bridge, interpolation.getFailureStatus());
+            collapse = failureAnalysis.collapse(bridge, loadLocation, interpolation.getFailureStatus());
             failureInterpolation.initialize(loadLocation, config.displacementExaggeration);
             state = FAILING_STATE;
             lastStateChangeTime = time;
@@ -0,0 +1,47 @@
+/*
+ * AutoSizeCommand.java  
+ *   
+ * Copyright (C) 2026 agent
+ *   
+ * This program is distributed in the hope that it will be useful,  
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of  
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the  
+ * GNU General Public License for more details.  
+ *   
+ * You should have received a copy of the GNU General Public License  
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.  
+ */
+
+package bridgedesigner;
+
+/**
+ * Command to give members the stocks found by automatic sizing.
+ * 
+ * @author agent
+ */
+public class AutoSizeCommand extends EditCommand {
+
+    private Member[] members;
+    
+    /**
+     * Construct a command that replaces members with resized ones.
+     * 
+     * @param bridge bridge containing the members
+     * @param members new members, each with the index of the member it replaces
+     */
+    public AutoSizeCommand(EditableBridgeModel bridge, Member[] members) {
+        super(bridge);
+        this.members = members;
+        presentationName = getMembersMessage("autoSize.text", members);
+    }
+
+    @Override 
+    public void go() {
+        EditCommand.exchange(bridge.getMembers(), members);        
+    }
+
+    @Override
+    void goBack() {
+        EditCommand.exchange(bridge.getMembers(), members);        
+    }
+}
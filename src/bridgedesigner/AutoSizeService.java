@@ -0,0 +1,210 @@
+/*
+ * AutoSizeService.java
+ *
+ * Copyright (C) 2026 agent
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package bridgedesigner;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import javax.swing.SwingUtilities;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+
+/**
+ * Background automatic sizing of the members of an editable bridge.  The sizer runs on its own thread
+ * with a copy of the bridge made when it starts.  When it finishes, listeners are told, and the stocks it
+ * found are available from <code>getSizedMembers</code> for installing as one undoable command.  Any edit
+ * of the bridge while the sizer runs stops it, and nothing is found.
+ *
+ * All methods must be called on the event dispatch thread.
+ *
+ * @author agent
+ */
+public class AutoSizeService {
+
+    /**
+     * Bridge being sized.
+     */
+    private final EditableBridgeModel bridge;
+    /**
+     * Sizer in progress or null if none.
+     */
+    private MemberSizer sizer = null;
+    /**
+     * Undo manager mark at the start of sizing.
+     */
+    private Object mark = null;
+    /**
+     * Members with new stocks found by the last sizing, or null if none.
+     */
+    private Member [] sizedMembers = null;
+    /**
+     * Whether the last sizing ended without finding stocks that pass the load test.
+     */
+    private boolean failed = false;
+    /**
+     * Listeners for the end of sizing.
+     */
+    private final ArrayList<ChangeListener> changeListeners = new ArrayList<ChangeListener>();
+    /**
+     * Listener that stops the sizer when someone edits the bridge.
+     */
+    private final ChangeListener structureChangeListener = new ChangeListener() {
+
+        public void stateChanged(ChangeEvent e) {
+            if (!bridge.getUndoManager().isAtMark(mark)) {
+                stop();
+            }
+        }
+    };
+
+    /**
+     * Construct an auto-size service for the given bridge.
+     *
+     * @param bridge bridge to size
+     */
+    public AutoSizeService(EditableBridgeModel bridge) {
+        this.bridge = bridge;
+    }
+
+    /**
+     * Add a listener for the end of sizing.
+     *
+     * @param l listener
+     */
+    public void addChangeListener(ChangeListener l) {
+        changeListeners.add(l);
+    }
+
+    /**
+     * Remove a listener for the end of sizing.
+     *
+     * @param l listener
+     */
+    public void removeChangeListener(ChangeListener l) {
+        changeListeners.remove(l);
+    }
+
+    /**
+     * Return true iff sizing is running.
+     *
+     * @return true iff running
+     */
+    public boolean isRunning() {
+        return sizer != null;
+    }
+
+    /**
+     * Return true iff the last sizing ended without finding stocks that pass the load test, as when the
+     * bridge is unstable.
+     *
+     * @return true iff sizing failed
+     */
+    public boolean isFailed() {
+        return failed;
+    }
+
+    /**
+     * Return the members of the bridge with the stocks found by the last sizing, each with the index of the
+     * member it replaces.  The array is empty if no stock needed to change.
+     *
+     * @return sized members or null if the last sizing failed or was stopped
+     */
+    public Member [] getSizedMembers() {
+        return sizedMembers;
+    }
+
+    /**
+     * Start sizing the members of the bridge.
+     */
+    public void start() {
+        stop();
+        final BridgeModel copy = new BridgeModel();
+        try {
+            copy.parseBytes(bridge.toBytes());
+        } catch (IOException ex) {
+            failed = true;
+            finish();
+            return;
+        }
+        final MemberSizer runSizer = new MemberSizer(copy);
+        sizer = runSizer;
+        mark = bridge.getUndoManager().getMark();
+        sizedMembers = null;
+        failed = false;
+        bridge.addStructureChangeListener(structureChangeListener);
+        Thread thread = new Thread(new Runnable() {
+
+            public void run() {
+                final Member [] sized = runSizer.getSizedMembers();
+                SwingUtilities.invokeLater(new Runnable() {
+
+                    public void run() {
+                        if (sizer == runSizer) {
+                            install(sized);
+                        }
+                    }
+                });
+            }
+        }, "AutoSize");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.NORM_PRIORITY - 1);
+        thread.start();
+    }
+
+    /**
+     * Stop sizing in progress, if any, without changing the bridge.
+     */
+    public void stop() {
+        if (sizer != null) {
+            sizer.cancel();
+            sizedMembers = null;
+            finish();
+        }
+    }
+
+    /**
+     * Keep the result of sizing.  The sizer's members belong to the copy of the bridge, so they're
+     * rebuilt with the joints of the bridge itself, which is unchanged since sizing started, and with
+     * its own stocks, since the bridge's cost counts stocks by identity.
+     *
+     * @param sized members of the copy with new stocks or null if none were found
+     */
+    private void install(Member [] sized) {
+        if (sized == null) {
+            failed = true;
+        }
+        else {
+            sizedMembers = new Member [sized.length];
+            for (int i = 0; i < sized.length; i++) {
+                final Member member = bridge.getMembers().get(sized[i].getIndex());
+                final Shape shape = sized[i].getShape();
+                sizedMembers[i] = new Member(member, bridge.getInventory(),
+                        sized[i].getMaterial().getIndex(), shape.getSection().getIndex(), shape.getSizeIndex());
+            }
+        }
+        finish();
+    }
+
+    /**
+     * End the current sizing and tell listeners.
+     */
+    private void finish() {
+        sizer = null;
+        bridge.removeStructureChangeListener(structureChangeListener);
+        Iterator<ChangeListener> e = new ArrayList<ChangeListener>(changeListeners).iterator();
+        while (e.hasNext()) {
+            e.next().stateChanged(new ChangeEvent(this));
+        }
+    }
+}
@@ -216,6 +216,9 @@ public class BDApp extends SingleFrameApplication {
             else if (args[i].equals("-noenhancedmacui")) {
                 enhancedMacUI = false;
             }
+            else if (args[i].equals("-extendedlimits")) {
+                DesignConditions.setExtendedLimits(true);
+            }
             else if (fileName == null) {
                 fileName = args[i];
             }
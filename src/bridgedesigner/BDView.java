@@ -78,6 +78,22 @@ public final class BDView extends FrameView
      * Swing's event architecture does not provide this.
      */
     private Dispatcher dispatcher;
+    /**
+     * Background analysis that keeps the design status current as the bridge is edited.
+     */
+    private AnalysisService analysisService;
+    /**
+     * Service that searches for cheaper geometry in the background.
+     */
+    private GeometrySearchService geometrySearchService;
+    /**
+     * Service that optimizes topology in the background.
+     */
+    private TopologyOptimizerService topologyOptimizerService;
+    /**
+     * Service that sizes members automatically in the background.
+     */
+    private AutoSizeService autoSizeService;
     /**
      * Manager for applying aggregate application state to all the components of the GUI.  E.g. when there is
      * no bridge yet loaded, all the bridge editing controls should be disabled.  Also
@@ -371,6 +387,38 @@ public final class BDView extends FrameView
             }
         });
         dispatcher.initialize(bridge, memberTable, memberDetail, stockSelector, popupStockSelector, draftingPanel);
+        analysisService = new AnalysisService(bridge);
+        analysisService.start();
+        geometrySearchService = new GeometrySearchService(bridge);
+        geometrySearchService.addChangeListener(new ChangeListener() {
+            public void stateChanged(ChangeEvent e) {
+                setSelected(searchGeometryMenuItem, false);
+                if (geometrySearchService.isFailed()) {
+                    showMessageDialog(getResourceMap().getString("searchGeometryFailedMessage.text"));
+                }
+            }
+        });
+        topologyOptimizerService = new TopologyOptimizerService(bridge);
+        topologyOptimizerService.addChangeListener(new ChangeListener() {
+            public void stateChanged(ChangeEvent e) {
+                setSelected(optimizeTopologyMenuItem, false);
+                if (topologyOptimizerService.isFailed()) {
+                    showMessageDialog(getResourceMap().getString("optimizeTopologyFailedMessage.text"));
+                }
+            }
+        });
+        autoSizeService = new AutoSizeService(bridge);
+        autoSizeService.addChangeListener(new ChangeListener() {
+            public void stateChanged(ChangeEvent e) {
+                setSelected(autoSizeMenuItem, false);
+                if (autoSizeService.isFailed()) {
+                    showMessageDialog(getResourceMap().getString("autoSizeFailedMessage.text"));
+                }
+                else if (autoSizeService.getSizedMembers() != null) {
+                    dispatcher.autoSizeMembers(autoSizeService.getSizedMembers());
+                }
+            }
+        });
         // Set the selected key in each action involving a toggle button or menu item.  This causes
         // the action mechanism to update them automatically.  The NetBeans IDE builder ought to do
         // this, but it doesn't.
@@ -398,6 +446,9 @@ public final class BDView extends FrameView
         // Show animation flag
         setSelected(toggleAnimationMenuItem, true);
         setSelected(toggleAutoCorrectMenuItem, true);
+        setSelected(searchGeometryMenuItem, false);
+        setSelected(optimizeTopologyMenuItem, false);
+        setSelected(autoSizeMenuItem, false);
         
         undoButton.getAction().setEnabled(false);
         redoButton.getAction().setEnabled(false);
@@ -676,7 +727,8 @@ public final class BDView extends FrameView
     private void setLoadTestButtonEnabled() {
         enabledStateManager.setEnabled(
                 loadTestButton, 
-                autofixEnabled() || (bridge.isAnalyzable() && (animationEnabled() || !bridge.isAnalysisValid())));
+                autofixEnabled() || (bridge.isAnalyzable() && 
+                    (animationEnabled() || !bridge.isAnalysisValid() || bridge.isAnalysisPreview())));
     }
     
     /**
@@ -685,7 +737,19 @@ public final class BDView extends FrameView
     private void setStatusIcon() {
         String iconName, tipKey;
 
-        if (!bridge.isAnalysisValid()) {
+        final Analysis stockPreview = bridge.getStockPreview();
+        if (stockPreview != null) {
+            // A stock hovered in a stock selector shows whether the bridge would pass with it.
+            if (stockPreview.getStatus() == Analysis.PASSES) {
+                iconName = "good.png";
+                tipKey = "goodTip.text";
+            }
+            else {
+                iconName = "bad.png";
+                tipKey = "badTip.text";
+            }
+        }
+        else if (!bridge.isAnalysisValid()) {
             iconName = "working.png";
             tipKey = "workingTip.text";
         }
@@ -1291,6 +1355,10 @@ public final class BDView extends FrameView
         editMembersMenuItem = new javax.swing.JRadioButtonMenuItem();
         editSelectMenuItem = new javax.swing.JRadioButtonMenuItem();
         editEraseMenuItem = new javax.swing.JRadioButtonMenuItem();
+        toolsMenuSep01 = new javax.swing.JSeparator();
+        autoSizeMenuItem = new javax.swing.JCheckBoxMenuItem();
+        searchGeometryMenuItem = new javax.swing.JCheckBoxMenuItem();
+        optimizeTopologyMenuItem = new javax.swing.JCheckBoxMenuItem();
         testMenu = new javax.swing.JMenu();
         drawingBoardMenuItem = new javax.swing.JRadioButtonMenuItem();
         loadTestMenuItem = new javax.swing.JRadioButtonMenuItem();
@@ -1655,6 +1723,21 @@ public final class BDView extends FrameView
         editEraseMenuItem.setName("editEraseMenuItem"); // NOI18N
         toolsMenu.add(editEraseMenuItem);
 
+        toolsMenuSep01.setName("toolsMenuSep01"); // NOI18N
+        toolsMenu.add(toolsMenuSep01);
+
+        autoSizeMenuItem.setAction(actionMap.get("autoSizeMembers")); // NOI18N
+        autoSizeMenuItem.setName("autoSizeMenuItem"); // NOI18N
+        toolsMenu.add(autoSizeMenuItem);
+
+        searchGeometryMenuItem.setAction(actionMap.get("searchGeometry")); // NOI18N
+        searchGeometryMenuItem.setName("searchGeometryMenuItem"); // NOI18N
+        toolsMenu.add(searchGeometryMenuItem);
+
+        optimizeTopologyMenuItem.setAction(actionMap.get("optimizeTopology")); // NOI18N
+        optimizeTopologyMenuItem.setName("optimizeTopologyMenuItem"); // NOI18N
+        toolsMenu.add(optimizeTopologyMenuItem);
+
         menuBar.add(toolsMenu);
 
         testMenu.setMnemonic('s');
@@ -3179,7 +3262,11 @@ private void keyCodeCancelButtonActionPerformed(java.awt.event.ActionEvent evt)
                 getResourceMap().getString("autoCorrectMessageSingle.text") :
                 getResourceMap().getString("autoCorrectMessageMany.text", revisedMemberCount));
         }
-        // Analyze the bridge the first time.
+        // Analyze the bridge the first time.  A background analysis of the current state is used if there is one.
+        geometrySearchService.stop();
+        topologyOptimizerService.stop();
+        autoSizeService.stop();
+        analysisService.cancel();
         bridge.analyze();
         // If bridge is indeterminate and user has asked for it, try heuristic automatic fixes.
         if (bridge.getAnalysis().getStatus() == Analysis.UNSTABLE && autofixEnabled()) {
@@ -3193,12 +3280,16 @@ private void keyCodeCancelButtonActionPerformed(java.awt.event.ActionEvent evt)
         if (bridge.getAnalysis().getStatus() == Analysis.UNSTABLE) {
             // Show the unstable truss tutorial if analysis failed entirely.
             setSelected(drawingBoardButton, true);
+            // Mark the joints that are free to move, if the rigidity check found any.
+            final int [] underbracedJoints = bridge.getAnalysis().getUnderbracedJoints();
+            draftingPanel.setUnderbracedJoints(underbracedJoints.length > 0 ? underbracedJoints : null);
             if (unstableModelDialog == null) {
                 JFrame mainFrame = BDApp.getApplication().getMainFrame();
                 unstableModelDialog = new UnstableModelDialog(mainFrame);
                 unstableModelDialog.pack();
                 unstableModelDialog.setLocationRelativeTo(mainFrame);
             }
+            unstableModelDialog.setUnderbracedJointCount(underbracedJoints.length);
             unstableModelDialog.setVisible(true);
         } else if (bridge.getAnalysis().getStatus() == Analysis.FAILS_SLENDERNESS) {
             // Show the slenderness tutorial if the slenderness test failed.
@@ -3259,6 +3350,45 @@ private void keyCodeCancelButtonActionPerformed(java.awt.event.ActionEvent evt)
         }
     }    
 
+    @Action
+    public void autoSizeMembers() {
+        if (isSelected(autoSizeMenuItem)) {
+            geometrySearchService.stop();
+            topologyOptimizerService.stop();
+            autoSizeService.start();
+        }
+        else {
+            autoSizeService.stop();
+        }
+    }
+
+    @Action
+    public void searchGeometry() {
+        if (isSelected(searchGeometryMenuItem)) {
+            // Start from the template sketch if nothing has been drawn over it yet.
+            BridgeSketchModel sketch = bridge.getMembers().isEmpty() ?
+                bridgeDraftingView.getBridgeSketchView().getModel() : null;
+            topologyOptimizerService.stop();
+            autoSizeService.stop();
+            geometrySearchService.start(draftingPanel.getDraftingCoordinates(), sketch);
+        }
+        else {
+            geometrySearchService.stop();
+        }
+    }
+
+    @Action
+    public void optimizeTopology() {
+        if (isSelected(optimizeTopologyMenuItem)) {
+            geometrySearchService.stop();
+            autoSizeService.stop();
+            topologyOptimizerService.start(draftingPanel.getDraftingCoordinates());
+        }
+        else {
+            topologyOptimizerService.stop();
+        }
+    }
+
     @Action
     public void newDesign() {
         if(querySaveIfDirty()) {
@@ -3598,6 +3728,7 @@ private void keyCodeCancelButtonActionPerformed(java.awt.event.ActionEvent evt)
     // <editor-fold defaultstate="collapsed" desc="Generated Declarations">
     // Variables declaration - do not modify//GEN-BEGIN:variables
     private javax.swing.ButtonGroup animationButtonGroup;
+    private javax.swing.JCheckBoxMenuItem autoSizeMenuItem;
     private javax.swing.JButton back1iterationButton;
     private javax.swing.JMenuItem back1iterationItem;
     private javax.swing.JToolBar bottomToolBar;
@@ -3726,6 +3857,7 @@ private void keyCodeCancelButtonActionPerformed(java.awt.event.ActionEvent evt)
     private javax.swing.JButton openMemberTableButton;
     private javax.swing.JMenuItem openMenuItem;
     private javax.swing.JMenuItem openSampleDesignMenuItem;
+    private javax.swing.JCheckBoxMenuItem optimizeTopologyMenuItem;
     private javax.swing.JButton printButton;
     private javax.swing.JMenuItem printLoadedClassesMenuItem;
     private javax.swing.JMenuItem printMenuItem;
@@ -3743,6 +3875,7 @@ private void keyCodeCancelButtonActionPerformed(java.awt.event.ActionEvent evt)
     private javax.swing.JMenuItem saveMenuItem;
     private javax.swing.JLabel scenarioIDLabel;
     private javax.swing.JMenuItem searchForHelpMenuItem;
+    private javax.swing.JCheckBoxMenuItem searchGeometryMenuItem;
     private javax.swing.JComboBox sectionBox;
     private javax.swing.JButton selectAllButton;
     private javax.swing.JMenuItem selectallItem;
@@ -3798,6 +3931,7 @@ private void keyCodeCancelButtonActionPerformed(java.awt.event.ActionEvent evt)
     private javax.swing.ButtonGroup toolsButtonGroup;
     private javax.swing.JDialog toolsDialog;
     private javax.swing.JMenu toolsMenu;
+    private javax.swing.JSeparator toolsMenuSep01;
     private javax.swing.JToolBar toolsToolbar;
     private javax.swing.JToolBar topToolBar;
     private javax.swing.JButton undoButton;
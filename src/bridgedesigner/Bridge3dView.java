@@ -19,8 +19,8 @@ public class Bridge3dView extends BridgeView {
 
     private final FixedEyeTerrainModel terrain;
     private final FixedEyeAnimation.Config config;
-    private final Point jointViewportCoordsFront [] = new Point[DesignConditions.maxJointCount];
-    private final Point jointViewportCoordsRear [] = new Point[DesignConditions.maxJointCount];
+    private Point jointViewportCoordsFront [] = new Point[0];
+    private Point jointViewportCoordsRear [] = new Point[0];
     private int jointRadius = 3;
     private Stroke crossMemberStroke;
     private int deckThickness = 12;
@@ -44,12 +44,30 @@ public class Bridge3dView extends BridgeView {
         this.bridge = bridge;
         this.terrain = terrain;
         this.config = config;
-        for (int i = 0; i < jointViewportCoordsFront.length; i++) {
-            jointViewportCoordsFront[i] = new Point();
-            jointViewportCoordsRear[i] = new Point();
+        ensureJointCapacity(DesignConditions.maxJointCount);
+    }
+
+    /**
+     * Grow the joint viewport coordinate buffers if necessary to hold at least the given number of joints.
+     *
+     * @param nJoints number of joints
+     */
+    private void ensureJointCapacity(int nJoints) {
+        if (jointViewportCoordsFront.length < nJoints) {
+            jointViewportCoordsFront = growPoints(jointViewportCoordsFront, nJoints);
+            jointViewportCoordsRear = growPoints(jointViewportCoordsRear, nJoints);
         }
     }
 
+    private static Point [] growPoints(Point [] pts, int n) {
+        Point [] rtn = new Point[Math.max(n, 2 * pts.length)];
+        System.arraycopy(pts, 0, rtn, 0, pts.length);
+        for (int i = pts.length; i < rtn.length; i++) {
+            rtn[i] = new Point();
+        }
+        return rtn;
+    }
+
     @Override
     public void initialize(DesignConditions conditions) {
         super.initialize(conditions);
@@ -63,7 +81,13 @@ public class Bridge3dView extends BridgeView {
         loadStandardDraftingWindow();
     }
 
-    private Color interpolatedColor(double forceRatio) {
+    /**
+     * Return a color interpolated from white toward red for compression or blue for tension.
+     *
+     * @param forceRatio ratio of force to strength; negative is compression, positive tension
+     * @return interpolated color
+     */
+    static Color interpolatedColor(double forceRatio) {
         int r, g, b;
         final float f = Utility.clamp((float)forceRatio, -1f, 1f);
         if (f < 0.0f) {
@@ -392,6 +416,7 @@ public class Bridge3dView extends BridgeView {
         deckBeamHeight = viewportTransform.worldToViewportDistance(BridgeView.wearSurfaceHeight) - deckThickness;
         final boolean lowView = viewportTransform.isAboveVanishingPoint(bridge.getJoints().get(0).getPointWorld().y);
         final int nJoints = bridge.getJoints().size();
+        ensureJointCapacity(nJoints);
         
         xformJoints(viewportTransform, interpolation, -deckHalfWidth, jointViewportCoordsRear);
         xformJoints(viewportTransform, interpolation, deckHalfWidth, jointViewportCoordsFront);
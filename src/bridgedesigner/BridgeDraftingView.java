@@ -69,6 +69,18 @@ public class BridgeDraftingView extends BridgeView {
      * Whether the template sketch should be visible in the view.
      */
     protected boolean templateVisible = true;
+    /**
+     * Indices of joints to mark as under-braced or null if none.
+     */
+    protected int [] underbracedJoints = null;
+    /**
+     * Color used to mark under-braced joints.
+     */
+    protected static final Color underbracedJointColor = new Color(255, 96, 0);
+    /**
+     * Stroke used to mark under-braced joints.
+     */
+    protected static final Stroke underbracedJointStroke = new BasicStroke(2.0f);
 
     /**
      * Construct a default drafting view.  Attach a bridge sketch to show templates.
@@ -114,6 +126,49 @@ public class BridgeDraftingView extends BridgeView {
         this.templateVisible = templateVisible;
     }
     
+    /**
+     * Set the joints to mark as under-braced, i.e. those left free to move by an unstable analysis.
+     * 
+     * @param underbracedJoints joint indices or null for none
+     */
+    public void setUnderbracedJoints(int [] underbracedJoints) {
+        this.underbracedJoints = underbracedJoints;
+    }
+
+    /**
+     * Return true iff any joints are marked as under-braced.
+     * 
+     * @return true iff there are under-braced joint marks
+     */
+    public boolean hasUnderbracedJoints() {
+        return underbracedJoints != null;
+    }
+
+    /**
+     * Paint a ring around each under-braced joint.
+     * 
+     * @param g java graphics context
+     * @param viewportTransform viewport transform between world and screen coordinates
+     */
+    protected void paintUnderbracedJoints(Graphics2D g, ViewportTransform viewportTransform) {
+        if (underbracedJoints == null) {
+            return;
+        }
+        Stroke savedStroke = g.getStroke();
+        g.setStroke(underbracedJointStroke);
+        g.setColor(underbracedJointColor);
+        final int r = Joint.pixelRadius + 4;
+        for (int i = 0; i < underbracedJoints.length; i++) {
+            if (underbracedJoints[i] < bridge.getJoints().size()) {
+                Affine.Point pt = bridge.getJoints().get(underbracedJoints[i]).getPointWorld();
+                int x = viewportTransform.worldToViewportX(pt.x);
+                int y = viewportTransform.worldToViewportY(pt.y);
+                g.drawOval(x - r, y - r, 2 * r, 2 * r);
+            }
+        }
+        g.setStroke(savedStroke);
+    }
+
     private final BridgePaintContext ctx = new BridgePaintContext();
     
     public void paint(Graphics2D g, ViewportTransform viewportTransform) {
@@ -132,6 +187,7 @@ public class BridgeDraftingView extends BridgeView {
             ctx.label = label;
             ctx.allowableSlenderness = conditions.getAllowableSlenderness();
             paintBridge(g, viewportTransform, ctx);
+            paintUnderbracedJoints(g, viewportTransform);
         }
         g.setColor(Color.BLACK);
         g.drawRect(0, 0, w, h + 1);
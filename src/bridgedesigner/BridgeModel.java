@@ -48,6 +48,12 @@ public class BridgeModel {
      * Current bridge designer version year.
      */
     public static final int version = 2016;
+    /**
+     * Version number marking the extended text bridge representation, which has wider count and joint number
+     * fields for bridges beyond the design specification limits.  Readers of the standard format reject it as
+     * a wrong version.
+     */
+    public static final int extendedVersion = 9016;
     /**
      * Field separator in text bridge representation.
      */
@@ -80,6 +86,18 @@ public class BridgeModel {
      * Byte length of the number of members field in a text bridge representation.
      */
     protected static final int N_MEMBERS_LEN = 3;
+    /**
+     * Byte length of a joint number of a member field in an extended text bridge representation.
+     */
+    protected static final int EXTENDED_MEMBER_JOINT_LEN = 5;
+    /**
+     * Byte length of the number of joints field in an extended text bridge representation.
+     */
+    protected static final int EXTENDED_N_JOINTS_LEN = 5;
+    /**
+     * Byte length of the number of members field in an extended text bridge representation.
+     */
+    protected static final int EXTENDED_N_MEMBERS_LEN = 6;
     /**
      * Byte length of the design conditions scenario code field in a text bridge representation.
      */
@@ -901,16 +919,19 @@ public class BridgeModel {
         readPtr = 0;
         DraftingGrid grid = new DraftingGrid(DraftingGrid.FINE_GRID);
         clearStructure();
-        if (scanUnsigned(YEAR_LEN, "bridge designer version") != version) {
+        final int fileVersion = scanUnsigned(YEAR_LEN, "bridge designer version");
+        if (fileVersion != version && fileVersion != extendedVersion) {
             throw new IOException("bridge design file version is not " + version);
         }
+        final boolean extended = (fileVersion == extendedVersion);
+        final int memberJointLen = extended ? EXTENDED_MEMBER_JOINT_LEN : MEMBER_JOINT_LEN;
         long scenarioCode = scanUnsignedLong(SCENARIO_CODE_LEN, "scenario code");
         designConditions = DesignConditions.getDesignConditions(scenarioCode);
         if (designConditions == null) {
             throw new IOException("invalid scenario " + scenarioCode);            
         }
-        int n_joints = scanUnsigned(N_JOINTS_LEN, "number of joints");
-        int n_members = scanUnsigned(N_MEMBERS_LEN, "number of members");
+        int n_joints = scanUnsigned(extended ? EXTENDED_N_JOINTS_LEN : N_JOINTS_LEN, "number of joints");
+        int n_members = scanUnsigned(extended ? EXTENDED_N_MEMBERS_LEN : N_MEMBERS_LEN, "number of members");
         for (int i = 0, n = 1; i < n_joints; i++, n++) {
             int x = scanInt(JOINT_COORD_LEN, "joint " + n + " x-coordinate");
             int y = scanInt(JOINT_COORD_LEN, "joint " + n + " y-coordinate");
@@ -925,8 +946,8 @@ public class BridgeModel {
             }
         }
         for (int i = 0, n = 1; i < n_members; i++, n++) {
-            int jointANumber = scanUnsigned(MEMBER_JOINT_LEN, "first joint of member " + n);
-            int jointBNumber = scanUnsigned(MEMBER_JOINT_LEN, "second joint of member " + n);
+            int jointANumber = scanUnsigned(memberJointLen, "first joint of member " + n);
+            int jointBNumber = scanUnsigned(memberJointLen, "second joint of member " + n);
             int materialIndex = scanUnsigned(MEMBER_MATERIAL_LEN, "material index of member " + n);
             int sectionIndex = scanUnsigned(MEMBER_SECTION_LEN, "section index of member " + n);
             int sizeIndex = scanUnsigned(MEMBER_SIZE_LEN, "size index of member " + n);
@@ -1051,27 +1072,8 @@ public class BridgeModel {
     public String toString() {
         StringBuilder s = new StringBuilder();
         Formatter f = new Formatter(s, Locale.US);
-        DraftingGrid grid = new DraftingGrid(DraftingGrid.FINE_GRID);
-        f.format("%" + YEAR_LEN + "d", version);
-        f.format("%" + SCENARIO_CODE_LEN + "d", designConditions.getCodeLong());
-        f.format("%" + N_JOINTS_LEN + "d", joints.size());
-        f.format("%" + N_MEMBERS_LEN + "d", members.size());
-        Iterator<Joint> ej = joints.iterator();
-        while (ej.hasNext()) {
-            Joint joint = ej.next();
-            f.format("%" + JOINT_COORD_LEN + "d", grid.worldToGridX(joint.getPointWorld().x));
-            f.format("%" + JOINT_COORD_LEN + "d", grid.worldToGridY(joint.getPointWorld().y));
-        }
+        formatStructure(f);
         Iterator<Member> em = members.iterator();
-        while (em.hasNext()) {
-            Member member = em.next();
-            f.format("%" + MEMBER_JOINT_LEN + "d", member.getJointA().getNumber());
-            f.format("%" + MEMBER_JOINT_LEN + "d", member.getJointB().getNumber());
-            f.format("%" + MEMBER_MATERIAL_LEN + "d", member.getMaterial().getIndex());
-            f.format("%" + MEMBER_SECTION_LEN + "d", member.getShape().getSection().getIndex());
-            f.format("%" + MEMBER_SIZE_LEN + "d", member.getShape().getSizeIndex());
-        }
-        em = members.iterator();
         while (em.hasNext()) {
             Member member = em.next();
             s.append(getRatioEncoding(member.getCompressionForceStrengthRatio()));
@@ -1090,6 +1092,50 @@ public class BridgeModel {
         return s.toString();
     }
 
+    /**
+     * Return a canonical string for the structure of this bridge: design conditions, joint locations, and member
+     * connectivity and stock.  Bridges with equal keys have identical analyses.  This is the leading part of the
+     * bridge file format, without analysis results, designer, project, and other descriptive fields.
+     * 
+     * @return structure key
+     */
+    public String getStructureKey() {
+        StringBuilder s = new StringBuilder();
+        formatStructure(new Formatter(s, Locale.US));
+        return s.toString();
+    }
+
+    /**
+     * Format the structure part of the bridge file representation: version, scenario, joints, and members.
+     * 
+     * @param f formatter to receive the text
+     */
+    private void formatStructure(Formatter f) {
+        DraftingGrid grid = new DraftingGrid(DraftingGrid.FINE_GRID);
+        // Use the standard format whenever the bridge fits in it so other versions can read the file.
+        final boolean extended = joints.size() > 99 || members.size() > 999;
+        final int memberJointLen = extended ? EXTENDED_MEMBER_JOINT_LEN : MEMBER_JOINT_LEN;
+        f.format("%" + YEAR_LEN + "d", extended ? extendedVersion : version);
+        f.format("%" + SCENARIO_CODE_LEN + "d", designConditions.getCodeLong());
+        f.format("%" + (extended ? EXTENDED_N_JOINTS_LEN : N_JOINTS_LEN) + "d", joints.size());
+        f.format("%" + (extended ? EXTENDED_N_MEMBERS_LEN : N_MEMBERS_LEN) + "d", members.size());
+        Iterator<Joint> ej = joints.iterator();
+        while (ej.hasNext()) {
+            Joint joint = ej.next();
+            f.format("%" + JOINT_COORD_LEN + "d", grid.worldToGridX(joint.getPointWorld().x));
+            f.format("%" + JOINT_COORD_LEN + "d", grid.worldToGridY(joint.getPointWorld().y));
+        }
+        Iterator<Member> em = members.iterator();
+        while (em.hasNext()) {
+            Member member = em.next();
+            f.format("%" + memberJointLen + "d", member.getJointA().getNumber());
+            f.format("%" + memberJointLen + "d", member.getJointB().getNumber());
+            f.format("%" + MEMBER_MATERIAL_LEN + "d", member.getMaterial().getIndex());
+            f.format("%" + MEMBER_SECTION_LEN + "d", member.getShape().getSection().getIndex());
+            f.format("%" + MEMBER_SIZE_LEN + "d", member.getShape().getSizeIndex());
+        }
+    }
+
     /**
      * Developer's routine to write this bridge to a file in the format used for samples stored in resource strings.
      * The file name is <code>samples.bdf</code> in the current directory.
@@ -0,0 +1,122 @@
+/*
+ * BucklingModes.java
+ *
+ * Copyright (C) 2026 agent
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package bridgedesigner;
+
+/**
+ * Results of a linearized buckling analysis of a bridge: the lowest critical load factors of one load case
+ * and the mode shape of each.  A critical load factor is the multiple of the load case at which the
+ * bridge as a whole loses stiffness because its compressed members push joints sideways harder than
+ * the rest of the structure holds them.  Members are pin-ended bars, so this is the system buckling
+ * that the per-member column formula can't see, not the buckling of single members between joints.
+ *
+ * Mode shapes are joint displacements scaled so the largest component is one.  Only shape matters, so
+ * they are suitable for drawing with any exaggeration.  Buckling modes are immutable.
+ *
+ * @author agent
+ */
+public class BucklingModes {
+
+    /**
+     * Index of the load case analyzed.
+     */
+    private final int loadCase;
+    /**
+     * Critical load factors in increasing order.
+     */
+    private final double [] loadFactor;
+    /**
+     * Mode shapes indexed by mode and equation.
+     */
+    private final double [][] shape;
+    /**
+     * Whether all load factors converged.
+     */
+    private final boolean converged;
+
+    /**
+     * Construct buckling modes.
+     *
+     * @param loadCase index of the load case analyzed
+     * @param loadFactor critical load factors in increasing order
+     * @param shape mode shapes indexed by mode and equation, scaled so the largest component is one
+     * @param converged whether all load factors converged
+     */
+    BucklingModes(int loadCase, double [] loadFactor, double [][] shape, boolean converged) {
+        this.loadCase = loadCase;
+        this.loadFactor = loadFactor;
+        this.shape = shape;
+        this.converged = converged;
+    }
+
+    /**
+     * Return the index of the load case analyzed, the one whose compressive forces are nearest the strengths
+     * of their members.
+     *
+     * @return load case index
+     */
+    public int getLoadCase() {
+        return loadCase;
+    }
+
+    /**
+     * Return the number of modes found.  This is less than the number asked for if the load case has too
+     * few compressed members to buckle in that many ways, and zero if it has none.
+     *
+     * @return number of modes
+     */
+    public int getModeCount() {
+        return loadFactor.length;
+    }
+
+    /**
+     * Return the critical load factor of a mode.  Factors are in increasing order.
+     *
+     * @param mode mode index
+     * @return multiple of the load case at which the bridge buckles in this mode
+     */
+    public double getLoadFactor(int mode) {
+        return loadFactor[mode];
+    }
+
+    /**
+     * Return the x-component of the displacement of a joint in a mode shape.
+     *
+     * @param mode mode index
+     * @param ij joint index
+     * @return x-displacement
+     */
+    public double getXJointDisplacement(int mode, int ij) {
+        return shape[mode][2 * ij];
+    }
+
+    /**
+     * Return the y-component of the displacement of a joint in a mode shape.
+     *
+     * @param mode mode index
+     * @param ij joint index
+     * @return y-displacement
+     */
+    public double getYJointDisplacement(int mode, int ij) {
+        return shape[mode][2 * ij + 1];
+    }
+
+    /**
+     * Return true iff all load factors converged to full accuracy.
+     *
+     * @return true iff converged
+     */
+    public boolean isConverged() {
+        return converged;
+    }
+}
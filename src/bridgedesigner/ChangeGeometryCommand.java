@@ -0,0 +1,112 @@
+/*
+ * ChangeGeometryCommand.java
+ *
+ * Copyright (C) 2026 agent
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package bridgedesigner;
+
+/**
+ * Undoable/redoable command to replace all joints that aren't prescribed and all members of a bridge with
+ * those of another design for the same conditions, e.g. one found by geometry search.
+ * 
+ * @author agent
+ */
+public class ChangeGeometryCommand extends EditCommand {
+
+    /**
+     * Joints that aren't prescribed before the command.
+     */
+    private Joint[] oldJoints;
+    /**
+     * Members before the command.
+     */
+    private Member[] oldMembers;
+    /**
+     * Joints that aren't prescribed after the command.
+     */
+    private Joint[] newJoints;
+    /**
+     * Members after the command.
+     */
+    private Member[] newMembers;
+
+    /**
+     * Construct a command that gives a bridge the joints and members of a geometry search result.
+     * 
+     * @param bridge bridge to change
+     * @param design design with the same conditions as the bridge
+     */
+    public ChangeGeometryCommand(EditableBridgeModel bridge, BridgeModel design) {
+        this(bridge, design, "changeGeometry.text");
+    }
+
+    /**
+     * Construct a command that gives a bridge the joints and members of a design.
+     * 
+     * @param bridge bridge to change
+     * @param design design with the same conditions as the bridge
+     * @param presentationKey resource key of the presentation name of the command
+     */
+    public ChangeGeometryCommand(EditableBridgeModel bridge, BridgeModel design, String presentationKey) {
+        super(bridge);
+        final int nPrescribedJoints = bridge.getDesignConditions().getNPrescribedJoints();
+        oldJoints = bridge.getJoints().subList(nPrescribedJoints, bridge.getJoints().size()).toArray(new Joint[0]);
+        oldMembers = bridge.getMembers().toArray(new Member[bridge.getMembers().size()]);
+        newJoints = new Joint[design.getJoints().size() - nPrescribedJoints];
+        for (int i = 0; i < newJoints.length; i++) {
+            newJoints[i] = new Joint(nPrescribedJoints + i, design.getJoints().get(nPrescribedJoints + i).getPointWorld());
+        }
+        // Stocks are taken from the bridge's own inventory, since the design may have another one and the
+        // bridge counts stocks by identity.
+        final Inventory inventory = bridge.getInventory();
+        newMembers = new Member[design.getMembers().size()];
+        for (int i = 0; i < newMembers.length; i++) {
+            Member member = design.getMembers().get(i);
+            int a = member.getJointA().getIndex();
+            int b = member.getJointB().getIndex();
+            Shape shape = member.getShape();
+            newMembers[i] = new Member(i,
+                    a < nPrescribedJoints ? bridge.getJoints().get(a) : newJoints[a - nPrescribedJoints],
+                    b < nPrescribedJoints ? bridge.getJoints().get(b) : newJoints[b - nPrescribedJoints],
+                    inventory.getMaterial(member.getMaterial().getIndex()),
+                    inventory.getShape(shape.getSection().getIndex(), shape.getSizeIndex()));
+        }
+        presentationName = getString(presentationKey);
+    }
+
+    @Override
+    public void go() {
+        for (int i = 0; i < oldJoints.length; i++) {
+            oldJoints[i].setSelected(false);
+        }
+        for (int i = 0; i < oldMembers.length; i++) {
+            oldMembers[i].setSelected(false);
+        }
+        EditCommand.delete(bridge.getMembers(), oldMembers);
+        EditCommand.delete(bridge.getJoints(), oldJoints);
+        EditCommand.insert(bridge.getJoints(), newJoints);
+        EditCommand.insert(bridge.getMembers(), newMembers);
+    }
+
+    @Override
+    void goBack() {
+        for (int i = 0; i < newJoints.length; i++) {
+            newJoints[i].setSelected(false);
+        }
+        for (int i = 0; i < newMembers.length; i++) {
+            newMembers[i].setSelected(false);
+        }
+        EditCommand.delete(bridge.getMembers(), newMembers);
+        EditCommand.delete(bridge.getJoints(), newJoints);
+        EditCommand.insert(bridge.getJoints(), oldJoints);
+        EditCommand.insert(bridge.getMembers(), oldMembers);
+    }
+}
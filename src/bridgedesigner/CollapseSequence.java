@@ -0,0 +1,147 @@
+/*
+ * CollapseSequence.java
+ *
+ * Copyright (C) 2026 agent
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package bridgedesigner;
+
+import java.util.Arrays;
+
+/**
+ * Ordered record of member failures in a progressive collapse: the members that failed first under the
+ * load, then each member that failed as their load was redistributed, in the order it failed.  For each
+ * failure we keep the load level at which the member reached its strength, i.e. the fraction of the live
+ * load that the damaged bridge could carry at that point, and the member's force/strength ratio under
+ * the full load.  Sequences are filled in by the analysis that simulates the collapse and never change
+ * afterward.
+ *
+ * @author agent
+ */
+public class CollapseSequence {
+
+    /**
+     * Indices of failed members in order of failure.
+     */
+    private int [] member = new int [8];
+    /**
+     * Fraction of the live load at which each failed member reached its strength.
+     */
+    private double [] loadLevel = new double [8];
+    /**
+     * Force/strength ratio of each failed member under the full load, negative for compression.
+     */
+    private double [] forceRatio = new double [8];
+    /**
+     * Number of failures recorded.
+     */
+    private int nSteps = 0;
+    /**
+     * Number of failures that started the collapse, before any load was redistributed.
+     */
+    private int nInitialSteps = 0;
+    /**
+     * Whether the collapse ended with the bridge a mechanism.
+     */
+    private boolean mechanism = false;
+
+    /**
+     * Record the next failure of the sequence.
+     *
+     * @param im index of the failed member
+     * @param level fraction of the live load at which the member reached its strength
+     * @param ratio force/strength ratio of the member under the full load
+     */
+    void addStep(int im, double level, double ratio) {
+        if (nSteps == member.length) {
+            member = Arrays.copyOf(member, 2 * nSteps);
+            loadLevel = Arrays.copyOf(loadLevel, 2 * nSteps);
+            forceRatio = Arrays.copyOf(forceRatio, 2 * nSteps);
+        }
+        member[nSteps] = im;
+        loadLevel[nSteps] = level;
+        forceRatio[nSteps] = ratio;
+        ++nSteps;
+    }
+
+    /**
+     * Mark the failures recorded so far as the ones that started the collapse.
+     */
+    void setInitialSteps() {
+        nInitialSteps = nSteps;
+    }
+
+    /**
+     * Mark the collapse as having ended with the bridge a mechanism.
+     */
+    void setMechanism() {
+        mechanism = true;
+    }
+
+    /**
+     * Return the number of member failures in the sequence.
+     *
+     * @return number of failures
+     */
+    public int getStepCount() {
+        return nSteps;
+    }
+
+    /**
+     * Return the number of failures that started the collapse.  These all happened under the original
+     * load distribution.
+     *
+     * @return number of initial failures
+     */
+    public int getInitialStepCount() {
+        return nInitialSteps;
+    }
+
+    /**
+     * Return the index of the member that failed at a given step.
+     *
+     * @param step step of the sequence
+     * @return member index
+     */
+    public int getMember(int step) {
+        return member[step];
+    }
+
+    /**
+     * Return the fraction of the live load at which the member of a given step reached its strength in the
+     * bridge as damaged by the earlier steps.  This is zero if the dead load alone was too much for it.
+     *
+     * @param step step of the sequence
+     * @return load level in [0..1]
+     */
+    public double getLoadLevel(int step) {
+        return loadLevel[step];
+    }
+
+    /**
+     * Return the force/strength ratio under the full load of the member of a given step in the bridge as
+     * damaged by the earlier steps.  The ratio is negative for compression.
+     *
+     * @param step step of the sequence
+     * @return force/strength ratio
+     */
+    public double getForceRatio(int step) {
+        return forceRatio[step];
+    }
+
+    /**
+     * Return true iff the last failure left the bridge a mechanism.
+     *
+     * @return true iff the collapse ended in a mechanism
+     */
+    public boolean isMechanism() {
+        return mechanism;
+    }
+}
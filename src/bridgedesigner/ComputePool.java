@@ -0,0 +1,119 @@
+/*
+ * ComputePool.java
+ *
+ * Copyright (C) 2026 agent
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package bridgedesigner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Shared pool of daemon worker threads for splitting numerical work across cores.
+ * Tasks run from a worker thread are executed inline so nested use can't deadlock the pool.
+ *
+ * @author agent
+ */
+public class ComputePool {
+
+    /**
+     * Lazily created pool, one thread per processor.
+     */
+    private static ExecutorService pool = null;
+
+    /**
+     * Worker thread type so we can recognize calls made from inside the pool.
+     */
+    private static class Worker extends Thread {
+        Worker(Runnable r, int n) {
+            super(r, "ComputePool-" + n);
+            setDaemon(true);
+            setPriority(Thread.NORM_PRIORITY - 1);
+        }
+    }
+
+    private ComputePool() { }
+
+    /**
+     * Return the number of tasks that can usefully run at once.
+     *
+     * @return number of processors available
+     */
+    public static int getParallelism() {
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Return the shared pool, creating it if necessary.
+     *
+     * @return shared executor service
+     */
+    public static synchronized ExecutorService getPool() {
+        if (pool == null) {
+            pool = Executors.newFixedThreadPool(getParallelism(), new ThreadFactory() {
+                private int n = 0;
+                public Thread newThread(Runnable r) {
+                    return new Worker(r, n++);
+                }
+            });
+        }
+        return pool;
+    }
+
+    /**
+     * Run all the given tasks to completion, in parallel if possible.  A runtime exception thrown by
+     * any task is rethrown here after all tasks have finished.
+     *
+     * @param tasks tasks to run
+     */
+    public static void run(List<? extends Runnable> tasks) {
+        if (tasks.size() <= 1 || getParallelism() <= 1 || Thread.currentThread() instanceof Worker) {
+            for (int i = 0; i < tasks.size(); i++) {
+                tasks.get(i).run();
+            }
+            return;
+        }
+        ExecutorService executor = getPool();
+        ArrayList<Future<?>> futures = new ArrayList<Future<?>>(tasks.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            futures.add(executor.submit(tasks.get(i)));
+        }
+        RuntimeException exception = null;
+        boolean interrupted = false;
+        for (int i = 0; i < futures.size(); i++) {
+            while (true) {
+                try {
+                    futures.get(i).get();
+                    break;
+                } catch (InterruptedException ex) {
+                    interrupted = true;
+                } catch (ExecutionException ex) {
+                    if (exception == null) {
+                        exception = ex.getCause() instanceof RuntimeException ?
+                            (RuntimeException)ex.getCause() : new RuntimeException(ex.getCause());
+                    }
+                    break;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (exception != null) {
+            throw exception;
+        }
+    }
+}
@@ -108,6 +108,18 @@ public class DesignConditions implements Cloneable {
      * Maximum allowable number of members in a bridge.
      */
     public static final int maxMemberCount = 200;
+    /**
+     * Maximum number of joints in a bridge when extended limits are enabled.
+     */
+    public static final int extendedMaxJointCount = 10000;
+    /**
+     * Maximum number of members in a bridge when extended limits are enabled.
+     */
+    public static final int extendedMaxMemberCount = 20000;
+    /**
+     * Whether extended joint and member limits are in effect for editing.
+     */
+    private static boolean extendedLimits = false;
     /**
      * Tag to use when a key code is used to construct design conditions.
      */
@@ -747,6 +759,19 @@ public class DesignConditions implements Cloneable {
         return rtnCode;
     }
 
+    /**
+     * Return the design conditions that are geometrically identical to these but have the given load and deck types.
+     *
+     * @param loadType <code>STANDARD_TRUCK</code> or <code>HEAVY_TRUCK</code>
+     * @param deckType <code>MEDIUM_STRENGTH_DECK</code> or <code>HI_STRENGTH_DECK</code>
+     * @return design conditions
+     */
+    public DesignConditions getLoadCaseVariant(int loadType, int deckType) {
+        // Digit 1 is the 1-based load case, with load type in bit 0 and deck type in bit 1.
+        final long loadCase = 1 + loadType + 2 * deckType;
+        return getDesignConditions(loadCase * 1000000000L + codeLong % 1000000000L);
+    }
+
     /**
      * Return true iff the other design conditions are geometrically the same,
      * i.e. may differ only in deck and load conditions.
@@ -1381,6 +1406,43 @@ public class DesignConditions implements Cloneable {
         new DesignConditions("98D", 4053200331L),
     };
 
+    /**
+     * Enable or disable extended joint and member limits, which allow large study models beyond the
+     * design specification.
+     *
+     * @param extendedLimits whether extended limits are in effect
+     */
+    public static void setExtendedLimits(boolean extendedLimits) {
+        DesignConditions.extendedLimits = extendedLimits;
+    }
+
+    /**
+     * Return true iff extended joint and member limits are in effect.
+     *
+     * @return true iff extended limits are in effect
+     */
+    public static boolean isExtendedLimits() {
+        return extendedLimits;
+    }
+
+    /**
+     * Return the maximum number of joints a bridge may have in the current mode.
+     *
+     * @return maximum joint count
+     */
+    public static int getMaxJointCount() {
+        return extendedLimits ? extendedMaxJointCount : maxJointCount;
+    }
+
+    /**
+     * Return the maximum number of members a bridge may have in the current mode.
+     *
+     * @return maximum member count
+     */
+    public static int getMaxMemberCount() {
+        return extendedLimits ? extendedMaxMemberCount : maxMemberCount;
+    }
+
     /**
      * Return true iff the given string is a tag for some standard design conditions.
      *
@@ -39,6 +39,7 @@ public class Dispatcher {
     private ListSelectionListener memberTableSelectionListener;
     private ChangeListener stockSelectorListener;
     private ChangeListener popupStockSelectorListener;
+    private ChangeListener stockPreviewListener;
     private ChangeListener bridgeSelectionChangeListener;
     private ChangeListener bridgeStructureChangeListener;
     private ChangeListener bridgeAnalysisChangeListener;
@@ -47,6 +48,8 @@ public class Dispatcher {
         memberTable.getSelectionModel().addListSelectionListener(memberTableSelectionListener);
         stockSelector.addChangeListener(stockSelectorListener);
         popupStockSelector.addChangeListener(popupStockSelectorListener);
+        stockSelector.addPreviewListener(stockPreviewListener);
+        popupStockSelector.addPreviewListener(stockPreviewListener);
         bridge.addSelectionChangeListener(bridgeSelectionChangeListener);
         bridge.addStructureChangeListener(bridgeStructureChangeListener);
         bridge.addAnalysisChangeListener(bridgeAnalysisChangeListener);
@@ -56,6 +59,8 @@ public class Dispatcher {
         bridge.removeAnalysisChangeListener(bridgeAnalysisChangeListener);
         bridge.removeStructureChangeListener(bridgeStructureChangeListener);
         bridge.removeSelectionChangeListener(bridgeSelectionChangeListener);
+        popupStockSelector.removePreviewListener(stockPreviewListener);
+        stockSelector.removePreviewListener(stockPreviewListener);
         popupStockSelector.removeChangeListener(popupStockSelectorListener);
         stockSelector.removeChangeListener(stockSelectorListener);
         memberTable.getSelectionModel().removeListSelectionListener(memberTableSelectionListener);
@@ -111,6 +116,7 @@ public class Dispatcher {
                 disable();
                 bridge.changeSelectedMembers(stockSelector.getMaterialIndex(),
                         stockSelector.getSectionIndex(), stockSelector.getSizeIndex());
+                bridge.analyzeStockChange();
                 memberTable.fireTableDataChanged();
                 memberTable.loadSelection();
                 memberDetail.update(false);
@@ -127,6 +133,7 @@ public class Dispatcher {
                 disable();
                 bridge.changeSelectedMembers(popupStockSelector.getMaterialIndex(),
                         popupStockSelector.getSectionIndex(), popupStockSelector.getSizeIndex());
+                bridge.analyzeStockChange();
                 stockSelector.match(popupStockSelector);
                 memberTable.fireTableDataChanged();
                 memberTable.loadSelection();
@@ -136,6 +143,24 @@ public class Dispatcher {
                 enable();
             }
         };
+        stockPreviewListener = new ChangeListener() {
+
+            public void stateChanged(ChangeEvent e) {
+                // Propagate actions due to a size hovered in either stock selector.
+                // Analyze the trial stock without changing the bridge.
+                final StockSelector selector = (StockSelector) e.getSource();
+                disable();
+                if (selector.getPreviewSizeIndex() < 0) {
+                    bridge.endStockPreview();
+                }
+                else {
+                    bridge.previewStockChange(selector.getMaterialIndex(),
+                            selector.getSectionIndex(), selector.getPreviewSizeIndex());
+                }
+                draftingPanel.repaint();
+                enable();
+            }
+        };
         bridgeSelectionChangeListener = new ChangeListener() {
 
             public void stateChanged(ChangeEvent e) {
@@ -162,6 +187,8 @@ public class Dispatcher {
                 memberTable.fireTableDataChanged();
                 memberTable.loadSelection();
                 memberDetail.update(true);
+                // Marks from an unstable analysis no longer apply.
+                draftingPanel.setUnderbracedJoints(null);
                 draftingPanel.paintBackingStore(); // DEBUG: Try painting first.
                 draftingPanel.repaint();
                 // DEBUG: Probably have to load stock selector here for case
@@ -194,6 +221,26 @@ public class Dispatcher {
     public void incrementMemberSize(int inc) {
         disable();
         bridge.incrementMemberSize(inc);
+        bridge.analyzeStockChange();
+        stockSelector.matchSelection(bridge);
+        popupStockSelector.match(stockSelector);
+        memberTable.fireTableDataChanged();
+        memberTable.loadSelection();
+        memberDetail.update(false);
+        draftingPanel.paintBackingStore();
+        draftingPanel.repaint();
+        enable();
+    }
+
+    /**
+     * Handle the end of automatic sizing as a pseudo-event from the view window.
+     * 
+     * @param sized members with new stocks, each with the index of the member it replaces
+     */
+    public void autoSizeMembers(Member [] sized) {
+        disable();
+        bridge.autoSizeMembers(sized);
+        bridge.analyzeStockChange();
         stockSelector.matchSelection(bridge);
         popupStockSelector.match(stockSelector);
         memberTable.fireTableDataChanged();
@@ -187,7 +187,7 @@ public class DraftingPanel extends JPanel implements RulerHost {
                 if (bridge.moveJoint(selectedJoint, newLocation) == EditableBridgeModel.ADD_MEMBER_AT_MAX) {
                     ResourceMap resourceMap = BDApp.getResourceMap(DraftingPanel.class);
                     JOptionPane.showMessageDialog(BDApp.getFrame(),
-                        resourceMap.getString("atMaxMembers.text", DesignConditions.maxMemberCount),
+                        resourceMap.getString("atMaxMembers.text", DesignConditions.getMaxMemberCount()),
                         resourceMap.getString("atMaxMembersTitle.text"),
                         JOptionPane.WARNING_MESSAGE);                    
                 }
@@ -283,6 +283,20 @@ public class DraftingPanel extends JPanel implements RulerHost {
         repaint();
     }
 
+    /**
+     * Mark joints as under-braced on the drawing board.  Clearing marks that aren't there does nothing.
+     * 
+     * @param underbracedJoints indices of joints to mark or null to clear the marks
+     */
+    public void setUnderbracedJoints(int [] underbracedJoints) {
+        if (underbracedJoints == null && !bridgeView.hasUnderbracedJoints()) {
+            return;
+        }
+        bridgeView.setUnderbracedJoints(underbracedJoints);
+        paintBackingStore();
+        repaint();
+    }
+
     /**
      * Provide a coordinate where drawing tools will appear in a useful location.  Currently about halfway
      * down the left edge of the frame.  We don't use the upper left corner because the Java lightweight component
@@ -335,6 +349,36 @@ public class DraftingPanel extends JPanel implements RulerHost {
             hot.paintHot(g, viewportTransform, ctx);
         }
         crosshairs.paint(g);
+        final Analysis stockPreview = bridge.getStockPreview();
+        if (stockPreview != null && stockPreview.getStatus() > Analysis.UNSTABLE) {
+            paintStockPreview(g, stockPreview);
+        }
+    }
+
+    /**
+     * Draw every member colored by its force/strength ratio in the analysis of a stock hovered in a stock
+     * selector: red for compression, blue for tension, as in the force preview of a joint drag.
+     *
+     * @param g graphics context
+     * @param preview analysis of the bridge with the hovered stock
+     */
+    private void paintStockPreview(Graphics2D g, Analysis preview) {
+        Stroke savedStroke = g.getStroke();
+        Color savedColor = g.getColor();
+        g.setStroke(previewStroke);
+        Point ptA = new Point();
+        Point ptB = new Point();
+        for (int im = 0; im < bridge.getMembers().size(); im++) {
+            Member member = bridge.getMembers().get(im);
+            final double compressionRatio = preview.getMemberCompressiveForce(im) / preview.getMemberCompressiveStrength(im);
+            final double tensionRatio = preview.getMemberTensileForce(im) / preview.getMemberTensileStrength(im);
+            g.setColor(Bridge3dView.interpolatedColor(compressionRatio > tensionRatio ? -compressionRatio : tensionRatio));
+            viewportTransform.worldToViewport(ptA, member.getJointA().getPointWorld());
+            viewportTransform.worldToViewport(ptB, member.getJointB().getPointWorld());
+            g.drawLine(ptA.x, ptA.y, ptB.x, ptB.y);
+        }
+        g.setStroke(savedStroke);
+        g.setColor(savedColor);
     }
 
     /**
@@ -1101,7 +1145,7 @@ public class DraftingPanel extends JPanel implements RulerHost {
                     switch (rtn) {
                         case EditableBridgeModel.ADD_JOINT_AT_MAX:
                             JOptionPane.showMessageDialog(BDApp.getFrame(),
-                                resourceMap.getString("atMaxJoints.text", DesignConditions.maxJointCount),
+                                resourceMap.getString("atMaxJoints.text", DesignConditions.getMaxJointCount()),
                                 resourceMap.getString("atMaxJointsTitle.text"),
                                 JOptionPane.WARNING_MESSAGE);
                             break;
@@ -1253,7 +1297,7 @@ public class DraftingPanel extends JPanel implements RulerHost {
                     switch (rtn) {
                         case EditableBridgeModel.ADD_MEMBER_AT_MAX:
                             JOptionPane.showMessageDialog(BDApp.getFrame(),
-                                resourceMap.getString("atMaxMembers.text", DesignConditions.maxMemberCount),
+                                resourceMap.getString("atMaxMembers.text", DesignConditions.getMaxMemberCount()),
                                 resourceMap.getString("atMaxMembersTitle.text"),
                                 JOptionPane.WARNING_MESSAGE);
                             break;
@@ -1295,6 +1339,10 @@ public class DraftingPanel extends JPanel implements RulerHost {
             10.0f, // miterLimit
             dashes, // dash pattern
             0.0f);                  // dash phase
+    /**
+     * Stroke for members colored by force in the joint drag preview.
+     */
+    private final static BasicStroke previewStroke = new BasicStroke(3.0f, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND);
 
     private class Selector {
 
@@ -1399,9 +1447,31 @@ public class DraftingPanel extends JPanel implements RulerHost {
             private final Rectangle partialCursorExtent = new Rectangle(0, 0, -1, -1);
             private final Rectangle cursorExtent = new Rectangle();
             private final Point snapOffset = new Point();
+            /**
+             * Analysis of the bridge with the joint at the cursor, updated as the cursor moves.
+             */
+            private Analysis previewAnalysis;
+            private Joint previewJoint;
+            /**
+             * Extent of the whole bridge, which the force preview may paint over.
+             */
+            private final Rectangle previewExtent = new Rectangle(0, 0, -1, -1);
+            private boolean previewPainted = false;
+            private final Point ptA = new Point();
+            private final Point ptB = new Point();
 
             public void start(HotEditableItem<BridgePaintContext> hot, Point ptViewport, boolean extendSelection) {
                 Joint joint = (Joint) hot;
+                // A fresh analysis so each drag factors the current bridge once and then only updates
+                // the members incident on the moving joint.
+                previewAnalysis = new Analysis();
+                previewJoint = joint;
+                previewExtent.setBounds(0, 0, -1, -1);
+                Iterator<Joint> je = bridge.getJoints().iterator();
+                while (je.hasNext()) {
+                    previewExtent.add(viewportTransform.worldToViewport(null, je.next().getPointWorld()));
+                }
+                previewExtent.grow(erasureMargin, erasureMargin);
                 Member[] membersOfJoint = bridge.findMembersWithJoint(joint);
                 // Accumulate a list of all locations of joints connected to this one in viewport coordinates.
                 ptOther.clear();
@@ -1433,7 +1503,7 @@ public class DraftingPanel extends JPanel implements RulerHost {
                         case EditableBridgeModel.MOVE_JOINT_MEMBER_AT_MAX:
                             ResourceMap resourceMap = BDApp.getResourceMap(DraftingPanel.class);
                             JOptionPane.showMessageDialog(BDApp.getFrame(),
-                                resourceMap.getString("atMaxMembers.text", DesignConditions.maxMemberCount),
+                                resourceMap.getString("atMaxMembers.text", DesignConditions.getMaxMemberCount()),
                                 resourceMap.getString("atMaxMembersTitle.text"),
                                 JOptionPane.WARNING_MESSAGE);                    
                             break;
@@ -1447,6 +1517,8 @@ public class DraftingPanel extends JPanel implements RulerHost {
             public void clear() {
                 erase();
                 partialCursorExtent.setBounds(0, 0, -1, -1);
+                previewAnalysis = null;
+                previewJoint = null;
             }
 
             private void paint(Point ptViewport) {
@@ -1454,6 +1526,7 @@ public class DraftingPanel extends JPanel implements RulerHost {
                     erase();
                     crosshairs.update(true);
                     Graphics2D g = (Graphics2D) getGraphics();
+                    paintForcePreview(g);
                     crosshairs.paint(g);
                     Stroke savedStroke = g.getStroke();
                     g.setStroke(dashedStroke);
@@ -1471,14 +1544,62 @@ public class DraftingPanel extends JPanel implements RulerHost {
                 }
             }
 
+            /**
+             * Analyze the bridge with the joint at the crosshairs and, if it's stable, draw every member
+             * colored by its force/strength ratio: red for compression, blue for tension.
+             *
+             * @param g graphics context
+             */
+            private void paintForcePreview(Graphics2D g) {
+                previewPainted = false;
+                if (previewAnalysis == null) {
+                    return;
+                }
+                previewAnalysis.preview(bridge, previewJoint, crosshairs.getPtWorld());
+                final int status = previewAnalysis.getStatus();
+                if (status == Analysis.NO_STATUS || status == Analysis.UNSTABLE) {
+                    return;
+                }
+                Stroke savedStroke = g.getStroke();
+                Color savedColor = g.getColor();
+                g.setStroke(previewStroke);
+                Point ptJoint = crosshairs.getPtViewport();
+                for (int im = 0; im < bridge.getMembers().size(); im++) {
+                    Member member = bridge.getMembers().get(im);
+                    final double compressionRatio = 
+                            previewAnalysis.getMemberCompressiveForce(im) / previewAnalysis.getMemberCompressiveStrength(im);
+                    final double tensionRatio = 
+                            previewAnalysis.getMemberTensileForce(im) / previewAnalysis.getMemberTensileStrength(im);
+                    g.setColor(Bridge3dView.interpolatedColor(compressionRatio > tensionRatio ? -compressionRatio : tensionRatio));
+                    if (member.getJointA() == previewJoint) {
+                        ptA.setLocation(ptJoint);
+                    } else {
+                        viewportTransform.worldToViewport(ptA, member.getJointA().getPointWorld());
+                    }
+                    if (member.getJointB() == previewJoint) {
+                        ptB.setLocation(ptJoint);
+                    } else {
+                        viewportTransform.worldToViewport(ptB, member.getJointB().getPointWorld());
+                    }
+                    g.drawLine(ptA.x, ptA.y, ptB.x, ptB.y);
+                }
+                g.setStroke(savedStroke);
+                g.setColor(savedColor);
+                previewPainted = true;
+            }
+
             /**
              * Erase the cursor by computing a bounding box that includes all the joints connected
-             * to the hot joint and also the current crosshair intersection.  Then restore the bounding
-             * box from the backing store.
+             * to the hot joint and also the current crosshair intersection, plus the whole bridge if a force
+             * preview was drawn.  Then restore the bounding box from the backing store.
              */
             private void erase() {
                 if (crosshairs.areValid()) {
                     cursorExtent.setBounds(partialCursorExtent);
+                    if (previewPainted) {
+                        cursorExtent.add(previewExtent);
+                        previewPainted = false;
+                    }
                     cursorExtent.add(crosshairs.getPtViewport());
                     cursorExtent.grow(1, 1); // needed due to rectangle and drawing coordinate convention
                     paintImmediately(cursorExtent);
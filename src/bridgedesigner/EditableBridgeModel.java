@@ -155,6 +155,20 @@ public class EditableBridgeModel extends BridgeModel {
      * pass for the analysis to be successful.  Null means no analysis has yet succeeded.
      */
     protected Object analysisValidMark = null;
+    /**
+     * Whether the valid analysis, if any, is an incremental one made after a member stock change or in
+     * the background rather than a load test.  No design iteration has been recorded for it.
+     */
+    protected boolean analysisIsPreview = false;
+    /**
+     * Copy of the bridge with a trial stock given to the selected members while a stock is hovered in a
+     * stock selector, or null if none is.
+     */
+    protected BridgeModel stockPreviewBridge = null;
+    /**
+     * Analysis of the stock preview copy, or null if there's no preview.
+     */
+    protected Analysis stockPreviewAnalysis = null;
     /**
      * Index of the iteration currently loaded in the bridge, when the bridge has not been edited since loading.
      */
@@ -168,6 +182,23 @@ public class EditableBridgeModel extends BridgeModel {
      * edited state created merely because a caller requested a list of iterations.
      */
     protected boolean loadedIterationIsSnapshot = false;
+    /**
+     * Maximum total number of members over all analyses in the analysis cache.
+     */
+    private static final int analysisCacheCapacity = 8000;
+    /**
+     * Number of natural frequencies and vibration modes found after each load test.
+     */
+    private static final int vibrationModeCount = 4;
+    /**
+     * Number of buckling load factors and modes found after each load test.
+     */
+    private static final int bucklingModeCount = 4;
+    /**
+     * Recent successful analyses keyed by bridge structure, used to restore the analysis instantly when
+     * undo, redo, or iteration loading returns the bridge to an already-analyzed state.
+     */
+    protected final AnalysisCache analysisCache = new AnalysisCache(analysisCacheCapacity);
     
     /**
      * Construct a fresh editable bridge model.
@@ -178,7 +209,11 @@ public class EditableBridgeModel extends BridgeModel {
             public void undoableEditHappened(UndoableEditEvent e) {
                 if (e.getEdit() instanceof EditCommand) {
                     editIteration();
+                    boolean restored = restoreCachedAnalysis();
                     fireStructureChange();
+                    if (restored) {
+                        fireAnalysisChange();
+                    }
                 }
             }
         });
@@ -273,6 +308,7 @@ public class EditableBridgeModel extends BridgeModel {
                 editedIterationIndex = -1;
                 loadedIterationIsSnapshot = false;
                 lastSelected = null;
+                restoreCachedAnalysis();
                 fireIterationChange();
                 fireStructureChange();
                 fireSelectionChange();
@@ -401,16 +437,150 @@ public class EditableBridgeModel extends BridgeModel {
     }
 
     /**
-     * Analyze the current bridge.
+     * Analyze the current bridge.  If a preview analysis of the current state already exists, e.g. from
+     * the background analysis service, it is used as is and only the design iteration is recorded.
      */
     public void analyze() {
-        analysis.initialize(this);
-        analysisValidMark = analysis.getStatus() > Analysis.UNSTABLE ? undoManager.getMark() : null;
+        if (!isAnalysisPreview()) {
+            analysis.update(this);
+            analysisValidMark = analysis.getStatus() > Analysis.UNSTABLE ? undoManager.getMark() : null;
+        }
+        // Modal and buckling analyses reuse the factorization and are cheap next to the load test, so
+        // always do them.
+        if (analysis.getStatus() > Analysis.UNSTABLE) {
+            analysis.getVibrationModes(vibrationModeCount);
+            analysis.getBucklingModes(bucklingModeCount);
+        }
+        analysisIsPreview = false;
+        analysisCache.put(this, analysis, false);
         fireAnalysisChange();
         saveIteration();
         fireIterationChange();
     }
     
+    /**
+     * Re-analyze the current bridge after a change to member stock, but only if the last analysis
+     * can be updated incrementally, i.e. no joints or members have been added or removed since it was factored.
+     * This gives immediate pass/fail and force ratio feedback as stock is stepped.  Unlike
+     * <code>analyze</code>, no design iteration is recorded, so a load test is still needed for that.
+     */
+    public void analyzeStockChange() {
+        if (!isAnalysisValid() && analysis.isFactorizationOf(this)) {
+            analysis.update(this);
+            analysisValidMark = analysis.getStatus() > Analysis.UNSTABLE ? undoManager.getMark() : null;
+            analysisIsPreview = true;
+            analysisCache.put(this, analysis, true);
+            fireAnalysisChange();
+        }
+    }
+
+    /**
+     * Analyze the bridge as though the selected members had the given stock, without changing the bridge,
+     * and tell analysis listeners.  This gives pass/fail and force ratio feedback as stocks are hovered in
+     * a stock selector.  The first preview copies the bridge and factors it.  Later ones change only the
+     * selected members of the copy, so they're low-rank updates.  The bridge must not change until
+     * <code>endStockPreview</code> is called.
+     *
+     * @param materialIndex index of the material of the trial stock
+     * @param sectionIndex index of the section of the trial stock
+     * @param sizeIndex index of the size of the trial stock
+     */
+    public void previewStockChange(int materialIndex, int sectionIndex, int sizeIndex) {
+        if (!(lastSelected instanceof Member)) {
+            return;
+        }
+        if (stockPreviewBridge == null) {
+            stockPreviewBridge = new BridgeModel();
+            try {
+                stockPreviewBridge.parseBytes(toBytes());
+            } catch (IOException ex) {
+                stockPreviewBridge = null;
+                return;
+            }
+            stockPreviewAnalysis = new Analysis();
+        }
+        final ArrayList<Member> previewMembers = stockPreviewBridge.getMembers();
+        final Member [] selected = getSelectedMembers();
+        for (int i = 0; i < selected.length; i++) {
+            final int im = selected[i].getIndex();
+            previewMembers.set(im, new Member(previewMembers.get(im), stockPreviewBridge.getInventory(),
+                    materialIndex, sectionIndex, sizeIndex));
+        }
+        stockPreviewAnalysis.update(stockPreviewBridge);
+        fireAnalysisChange();
+    }
+
+    /**
+     * End any stock preview and tell analysis listeners, so they show the bridge's own analysis again.
+     */
+    public void endStockPreview() {
+        if (stockPreviewBridge != null) {
+            stockPreviewBridge = null;
+            stockPreviewAnalysis = null;
+            fireAnalysisChange();
+        }
+    }
+
+    /**
+     * Return the analysis of the hovered stock preview, if any.
+     *
+     * @return analysis of the bridge with the selected members' trial stock, or null if there's no preview
+     */
+    public Analysis getStockPreview() {
+        return stockPreviewAnalysis;
+    }
+
+    /**
+     * Make the analysis valid without analyzing if the analysis cache holds one for a bridge with
+     * the same structure as the current one.  No analysis change is fired; callers do that.
+     * 
+     * @return true iff a cached analysis was restored
+     */
+    protected boolean restoreCachedAnalysis() {
+        if (isAnalysisValid()) {
+            return false;
+        }
+        AnalysisCache.Entry entry = analysisCache.get(this);
+        if (entry == null) {
+            return false;
+        }
+        analysis.assign(entry.getAnalysis(), this);
+        analysisValidMark = undoManager.getMark();
+        analysisIsPreview = entry.isPreview();
+        return true;
+    }
+
+    /**
+     * Install the results of an analysis of a snapshot of this bridge, as made by the background analysis
+     * service.  Nothing happens unless the bridge is still in the state where the snapshot was taken, the
+     * current analysis is not already valid, and the snapshot analysis succeeded.  Like a stock change
+     * analysis, no design iteration is recorded.
+     * 
+     * @param result analysis of the snapshot
+     * @param mark undo manager mark taken with the snapshot
+     * @return true iff the results were installed
+     */
+    public boolean installAnalysis(Analysis result, Object mark) {
+        if (!undoManager.isAtMark(mark) || isAnalysisValid() || result.getStatus() <= Analysis.UNSTABLE) {
+            return false;
+        }
+        analysis.assign(result, this);
+        analysisValidMark = mark;
+        analysisIsPreview = true;
+        analysisCache.put(this, analysis, true);
+        fireAnalysisChange();
+        return true;
+    }
+
+    /**
+     * Return true iff the analysis is valid, but came from a stock change or the background rather than a load test.
+     * 
+     * @return true iff the valid analysis has no design iteration recorded for it
+     */
+    public boolean isAnalysisPreview() {
+        return analysisIsPreview && isAnalysisValid();
+    }
+
     /**
      * Return true iff necessary conditions for the bridge to be analyzed have been met.
      * 
@@ -462,6 +632,37 @@ public class EditableBridgeModel extends BridgeModel {
     public Analysis getAnalysis() {
         return analysis;
     }
+
+    /**
+     * Return the lowest natural frequencies and vibration modes of the current analysis.
+     *
+     * @return vibration modes or null if the bridge is unstable or hasn't been analyzed
+     */
+    public VibrationModes getVibrationModes() {
+        return analysis.getStatus() > Analysis.UNSTABLE ? analysis.getVibrationModes(vibrationModeCount) : null;
+    }
+
+    /**
+     * Return the lowest buckling load factors and buckling modes of the current analysis.
+     *
+     * @return buckling modes or null if the bridge is unstable or hasn't been analyzed
+     */
+    public BucklingModes getBucklingModes() {
+        return analysis.getStatus() > Analysis.UNSTABLE ? analysis.getBucklingModes(bucklingModeCount) : null;
+    }
+
+    /**
+     * Return the dynamic response of the current analysis to the truck crossing at a given speed, reduced
+     * to the same vibration modes as <code>getVibrationModes</code>.
+     *
+     * @param speed speed of the truck in kilometers per hour
+     * @return moving load response or null if the bridge is unstable, hasn't been analyzed, or the speed
+     * isn't positive
+     */
+    public MovingLoadResponse getMovingLoadResponse(double speed) {
+        return analysis.getStatus() > Analysis.UNSTABLE && speed > 0 ?
+            analysis.getMovingLoadResponse(speed, vibrationModeCount) : null;
+    }
     
     /**
      * Add a listener that will be informed of any change in the selection of the bridge.
@@ -606,7 +807,7 @@ public class EditableBridgeModel extends BridgeModel {
         if (findJointAt(ptWorld) != null) {
             return ADD_JOINT_JOINT_EXISTS;
         }
-        if (joints.size() >= DesignConditions.maxJointCount) {
+        if (joints.size() >= DesignConditions.getMaxJointCount()) {
             return ADD_JOINT_AT_MAX;
         }
         if (new InsertJointCommand(this, new Joint(ptWorld)).execute(undoManager) != 0) {
@@ -652,7 +853,7 @@ public class EditableBridgeModel extends BridgeModel {
                 }
             }
         }
-        if (members.size() >= DesignConditions.maxMemberCount) {
+        if (members.size() >= DesignConditions.getMaxMemberCount()) {
             return ADD_MEMBER_AT_MAX;
         }
         Material material = inventory.getMaterial(materialIndex);
@@ -874,6 +1075,40 @@ public class EditableBridgeModel extends BridgeModel {
         }
     }
 
+    /**
+     * Give members the stocks found by automatic sizing.  All changes are made by one command, so a single
+     * undo restores the original stocks.
+     * 
+     * @param sized members with new stocks, each with the index of the member it replaces
+     */
+    public void autoSizeMembers(Member [] sized) {
+        if (sized.length > 0) {
+            new AutoSizeCommand(this, sized).execute(undoManager);
+        }
+    }
+
+    /**
+     * Replace the joints that aren't prescribed and all the members of the bridge with those of a design
+     * for the same conditions.  This is one undoable command.
+     *
+     * @param design design to copy
+     */
+    public void changeGeometry(BridgeModel design) {
+        clearSelection(true);
+        new ChangeGeometryCommand(this, design).execute(undoManager);
+    }
+
+    /**
+     * Replace the joints that aren't prescribed and all the members of the bridge with those of a topology
+     * optimizer result for the same conditions.  This is one undoable command.
+     *
+     * @param design design to copy
+     */
+    public void changeTopology(BridgeModel design) {
+        clearSelection(true);
+        new ChangeGeometryCommand(this, design, "changeTopology.text").execute(undoManager);
+    }
+
     /**
      * Select a given element (joint or member) of the bridge, possibly clearing the previous selection.  This
      * fires a selection change event to all listeners if anything about the selection actually changes.
@@ -1309,6 +1544,22 @@ public class EditableBridgeModel extends BridgeModel {
                     analysis.getMemberTensileForce(i), analysis.getMemberTensileStrength(i), 
                     MemberTable.getMemberStatusString(member.getTensionForceStrengthRatio() <= 1));
         }
+        VibrationModes modes = getVibrationModes();
+        if (modes != null && modes.getModeCount() > 0) {
+            str.append(resourceMap.getString("naturalFrequencies.text"));
+            for (int i = 0; i < modes.getModeCount(); i++) {
+                formatter.format("\t%.3f", modes.getFrequency(i));
+            }
+            str.append('\n');
+        }
+        BucklingModes bucklingModes = getBucklingModes();
+        if (bucklingModes != null && bucklingModes.getModeCount() > 0) {
+            str.append(resourceMap.getString("bucklingLoadFactors.text"));
+            for (int i = 0; i < bucklingModes.getModeCount(); i++) {
+                formatter.format("\t%.1f", bucklingModes.getLoadFactor(i));
+            }
+            str.append('\n');
+        }
         return str.toString();
     }
 
@@ -102,7 +102,8 @@ public final class FixedEyeControls extends JDialog implements AnimationControls
             abutmentsCheckBox,
             colorsCheckBox,
             exaggerationCheckBox,
-            truckCheckBox
+            truckCheckBox,
+            dynamicCheckBox
         };
     }
 
@@ -144,6 +145,7 @@ public final class FixedEyeControls extends JDialog implements AnimationControls
         smoothTerrainCheckBox = new javax.swing.JCheckBox();
         abutmentsCheckBox = new javax.swing.JCheckBox();
         truckCheckBox = new javax.swing.JCheckBox();
+        dynamicCheckBox = new javax.swing.JCheckBox();
 
         org.jdesktop.application.ResourceMap resourceMap = org.jdesktop.application.Application.getInstance(bridgedesigner.BDApp.class).getContext().getResourceMap(FixedEyeControls.class);
         setTitle(resourceMap.getString("Form.title")); // NOI18N
@@ -278,6 +280,15 @@ public final class FixedEyeControls extends JDialog implements AnimationControls
             }
         });
 
+        dynamicCheckBox.setText(resourceMap.getString("dynamicCheckBox.text")); // NOI18N
+        dynamicCheckBox.setToolTipText(resourceMap.getString("dynamicCheckBox.toolTipText")); // NOI18N
+        dynamicCheckBox.setName("dynamicCheckBox"); // NOI18N
+        dynamicCheckBox.addItemListener(new java.awt.event.ItemListener() {
+            public void itemStateChanged(java.awt.event.ItemEvent evt) {
+                dynamicCheckBoxItemStateChanged(evt);
+            }
+        });
+
         javax.swing.GroupLayout animationControlsPanelLayout = new javax.swing.GroupLayout(animationControlsPanel);
         animationControlsPanel.setLayout(animationControlsPanelLayout);
         animationControlsPanelLayout.setHorizontalGroup(
@@ -289,7 +300,8 @@ public final class FixedEyeControls extends JDialog implements AnimationControls
                         .addGroup(animationControlsPanelLayout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
                             .addComponent(backgroundCheckBox)
                             .addComponent(abutmentsCheckBox, javax.swing.GroupLayout.DEFAULT_SIZE, 105, Short.MAX_VALUE)
-                            .addComponent(truckCheckBox, javax.swing.GroupLayout.Alignment.TRAILING, javax.swing.GroupLayout.DEFAULT_SIZE, 105, Short.MAX_VALUE))
+                            .addComponent(truckCheckBox, javax.swing.GroupLayout.Alignment.TRAILING, javax.swing.GroupLayout.DEFAULT_SIZE, 105, Short.MAX_VALUE)
+                            .addComponent(dynamicCheckBox, javax.swing.GroupLayout.DEFAULT_SIZE, 105, Short.MAX_VALUE))
                         .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.UNRELATED)
                         .addGroup(animationControlsPanelLayout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
                             .addComponent(exaggerationCheckBox, javax.swing.GroupLayout.DEFAULT_SIZE, 112, Short.MAX_VALUE)
@@ -320,6 +332,8 @@ public final class FixedEyeControls extends JDialog implements AnimationControls
                 .addGroup(animationControlsPanelLayout.createParallelGroup(javax.swing.GroupLayout.Alignment.BASELINE)
                     .addComponent(truckCheckBox)
                     .addComponent(smoothTerrainCheckBox))
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                .addComponent(dynamicCheckBox)
                 .addContainerGap())
         );
 
@@ -364,6 +378,10 @@ public final class FixedEyeControls extends JDialog implements AnimationControls
         animation.getConfig().showTruck = (evt.getStateChange() == ItemEvent.SELECTED);
 }//GEN-LAST:event_truckCheckBoxItemStateChanged
 
+    private void dynamicCheckBoxItemStateChanged(java.awt.event.ItemEvent evt) {//GEN-FIRST:event_dynamicCheckBoxItemStateChanged
+        animation.getConfig().dynamicLoading = (evt.getStateChange() == ItemEvent.SELECTED);
+    }//GEN-LAST:event_dynamicCheckBoxItemStateChanged
+
     private void backgroundCheckBoxItemStateChanged(java.awt.event.ItemEvent evt) {//GEN-FIRST:event_backgroundCheckBoxItemStateChanged
         animation.getConfig().showBackground = (evt.getStateChange() == ItemEvent.SELECTED);
         animation.invalidateBackground();
@@ -418,6 +436,7 @@ public final class FixedEyeControls extends JDialog implements AnimationControls
     private javax.swing.JToolBar animationControlsToolbar;
     private javax.swing.JCheckBox backgroundCheckBox;
     private javax.swing.JCheckBox colorsCheckBox;
+    private javax.swing.JCheckBox dynamicCheckBox;
     private javax.swing.JCheckBox exaggerationCheckBox;
     private javax.swing.JToggleButton playButton;
     private javax.swing.JButton resetButton;
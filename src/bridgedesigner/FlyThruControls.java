@@ -106,7 +106,8 @@ public final class FlyThruControls extends JDialog implements AnimationControls
             colorsCheckBox,
             erosionCheckbox,
             exaggerationCheckBox,
-            truckCheckBox
+            truckCheckBox,
+            dynamicCheckBox
         };
     }
 
@@ -154,6 +155,7 @@ public final class FlyThruControls extends JDialog implements AnimationControls
         speedLabel = new javax.swing.JLabel();
         colorsCheckBox = new javax.swing.JCheckBox();
         exaggerationCheckBox = new javax.swing.JCheckBox();
+        dynamicCheckBox = new javax.swing.JCheckBox();
         abutmentsCheckBox = new javax.swing.JCheckBox();
         truckCheckBox = new javax.swing.JCheckBox();
         erosionCheckbox = new javax.swing.JCheckBox();
@@ -285,6 +287,15 @@ public final class FlyThruControls extends JDialog implements AnimationControls
             }
         });
 
+        dynamicCheckBox.setText(resourceMap.getString("dynamicCheckBox.text")); // NOI18N
+        dynamicCheckBox.setToolTipText(resourceMap.getString("dynamicCheckBox.toolTipText")); // NOI18N
+        dynamicCheckBox.setName("dynamicCheckBox"); // NOI18N
+        dynamicCheckBox.addItemListener(new java.awt.event.ItemListener() {
+            public void itemStateChanged(java.awt.event.ItemEvent evt) {
+                dynamicCheckBoxItemStateChanged(evt);
+            }
+        });
+
         abutmentsCheckBox.setSelected(true);
         abutmentsCheckBox.setText(resourceMap.getString("abutmentsCheckBox.text")); // NOI18N
         abutmentsCheckBox.setName("abutmentsCheckBox"); // NOI18N
@@ -353,7 +364,8 @@ public final class FlyThruControls extends JDialog implements AnimationControls
                                     .addComponent(lightLabel, javax.swing.GroupLayout.PREFERRED_SIZE, 70, javax.swing.GroupLayout.PREFERRED_SIZE)
                                     .addComponent(dimLabel)
                                     .addComponent(brightLabel)))
-                            .addComponent(exaggerationCheckBox, javax.swing.GroupLayout.DEFAULT_SIZE, 124, Short.MAX_VALUE)))
+                            .addComponent(exaggerationCheckBox, javax.swing.GroupLayout.DEFAULT_SIZE, 124, Short.MAX_VALUE)
+                            .addComponent(dynamicCheckBox, javax.swing.GroupLayout.DEFAULT_SIZE, 124, Short.MAX_VALUE)))
                     .addGroup(animationControlsPanelLayout.createSequentialGroup()
                         .addGap(100, 100, 100)
                         .addComponent(speedLabel, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)))
@@ -382,6 +394,8 @@ public final class FlyThruControls extends JDialog implements AnimationControls
                         .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
                         .addComponent(exaggerationCheckBox)
                         .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                        .addComponent(dynamicCheckBox)
+                        .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
                         .addGroup(animationControlsPanelLayout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
                             .addComponent(brightnessSlider, javax.swing.GroupLayout.DEFAULT_SIZE, 97, Short.MAX_VALUE)
                             .addGroup(animationControlsPanelLayout.createSequentialGroup()
@@ -437,6 +451,10 @@ public final class FlyThruControls extends JDialog implements AnimationControls
         animation.getConfig().displacementExaggeration = (evt.getStateChange() == ItemEvent.SELECTED) ? FlyThruAnimation.standardExaggeration : 1;
 }//GEN-LAST:event_exaggerationCheckBoxItemStateChanged
 
+    private void dynamicCheckBoxItemStateChanged(java.awt.event.ItemEvent evt) {//GEN-FIRST:event_dynamicCheckBoxItemStateChanged
+        animation.getConfig().dynamicLoading = (evt.getStateChange() == ItemEvent.SELECTED);
+    }//GEN-LAST:event_dynamicCheckBoxItemStateChanged
+
     private void abutmentsCheckBoxItemStateChanged(java.awt.event.ItemEvent evt) {//GEN-FIRST:event_abutmentsCheckBoxItemStateChanged
         animation.getConfig().showAbutments = (evt.getStateChange() == ItemEvent.SELECTED);
 }//GEN-LAST:event_abutmentsCheckBoxItemStateChanged
@@ -500,6 +518,7 @@ public final class FlyThruControls extends JDialog implements AnimationControls
     private javax.swing.JLabel brightLabel;
     private javax.swing.JSlider brightnessSlider;
     private javax.swing.JCheckBox colorsCheckBox;
+    private javax.swing.JCheckBox dynamicCheckBox;
     private javax.swing.JLabel dimLabel;
     private javax.swing.JCheckBox erosionCheckbox;
     private javax.swing.JCheckBox exaggerationCheckBox;
@@ -0,0 +1,811 @@
+/*
+ * GeometrySearch.java
+ *
+ * Copyright (C) 2026 agent
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package bridgedesigner;
+
+import java.awt.Point;
+import java.awt.geom.Rectangle2D;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+/**
+ * Stochastic search for cheaper bridge geometry.  Members stay as they are, but joints that aren't prescribed
+ * by the design conditions move among the valid points of the drafting grid.
+ *
+ * The search is a population of simulated annealing chains.  Each chain owns a private copy of the bridge
+ * and an analysis of it.  A step moves one joint a few grid points, sizes every member as a fully stressed
+ * design starting from the chain's current stocks, and accepts or rejects the result by the Metropolis rule
+ * on total cost.  Designs that fail the load test are always rejected.  Chains run in parallel for a short
+ * epoch of steps.  Between epochs, the temperature falls and, as in a genetic algorithm, the worst chains
+ * are replaced by copies of the best.  Since a chain's copy keeps its structure, its analysis updates the
+ * previous factorization whenever few members have changed and otherwise refactors with the shared
+ * stiffness pattern.  Steps allocate nothing of their own.
+ *
+ * Each chain has its own random number generator seeded from the search seed, and chains interact only
+ * between epochs, so a search with an iteration budget and no time budget gives the same result for the
+ * same seed on any number of cores.  The best design found is finally sized with a <code>MemberSizer</code>.
+ *
+ * @author agent
+ */
+public class GeometrySearch {
+
+    /**
+     * Listener for designs better than any found before.
+     */
+    public interface Listener {
+
+        /**
+         * Receive a new best design.  This is called on the thread running the search.
+         *
+         * @param design new best design, which belongs to the listener
+         * @param cost total cost of the design
+         * @param finished true iff this is the final result of the search
+         */
+        void improved(BridgeModel design, double cost, boolean finished);
+    }
+
+    /**
+     * Steps taken by each chain per epoch.
+     */
+    private static final int stepsPerEpoch = 16;
+    /**
+     * Largest joint move in grid points along each axis.
+     */
+    private static final int maxStep = 2;
+    /**
+     * Starting temperature as a fraction of the cost of the starting design.
+     */
+    private static final double initialTemperature = 0.01;
+    /**
+     * Factor by which temperature falls each epoch.
+     */
+    private static final double cooling = 0.95;
+    /**
+     * Fraction of chains replaced by copies of better ones each epoch.
+     */
+    private static final double replacedFraction = 0.25;
+    /**
+     * Fully stressed design iterations for the starting design that may make members smaller as well as bigger.
+     */
+    private static final int maxInitialResizeIterations = 20;
+    /**
+     * Further starting design iterations that only make overstressed members bigger.
+     */
+    private static final int maxInitialRepairIterations = 40;
+    /**
+     * Fully stressed design iterations per step that may make members smaller.  Chains start each step from
+     * stocks sized for a nearby geometry, so few are needed.
+     */
+    private static final int maxResizeIterations = 4;
+    /**
+     * Further iterations per step that only make overstressed members bigger.
+     */
+    private static final int maxRepairIterations = 8;
+
+    /**
+     * Snapshot of the starting design.
+     */
+    private final byte [] startBytes;
+    /**
+     * Number of prescribed joints, which never move.
+     */
+    private final int nPrescribedJoints;
+    /**
+     * Grid x-coordinate of the first column of valid points.
+     */
+    private final int xGridMin;
+    /**
+     * Grid y-coordinate of the first row of valid points.
+     */
+    private final int yGridMin;
+    /**
+     * Grid coordinate distance between valid points.
+     */
+    private final int gridStep;
+    /**
+     * Drafting grid used to convert grid coordinates to world.
+     */
+    private final DraftingGrid grid;
+    /**
+     * Whether each point of the drafting grid within the design space is a valid joint location, indexed
+     * by column and row.
+     */
+    private final boolean [][] valid;
+    /**
+     * Seed of the random number generators of the chains.
+     */
+    private long seed = 0;
+    /**
+     * Number of annealing chains.
+     */
+    private int populationSize = 16;
+    /**
+     * Milliseconds the search may run or zero for no limit.
+     */
+    private long timeBudget = 30000;
+    /**
+     * Number of steps the chains may take in all or zero for no limit.
+     */
+    private long iterationBudget = 0;
+    /**
+     * Listener for new best designs or null if none.
+     */
+    private Listener listener = null;
+    /**
+     * Set to stop the search at the end of the current epoch.
+     */
+    private volatile boolean cancelled = false;
+    /**
+     * Number of steps taken by all chains so far.
+     */
+    private long iterations = 0;
+
+    /**
+     * Construct a search starting from a bridge.  The valid joint locations are the valid points of
+     * the given drafting coordinates at their current density.  This must be called on the event
+     * dispatch thread, but the search itself may run on any other.
+     *
+     * @param bridge bridge to start from
+     * @param coordinates drafting coordinates of the view of the bridge
+     */
+    public GeometrySearch(BridgeModel bridge, DraftingCoordinates coordinates) {
+        startBytes = bridge.toBytes();
+        nPrescribedJoints = bridge.getDesignConditions().getNPrescribedJoints();
+        grid = new DraftingGrid(coordinates.getDensity());
+        gridStep = coordinates.getSnapMultiple();
+        final Rectangle2D.Double extent = coordinates.getExtent();
+        xGridMin = gridStep * (int)Math.ceil(extent.getMinX() / coordinates.getGridSize());
+        yGridMin = gridStep * (int)Math.ceil(extent.getMinY() / coordinates.getGridSize());
+        final int nColumns = (int)Math.floor(extent.getMaxX() / coordinates.getGridSize()) - xGridMin / gridStep + 1;
+        final int nRows = (int)Math.floor(extent.getMaxY() / coordinates.getGridSize()) - yGridMin / gridStep + 1;
+        valid = new boolean [Math.max(0, nColumns)][Math.max(0, nRows)];
+        final Affine.Point src = new Affine.Point();
+        final Affine.Point dst = new Affine.Point();
+        final Point dstGrid = new Point();
+        for (int i = 0; i < valid.length; i++) {
+            for (int j = 0; j < valid[i].length; j++) {
+                src.x = grid.gridToWorldX(xGridMin + i * gridStep);
+                src.y = grid.gridToWorldY(yGridMin + j * gridStep);
+                coordinates.shiftToNearestValidWorldPoint(dst, dstGrid, src);
+                valid[i][j] = dst.distanceSq(src) < Utility.smallSq;
+            }
+        }
+    }
+
+    /**
+     * Construct a search starting from the bridge traced by a template sketch.  Its members are given the
+     * most common stock of the bridge or a default, since they're resized before the search starts.
+     *
+     * @param sketch template sketch
+     * @param bridge bridge whose design conditions and inventory the sketch is for
+     * @param coordinates drafting coordinates of the view of the bridge
+     */
+    public GeometrySearch(BridgeSketchModel sketch, BridgeModel bridge, DraftingCoordinates coordinates) {
+        this(getSketchBridge(sketch, bridge), coordinates);
+    }
+
+    /**
+     * Return a copy of a bridge with its joints and members replaced by those of a template sketch.
+     *
+     * @param sketch template sketch
+     * @param bridge bridge to copy
+     * @return bridge with the joints and members of the sketch
+     */
+    private static BridgeModel getSketchBridge(BridgeSketchModel sketch, BridgeModel bridge) {
+        final BridgeModel rtn = new BridgeModel();
+        try {
+            rtn.parseBytes(bridge.toBytes());
+        } catch (IOException ex) {
+            return bridge;
+        }
+        final StockSelector.Descriptor stock = bridge.getMostCommonStock();
+        final Inventory inventory = rtn.getInventory();
+        final Material material = inventory.getMaterial(stock == null ? 0 : stock.materialIndex);
+        final Shape shape = stock == null ? inventory.getShape(0, 0) : inventory.getShape(stock.sectionIndex, stock.sizeIndex);
+        rtn.initialize(bridge.getDesignConditions(), null, null);
+        for (int i = 0; i < sketch.getJointLocationCount(); i++) {
+            final Affine.Point pt = sketch.getJointLocation(i);
+            if (rtn.findJointAt(pt) == null) {
+                rtn.getJoints().add(new Joint(rtn.getJoints().size(), pt));
+            }
+        }
+        for (int i = 0; i < sketch.getSketchMemberCount(); i++) {
+            final BridgeSketchModel.SketchMember sketchMember = sketch.getSketchMember(i);
+            rtn.getMembers().add(new Member(rtn.getMembers().size(),
+                    rtn.findJointAt(sketchMember.jointA), rtn.findJointAt(sketchMember.jointB), material, shape));
+        }
+        return rtn;
+    }
+
+    /**
+     * Set the seed of the random number generators of the chains.
+     *
+     * @param seed seed
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Set the number of annealing chains.  This is independent of the number of cores so that results
+     * don't depend on the machine.
+     *
+     * @param populationSize number of chains, at least one
+     */
+    public void setPopulationSize(int populationSize) {
+        this.populationSize = Math.max(1, populationSize);
+    }
+
+    /**
+     * Set the time the search may run.  The budget is checked between epochs.
+     *
+     * @param timeBudget budget in milliseconds or zero for no limit
+     */
+    public void setTimeBudget(long timeBudget) {
+        this.timeBudget = timeBudget;
+    }
+
+    /**
+     * Set the number of steps all chains together may take.  The budget is checked between epochs.
+     *
+     * @param iterationBudget budget or zero for no limit
+     */
+    public void setIterationBudget(long iterationBudget) {
+        this.iterationBudget = iterationBudget;
+    }
+
+    /**
+     * Set the listener for new best designs.
+     *
+     * @param listener listener or null for none
+     */
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Stop the search at the end of the current epoch.  This may be called from any thread.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Return true iff the search was cancelled.
+     *
+     * @return true iff cancelled
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Return the number of steps taken by all chains so far.
+     *
+     * @return number of steps
+     */
+    public long getIterations() {
+        return iterations;
+    }
+
+    /**
+     * Run the search to the end of its budget or until it's cancelled.
+     *
+     * @return best design found, with members sized, or null if no design passing the load test was found
+     */
+    public BridgeModel run() {
+        final long startTime = System.currentTimeMillis();
+        iterations = 0;
+        final Chain [] chains = new Chain [populationSize];
+        for (int i = 0; i < chains.length; i++) {
+            chains[i] = new Chain(i);
+            if (chains[i].bridge == null) {
+                return null;
+            }
+        }
+        // All chains start alike, so size the first and copy it to the rest.
+        if (!chains[0].size(maxInitialResizeIterations, maxInitialRepairIterations)) {
+            return null;
+        }
+        chains[0].cost = chains[0].getCost();
+        chains[0].keepBest();
+        for (int i = 1; i < chains.length; i++) {
+            chains[i].copy(chains[0]);
+        }
+        Chain best = chains[0];
+        double bestCost = best.bestCost;
+        double reportedCost = bestCost;
+        report(best);
+        double temperature = initialTemperature * bestCost;
+        final ArrayList<Runnable> tasks = new ArrayList<Runnable>();
+        for (int i = 0; i < chains.length; i++) {
+            final Chain chain = chains[i];
+            tasks.add(new Runnable() {
+                public void run() {
+                    chain.anneal(stepsPerEpoch);
+                }
+            });
+        }
+        final Integer [] order = new Integer [chains.length];
+        while (!cancelled &&
+                (iterationBudget <= 0 || iterations < iterationBudget) &&
+                (timeBudget <= 0 || System.currentTimeMillis() - startTime < timeBudget)) {
+            for (int i = 0; i < chains.length; i++) {
+                chains[i].temperature = temperature;
+            }
+            ComputePool.run(tasks);
+            iterations += (long)stepsPerEpoch * chains.length;
+            for (int i = 0; i < chains.length; i++) {
+                if (chains[i].bestCost < bestCost) {
+                    best = chains[i];
+                    bestCost = best.bestCost;
+                }
+            }
+            if (bestCost < reportedCost) {
+                reportedCost = bestCost;
+                report(best);
+            }
+            // Replace the worst chains with the best.  Ties keep chain order so results are repeatable.
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, new Comparator<Integer>() {
+                public int compare(Integer a, Integer b) {
+                    return Double.compare(chains[a].cost, chains[b].cost);
+                }
+            });
+            final int nReplaced = (int)(replacedFraction * chains.length);
+            for (int i = 0; i < nReplaced; i++) {
+                chains[order[order.length - 1 - i]].copy(chains[order[i]]);
+            }
+            temperature *= cooling;
+        }
+        // Size the best design with full effort.
+        final BridgeModel design = best.getBestDesign();
+        final Member [] sized = new MemberSizer(design).getSizedMembers();
+        if (sized != null) {
+            final double unsizedCost = design.getTotalCost();
+            final Member [] unsized = new Member [sized.length];
+            for (int i = 0; i < sized.length; i++) {
+                final Member member = design.getMembers().get(sized[i].getIndex());
+                unsized[i] = new Member(member, member.getMaterial(), member.getShape());
+                member.setMaterial(sized[i].getMaterial());
+                member.setShape(sized[i].getShape());
+            }
+            if (design.getTotalCost() > unsizedCost) {
+                for (int i = 0; i < unsized.length; i++) {
+                    final Member member = design.getMembers().get(unsized[i].getIndex());
+                    member.setMaterial(unsized[i].getMaterial());
+                    member.setShape(unsized[i].getShape());
+                }
+            }
+        }
+        if (listener != null) {
+            listener.improved(design, design.getTotalCost(), true);
+        }
+        return design;
+    }
+
+    /**
+     * Send a chain's best design to the listener, if any.
+     *
+     * @param chain chain
+     */
+    private void report(Chain chain) {
+        if (listener != null) {
+            listener.improved(chain.getBestDesign(), chain.bestCost, false);
+        }
+    }
+
+    /**
+     * One simulated annealing chain with its own copy of the bridge.  All storage is allocated when the
+     * chain is constructed.
+     */
+    private class Chain {
+
+        /**
+         * Private copy of the bridge or null if the snapshot couldn't be read.
+         */
+        private BridgeModel bridge;
+        /**
+         * Analysis of the copy, kept so steps can update its factorization.
+         */
+        private final Analysis analysis = new Analysis();
+        /**
+         * Joints of the copy.
+         */
+        private Joint [] joints;
+        /**
+         * Members of the copy.
+         */
+        private Member [] members;
+        /**
+         * Indices of the members incident on each joint.
+         */
+        private int [][] incident;
+        /**
+         * Stocks in increasing order of cost per meter.
+         */
+        private int [] stocksByCost;
+        /**
+         * Properties of every stock.  Only those that don't depend on member length are used.
+         */
+        private StockTable table;
+        /**
+         * Current stock of each member.
+         */
+        private int [] stock;
+        /**
+         * Number of members using each stock.
+         */
+        private int [] stockCount;
+        /**
+         * Stocks of the members before the current step.
+         */
+        private int [] savedStock;
+        /**
+         * Joint x-coordinates of the best design this chain has seen.
+         */
+        private double [] bestX;
+        /**
+         * Joint y-coordinates of the best design this chain has seen.
+         */
+        private double [] bestY;
+        /**
+         * Member stocks of the best design this chain has seen.
+         */
+        private int [] bestStock;
+        /**
+         * Cost of the current design of the chain.
+         */
+        private double cost;
+        /**
+         * Cost of the best design the chain has seen.
+         */
+        private double bestCost = Double.POSITIVE_INFINITY;
+        /**
+         * Temperature for the current epoch.
+         */
+        private double temperature;
+        /**
+         * Random number generator of this chain.
+         */
+        private final Random random;
+        /**
+         * Scratch point for clearance checks.
+         */
+        private final Affine.Point scratch = new Affine.Point();
+
+        /**
+         * Construct a chain.
+         *
+         * @param index index of the chain, used to derive its seed
+         */
+        Chain(int index) {
+            random = new Random(seed * 1000003L + index);
+            bridge = new BridgeModel();
+            try {
+                bridge.parseBytes(startBytes);
+            } catch (IOException ex) {
+                bridge = null;
+                return;
+            }
+            joints = bridge.getJoints().toArray(new Joint[bridge.getJoints().size()]);
+            members = bridge.getMembers().toArray(new Member[bridge.getMembers().size()]);
+            final int [] nIncident = new int [joints.length];
+            for (int im = 0; im < members.length; im++) {
+                ++nIncident[members[im].getJointA().getIndex()];
+                ++nIncident[members[im].getJointB().getIndex()];
+            }
+            incident = new int [joints.length][];
+            for (int ij = 0; ij < joints.length; ij++) {
+                incident[ij] = new int [nIncident[ij]];
+                nIncident[ij] = 0;
+            }
+            for (int im = 0; im < members.length; im++) {
+                final int a = members[im].getJointA().getIndex();
+                final int b = members[im].getJointB().getIndex();
+                incident[a][nIncident[a]++] = im;
+                incident[b][nIncident[b]++] = im;
+            }
+            table = new StockTable(bridge);
+            final Integer [] order = new Integer [table.getStockCount()];
+            for (int is = 0; is < order.length; is++) {
+                order[is] = is;
+            }
+            Arrays.sort(order, new Comparator<Integer>() {
+                public int compare(Integer a, Integer b) {
+                    return Double.compare(table.getUnitCost(a), table.getUnitCost(b));
+                }
+            });
+            stocksByCost = new int [order.length];
+            for (int i = 0; i < order.length; i++) {
+                stocksByCost[i] = order[i];
+            }
+            stock = new int [members.length];
+            savedStock = new int [members.length];
+            bestStock = new int [members.length];
+            stockCount = new int [table.getStockCount()];
+            for (int im = 0; im < members.length; im++) {
+                stock[im] = table.getStock(members[im]);
+                ++stockCount[stock[im]];
+            }
+            bestX = new double [joints.length];
+            bestY = new double [joints.length];
+        }
+
+        /**
+         * Give a member of the copy a new stock.
+         *
+         * @param im member index
+         * @param is stock index
+         */
+        private void setStock(int im, int is) {
+            --stockCount[stock[im]];
+            ++stockCount[is];
+            stock[im] = is;
+            members[im].setMaterial(table.getMaterial(is));
+            members[im].setShape(table.getShape(is));
+        }
+
+        /**
+         * Return true iff a stock meets the slenderness limit for a member of given length and is strong
+         * enough for given forces.
+         *
+         * @param is stock index
+         * @param length member length
+         * @param compression largest compressive force, positive
+         * @param tension largest tensile force
+         * @return true iff the stock fits
+         */
+        private boolean fits(int is, double length, double compression, double tension) {
+            final Shape shape = table.getShape(is);
+            return length * shape.getInverseRadiusOfGyration() <= bridge.getDesignConditions().getAllowableSlenderness() &&
+                    tension <= table.getTensileStrength(is) &&
+                    compression <= Inventory.compressiveStrength(table.getMaterial(is), shape, length);
+        }
+
+        /**
+         * Resize the copy as a fully stressed design, each member getting the cheapest stock strong enough for
+         * the forces of the last analysis until no member changes.  Then only members that are overstressed
+         * change.
+         *
+         * @param nResize iterations that may make members smaller as well as bigger
+         * @param nRepair further iterations that only make members bigger
+         * @return true iff the result passes the load test
+         */
+        private boolean size(int nResize, int nRepair) {
+            for (int iter = 0; iter < nResize + nRepair; iter++) {
+                analysis.update(bridge);
+                if (analysis.getStatus() <= Analysis.UNSTABLE) {
+                    return false;
+                }
+                final boolean repairOnly = iter >= nResize;
+                boolean changed = false;
+                for (int im = 0; im < members.length; im++) {
+                    final double length = members[im].getLength();
+                    final double compression = analysis.getMemberCompressiveForce(im);
+                    final double tension = analysis.getMemberTensileForce(im);
+                    if (repairOnly && fits(stock[im], length, compression, tension)) {
+                        continue;
+                    }
+                    int iBest = -1;
+                    for (int i = 0; i < stocksByCost.length; i++) {
+                        if (fits(stocksByCost[i], length, compression, tension)) {
+                            iBest = stocksByCost[i];
+                            break;
+                        }
+                    }
+                    if (iBest < 0) {
+                        return false;
+                    }
+                    if (iBest != stock[im]) {
+                        setStock(im, iBest);
+                        changed = true;
+                    }
+                }
+                if (!changed) {
+                    return analysis.getStatus() == Analysis.PASSES;
+                }
+            }
+            analysis.update(bridge);
+            return analysis.getStatus() == Analysis.PASSES;
+        }
+
+        /**
+         * Return the total cost of the copy.  This is the same as <code>BridgeModel.getTotalCost</code> without
+         * its allocation.
+         *
+         * @return total cost
+         */
+        private double getCost() {
+            double rtn = 0;
+            for (int im = 0; im < members.length; im++) {
+                rtn += table.getUnitCost(stock[im]) * members[im].getLength();
+            }
+            int nStocks = 0;
+            for (int is = 0; is < stockCount.length; is++) {
+                if (stockCount[is] > 0) {
+                    ++nStocks;
+                }
+            }
+            final Inventory inventory = bridge.getInventory();
+            return rtn + 2 * joints.length * inventory.getConnectionFee() + nStocks * inventory.getOrderingFee() +
+                    bridge.getDesignConditions().getTotalFixedCost();
+        }
+
+        /**
+         * Return true iff a joint can be at a location without touching another joint or lying on a member
+         * it doesn't belong to and without its own members passing through other joints.
+         *
+         * @param ij joint index
+         * @param pt location of the joint
+         * @return true iff the location is clear
+         */
+        private boolean isClear(int ij, Affine.Point pt) {
+            for (int i = 0; i < joints.length; i++) {
+                if (i != ij && joints[i].isAt(pt)) {
+                    return false;
+                }
+            }
+            for (int im = 0; im < members.length; im++) {
+                if (!members[im].hasJoint(joints[ij]) &&
+                        pt.onSegment(members[im].getJointA().getPointWorld(), members[im].getJointB().getPointWorld())) {
+                    return false;
+                }
+            }
+            for (int k = 0; k < incident[ij].length; k++) {
+                final Member member = members[incident[ij][k]];
+                final Affine.Point other = member.otherJoint(joints[ij]).getPointWorld();
+                for (int i = 0; i < joints.length; i++) {
+                    if (i != ij && joints[i].getPointWorld().onSegment(pt, other)) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Take simulated annealing steps at the current temperature.
+         *
+         * @param nSteps number of steps
+         */
+        void anneal(int nSteps) {
+            final int nMovable = joints.length - nPrescribedJoints;
+            if (nMovable <= 0) {
+                return;
+            }
+            for (int step = 0; step < nSteps; step++) {
+                final int ij = nPrescribedJoints + random.nextInt(nMovable);
+                final int dx = random.nextInt(2 * maxStep + 1) - maxStep;
+                final int dy = random.nextInt(2 * maxStep + 1) - maxStep;
+                final Affine.Point pt = joints[ij].getPointWorld();
+                final int i = Math.round((grid.worldToGridX(pt.x) - xGridMin) / (float)gridStep) + dx;
+                final int j = Math.round((grid.worldToGridY(pt.y) - yGridMin) / (float)gridStep) + dy;
+                if (i < 0 || i >= valid.length || j < 0 || j >= valid[i].length || !valid[i][j]) {
+                    continue;
+                }
+                final double xOld = pt.x;
+                final double yOld = pt.y;
+                final double xNew = grid.gridToWorldX(xGridMin + i * gridStep);
+                final double yNew = grid.gridToWorldY(yGridMin + j * gridStep);
+                if (xNew == xOld && yNew == yOld) {
+                    continue;
+                }
+                if (!isClear(ij, ptAt(xNew, yNew))) {
+                    continue;
+                }
+                System.arraycopy(stock, 0, savedStock, 0, stock.length);
+                pt.x = xNew;
+                pt.y = yNew;
+                double newCost = Double.POSITIVE_INFINITY;
+                if (size(maxResizeIterations, maxRepairIterations)) {
+                    newCost = getCost();
+                }
+                final double delta = newCost - cost;
+                if (delta <= 0 || (newCost < Double.POSITIVE_INFINITY &&
+                        random.nextDouble() < Math.exp(-delta / temperature))) {
+                    cost = newCost;
+                    if (cost < bestCost) {
+                        keepBest();
+                    }
+                }
+                else {
+                    pt.x = xOld;
+                    pt.y = yOld;
+                    for (int im = 0; im < stock.length; im++) {
+                        if (stock[im] != savedStock[im]) {
+                            setStock(im, savedStock[im]);
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * Return the scratch point set to given coordinates.
+         *
+         * @param x x-coordinate
+         * @param y y-coordinate
+         * @return scratch point
+         */
+        private Affine.Point ptAt(double x, double y) {
+            scratch.x = x;
+            scratch.y = y;
+            return scratch;
+        }
+
+        /**
+         * Record the current design as the best of this chain.
+         */
+        void keepBest() {
+            bestCost = cost;
+            for (int ij = 0; ij < joints.length; ij++) {
+                bestX[ij] = joints[ij].getPointWorld().x;
+                bestY[ij] = joints[ij].getPointWorld().y;
+            }
+            System.arraycopy(stock, 0, bestStock, 0, stock.length);
+        }
+
+        /**
+         * Make this chain's current design a copy of another chain's.  The best design of this chain is kept.
+         *
+         * @param other chain to copy
+         */
+        void copy(Chain other) {
+            for (int ij = 0; ij < joints.length; ij++) {
+                joints[ij].getPointWorld().x = other.joints[ij].getPointWorld().x;
+                joints[ij].getPointWorld().y = other.joints[ij].getPointWorld().y;
+            }
+            for (int im = 0; im < members.length; im++) {
+                if (stock[im] != other.stock[im]) {
+                    setStock(im, other.stock[im]);
+                }
+            }
+            cost = other.cost;
+            if (other.bestCost < bestCost) {
+                bestCost = other.bestCost;
+                System.arraycopy(other.bestX, 0, bestX, 0, bestX.length);
+                System.arraycopy(other.bestY, 0, bestY, 0, bestY.length);
+                System.arraycopy(other.bestStock, 0, bestStock, 0, bestStock.length);
+            }
+        }
+
+        /**
+         * Return a new bridge with the best design of this chain.
+         *
+         * @return best design
+         */
+        BridgeModel getBestDesign() {
+            final BridgeModel design = new BridgeModel();
+            try {
+                design.parseBytes(startBytes);
+            } catch (IOException ex) {
+                return null;
+            }
+            for (int ij = 0; ij < joints.length; ij++) {
+                design.getJoints().get(ij).getPointWorld().x = bestX[ij];
+                design.getJoints().get(ij).getPointWorld().y = bestY[ij];
+            }
+            for (int im = 0; im < members.length; im++) {
+                design.getMembers().get(im).setMaterial(table.getMaterial(bestStock[im]));
+                design.getMembers().get(im).setShape(table.getShape(bestStock[im]));
+            }
+            return design;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * GeometrySearchService.java
+ *
+ * Copyright (C) 2026 agent
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package bridgedesigner;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import javax.swing.SwingUtilities;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+
+/**
+ * Background geometry search of an editable bridge.  The search runs on its own thread.  Each better design
+ * it finds is installed in the bridge as it arrives, replacing the one installed before, so the drafting
+ * board shows the best so far and a single undo returns to the bridge as it was before the search.  Any
+ * other edit of the bridge stops the search.
+ *
+ * All methods must be called on the event dispatch thread.
+ *
+ * @author agent
+ */
+public class GeometrySearchService {
+
+    /**
+     * Bridge being searched.
+     */
+    private final EditableBridgeModel bridge;
+    /**
+     * Search in progress or null if none.
+     */
+    private GeometrySearch search = null;
+    /**
+     * Undo manager mark after the last design installed, or at the start of the search if none.
+     */
+    private Object mark = null;
+    /**
+     * Whether a design has been installed by the current search.
+     */
+    private boolean found = false;
+    /**
+     * Whether the last search ended without finding any design that passes the load test.
+     */
+    private boolean failed = false;
+    /**
+     * Whether a design is being installed, so the resulting structure change is our own.
+     */
+    private boolean installing = false;
+    /**
+     * Listeners for the end of a search.
+     */
+    private final ArrayList<ChangeListener> changeListeners = new ArrayList<ChangeListener>();
+    /**
+     * Listener that stops the search when someone else edits the bridge.
+     */
+    private final ChangeListener structureChangeListener = new ChangeListener() {
+
+        public void stateChanged(ChangeEvent e) {
+            if (!installing && !bridge.getUndoManager().isAtMark(mark)) {
+                stop();
+            }
+        }
+    };
+
+    /**
+     * Construct a geometry search service for the given bridge.
+     *
+     * @param bridge bridge to search
+     */
+    public GeometrySearchService(EditableBridgeModel bridge) {
+        this.bridge = bridge;
+    }
+
+    /**
+     * Add a listener for the end of a search.
+     *
+     * @param l listener
+     */
+    public void addChangeListener(ChangeListener l) {
+        changeListeners.add(l);
+    }
+
+    /**
+     * Remove a listener for the end of a search.
+     *
+     * @param l listener
+     */
+    public void removeChangeListener(ChangeListener l) {
+        changeListeners.remove(l);
+    }
+
+    /**
+     * Return true iff a search is running.
+     *
+     * @return true iff running
+     */
+    public boolean isRunning() {
+        return search != null;
+    }
+
+    /**
+     * Return true iff the last search ended without finding any design that passes the load test, as
+     * when the bridge is unstable.
+     *
+     * @return true iff the search failed
+     */
+    public boolean isFailed() {
+        return failed;
+    }
+
+    /**
+     * Start searching for cheaper geometry.  If a template sketch is given, the search starts from the
+     * bridge it traces, else from the bridge itself.
+     *
+     * @param coordinates drafting coordinates giving the valid joint locations
+     * @param sketch template sketch to start from or null to start from the bridge
+     */
+    public void start(DraftingCoordinates coordinates, BridgeSketchModel sketch) {
+        stop();
+        final GeometrySearch runSearch = (sketch == null) ?
+            new GeometrySearch(bridge, coordinates) : new GeometrySearch(sketch, bridge, coordinates);
+        runSearch.setListener(new GeometrySearch.Listener() {
+
+            public void improved(final BridgeModel design, double cost, final boolean finished) {
+                SwingUtilities.invokeLater(new Runnable() {
+
+                    public void run() {
+                        if (search == runSearch) {
+                            install(design, finished);
+                        }
+                    }
+                });
+            }
+        });
+        search = runSearch;
+        mark = bridge.getUndoManager().getMark();
+        found = false;
+        failed = false;
+        bridge.addStructureChangeListener(structureChangeListener);
+        Thread thread = new Thread(new Runnable() {
+
+            public void run() {
+                if (runSearch.run() == null) {
+                    SwingUtilities.invokeLater(new Runnable() {
+
+                        public void run() {
+                            if (search == runSearch) {
+                                failed = true;
+                                finish();
+                            }
+                        }
+                    });
+                }
+            }
+        }, "GeometrySearch");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.NORM_PRIORITY - 1);
+        thread.start();
+    }
+
+    /**
+     * Stop the search in progress, if any.  The best design found so far stays in the bridge.
+     */
+    public void stop() {
+        if (search != null) {
+            search.cancel();
+            finish();
+        }
+    }
+
+    /**
+     * Install a new best design in the bridge in place of the last one installed.
+     *
+     * @param design design to install
+     * @param finished true iff this is the final result of the search
+     */
+    private void install(BridgeModel design, boolean finished) {
+        installing = true;
+        if (found) {
+            bridge.getUndoManager().undo();
+        }
+        bridge.changeGeometry(design);
+        installing = false;
+        mark = bridge.getUndoManager().getMark();
+        found = true;
+        if (finished) {
+            finish();
+        }
+    }
+
+    /**
+     * End the current search and tell listeners.
+     */
+    private void finish() {
+        search = null;
+        bridge.removeStructureChangeListener(structureChangeListener);
+        Iterator<ChangeListener> e = new ArrayList<ChangeListener>(changeListeners).iterator();
+        while (e.hasNext()) {
+            e.next().stateChanged(new ChangeEvent(this));
+        }
+    }
+}
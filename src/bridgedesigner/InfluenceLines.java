@@ -0,0 +1,244 @@
+/*
+ * InfluenceLines.java
+ *
+ * Copyright (C) 2026 agent
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package bridgedesigner;
+
+/**
+ * Influence lines of a bridge: joint displacements and member forces due to member self weight and due
+ * to a unit downward load at each loaded (deck) joint.  Since the analysis is linear, the response to any
+ * combination of deck loads is a weighted sum of these.  A load between two deck joints is carried to them
+ * by the deck in proportion to its distance from each, so responses are piecewise linear in load position
+ * and exact at any position, not only at panel points.  Nothing here depends on the load magnitudes, so one
+ * set of influence lines serves every truck and deck weight for the same stiffness.
+ *
+ * Positions are measured in panel lengths from deck joint 0, so deck joint i is at position i.  Loads outside
+ * the deck have no effect.  Influence lines are immutable.
+ *
+ * @author agent
+ */
+public class InfluenceLines {
+
+    /**
+     * Joint displacements due to factored member self weight, indexed by equation.
+     */
+    private final double [] selfWeightDisplacement;
+    /**
+     * Joint displacements due to a unit downward load at each deck joint, indexed by deck joint and equation.
+     */
+    private final double [][] unitDisplacement;
+    /**
+     * Member forces due to factored member self weight, indexed by member.
+     */
+    private final double [] selfWeightForce;
+    /**
+     * Member forces due to a unit downward load at each deck joint, indexed by deck joint and member.
+     */
+    private final double [][] unitForce;
+
+    /**
+     * Construct influence lines from displacements due to member self weight and unit deck loads.
+     *
+     * @param displacement self weight displacements followed by unit load displacements for each deck joint,
+     * each indexed by equation
+     * @param members members of the bridge
+     * @param aeOverL axial stiffness of each member
+     * @param cosX x-direction cosine of each member
+     * @param cosY y-direction cosine of each member
+     */
+    InfluenceLines(double [][] displacement, Member [] members, double [] aeOverL, double [] cosX, double [] cosY) {
+        final int nLoadedJoints = displacement.length - 1;
+        selfWeightDisplacement = displacement[0];
+        selfWeightForce = getMemberForces(displacement[0], members, aeOverL, cosX, cosY);
+        unitDisplacement = new double [nLoadedJoints][];
+        unitForce = new double [nLoadedJoints][];
+        for (int i = 0; i < nLoadedJoints; i++) {
+            unitDisplacement[i] = displacement[i + 1];
+            unitForce[i] = getMemberForces(displacement[i + 1], members, aeOverL, cosX, cosY);
+        }
+    }
+
+    /**
+     * Return the member forces due to given joint displacements.
+     *
+     * @param displacement joint displacements indexed by equation
+     * @param members members of the bridge
+     * @param aeOverL axial stiffness of each member
+     * @param cosX x-direction cosine of each member
+     * @param cosY y-direction cosine of each member
+     * @return member forces
+     */
+    private static double [] getMemberForces(double [] displacement,
+            Member [] members, double [] aeOverL, double [] cosX, double [] cosY) {
+        final double [] force = new double [members.length];
+        for (int im = 0; im < members.length; im++) {
+            final int ia = 2 * members[im].getJointA().getIndex();
+            final int ib = 2 * members[im].getJointB().getIndex();
+            force[im] = aeOverL[im] *
+                    (cosX[im] * (displacement[ib] - displacement[ia]) +
+                     cosY[im] * (displacement[ib + 1] - displacement[ia + 1]));
+        }
+        return force;
+    }
+
+    /**
+     * Return the number of deck joints.
+     *
+     * @return number of deck joints
+     */
+    public int getNLoadedJoints() {
+        return unitForce.length;
+    }
+
+    /**
+     * Return the fraction of a load at a given position that the deck carries to a given deck joint.
+     *
+     * @param i deck joint index
+     * @param x load position in panel lengths
+     * @return fraction of the load carried to the joint
+     */
+    public double getDeckShare(int i, double x) {
+        if (x < 0 || x > unitForce.length - 1) {
+            return 0;
+        }
+        final double d = Math.abs(x - i);
+        return d < 1 ? 1 - d : 0;
+    }
+
+    /**
+     * Return the force in a member due to a unit downward load at a given position.  This is the member's
+     * influence line ordinate.
+     *
+     * @param im member index
+     * @param x load position in panel lengths
+     * @return member force
+     */
+    public double getMemberForce(int im, double x) {
+        return interpolate(unitForce, im, x);
+    }
+
+    /**
+     * Add the forces in all members due to a downward load at a given position to given member forces.
+     * This is the same as adding <code>load * getMemberForce(im, x)</code> for each member, but a whole
+     * row of the influence lines at a time.
+     *
+     * @param x load position in panel lengths
+     * @param load downward load
+     * @param force member forces to add to
+     */
+    void addMemberForces(double x, double load, double [] force) {
+        final int iLast = unitForce.length - 1;
+        if (x < 0 || x > iLast) {
+            return;
+        }
+        final int iLeft = Math.max(0, Math.min((int)x, iLast - 1));
+        final double t = (iLast == 0) ? 0 : x - iLeft;
+        final double [] left = unitForce[iLeft];
+        final double [] right = unitForce[iLast == 0 ? 0 : iLeft + 1];
+        final double loadLeft = (1 - t) * load;
+        final double loadRight = t * load;
+        for (int im = 0; im < force.length; im++) {
+            force[im] += loadLeft * left[im] + loadRight * right[im];
+        }
+    }
+
+    /**
+     * Return the displacement of an equation due to a unit downward load at a given position.  Equation
+     * 2i is the x-component of the displacement of joint i and 2i+1 is the y-component.
+     *
+     * @param ie equation index
+     * @param x load position in panel lengths
+     * @return displacement
+     */
+    public double getDisplacement(int ie, double x) {
+        return interpolate(unitDisplacement, ie, x);
+    }
+
+    /**
+     * Return the force in a member due to member self weight and given deck joint loads.  Loads are positive
+     * downward, and the load at the first and last deck joints is taken to be half of that at the others.
+     *
+     * @param im member index
+     * @param pointDeadLoad load at each interior deck joint
+     * @return member force
+     */
+    public double getDeadLoadMemberForce(int im, double pointDeadLoad) {
+        return selfWeightForce[im] + pointDeadLoad * getDeckSum(unitForce, im);
+    }
+
+    /**
+     * Return unit deck load responses linearly interpolated at a load position.
+     *
+     * @param unit responses indexed by deck joint and member or equation
+     * @param i member or equation index
+     * @param x load position in panel lengths
+     * @return interpolated response
+     */
+    private static double interpolate(double [][] unit, int i, double x) {
+        final int iLast = unit.length - 1;
+        if (x < 0 || x > iLast) {
+            return 0;
+        }
+        final int iLeft = Math.min((int)x, iLast - 1);
+        if (iLeft < 0) {
+            // Only one deck joint.
+            return unit[0][i];
+        }
+        final double t = x - iLeft;
+        return (1 - t) * unit[iLeft][i] + t * unit[iLeft + 1][i];
+    }
+
+    /**
+     * Return the sum of unit deck load responses with half weight for the first and last deck joints.
+     *
+     * @param unit responses indexed by deck joint and member or equation
+     * @param i member or equation index
+     * @return sum
+     */
+    private static double getDeckSum(double [][] unit, int i) {
+        final int iLast = unit.length - 1;
+        double sum = 0.5 * (unit[0][i] + unit[iLast][i]);
+        for (int j = 1; j < iLast; j++) {
+            sum += unit[j][i];
+        }
+        return sum;
+    }
+
+    /**
+     * Return joint displacements for the standard load cases: dead load only, then dead load with the front
+     * axle of a truck at each deck joint after the first and the rear axle one panel behind it.  Loads are
+     * positive downward and already factored.
+     *
+     * @param pointDeadLoad deck dead load at each interior deck joint, half at the first and last
+     * @param frontAxleLoad front axle load
+     * @param rearAxleLoad rear axle load
+     * @return displacements indexed by load case and equation
+     */
+    public double [][] getLoadCaseDisplacements(double pointDeadLoad, double frontAxleLoad, double rearAxleLoad) {
+        final int nLoadedJoints = unitDisplacement.length;
+        final int nEquations = selfWeightDisplacement.length;
+        final double [][] displacement = new double [nLoadedJoints][nEquations];
+        final double [] dead = displacement[0];
+        for (int ie = 0; ie < nEquations; ie++) {
+            dead[ie] = selfWeightDisplacement[ie] + pointDeadLoad * getDeckSum(unitDisplacement, ie);
+        }
+        for (int ilc = 1; ilc < nLoadedJoints; ilc++) {
+            final double [] front = unitDisplacement[ilc];
+            final double [] rear = unitDisplacement[ilc - 1];
+            final double [] d = displacement[ilc];
+            for (int ie = 0; ie < nEquations; ie++) {
+                d[ie] = dead[ie] + frontAxleLoad * front[ie] + rearAxleLoad * rear[ie];
+            }
+        }
+        return displacement;
+    }
+}
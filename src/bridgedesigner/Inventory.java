@@ -136,6 +136,24 @@ public class Inventory {
         return materials[index];
     }
     
+    /**
+     * Return the number of materials in the inventory.
+     * 
+     * @return number of materials
+     */
+    public int getNMaterials() {
+        return materials.length;
+    }
+    
+    /**
+     * Return the number of cross-sections in the inventory.
+     * 
+     * @return number of cross-sections
+     */
+    public int getNSections() {
+        return crossSections.length;
+    }
+    
     /**
      * Return the number of shapes in the inventory that have a given section.
      * 
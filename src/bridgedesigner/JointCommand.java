@@ -152,7 +152,7 @@ public abstract class JointCommand extends EditCommand {
      */
     @Override
     public int execute(ExtendedUndoManager undoManager) {
-        if (bridge.getMembers().size() + insertMembers.length - deleteMembers.length > DesignConditions.maxMemberCount) {
+        if (bridge.getMembers().size() + insertMembers.length - deleteMembers.length > DesignConditions.getMaxMemberCount()) {
             return EditableBridgeModel.ADD_MEMBER_AT_MAX;
         }
         return super.execute(undoManager);
@@ -0,0 +1,208 @@
+/*
+ * JointOrdering.java
+ *
+ * Copyright (C) 2026 agent
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package bridgedesigner;
+
+import java.util.Arrays;
+
+/**
+ * Bandwidth-reducing renumbering of the joints of a truss.  Joint indices come from drawing order,
+ * which is usually a poor equation order for a profile solver.  The reverse Cuthill-McKee ordering
+ * computed here numbers joints level by level outward from a pseudo-peripheral joint, which keeps
+ * the joints of each member close together and the stiffness profile small.
+ *
+ * @author agent
+ */
+public class JointOrdering {
+
+    /**
+     * Joint adjacency lists in compressed form: neighbors of joint i are
+     * <code>adjacent[adjacentStart[i]]</code> through <code>adjacent[adjacentStart[i + 1] - 1]</code>.
+     */
+    private final int [] adjacentStart;
+    private final int [] adjacent;
+    /**
+     * Number of joints.
+     */
+    private final int nJoints;
+
+    /**
+     * Construct the joint graph of a truss with given member connectivity.
+     *
+     * @param nJoints number of joints
+     * @param jointA index of first joint of each member
+     * @param jointB index of second joint of each member
+     */
+    public JointOrdering(int nJoints, int [] jointA, int [] jointB) {
+        this.nJoints = nJoints;
+        adjacentStart = new int [nJoints + 1];
+        for (int im = 0; im < jointA.length; im++) {
+            adjacentStart[jointA[im] + 1]++;
+            adjacentStart[jointB[im] + 1]++;
+        }
+        for (int ij = 0; ij < nJoints; ij++) {
+            adjacentStart[ij + 1] += adjacentStart[ij];
+        }
+        adjacent = new int [adjacentStart[nJoints]];
+        int [] fill = new int [nJoints];
+        System.arraycopy(adjacentStart, 0, fill, 0, nJoints);
+        for (int im = 0; im < jointA.length; im++) {
+            adjacent[fill[jointA[im]]++] = jointB[im];
+            adjacent[fill[jointB[im]]++] = jointA[im];
+        }
+    }
+
+    /**
+     * Construct the joint graph of a bridge.
+     *
+     * @param bridge bridge
+     */
+    public JointOrdering(BridgeModel bridge) {
+        this(bridge.getJoints().size(), getJointIndices(bridge, true), getJointIndices(bridge, false));
+    }
+
+    private static int [] getJointIndices(BridgeModel bridge, boolean a) {
+        int [] rtn = new int [bridge.getMembers().size()];
+        for (int im = 0; im < rtn.length; im++) {
+            Member member = bridge.getMembers().get(im);
+            rtn[im] = (a ? member.getJointA() : member.getJointB()).getIndex();
+        }
+        return rtn;
+    }
+
+    private int getDegree(int ij) {
+        return adjacentStart[ij + 1] - adjacentStart[ij];
+    }
+
+    /**
+     * Return the reverse Cuthill-McKee ordering of the joints.  Each connected component is
+     * ordered separately, starting from a pseudo-peripheral joint of least degree.
+     *
+     * @return array taking each original joint index to its position in the new order
+     */
+    public int [] getReverseCuthillMcKee() {
+        int [] order = new int [nJoints];
+        int [] level = new int [nJoints];
+        boolean [] numbered = new boolean [nJoints];
+        int nNumbered = 0;
+        for (int ij = 0; ij < nJoints; ij++) {
+            if (!numbered[ij]) {
+                int root = findPseudoPeripheral(ij, level);
+                nNumbered = cuthillMcKee(root, order, nNumbered, numbered);
+            }
+        }
+        // Reverse and invert.
+        int [] position = new int [nJoints];
+        for (int i = 0; i < nJoints; i++) {
+            position[order[i]] = nJoints - 1 - i;
+        }
+        return position;
+    }
+
+    /**
+     * Number the component containing root in Cuthill-McKee order: breadth-first, visiting
+     * the unnumbered neighbors of each joint in order of increasing degree.
+     *
+     * @param root starting joint
+     * @param order order under construction
+     * @param n number of joints already in the order
+     * @param numbered flags marking joints already in the order
+     * @return new number of joints in the order
+     */
+    private int cuthillMcKee(int root, int [] order, int n, boolean [] numbered) {
+        int head = n;
+        order[n++] = root;
+        numbered[root] = true;
+        while (head < n) {
+            int ij = order[head++];
+            int first = n;
+            for (int p = adjacentStart[ij]; p < adjacentStart[ij + 1]; p++) {
+                int jj = adjacent[p];
+                if (!numbered[jj]) {
+                    numbered[jj] = true;
+                    order[n++] = jj;
+                }
+            }
+            // Insertion sort of the new neighbors by degree; lists are short.
+            for (int i = first + 1; i < n; i++) {
+                int jj = order[i];
+                int d = getDegree(jj);
+                int k = i - 1;
+                while (k >= first && getDegree(order[k]) > d) {
+                    order[k + 1] = order[k];
+                    k--;
+                }
+                order[k + 1] = jj;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Find a pseudo-peripheral joint in the component containing start using the
+     * George-Liu iteration: repeatedly root a level structure at a least-degree joint of the last
+     * level until the number of levels stops growing.
+     *
+     * @param start any joint of the component
+     * @param level scratch array of at least nJoints elements
+     * @return pseudo-peripheral joint
+     */
+    private int findPseudoPeripheral(int start, int [] level) {
+        int root = start;
+        int depth = levelStructure(root, level);
+        while (true) {
+            int best = -1;
+            for (int ij = 0; ij < nJoints; ij++) {
+                if (level[ij] == depth && (best < 0 || getDegree(ij) < getDegree(best))) {
+                    best = ij;
+                }
+            }
+            int newDepth = levelStructure(best, level);
+            if (newDepth <= depth) {
+                return root;
+            }
+            root = best;
+            depth = newDepth;
+        }
+    }
+
+    /**
+     * Compute the breadth-first level of each joint in the component containing root.
+     * Joints outside the component get level -1.
+     *
+     * @param root root joint
+     * @param level array to receive levels
+     * @return greatest level
+     */
+    private int levelStructure(int root, int [] level) {
+        Arrays.fill(level, -1);
+        int [] queue = new int [nJoints];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = root;
+        level[root] = 0;
+        int depth = 0;
+        while (head < tail) {
+            int ij = queue[head++];
+            for (int p = adjacentStart[ij]; p < adjacentStart[ij + 1]; p++) {
+                int jj = adjacent[p];
+                if (level[jj] < 0) {
+                    level[jj] = level[ij] + 1;
+                    depth = level[jj];
+                    queue[tail++] = jj;
+                }
+            }
+        }
+        return depth;
+    }
+}
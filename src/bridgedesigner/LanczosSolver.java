@@ -0,0 +1,486 @@
+/*
+ * LanczosSolver.java
+ *
+ * Copyright (C) 2026 agent
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package bridgedesigner;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Sparse symmetric eigensolver for the pencil B x = mu K x, where K is a positive definite stiffness matrix
+ * that has been factored and B is any symmetric matrix, e.g. a geometric stiffness or a mass matrix.  We
+ * find the few largest positive eigenvalues mu by the Lanczos method applied to K^-1 B, which is self-adjoint
+ * in the inner product of K.  Each step costs one product with B and one solve with the factored K.  Products
+ * with K itself are never needed, since K times each Lanczos vector is a by-product of the step that made it.
+ * Lanczos vectors are fully reorthogonalized, which is cheap for the few dozen steps we take and avoids
+ * spurious copies of converged eigenvalues.
+ *
+ * Equations may be fixed, e.g. by restraints.  Their components are zero in every Lanczos vector and mode.
+ *
+ * @author agent
+ */
+public class LanczosSolver {
+
+    /**
+     * Linear operator on vectors indexed by equation.
+     */
+    public interface Operator {
+
+        /**
+         * Apply the operator.
+         *
+         * @param x vector to apply the operator to, which must not be changed
+         * @param y vector to receive the result
+         */
+        public void apply(double [] x, double [] y);
+    }
+
+    /**
+     * Default relative accuracy of eigenvalues.
+     */
+    public static final double DEFAULT_TOLERANCE = 1e-8;
+    /**
+     * Lanczos steps allowed beyond those needed for the requested number of eigenvalues.
+     */
+    private static final int extraSteps = 60;
+    /**
+     * Lanczos steps allowed per requested eigenvalue.
+     */
+    private static final int stepsPerEigenvalue = 10;
+    /**
+     * Steps between convergence tests.
+     */
+    private static final int testInterval = 5;
+
+    /**
+     * Fixed equation flags.
+     */
+    private final boolean [] fixed;
+    /**
+     * Number of equations that are not fixed, which bounds the number of Lanczos steps.
+     */
+    private final int nFree;
+    /**
+     * Relative accuracy of eigenvalues.
+     */
+    private double tolerance = DEFAULT_TOLERANCE;
+    /**
+     * Source of Lanczos starting vectors.  Seeded so results are repeatable.
+     */
+    private final Random random = new Random(1);
+    /**
+     * Eigenvalues found by the last solve in decreasing order.
+     */
+    private double [] eigenvalues = new double [0];
+    /**
+     * K-normalized eigenvectors found by the last solve, indexed by eigenvalue and equation.
+     */
+    private double [][] eigenvectors = new double [0][];
+    /**
+     * Number of Lanczos steps taken by the last solve.
+     */
+    private int steps = 0;
+    /**
+     * Whether all eigenvalues requested in the last solve converged.
+     */
+    private boolean converged = false;
+
+    /**
+     * Construct a solver for systems with given fixed equations.
+     *
+     * @param fixed fixed equation flags indexed by equation
+     */
+    public LanczosSolver(boolean [] fixed) {
+        this.fixed = fixed;
+        int n = 0;
+        for (int i = 0; i < fixed.length; i++) {
+            if (!fixed[i]) {
+                n++;
+            }
+        }
+        nFree = n;
+    }
+
+    /**
+     * Set the relative accuracy of eigenvalues.
+     *
+     * @param tolerance ratio of residual bound to eigenvalue at which an eigenvalue is taken to have converged
+     */
+    public void setTolerance(double tolerance) {
+        this.tolerance = tolerance;
+    }
+
+    /**
+     * Find the largest positive eigenvalues of B x = mu K x and their eigenvectors.  Fewer are found if
+     * there aren't enough positive ones.
+     *
+     * @param inverse operator that solves with the factored K
+     * @param pencil operator that multiplies by B
+     * @param nEigenvalues number of eigenvalues wanted
+     * @return true iff all the eigenvalues found converged
+     */
+    public boolean solve(Operator inverse, Operator pencil, int nEigenvalues) {
+        final int n = fixed.length;
+        final int maxSteps = Math.min(nFree, stepsPerEigenvalue * nEigenvalues + extraSteps);
+        // Lanczos vectors q and their products p = K q.
+        final ArrayList<double []> q = new ArrayList<double []>();
+        final ArrayList<double []> p = new ArrayList<double []>();
+        final double [] alpha = new double [maxSteps];
+        final double [] beta = new double [maxSteps];
+        final double [] bq = new double [n];
+        eigenvalues = new double [0];
+        eigenvectors = new double [0][];
+        steps = 0;
+        converged = false;
+        if (maxSteps == 0 || !addStartVector(inverse, q, p)) {
+            return false;
+        }
+        double [][] z = null;
+        double [] theta = null;
+        for (int j = 0; j < maxSteps; j++) {
+            final double [] qj = q.get(j);
+            pencil.apply(qj, bq);
+            clearFixed(bq);
+            alpha[j] = dot(qj, bq);
+            steps = j + 1;
+            // Next vector w = K^-1 B q_j, made K-orthogonal to all earlier ones, with Kw alongside.  Its norm
+            // is needed even after the last step to bound the residuals.
+            final double [] w = new double [n];
+            inverse.apply(bq, w);
+            clearFixed(w);
+            final double [] kw = bq.clone();
+            for (int pass = 0; pass < 2; pass++) {
+                for (int i = 0; i <= j; i++) {
+                    final double h = dot(p.get(i), w);
+                    axpy(-h, q.get(i), w);
+                    axpy(-h, p.get(i), kw);
+                }
+            }
+            final double norm = Math.sqrt(Math.max(0, dot(w, kw)));
+            if (norm > 1e-10 * Math.abs(alpha[j]) && norm > 0) {
+                scale(1 / norm, w);
+                scale(1 / norm, kw);
+                q.add(w);
+                p.add(kw);
+                beta[j] = norm;
+            }
+            else if (addStartVector(inverse, q, p)) {
+                // The Krylov space is invariant. Carry on with a fresh vector uncoupled from it.
+                beta[j] = 0;
+            }
+            else {
+                break;
+            }
+            if (steps == maxSteps || (steps >= nEigenvalues && steps % testInterval == 0)) {
+                theta = alpha.clone();
+                final double [] e = beta.clone();
+                z = new double [steps][steps];
+                if (!getTridiagonalEigensystem(steps, theta, e, z)) {
+                    return false;
+                }
+                if (isConverged(theta, z, beta[steps - 1], steps, nEigenvalues)) {
+                    converged = true;
+                    break;
+                }
+            }
+        }
+        if (theta == null || z == null || z.length != steps) {
+            theta = alpha.clone();
+            final double [] e = beta.clone();
+            z = new double [steps][steps];
+            if (!getTridiagonalEigensystem(steps, theta, e, z)) {
+                return false;
+            }
+            converged = isConverged(theta, z, 0, steps, nEigenvalues);
+        }
+        // Ritz pairs for the largest positive eigenvalues of the tridiagonal matrix.
+        final int [] order = getDecreasingOrder(theta, steps);
+        int nFound = 0;
+        while (nFound < nEigenvalues && nFound < steps && theta[order[nFound]] > 0) {
+            nFound++;
+        }
+        eigenvalues = new double [nFound];
+        eigenvectors = new double [nFound][n];
+        for (int k = 0; k < nFound; k++) {
+            final int col = order[k];
+            eigenvalues[k] = theta[col];
+            for (int j = 0; j < steps; j++) {
+                axpy(z[j][col], q.get(j), eigenvectors[k]);
+            }
+        }
+        return converged;
+    }
+
+    /**
+     * Return the number of eigenvalues found by the last solve.
+     *
+     * @return number of eigenvalues
+     */
+    public int getEigenvalueCount() {
+        return eigenvalues.length;
+    }
+
+    /**
+     * Return an eigenvalue found by the last solve.  Eigenvalues are in decreasing order.
+     *
+     * @param i index of eigenvalue
+     * @return eigenvalue
+     */
+    public double getEigenvalue(int i) {
+        return eigenvalues[i];
+    }
+
+    /**
+     * Return the K-normalized eigenvector of an eigenvalue found by the last solve.
+     *
+     * @param i index of eigenvalue
+     * @return eigenvector indexed by equation
+     */
+    public double [] getEigenvector(int i) {
+        return eigenvectors[i];
+    }
+
+    /**
+     * Return the number of Lanczos steps taken by the last solve.
+     *
+     * @return number of steps
+     */
+    public int getSteps() {
+        return steps;
+    }
+
+    /**
+     * Return true iff all eigenvalues found by the last solve converged.
+     *
+     * @return true iff the last solve converged
+     */
+    public boolean isConverged() {
+        return converged;
+    }
+
+    /**
+     * Add a random Lanczos vector K-orthogonal to the existing ones.  Starting from K^-1 r for random r gives
+     * the product of K with the new vector for free.
+     *
+     * @param inverse operator that solves with the factored K
+     * @param q Lanczos vectors
+     * @param p products of K with the Lanczos vectors
+     * @return true iff a new vector was found, false if the existing ones span the whole space
+     */
+    private boolean addStartVector(Operator inverse, ArrayList<double []> q, ArrayList<double []> p) {
+        final int n = fixed.length;
+        if (q.size() >= nFree) {
+            return false;
+        }
+        final double [] r = new double [n];
+        for (int i = 0; i < n; i++) {
+            if (!fixed[i]) {
+                r[i] = 2 * random.nextDouble() - 1;
+            }
+        }
+        final double [] w = new double [n];
+        inverse.apply(r, w);
+        clearFixed(w);
+        for (int pass = 0; pass < 2; pass++) {
+            for (int i = 0; i < q.size(); i++) {
+                final double h = dot(p.get(i), w);
+                axpy(-h, q.get(i), w);
+                axpy(-h, p.get(i), r);
+            }
+        }
+        final double norm = Math.sqrt(Math.max(0, dot(w, r)));
+        if (norm == 0) {
+            return false;
+        }
+        scale(1 / norm, w);
+        scale(1 / norm, r);
+        q.add(w);
+        p.add(r);
+        return true;
+    }
+
+    /**
+     * Return true iff the wanted eigenvalues of the tridiagonal Lanczos matrix have converged, i.e. the
+     * residual bound of each, the product of the last subdiagonal with the last component of its
+     * eigenvector, is small compared with the eigenvalue itself.
+     *
+     * @param theta eigenvalues of the tridiagonal matrix
+     * @param z eigenvectors of the tridiagonal matrix in columns
+     * @param betaLast coupling of the last Lanczos vector to the next one
+     * @param m order of the tridiagonal matrix
+     * @param nEigenvalues number of eigenvalues wanted
+     * @return true iff all wanted eigenvalues have converged
+     */
+    private boolean isConverged(double [] theta, double [][] z, double betaLast, int m, int nEigenvalues) {
+        final int [] order = getDecreasingOrder(theta, m);
+        for (int k = 0; k < nEigenvalues && k < m; k++) {
+            final double t = theta[order[k]];
+            if (t <= 0) {
+                // Fewer positive eigenvalues than wanted. Only exhausting the space can tell.
+                return m == nFree;
+            }
+            if (Math.abs(betaLast * z[m - 1][order[k]]) > tolerance * t) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Return the indices of the first m eigenvalues sorted in decreasing order.
+     *
+     * @param theta eigenvalues
+     * @param m number of eigenvalues
+     * @return indices in decreasing order of eigenvalue
+     */
+    private static int [] getDecreasingOrder(double [] theta, int m) {
+        final int [] order = new int [m];
+        for (int i = 0; i < m; i++) {
+            int j = i;
+            while (j > 0 && theta[order[j - 1]] < theta[i]) {
+                order[j] = order[j - 1];
+                --j;
+            }
+            order[j] = i;
+        }
+        return order;
+    }
+
+    /**
+     * Find the eigenvalues and eigenvectors of a symmetric tridiagonal matrix by the QL method with implicit
+     * shifts.
+     *
+     * @param m order of the matrix
+     * @param d diagonal on entry, eigenvalues on return
+     * @param e subdiagonal on entry, with e[i] coupling rows i and i+1; destroyed
+     * @param z m by m array to receive the eigenvectors in its columns
+     * @return true iff the iteration converged
+     */
+    static boolean getTridiagonalEigensystem(int m, double [] d, double [] e, double [][] z) {
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < m; j++) {
+                z[i][j] = (i == j) ? 1 : 0;
+            }
+        }
+        e[m - 1] = 0;
+        for (int l = 0; l < m; l++) {
+            int iter = 0;
+            int k;
+            do {
+                // Find a negligible subdiagonal entry to split the matrix.
+                for (k = l; k < m - 1; k++) {
+                    final double dd = Math.abs(d[k]) + Math.abs(d[k + 1]);
+                    if (Math.abs(e[k]) <= 1e-16 * dd) {
+                        break;
+                    }
+                }
+                if (k != l) {
+                    if (iter++ == 60) {
+                        return false;
+                    }
+                    double g = (d[l + 1] - d[l]) / (2 * e[l]);
+                    double r = Math.sqrt(g * g + 1);
+                    g = d[k] - d[l] + e[l] / (g + (g >= 0 ? r : -r));
+                    double s = 1;
+                    double c = 1;
+                    double shift = 0;
+                    int i;
+                    for (i = k - 1; i >= l; i--) {
+                        double f = s * e[i];
+                        final double b = c * e[i];
+                        r = Math.sqrt(f * f + g * g);
+                        e[i + 1] = r;
+                        if (r == 0) {
+                            // Recover from underflow.
+                            d[i + 1] -= shift;
+                            e[k] = 0;
+                            break;
+                        }
+                        s = f / r;
+                        c = g / r;
+                        g = d[i + 1] - shift;
+                        r = (d[i] - g) * s + 2 * c * b;
+                        shift = s * r;
+                        d[i + 1] = g + shift;
+                        g = c * r - b;
+                        for (int row = 0; row < m; row++) {
+                            f = z[row][i + 1];
+                            z[row][i + 1] = s * z[row][i] + c * f;
+                            z[row][i] = c * z[row][i] - s * f;
+                        }
+                    }
+                    if (r == 0 && i >= l) {
+                        continue;
+                    }
+                    d[l] -= shift;
+                    e[l] = g;
+                    e[k] = 0;
+                }
+            } while (k != l);
+        }
+        return true;
+    }
+
+    /**
+     * Zero the fixed components of a vector.
+     *
+     * @param x vector
+     */
+    private void clearFixed(double [] x) {
+        for (int i = 0; i < x.length; i++) {
+            if (fixed[i]) {
+                x[i] = 0;
+            }
+        }
+    }
+
+    /**
+     * Return the dot product of two vectors.
+     *
+     * @param x first vector
+     * @param y second vector
+     * @return dot product
+     */
+    private static double dot(double [] x, double [] y) {
+        double s = 0;
+        for (int i = 0; i < x.length; i++) {
+            s += x[i] * y[i];
+        }
+        return s;
+    }
+
+    /**
+     * Add a multiple of one vector to another.
+     *
+     * @param a multiplier
+     * @param x vector to add
+     * @param y vector to add to
+     */
+    private static void axpy(double a, double [] x, double [] y) {
+        for (int i = 0; i < x.length; i++) {
+            y[i] += a * x[i];
+        }
+    }
+
+    /**
+     * Multiply a vector by a scalar in place.
+     *
+     * @param a multiplier
+     * @param x vector
+     */
+    private static void scale(double a, double [] x) {
+        for (int i = 0; i < x.length; i++) {
+            x[i] *= a;
+        }
+    }
+}
@@ -0,0 +1,488 @@
+/*
+ * MemberSizer.java
+ *
+ * Copyright (C) 2026 agent
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package bridgedesigner;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Automatic choice of member stock to minimize the total cost of a bridge that passes the load test.
+ * Geometry is left alone; only the material, section, and size of each member change.
+ *
+ * Sizing starts with a fully stressed design: each member gets the cheapest stock strong enough for the
+ * forces of the last analysis, and the bridge is analyzed again until no member changes.  Because each
+ * stock ordered costs a fee, this is seldom the cheapest design, so it's followed by a descent that moves
+ * one member at a time to whatever stock lowers total cost most while the bridge still passes.  Moves are
+ * checked exactly without analysis.  A member's stock enters the stiffness matrix as a rank one term and
+ * its weight as loads on its two joints, so forces after a move follow by Sherman-Morrison from forces due
+ * to unit loads along each member and at each joint, all solved with one factorization.  Members are
+ * checked in parallel.  The best moves found are applied together and verified with an incrementally
+ * updated analysis, halving the batch until it passes.  If the bridge already passes and costs less than
+ * the result, its own stocks are a second starting point for the descent.  Single moves can't remove a stock
+ * used by several members, so the best design is finally given to a <code>StockConsolidator</code>, and the
+ * descent runs once more from its best alternative if that's cheaper.
+ *
+ * The sizer works on a private copy of the bridge, which is never changed.  It may be cancelled from another
+ * thread.
+ *
+ * @author agent
+ */
+public class MemberSizer {
+
+    /**
+     * Iterations of the fully stressed design that may make members smaller as well as bigger.
+     */
+    private static final int maxResizeIterations = 20;
+    /**
+     * Further iterations that only make overstressed members bigger, which can't cycle indefinitely.
+     */
+    private static final int maxRepairIterations = 40;
+    /**
+     * Upper bound on rounds of the descent.
+     */
+    private static final int maxDescentRounds = 500;
+    /**
+     * Smallest cost reduction in dollars worth a move.
+     */
+    private static final double minSaving = 0.005;
+
+    /**
+     * Bridge to size.
+     */
+    private final BridgeModel source;
+    /**
+     * Private copy of the bridge whose stocks are changed as sizing proceeds.
+     */
+    private BridgeModel bridge;
+    /**
+     * Analysis of the copy, kept so stock changes are incremental updates.
+     */
+    private final Analysis analysis = new Analysis();
+    /**
+     * Members of the copy.
+     */
+    private Member [] members;
+    /**
+     * Properties of every stock for every member of the copy.
+     */
+    private StockTable table;
+    /**
+     * Current stock of each member.
+     */
+    private int [] stock;
+    /**
+     * Number of members using each stock.
+     */
+    private int [] stockCount;
+    /**
+     * Consolidator in progress or null if none.
+     */
+    private volatile StockConsolidator consolidator = null;
+    /**
+     * Set to stop sizing at the next chance.
+     */
+    private volatile boolean cancelled = false;
+
+    /**
+     * Construct a sizer for a bridge.
+     *
+     * @param bridge bridge to size
+     */
+    public MemberSizer(BridgeModel bridge) {
+        this.source = bridge;
+    }
+
+    /**
+     * Stop sizing after the current analysis or search step.  This may be called from any thread.
+     */
+    public void cancel() {
+        cancelled = true;
+        final StockConsolidator running = consolidator;
+        if (running != null) {
+            running.cancel();
+        }
+    }
+
+    /**
+     * Find member stocks for the bridge that pass the load test at least cost.
+     *
+     * @return new members with their stock changed, each with the index of the member it replaces, or null if
+     * the bridge is unstable, no stocks were found that pass, or the sizer was cancelled
+     */
+    public Member [] getSizedMembers() {
+        bridge = new BridgeModel();
+        try {
+            bridge.parseBytes(source.toBytes());
+        } catch (IOException ex) {
+            return null;
+        }
+        initialize();
+        final int [] original = stock.clone();
+        final double originalCost = bridge.getTotalCost();
+        int [] best = null;
+        double bestCost = Double.POSITIVE_INFINITY;
+        // Start from a fully stressed design.
+        if (fullyStress()) {
+            descend();
+            best = stock.clone();
+            bestCost = bridge.getTotalCost();
+        }
+        // Start again from the bridge as it stands if it passes and is already cheaper.
+        if (originalCost < bestCost) {
+            for (int im = 0; im < members.length; im++) {
+                setStock(im, original[im]);
+            }
+            if (analyze() && analysis.getStatus() == Analysis.PASSES) {
+                descend();
+                best = stock.clone();
+                bestCost = bridge.getTotalCost();
+            }
+        }
+        if (best == null || cancelled) {
+            return null;
+        }
+        // Trade material for fewer stocks, then descend again from the result.
+        for (int im = 0; im < members.length; im++) {
+            setStock(im, best[im]);
+        }
+        consolidator = new StockConsolidator(bridge);
+        if (cancelled) {
+            return null;
+        }
+        final StockConsolidator.Alternative [] alternatives = consolidator.getAlternatives();
+        consolidator = null;
+        if (cancelled) {
+            return null;
+        }
+        if (alternatives.length > 0 && alternatives[0].getCost() < bestCost - minSaving) {
+            final int [] consolidated = alternatives[0].getStocks();
+            for (int im = 0; im < members.length; im++) {
+                setStock(im, consolidated[im]);
+            }
+            if (analyze() && analysis.getStatus() == Analysis.PASSES) {
+                descend();
+                best = stock.clone();
+            }
+        }
+        if (cancelled) {
+            return null;
+        }
+        final ArrayList<Member> sized = new ArrayList<Member>();
+        for (int im = 0; im < members.length; im++) {
+            if (best[im] != original[im]) {
+                sized.add(table.getMember(source, im, best[im]));
+            }
+        }
+        return sized.toArray(new Member[sized.size()]);
+    }
+
+    /**
+     * Tabulate the stocks for the members of the copy and find their current ones.
+     */
+    private void initialize() {
+        table = new StockTable(bridge);
+        members = bridge.getMembers().toArray(new Member[bridge.getMembers().size()]);
+        stock = new int [members.length];
+        stockCount = new int [table.getStockCount()];
+        for (int im = 0; im < members.length; im++) {
+            stock[im] = table.getStock(members[im]);
+            ++stockCount[stock[im]];
+        }
+    }
+
+    /**
+     * Give a member of the copy a new stock.
+     *
+     * @param im member index
+     * @param is stock index
+     */
+    private void setStock(int im, int is) {
+        --stockCount[stock[im]];
+        ++stockCount[is];
+        stock[im] = is;
+        members[im].setMaterial(table.getMaterial(is));
+        members[im].setShape(table.getShape(is));
+    }
+
+    /**
+     * Analyze the copy in its current state.
+     *
+     * @return true iff the copy is stable
+     */
+    private boolean analyze() {
+        analysis.update(bridge);
+        return analysis.getStatus() > Analysis.UNSTABLE;
+    }
+
+    /**
+     * Resize the copy as a fully stressed design, each member getting the cheapest stock strong enough for the
+     * forces of the last analysis until no member changes.  If that hasn't settled after a while, only members
+     * that are overstressed change.  A member no stock is strong enough for gets the strongest.
+     *
+     * @return true iff the result passes the load test
+     */
+    private boolean fullyStress() {
+        final int nMembers = members.length;
+        final int nStocks = table.getStockCount();
+        for (int iter = 0; iter < maxResizeIterations + maxRepairIterations; iter++) {
+            if (cancelled || !analyze()) {
+                return false;
+            }
+            final boolean repairOnly = iter >= maxResizeIterations;
+            boolean changed = false;
+            for (int im = 0; im < nMembers; im++) {
+                final double compression = analysis.getMemberCompressiveForce(im);
+                final double tension = analysis.getMemberTensileForce(im);
+                if (repairOnly && table.fits(im, stock[im], compression, tension)) {
+                    continue;
+                }
+                int iBest = -1;
+                for (int is = 0; is < nStocks; is++) {
+                    if (table.fits(im, is, compression, tension) &&
+                            (iBest < 0 || table.getCost(im, is) < table.getCost(im, iBest))) {
+                        iBest = is;
+                    }
+                }
+                if (iBest < 0) {
+                    double bestMargin = Double.NEGATIVE_INFINITY;
+                    for (int is = 0; is < nStocks; is++) {
+                        final double margin = Math.min(table.getCompressiveStrength(im, is) - compression,
+                                table.getTensileStrength(is) - tension);
+                        if (table.isAdmissible(im, is) && margin > bestMargin) {
+                            bestMargin = margin;
+                            iBest = is;
+                        }
+                    }
+                    if (iBest < 0) {
+                        return false;
+                    }
+                }
+                if (iBest != stock[im]) {
+                    setStock(im, iBest);
+                    changed = true;
+                }
+            }
+            if (!changed) {
+                return analysis.getStatus() == Analysis.PASSES;
+            }
+        }
+        return analyze() && analysis.getStatus() == Analysis.PASSES;
+    }
+
+    /**
+     * Lower the total cost of the copy, which must pass the load test as last analyzed, by single member
+     * stock changes that keep it passing.  Each round finds the best move for each member, then applies as
+     * many of the best of these as still pass together.
+     */
+    private void descend() {
+        final int nMembers = members.length;
+        double totalCost = bridge.getTotalCost();
+        for (int round = 0; round < maxDescentRounds && !cancelled; round++) {
+            final Move [] moves = findMoves();
+            if (moves == null || moves.length == 0) {
+                return;
+            }
+            int nApplied = moves.length;
+            final int [] from = new int [nMembers];
+            while (true) {
+                for (int i = 0; i < nApplied; i++) {
+                    from[i] = stock[moves[i].member];
+                    setStock(moves[i].member, moves[i].stock);
+                }
+                final double newCost = bridge.getTotalCost();
+                if (newCost < totalCost - minSaving && analyze() && analysis.getStatus() == Analysis.PASSES) {
+                    totalCost = newCost;
+                    break;
+                }
+                for (int i = nApplied - 1; i >= 0; i--) {
+                    setStock(moves[i].member, from[i]);
+                }
+                if (nApplied == 1) {
+                    // Rounding defeated an exact check.  Leave the analysis of the last passing state.
+                    analyze();
+                    return;
+                }
+                nApplied /= 2;
+            }
+        }
+    }
+
+    /**
+     * A change of one member's stock.
+     */
+    private static class Move {
+        /**
+         * Index of the member to change.
+         */
+        int member;
+        /**
+         * Index of the new stock.
+         */
+        int stock;
+        /**
+         * Reduction in total cost.
+         */
+        double saving;
+    }
+
+    /**
+     * Find the best stock change for each member of the copy that keeps it passing, given the last analysis.
+     *
+     * @return moves in decreasing order of saving or null if the copy is a mechanism
+     */
+    private Move [] findMoves() {
+        final int nMembers = members.length;
+        final int nJoints = bridge.getJoints().size();
+        final int nLoadCases = bridge.getDesignConditions().getNLoadedJoints();
+        // Unit loads stretching each member, then unit downward loads at each joint.
+        final double [][] loads = new double [nMembers + nJoints][2 * nJoints];
+        for (int im = 0; im < nMembers; im++) {
+            final int ia = 2 * members[im].getJointA().getIndex();
+            final int ib = 2 * members[im].getJointB().getIndex();
+            final Affine.Point a = members[im].getJointA().getPointWorld();
+            final Affine.Point b = members[im].getJointB().getPointWorld();
+            final double length = members[im].getLength();
+            final double cx = (b.x - a.x) / length;
+            final double cy = (b.y - a.y) / length;
+            loads[im][ia] = -cx;
+            loads[im][ia + 1] = -cy;
+            loads[im][ib] = cx;
+            loads[im][ib + 1] = cy;
+        }
+        for (int ij = 0; ij < nJoints; ij++) {
+            loads[nMembers + ij][2 * ij + 1] = -1;
+        }
+        final double [][] response = analysis.getMemberForces(loads);
+        if (response == null) {
+            return null;
+        }
+        final double [][] force = new double [nLoadCases][nMembers];
+        for (int ilc = 0; ilc < nLoadCases; ilc++) {
+            for (int im = 0; im < nMembers; im++) {
+                force[ilc][im] = analysis.getMemberForce(ilc, im);
+            }
+        }
+        final Move [] best = new Move [nMembers];
+        final ArrayList<Runnable> tasks = new ArrayList<Runnable>();
+        final int blockSize = Math.max(1, nMembers / (4 * ComputePool.getParallelism()));
+        for (int first = 0; first < nMembers; first += blockSize) {
+            final int f = first;
+            final int end = Math.min(nMembers, first + blockSize);
+            tasks.add(new Runnable() {
+                public void run() {
+                    final double [] memberForce = new double [nMembers];
+                    for (int im = f; im < end; im++) {
+                        best[im] = findMove(im, force, response, memberForce);
+                    }
+                }
+            });
+        }
+        ComputePool.run(tasks);
+        final ArrayList<Move> moves = new ArrayList<Move>();
+        for (int im = 0; im < nMembers; im++) {
+            if (best[im] != null) {
+                moves.add(best[im]);
+            }
+        }
+        final Move [] rtn = moves.toArray(new Move[moves.size()]);
+        Arrays.sort(rtn, new Comparator<Move>() {
+            public int compare(Move a, Move b) {
+                return Double.compare(b.saving, a.saving);
+            }
+        });
+        return rtn;
+    }
+
+    /**
+     * Find the stock change for one member that saves the most while keeping the copy passing.  With z the
+     * solution for a unit load stretching the member, a stiffness change dk scales its elongation e by
+     * 1 / (1 + dk e'z) and changes the force in every other member by -dk e / (1 + dk e'z) times that member's
+     * force due to z.  A weight change first adds the forces due to the changed loads on the member's joints.
+     *
+     * @param im member index
+     * @param force member forces of the last analysis indexed by load case and member
+     * @param response member forces due to unit member and joint loads
+     * @param memberForce scratch space for the forces of one load case
+     * @return best move or null if there is none
+     */
+    private Move findMove(int im, double [][] force, double [][] response, double [] memberForce) {
+        final int nMembers = members.length;
+        final int nStocks = table.getStockCount();
+        final int nLoadCases = force.length;
+        final int is = stock[im];
+        final double fee = bridge.getInventory().getOrderingFee();
+        // Candidates that save money, best first.
+        final double leaveSaving = table.getCost(im, is) + (stockCount[is] == 1 ? fee : 0);
+        final double [] saving = new double [nStocks];
+        final Integer [] candidates = new Integer [nStocks];
+        int nCandidates = 0;
+        for (int it = 0; it < nStocks; it++) {
+            saving[it] = leaveSaving - table.getCost(im, it) - (stockCount[it] == 0 ? fee : 0);
+            if (it != is && table.isAdmissible(im, it) && saving[it] > minSaving) {
+                candidates[nCandidates++] = it;
+            }
+        }
+        if (nCandidates == 0) {
+            return null;
+        }
+        Arrays.sort(candidates, 0, nCandidates, new Comparator<Integer>() {
+            public int compare(Integer a, Integer b) {
+                return Double.compare(saving[b], saving[a]);
+            }
+        });
+        final double [] stretch = response[im];
+        final double [] jointA = response[nMembers + members[im].getJointA().getIndex()];
+        final double [] jointB = response[nMembers + members[im].getJointB().getIndex()];
+        final double k = table.getStiffness(im, is);
+        final double flexibility = stretch[im] / k;
+        for (int i = 0; i < nCandidates; i++) {
+            final int it = candidates[i];
+            final double dk = table.getStiffness(im, it) - k;
+            final double dw = table.getDeadLoad(im, it) - table.getDeadLoad(im, is);
+            final double denominator = 1 + dk * flexibility;
+            if (denominator <= 0) {
+                continue;
+            }
+            // Cheap check of the member itself first.
+            boolean ok = true;
+            for (int ilc = 0; ilc < nLoadCases && ok; ilc++) {
+                final double f = table.getStiffness(im, it) * (force[ilc][im] + dw * (jointA[im] + jointB[im])) / k / denominator;
+                ok = table.fits(im, it, -f, f);
+            }
+            // Then all the others.
+            for (int ilc = 0; ilc < nLoadCases && ok; ilc++) {
+                final double [] f = force[ilc];
+                final double c = dk * (f[im] + dw * (jointA[im] + jointB[im])) / k / denominator;
+                for (int jm = 0; jm < nMembers; jm++) {
+                    memberForce[jm] = f[jm] + dw * (jointA[jm] + jointB[jm]) - c * stretch[jm];
+                }
+                for (int jm = 0; jm < nMembers && ok; jm++) {
+                    if (jm != im) {
+                        ok = table.fits(jm, stock[jm], -memberForce[jm], memberForce[jm]);
+                    }
+                }
+            }
+            if (ok) {
+                final Move move = new Move();
+                move.member = im;
+                move.stock = it;
+                move.saving = saving[it];
+                return move;
+            }
+        }
+        return null;
+    }
+}
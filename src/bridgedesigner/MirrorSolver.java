@@ -0,0 +1,496 @@
+/*
+ * MirrorSolver.java
+ *
+ * Copyright (C) 2026 agent
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package bridgedesigner;
+
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Stiffness solver for a bridge that is mirror-symmetric about mid-span.  Every load splits into a symmetric
+ * part and an antisymmetric part, and the stiffness of a symmetric truss maps each kind of displacement to the
+ * same kind of load.  So the full system splits into two systems, each about half the size, whose solutions
+ * add to the full solution.  Each half system has one unknown per joint pair and direction: for the symmetric
+ * part, x-displacements of mirrored joints are opposite and y-displacements equal; for the antisymmetric part,
+ * the reverse.  Joints on the axis keep only their y or only their x degree of freedom.
+ *
+ * Geometry, member stiffness, and restraints must all be symmetric.  The one exception allowed is the usual
+ * pin at one end and roller at the other, where the pin's x-restraint only keeps the truss from sliding.  It's
+ * replaced by a load that balances all the others in x, the half systems are solved with the sliding motion
+ * fixed some other way, and the result is slid back so the pin doesn't move.
+ *
+ * @author agent
+ */
+public class MirrorSolver {
+
+    /**
+     * Relative tolerance for matching mirrored coordinates, stiffnesses, and directions.
+     */
+    private static final double tolerance = 1e-9;
+    /**
+     * Coordinate quantum for finding mirrored joints.  Much smaller than any drafting grid.
+     */
+    private static final double coordinateQuantum = 1e-3;
+
+    /**
+     * Number of equations of the full system.
+     */
+    private final int nEquations;
+    /**
+     * Restraint flags of the full system indexed by joint-ordered equation number.
+     */
+    private final boolean [] restrained;
+    /**
+     * Half system matrix equation of each full joint-ordered equation.
+     */
+    private final int [] halfEquation;
+    /**
+     * Coefficient (-1, 0, or 1) of each full equation in the symmetric and antisymmetric half systems.
+     */
+    private final int [] symmetricSign;
+    private final int [] antisymmetricSign;
+    /**
+     * Restraint flags of the half systems, indexed by half system matrix equation.
+     */
+    private final boolean [] symmetricRestrained;
+    private final boolean [] antisymmetricRestrained;
+    /**
+     * Joint whose x-restraint is replaced by a balancing load or -1 if none.
+     */
+    private final int pinnedJoint;
+    /**
+     * Profile shared by the half system matrices.
+     */
+    private final int [] firstRow;
+    /**
+     * Factored half system matrices.
+     */
+    private SkylineSolver symmetric;
+    private SkylineSolver antisymmetric;
+
+    /**
+     * Construct a mirror solver from a joint mirror map and restraints already checked for symmetry.
+     *
+     * @param bridge bridge
+     * @param mirror index of the mirror image of each joint
+     * @param restrained restraint flags of the full system
+     * @param pinnedJoint joint whose x-restraint is replaced or -1 if none
+     */
+    private MirrorSolver(BridgeModel bridge, int [] mirror, boolean [] restrained, int pinnedJoint) {
+        final List<Joint> joints = bridge.getJoints();
+        final List<Member> members = bridge.getMembers();
+        final int nJoints = joints.size();
+        final double xAxis = getXAxis(bridge);
+        this.restrained = restrained;
+        this.pinnedJoint = pinnedJoint;
+        nEquations = 2 * nJoints;
+        // Number the half joints: one for each joint on the axis and one for each pair left and right of it.
+        final int [] halfJoint = new int [nJoints];
+        int nHalfJoints = 0;
+        for (int ij = 0; ij < nJoints; ij++) {
+            if (mirror[ij] == ij || joints.get(ij).getPointWorld().x < xAxis) {
+                halfJoint[ij] = nHalfJoints++;
+            }
+        }
+        for (int ij = 0; ij < nJoints; ij++) {
+            if (mirror[ij] != ij && joints.get(ij).getPointWorld().x > xAxis) {
+                halfJoint[ij] = halfJoint[mirror[ij]];
+            }
+        }
+        symmetricSign = new int [nEquations];
+        antisymmetricSign = new int [nEquations];
+        for (int ij = 0; ij < nJoints; ij++) {
+            final int x = 2 * ij;
+            final int y = 2 * ij + 1;
+            if (mirror[ij] == ij) {
+                symmetricSign[y] = antisymmetricSign[x] = 1;
+            }
+            else if (joints.get(ij).getPointWorld().x < xAxis) {
+                symmetricSign[x] = symmetricSign[y] = antisymmetricSign[x] = antisymmetricSign[y] = 1;
+            }
+            else {
+                symmetricSign[x] = antisymmetricSign[y] = -1;
+                symmetricSign[y] = antisymmetricSign[x] = 1;
+            }
+        }
+        // Order the half joints to keep the profile small.
+        final int nMembers = members.size();
+        final int [] halfA = new int [nMembers];
+        final int [] halfB = new int [nMembers];
+        for (int im = 0; im < nMembers; im++) {
+            halfA[im] = halfJoint[members.get(im).getJointA().getIndex()];
+            halfB[im] = halfJoint[members.get(im).getJointB().getIndex()];
+        }
+        final int [] halfOrder = new JointOrdering(nHalfJoints, halfA, halfB).getReverseCuthillMcKee();
+        halfEquation = new int [nEquations];
+        for (int ij = 0; ij < nJoints; ij++) {
+            halfEquation[2 * ij] = 2 * halfOrder[halfJoint[ij]];
+            halfEquation[2 * ij + 1] = 2 * halfOrder[halfJoint[ij]] + 1;
+        }
+        // Restraints of the half systems.  Axis joints lose one degree of freedom in each.
+        final int nHalfEquations = 2 * nHalfJoints;
+        symmetricRestrained = new boolean [nHalfEquations];
+        antisymmetricRestrained = new boolean [nHalfEquations];
+        for (int ie = 0; ie < nEquations; ie++) {
+            if (isRestrained(ie)) {
+                symmetricRestrained[halfEquation[ie]] = antisymmetricRestrained[halfEquation[ie]] = true;
+            }
+            if (symmetricSign[ie] == 0) {
+                symmetricRestrained[halfEquation[ie]] = true;
+            }
+            if (antisymmetricSign[ie] == 0) {
+                antisymmetricRestrained[halfEquation[ie]] = true;
+            }
+        }
+        if (pinnedJoint >= 0) {
+            // Without the pin, the truss can slide in x, which is antisymmetric.  Stop it at the pin's pair.
+            antisymmetricRestrained[halfEquation[2 * pinnedJoint]] = true;
+        }
+        // Find the profile shared by both half systems.
+        firstRow = new int [nHalfEquations];
+        for (int ie = 0; ie < nHalfEquations; ie++) {
+            firstRow[ie] = ie;
+        }
+        final int [] dofs = new int [4];
+        for (int im = 0; im < nMembers; im++) {
+            getMemberDofs(members.get(im), dofs);
+            int minEquation = nHalfEquations;
+            for (int k = 0; k < 4; k++) {
+                if (!isRestrained(dofs[k])) {
+                    minEquation = Math.min(minEquation, halfEquation[dofs[k]]);
+                }
+            }
+            for (int k = 0; k < 4; k++) {
+                if (!isRestrained(dofs[k])) {
+                    final int e = halfEquation[dofs[k]];
+                    firstRow[e] = Math.min(firstRow[e], minEquation);
+                }
+            }
+        }
+    }
+
+    /**
+     * Return a mirror solver for a bridge with given member stiffnesses and directions, or null if the bridge
+     * isn't mirror-symmetric.
+     *
+     * @param bridge bridge
+     * @param pattern stiffness pattern of the bridge
+     * @param aeOverL axial stiffness of each member
+     * @param cosX x-direction cosine of each member
+     * @param cosY y-direction cosine of each member
+     * @return mirror solver, not yet factored, or null
+     */
+    public static MirrorSolver get(BridgeModel bridge, StiffnessPattern pattern,
+            double [] aeOverL, double [] cosX, double [] cosY) {
+        final int [] mirror = getMirrorJoints(bridge);
+        if (mirror == null || !isSymmetric(bridge, mirror, aeOverL, cosX, cosY)) {
+            return null;
+        }
+        final boolean [] restrained = pattern.getRestraints();
+        final int pinnedJoint = getPinnedJoint(restrained, mirror);
+        if (pinnedJoint == -2) {
+            return null;
+        }
+        return new MirrorSolver(bridge, mirror, restrained, pinnedJoint);
+    }
+
+    /**
+     * Return an estimate of the multiply-adds needed to factor both half systems.
+     *
+     * @return factoring work estimate
+     */
+    public long getFactorWork() {
+        return 2 * SkylineSolver.getFactorWork(firstRow);
+    }
+
+    /**
+     * Return the x-coordinate of the mid-span axis of a bridge.
+     *
+     * @param bridge bridge
+     * @return axis x-coordinate
+     */
+    private static double getXAxis(BridgeModel bridge) {
+        final int iLast = bridge.getDesignConditions().getNLoadedJoints() - 1;
+        return 0.5 * (bridge.getJoints().get(0).getPointWorld().x + bridge.getJoints().get(iLast).getPointWorld().x);
+    }
+
+    /**
+     * Return a hash key for a point rounded to the coordinate quantum.
+     *
+     * @param x x-coordinate
+     * @param y y-coordinate
+     * @return key
+     */
+    private static Long getPointKey(double x, double y) {
+        return (Math.round(x / coordinateQuantum) << 32) ^ (Math.round(y / coordinateQuantum) & 0xffffffffL);
+    }
+
+    /**
+     * Return the index of the mirror image of each joint of a bridge, or null if some joint has none.
+     *
+     * @param bridge bridge
+     * @return mirror joint indices or null
+     */
+    private static int [] getMirrorJoints(BridgeModel bridge) {
+        final List<Joint> joints = bridge.getJoints();
+        final int nJoints = joints.size();
+        final double xAxis = getXAxis(bridge);
+        final double scale = Math.max(1, Math.abs(xAxis));
+        final HashMap<Long, Integer> index = new HashMap<Long, Integer>(2 * nJoints);
+        for (int ij = 0; ij < nJoints; ij++) {
+            final Affine.Point pt = joints.get(ij).getPointWorld();
+            index.put(getPointKey(pt.x, pt.y), ij);
+        }
+        final int [] mirror = new int [nJoints];
+        for (int ij = 0; ij < nJoints; ij++) {
+            final Affine.Point pt = joints.get(ij).getPointWorld();
+            final Integer im = index.get(getPointKey(2 * xAxis - pt.x, pt.y));
+            if (im == null) {
+                return null;
+            }
+            final Affine.Point ptMirror = joints.get(im).getPointWorld();
+            if (Math.abs(pt.x + ptMirror.x - 2 * xAxis) > tolerance * scale || Math.abs(pt.y - ptMirror.y) > tolerance * scale) {
+                return null;
+            }
+            mirror[ij] = im;
+        }
+        return mirror;
+    }
+
+    /**
+     * Return true iff every member has a mirror image with the same stiffness and mirrored direction.
+     *
+     * @param bridge bridge
+     * @param mirror index of the mirror image of each joint
+     * @param aeOverL axial stiffness of each member
+     * @param cosX x-direction cosine of each member
+     * @param cosY y-direction cosine of each member
+     * @return true iff member stiffness is symmetric
+     */
+    private static boolean isSymmetric(BridgeModel bridge, int [] mirror, double [] aeOverL, double [] cosX, double [] cosY) {
+        final List<Member> members = bridge.getMembers();
+        final long nJoints = bridge.getJoints().size();
+        final HashMap<Long, Integer> index = new HashMap<Long, Integer>(2 * members.size());
+        for (int im = 0; im < members.size(); im++) {
+            final Member member = members.get(im);
+            index.put(member.getJointA().getIndex() * nJoints + member.getJointB().getIndex(), im);
+        }
+        for (int im = 0; im < members.size(); im++) {
+            final Member member = members.get(im);
+            final int a = mirror[member.getJointA().getIndex()];
+            final int b = mirror[member.getJointB().getIndex()];
+            // A mirror member from a to b has direction (-cosX, cosY); from b to a, (cosX, -cosY).
+            double sign = 1;
+            Integer iMirror = index.get(a * nJoints + b);
+            if (iMirror == null) {
+                sign = -1;
+                iMirror = index.get(b * nJoints + a);
+                if (iMirror == null) {
+                    return false;
+                }
+            }
+            if (Math.abs(aeOverL[iMirror] - aeOverL[im]) > tolerance * aeOverL[im] ||
+                    Math.abs(sign * cosX[iMirror] + cosX[im]) > tolerance ||
+                    Math.abs(sign * cosY[iMirror] - cosY[im]) > tolerance) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Check restraints for symmetry.
+     *
+     * @param restrained restraint flags indexed by joint-ordered equation
+     * @param mirror index of the mirror image of each joint
+     * @return -1 if restraints are symmetric, the index of the joint whose x-restraint is the only one and
+     * breaks symmetry, or -2 if restraints are otherwise asymmetric
+     */
+    private static int getPinnedJoint(boolean [] restrained, int [] mirror) {
+        boolean symmetric = true;
+        int nXRestraints = 0;
+        int xRestrainedJoint = -1;
+        for (int ij = 0; ij < mirror.length; ij++) {
+            if (restrained[2 * ij + 1] != restrained[2 * mirror[ij] + 1]) {
+                return -2;
+            }
+            if (restrained[2 * ij]) {
+                nXRestraints++;
+                xRestrainedJoint = ij;
+                if (!restrained[2 * mirror[ij]]) {
+                    symmetric = false;
+                }
+            }
+        }
+        return symmetric ? -1 : nXRestraints == 1 ? xRestrainedJoint : -2;
+    }
+
+    /**
+     * Return true iff an equation of the full system is restrained in the half systems.  The x-restraint
+     * of the pinned joint isn't.
+     *
+     * @param ie joint-ordered equation number
+     * @return true iff the equation is restrained
+     */
+    private boolean isRestrained(int ie) {
+        return restrained[ie] && ie != 2 * pinnedJoint;
+    }
+
+    private static void getMemberDofs(Member member, int [] dofs) {
+        final int j1 = member.getJointA().getIndex();
+        final int j2 = member.getJointB().getIndex();
+        dofs[0] = 2 * j1;
+        dofs[1] = 2 * j1 + 1;
+        dofs[2] = 2 * j2;
+        dofs[3] = 2 * j2 + 1;
+    }
+
+    /**
+     * Assemble and factor both half systems.
+     *
+     * @param bridge bridge
+     * @param aeOverL axial stiffness of each member
+     * @param cosX x-direction cosine of each member
+     * @param cosY y-direction cosine of each member
+     * @param minPivot smallest acceptable pivot magnitude
+     * @return true iff both half systems are stable
+     */
+    public boolean factor(BridgeModel bridge, double [] aeOverL, double [] cosX, double [] cosY, double minPivot) {
+        symmetric = assemble(bridge, symmetricSign, symmetricRestrained, aeOverL, cosX, cosY);
+        antisymmetric = assemble(bridge, antisymmetricSign, antisymmetricRestrained, aeOverL, cosX, cosY);
+        return symmetric.factor(minPivot) && antisymmetric.factor(minPivot);
+    }
+
+    /**
+     * Assemble a half system.  Each member adds k w w^T, where w is its direction vector in half system
+     * unknowns.  A member joining a pair of mirrored joints has both ends on the same half joint, so entries
+     * for the same unknown are combined before forming the product.
+     *
+     * @param bridge bridge
+     * @param sign coefficient of each full equation in the half system
+     * @param halfRestrained restraint flags of the half system
+     * @param aeOverL axial stiffness of each member
+     * @param cosX x-direction cosine of each member
+     * @param cosY y-direction cosine of each member
+     * @return assembled matrix
+     */
+    private SkylineSolver assemble(BridgeModel bridge, int [] sign, boolean [] halfRestrained,
+            double [] aeOverL, double [] cosX, double [] cosY) {
+        final SkylineSolver k = new SkylineSolver(firstRow);
+        final List<Member> members = bridge.getMembers();
+        final int [] dofs = new int [4];
+        final int [] e = new int [4];
+        final double [] w = new double [4];
+        for (int im = 0; im < members.size(); im++) {
+            getMemberDofs(members.get(im), dofs);
+            final double [] v = { -cosX[im], -cosY[im], cosX[im], cosY[im] };
+            int n = 0;
+            for (int p = 0; p < 4; p++) {
+                final int he = halfEquation[dofs[p]];
+                if (sign[dofs[p]] == 0 || halfRestrained[he]) {
+                    continue;
+                }
+                int q = 0;
+                while (q < n && e[q] != he) {
+                    q++;
+                }
+                if (q == n) {
+                    e[n] = he;
+                    w[n++] = 0;
+                }
+                w[q] += sign[dofs[p]] * v[p];
+            }
+            for (int p = 0; p < n; p++) {
+                final double kw = aeOverL[im] * w[p];
+                for (int q = p; q < n; q++) {
+                    k.add(e[p], e[q], kw * w[q]);
+                }
+            }
+        }
+        for (int ie = 0; ie < halfRestrained.length; ie++) {
+            if (halfRestrained[ie]) {
+                k.add(ie, ie, 1);
+            }
+        }
+        return k;
+    }
+
+    /**
+     * Solve the full system for a set of load vectors.  Loads on restrained equations are ignored.
+     *
+     * @param loads load vectors indexed by load case and joint-ordered equation
+     * @return displacement vectors indexed by load case and joint-ordered equation
+     */
+    public double [][] solve(double [][] loads) {
+        final int nLoadInstances = loads.length;
+        final int nHalfEquations = firstRow.length;
+        final double [][] s = new double [nLoadInstances][nHalfEquations];
+        final double [][] a = new double [nLoadInstances][nHalfEquations];
+        for (int ilc = 0; ilc < nLoadInstances; ilc++) {
+            final double [] f = loads[ilc];
+            double xBalance = 0;
+            for (int ie = 0; ie < nEquations; ie++) {
+                if (!restrained[ie]) {
+                    split(f[ie], ie, s[ilc], a[ilc]);
+                    if (ie % 2 == 0) {
+                        xBalance -= f[ie];
+                    }
+                }
+            }
+            if (pinnedJoint >= 0) {
+                // Stand-in for the pin's reaction, which keeps the loads in x balance.
+                split(xBalance, 2 * pinnedJoint, s[ilc], a[ilc]);
+            }
+            for (int ie = 0; ie < nHalfEquations; ie++) {
+                if (symmetricRestrained[ie]) {
+                    s[ilc][ie] = 0;
+                }
+                if (antisymmetricRestrained[ie]) {
+                    a[ilc][ie] = 0;
+                }
+            }
+        }
+        symmetric.solve(s);
+        antisymmetric.solve(a);
+        final double [][] displacement = new double [nLoadInstances][nEquations];
+        for (int ilc = 0; ilc < nLoadInstances; ilc++) {
+            final double [] d = displacement[ilc];
+            for (int ie = 0; ie < nEquations; ie++) {
+                final int he = halfEquation[ie];
+                d[ie] = symmetricSign[ie] * s[ilc][he] + antisymmetricSign[ie] * a[ilc][he];
+            }
+            if (pinnedJoint >= 0) {
+                // Slide the truss back so the pin stays put.
+                final double dx = d[2 * pinnedJoint];
+                for (int ie = 0; ie < nEquations; ie += 2) {
+                    d[ie] -= dx;
+                }
+            }
+        }
+        return displacement;
+    }
+
+    /**
+     * Add a load on one full equation to the right hand sides of the half systems.
+     *
+     * @param f load
+     * @param ie joint-ordered equation number
+     * @param s symmetric right hand side
+     * @param a antisymmetric right hand side
+     */
+    private void split(double f, int ie, double [] s, double [] a) {
+        final int he = halfEquation[ie];
+        s[he] += symmetricSign[ie] * f;
+        a[he] += antisymmetricSign[ie] * f;
+    }
+}
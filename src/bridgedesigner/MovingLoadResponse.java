@@ -0,0 +1,192 @@
+/*
+ * MovingLoadResponse.java
+ *
+ * Copyright (C) 2026 agent
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package bridgedesigner;
+
+/**
+ * Dynamic response of a bridge to the truck crossing at a steady speed.  The response is kept as the
+ * static response the load test already has plus a dynamic correction: the difference between each
+ * vibration mode's time history and its static deflection under the same load.  Corrections are sampled
+ * at evenly spaced load positions from the front axle reaching the first deck joint to the rear axle
+ * leaving the last, so they can be looked up by load position as the animation moves the truck.
+ *
+ * Dynamic amplification of a member is the largest live load force it sees during the crossing over the
+ * largest it sees when the truck creeps across.  The load test covers this with a fixed impact allowance.
+ * Responses are immutable.
+ *
+ * @author agent
+ */
+public class MovingLoadResponse {
+
+    /**
+     * Speed of the truck in kilometers per hour.
+     */
+    private final double speed;
+    /**
+     * Time step of the integration in seconds.
+     */
+    private final double timeStep;
+    /**
+     * Distance the load moves in one time step in panel lengths.
+     */
+    private final double positionStep;
+    /**
+     * Mode shapes indexed by mode and equation.
+     */
+    private final double [][] shape;
+    /**
+     * Member forces due to unit displacement in each mode shape, indexed by mode and member.
+     */
+    private final double [][] modeForce;
+    /**
+     * Dynamic correction of the modal coordinates indexed by time step and mode.
+     */
+    private final double [][] correction;
+    /**
+     * Dynamic amplification of live load force indexed by member.
+     */
+    private final double [] amplification;
+
+    /**
+     * Construct a moving load response.
+     *
+     * @param speed speed of the truck in kilometers per hour
+     * @param timeStep time step of the integration in seconds
+     * @param positionStep distance the load moves in one time step in panel lengths
+     * @param shape mode shapes indexed by mode and equation
+     * @param modeForce member forces due to unit displacement in each mode shape
+     * @param correction dynamic correction of the modal coordinates indexed by time step and mode
+     * @param amplification dynamic amplification of live load force indexed by member
+     */
+    MovingLoadResponse(double speed, double timeStep, double positionStep,
+            double [][] shape, double [][] modeForce, double [][] correction, double [] amplification) {
+        this.speed = speed;
+        this.timeStep = timeStep;
+        this.positionStep = positionStep;
+        this.shape = shape;
+        this.modeForce = modeForce;
+        this.correction = correction;
+        this.amplification = amplification;
+    }
+
+    /**
+     * Return the speed of the truck.
+     *
+     * @return speed in kilometers per hour
+     */
+    public double getSpeed() {
+        return speed;
+    }
+
+    /**
+     * Return the number of time steps taken to cross the bridge.
+     *
+     * @return number of time steps
+     */
+    public int getStepCount() {
+        return correction.length - 1;
+    }
+
+    /**
+     * Return the time step of the integration.
+     *
+     * @return time step in seconds
+     */
+    public double getTimeStep() {
+        return timeStep;
+    }
+
+    /**
+     * Return the dynamic amplification of live load force in a member: the largest force during the crossing
+     * over the largest static one.  Members that carry no live load have amplification one.
+     *
+     * @param im member index
+     * @return dynamic amplification
+     */
+    public double getAmplification(int im) {
+        return amplification[im];
+    }
+
+    /**
+     * Return the largest dynamic amplification of live load force over all members.
+     *
+     * @return maximum dynamic amplification
+     */
+    public double getMaxAmplification() {
+        double max = 1;
+        for (int im = 0; im < amplification.length; im++) {
+            max = Math.max(max, amplification[im]);
+        }
+        return max;
+    }
+
+    /**
+     * Return the number of vibration modes in the response.
+     *
+     * @return number of modes
+     */
+    int getModeCount() {
+        return shape.length;
+    }
+
+    /**
+     * Return the dynamic correction of a modal coordinate with the front axle at a given position,
+     * interpolated between time steps.  It is zero before the truck reaches the bridge and after it leaves.
+     *
+     * @param mode mode index
+     * @param xLoadParameter location of the front axle in panel lengths
+     * @return correction of the modal coordinate
+     */
+    double getCorrection(int mode, double xLoadParameter) {
+        final double s = xLoadParameter / positionStep;
+        if (s <= 0 || s >= correction.length - 1) {
+            return 0;
+        }
+        final int i = (int)s;
+        final double t = s - i;
+        return (1 - t) * correction[i][mode] + t * correction[i + 1][mode];
+    }
+
+    /**
+     * Return the x-displacement of a joint due to unit displacement in a mode shape.
+     *
+     * @param mode mode index
+     * @param ij joint index
+     * @return x-displacement
+     */
+    double getXJointDisplacement(int mode, int ij) {
+        return shape[mode][2 * ij];
+    }
+
+    /**
+     * Return the y-displacement of a joint due to unit displacement in a mode shape.
+     *
+     * @param mode mode index
+     * @param ij joint index
+     * @return y-displacement
+     */
+    double getYJointDisplacement(int mode, int ij) {
+        return shape[mode][2 * ij + 1];
+    }
+
+    /**
+     * Return the force in a member due to unit displacement in a mode shape.
+     *
+     * @param mode mode index
+     * @param im member index
+     * @return member force
+     */
+    double getMemberForce(int mode, int im) {
+        return modeForce[mode][im];
+    }
+}
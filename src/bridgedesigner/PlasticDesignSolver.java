@@ -0,0 +1,839 @@
+/*
+ * PlasticDesignSolver.java
+ *
+ * Copyright (C) 2026 agent
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package bridgedesigner;
+
+import java.util.Arrays;
+
+/**
+ * Primal-dual interior point solver for the linear program of least-cost plastic truss design under several
+ * load cases.  Each member i has a capacity x_i, bought at cost L_i per unit, and a force q_ik in each load
+ * case k.  The program is
+ *
+ * <pre>
+ *   minimize    sum_i L_i x_i
+ *   subject to  B q_k + W x = f_k          for each load case k (joint equilibrium)
+ *               x_i - kt_i q_ik &gt;= 0       (tension capacity)
+ *               x_i + kc_i q_ik &gt;= 0       (compression capacity)
+ * </pre>
+ *
+ * where B maps member forces to joint forces, W applies the self weight of the capacity bought, and kt, kc
+ * convert force to capacity.  Capacity is cost per meter of member, so kt and kc are cost per meter per unit
+ * of strength of the cheapest stock.
+ *
+ * Steps are Mehrotra predictor-corrector.  In the Newton system, capacity slacks and forces eliminate member
+ * by member in closed form, leaving a symmetric positive definite system for the equilibrium multipliers.
+ * Unknowns are ordered by equation, then load case, so the system has the sparsity of a stiffness matrix of
+ * the truss with each entry a dense block over load cases, and it is factored in skyline form.  Members may
+ * be added after a solve; the next solve starts from the last solution pushed back into the interior, which
+ * takes far fewer iterations than starting cold.
+ *
+ * @author agent
+ */
+class PlasticDesignSolver {
+
+    /**
+     * Upper bound on iterations per solve.
+     */
+    private static final int maxIterations = 100;
+    /**
+     * Relative tolerance on residuals and duality gap.
+     */
+    private static final double tolerance = 1e-6;
+    /**
+     * Fraction of the distance to the boundary taken by each step.
+     */
+    private static final double stepFraction = 0.995;
+    /**
+     * Largest number of iterative refinements of each Newton direction.
+     */
+    private static final int maxRefinements = 3;
+    /**
+     * Relative size of the interior shift applied to a previous solution before a warm start.
+     */
+    private static final double warmStartShift = 1e-2;
+
+    /**
+     * Number of equilibrium equations per load case.
+     */
+    private final int nEquations;
+    /**
+     * Number of load cases.
+     */
+    private final int nCases;
+    /**
+     * Joint loads indexed by equation times load case count plus load case.
+     */
+    private final double [] load;
+    /**
+     * Number of members.
+     */
+    private int nMembers = 0;
+    /**
+     * Equation numbers of the x and y joint displacements at both ends of each member, four per member,
+     * -1 where restrained.
+     */
+    private int [] equation = new int [0];
+    /**
+     * Coefficients of B in the same order: minus, then plus the member's direction cosines.
+     */
+    private double [] coefficient = new double [0];
+    /**
+     * Cost per unit of capacity, the member length.
+     */
+    private double [] cost = new double [0];
+    /**
+     * Capacity per unit of tension.
+     */
+    private double [] kt = new double [0];
+    /**
+     * Capacity per unit of compression.
+     */
+    private double [] kc = new double [0];
+    /**
+     * Downward self weight at each joint per unit of capacity.
+     */
+    private double [] weight = new double [0];
+    /**
+     * Member capacities.
+     */
+    private double [] x = new double [0];
+    /**
+     * Member forces indexed by member times load case count plus load case.
+     */
+    private double [] q = new double [0];
+    /**
+     * Multipliers of the tension capacity constraints, indexed like forces.
+     */
+    private double [] lt = new double [0];
+    /**
+     * Multipliers of the compression capacity constraints, indexed like forces.
+     */
+    private double [] lc = new double [0];
+    /**
+     * Equilibrium multipliers indexed like loads.  At the solution these are virtual displacements.
+     */
+    private double [] y;
+    /**
+     * Whether there is a solution to start from.
+     */
+    private boolean solved = false;
+    /**
+     * Number of members at the last solve.
+     */
+    private int nSolvedMembers = 0;
+    /**
+     * Iterations taken by the last solve.
+     */
+    private int iterations = 0;
+
+    /**
+     * Construct a solver with no members.
+     *
+     * @param nEquations number of equilibrium equations per load case
+     * @param loads joint loads indexed by load case and equation
+     */
+    PlasticDesignSolver(int nEquations, double [][] loads) {
+        this.nEquations = nEquations;
+        this.nCases = loads.length;
+        load = new double [nEquations * nCases];
+        for (int k = 0; k < nCases; k++) {
+            for (int e = 0; e < nEquations; e++) {
+                load[e * nCases + k] = loads[k][e];
+            }
+        }
+        y = new double [load.length];
+    }
+
+    /**
+     * Add a member.
+     *
+     * @param dofs equation numbers of the x and y displacements of joint a, then of joint b, -1 where restrained
+     * @param cosX x-direction cosine from joint a to b
+     * @param cosY y-direction cosine from joint a to b
+     * @param length member length
+     * @param kt capacity per unit of tension
+     * @param kc capacity per unit of compression
+     * @param weight downward self weight at each joint per unit of capacity
+     * @return index of the new member
+     */
+    int addMember(int [] dofs, double cosX, double cosY, double length, double kt, double kc, double weight) {
+        if (nMembers == cost.length) {
+            final int capacity = Math.max(16, 2 * nMembers);
+            equation = Arrays.copyOf(equation, 4 * capacity);
+            coefficient = Arrays.copyOf(coefficient, 4 * capacity);
+            cost = Arrays.copyOf(cost, capacity);
+            this.kt = Arrays.copyOf(this.kt, capacity);
+            this.kc = Arrays.copyOf(this.kc, capacity);
+            this.weight = Arrays.copyOf(this.weight, capacity);
+            x = Arrays.copyOf(x, capacity);
+            q = Arrays.copyOf(q, capacity * nCases);
+            lt = Arrays.copyOf(lt, capacity * nCases);
+            lc = Arrays.copyOf(lc, capacity * nCases);
+        }
+        final int i = nMembers++;
+        System.arraycopy(dofs, 0, equation, 4 * i, 4);
+        coefficient[4 * i] = -cosX;
+        coefficient[4 * i + 1] = -cosY;
+        coefficient[4 * i + 2] = cosX;
+        coefficient[4 * i + 3] = cosY;
+        cost[i] = length;
+        this.kt[i] = kt;
+        this.kc[i] = kc;
+        this.weight[i] = weight;
+        return i;
+    }
+
+    /**
+     * Return the number of members.
+     *
+     * @return number of members
+     */
+    int getMemberCount() {
+        return nMembers;
+    }
+
+    /**
+     * Return the capacity of a member in the last solution.
+     *
+     * @param i member index
+     * @return capacity
+     */
+    double getCapacity(int i) {
+        return x[i];
+    }
+
+    /**
+     * Return the force in a member in a load case of the last solution, tension positive.
+     *
+     * @param i member index
+     * @param k load case
+     * @return force
+     */
+    double getForce(int i, int k) {
+        return q[i * nCases + k];
+    }
+
+    /**
+     * Return the least total cost found by the last solve.
+     *
+     * @return cost
+     */
+    double getCost() {
+        double rtn = 0;
+        for (int i = 0; i < nMembers; i++) {
+            rtn += cost[i] * x[i];
+        }
+        return rtn;
+    }
+
+    /**
+     * Return the number of iterations taken by the last solve.
+     *
+     * @return number of iterations
+     */
+    int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * Return the cost per unit length at which a member not in the program would just pay for itself, given the
+     * virtual displacements of the last solution.  Adding a member whose price exceeds its length would lower
+     * the optimal cost.
+     *
+     * @param dofs equation numbers as for <code>addMember</code>
+     * @param cosX x-direction cosine from joint a to b
+     * @param cosY y-direction cosine from joint a to b
+     * @param kt capacity per unit of tension
+     * @param kc capacity per unit of compression
+     * @param weight downward self weight at each joint per unit of capacity
+     * @return price
+     */
+    double getPrice(int [] dofs, double cosX, double cosY, double kt, double kc, double weight) {
+        double rtn = 0;
+        for (int k = 0; k < nCases; k++) {
+            double strain = 0;
+            double deflection = 0;
+            for (int p = 0; p < 4; p++) {
+                if (dofs[p] >= 0) {
+                    final double yp = y[dofs[p] * nCases + k];
+                    final double c = (p & 1) == 0 ? cosX : cosY;
+                    strain += (p < 2 ? -c : c) * yp;
+                    if ((p & 1) == 1) {
+                        deflection += yp;
+                    }
+                }
+            }
+            rtn += (strain > 0 ? strain / kt : -strain / kc) + weight * deflection;
+        }
+        return rtn;
+    }
+
+    /**
+     * Solve the program, starting from the last solution if there is one.
+     *
+     * @return true iff the solve converged
+     */
+    boolean solve() {
+        final int nm = nMembers;
+        final int nk = nCases;
+        final int nmk = nm * nk;
+        // Find the magnitude of the loads to scale the cold start.
+        double loadNorm = 0;
+        for (int i = 0; i < load.length; i++) {
+            loadNorm = Math.max(loadNorm, Math.abs(load[i]));
+        }
+        double costNorm = 0;
+        for (int i = 0; i < nm; i++) {
+            costNorm = Math.max(costNorm, cost[i]);
+        }
+        if (solved) {
+            // Members added since the last solve start with no force and multipliers that balance the
+            // virtual strains of the last solution.  Then everything is pushed back into the interior.
+            for (int i = nSolvedMembers; i < nm; i++) {
+                x[i] = 0;
+                for (int k = 0; k < nk; k++) {
+                    final int ik = i * nk + k;
+                    double strain = 0;
+                    for (int p = 0; p < 4; p++) {
+                        final int eq = equation[4 * i + p];
+                        if (eq >= 0) {
+                            strain += coefficient[4 * i + p] * y[eq * nk + k];
+                        }
+                    }
+                    q[ik] = 0;
+                    lt[ik] = Math.max(strain, 0) / kt[i];
+                    lc[ik] = Math.max(-strain, 0) / kc[i];
+                }
+            }
+            double xMax = 0;
+            double lMax = 0;
+            for (int i = 0; i < nm; i++) {
+                xMax = Math.max(xMax, x[i]);
+            }
+            for (int ik = 0; ik < nmk; ik++) {
+                lMax = Math.max(lMax, Math.max(lt[ik], lc[ik]));
+            }
+            for (int i = 0; i < nm; i++) {
+                x[i] += warmStartShift * xMax;
+            }
+            for (int ik = 0; ik < nmk; ik++) {
+                lt[ik] += warmStartShift * lMax;
+                lc[ik] += warmStartShift * lMax;
+            }
+        }
+        else {
+            for (int i = 0; i < nm; i++) {
+                x[i] = Math.max(kt[i], kc[i]) * loadNorm;
+                for (int k = 0; k < nk; k++) {
+                    q[i * nk + k] = 0;
+                    lt[i * nk + k] = lc[i * nk + k] = cost[i] / (2 * nk);
+                }
+            }
+            Arrays.fill(y, 0);
+        }
+        final int [] firstRow = getProfile();
+        final SkylineSolver system = new SkylineSolver(firstRow);
+        final double [] st = new double [nmk];
+        final double [] sc = new double [nmk];
+        final double [] dt = new double [nmk];
+        final double [] dc = new double [nmk];
+        final double [] a = new double [nmk];
+        final double [] b = new double [nmk];
+        final double [] e = new double [nm];
+        final double [] fx = new double [nm];
+        final double [] fq = new double [nmk];
+        final double [] fp = new double [load.length];
+        final double [] rt = new double [nmk];
+        final double [] rc = new double [nmk];
+        final Direction affine = new Direction(nm, nmk, load.length);
+        final Direction corrected = new Direction(nm, nmk, load.length);
+        for (iterations = 0; iterations < maxIterations; iterations++) {
+            // Slacks, residuals, and the duality measure.
+            double gap = 0;
+            for (int ik = 0; ik < nmk; ik++) {
+                final int i = ik / nk;
+                st[ik] = x[i] - kt[i] * q[ik];
+                sc[ik] = x[i] + kc[i] * q[ik];
+                gap += st[ik] * lt[ik] + sc[ik] * lc[ik];
+            }
+            if (Double.isNaN(gap) || Double.isInfinite(gap)) {
+                break;
+            }
+            final double mu = gap / (2 * nmk);
+            getResiduals(fx, fq, fp);
+            final double objective = getCost();
+            if (norm(fp) <= tolerance * (1 + loadNorm) &&
+                    Math.max(norm(fx), norm(fq)) <= tolerance * (1 + costNorm) &&
+                    gap <= tolerance * (1 + Math.abs(objective))) {
+                solved = true;
+                nSolvedMembers = nm;
+                return true;
+            }
+            // Scalings and the eliminated Newton blocks of each member.
+            for (int i = 0; i < nm; i++) {
+                e[i] = 0;
+                for (int k = 0; k < nk; k++) {
+                    final int ik = i * nk + k;
+                    dt[ik] = lt[ik] / st[ik];
+                    dc[ik] = lc[ik] / sc[ik];
+                    a[ik] = kt[i] * kt[i] * dt[ik] + kc[i] * kc[i] * dc[ik];
+                    b[ik] = kc[i] * dc[ik] - kt[i] * dt[ik];
+                    final double kSum = kt[i] + kc[i];
+                    e[i] += dt[ik] * dc[ik] * kSum * kSum / a[ik];
+                }
+            }
+            assemble(system, a, b, e);
+            double maxDiagonal = 0;
+            for (int j = 0; j < firstRow.length; j++) {
+                maxDiagonal = Math.max(maxDiagonal, system.get(j, j));
+            }
+            for (int j = 0; j < firstRow.length; j++) {
+                system.add(j, j, 1e-12 * maxDiagonal);
+            }
+            if (!system.factor(1e-30 * maxDiagonal)) {
+                break;
+            }
+            // Predictor.
+            for (int ik = 0; ik < nmk; ik++) {
+                rt[ik] = -st[ik] * lt[ik];
+                rc[ik] = -sc[ik] * lc[ik];
+            }
+            getDirection(affine, system, st, sc, dt, dc, a, b, e, fx, fq, fp, rt, rc);
+            final double alphaPrimalAffine = getPrimalStep(st, sc, affine);
+            final double alphaDualAffine = getDualStep(affine);
+            double gapAffine = 0;
+            for (int ik = 0; ik < nmk; ik++) {
+                gapAffine += (st[ik] + alphaPrimalAffine * affine.st[ik]) * (lt[ik] + alphaDualAffine * affine.lt[ik]) +
+                        (sc[ik] + alphaPrimalAffine * affine.sc[ik]) * (lc[ik] + alphaDualAffine * affine.lc[ik]);
+            }
+            final double ratio = gapAffine / gap;
+            final double sigmaMu = ratio * ratio * ratio * mu;
+            // Corrector.
+            for (int ik = 0; ik < nmk; ik++) {
+                rt[ik] = sigmaMu - st[ik] * lt[ik] - affine.st[ik] * affine.lt[ik];
+                rc[ik] = sigmaMu - sc[ik] * lc[ik] - affine.sc[ik] * affine.lc[ik];
+            }
+            getDirection(corrected, system, st, sc, dt, dc, a, b, e, fx, fq, fp, rt, rc);
+            final double ap = Math.min(1, stepFraction * getPrimalStep(st, sc, corrected));
+            final double ad = Math.min(1, stepFraction * getDualStep(corrected));
+            for (int i = 0; i < nm; i++) {
+                x[i] += ap * corrected.x[i];
+            }
+            for (int ik = 0; ik < nmk; ik++) {
+                q[ik] += ap * corrected.q[ik];
+                lt[ik] += ad * corrected.lt[ik];
+                lc[ik] += ad * corrected.lc[ik];
+            }
+            for (int j = 0; j < y.length; j++) {
+                y[j] += ad * corrected.y[j];
+            }
+        }
+        // The next solve must start cold.
+        solved = false;
+        return false;
+    }
+
+    /**
+     * Newton direction for all unknowns and both capacity slacks.
+     */
+    private static class Direction {
+
+        /**
+         * Change in capacities.
+         */
+        final double [] x;
+        /**
+         * Change in forces.
+         */
+        final double [] q;
+        /**
+         * Change in tension and compression slacks.
+         */
+        final double [] st, sc;
+        /**
+         * Change in tension and compression multipliers.
+         */
+        final double [] lt, lc;
+        /**
+         * Change in equilibrium multipliers.
+         */
+        final double [] y;
+        /**
+         * Right hand sides of the force rows after eliminating slacks and multipliers.
+         */
+        final double [] hq;
+        /**
+         * Right hand sides of the capacity rows after eliminating slacks, multipliers, and forces.
+         */
+        final double [] hx;
+        /**
+         * Strain of each member and load case due to the change in equilibrium multipliers.
+         */
+        final double [] by;
+        /**
+         * Residual of the reduced system.
+         */
+        final double [] r;
+        /**
+         * Change in equilibrium multipliers before the last refinement.
+         */
+        final double [] savedY;
+
+        /**
+         * Construct a zero direction.
+         *
+         * @param nm number of members
+         * @param nmk number of members times number of load cases
+         * @param ny number of equilibrium multipliers
+         */
+        Direction(int nm, int nmk, int ny) {
+            x = new double [nm];
+            q = new double [nmk];
+            st = new double [nmk];
+            sc = new double [nmk];
+            lt = new double [nmk];
+            lc = new double [nmk];
+            y = new double [ny];
+            hq = new double [nmk];
+            hx = new double [nm];
+            by = new double [nmk];
+            r = new double [ny];
+            savedY = new double [ny];
+        }
+    }
+
+    /**
+     * Return the largest infinity norm of a vector.
+     *
+     * @param v vector
+     * @return norm
+     */
+    private static double norm(double [] v) {
+        double rtn = 0;
+        for (int i = 0; i < v.length; i++) {
+            rtn = Math.max(rtn, Math.abs(v[i]));
+        }
+        return rtn;
+    }
+
+    /**
+     * Compute the residuals of the optimality conditions other than complementarity.
+     *
+     * @param fx residual of stationarity in capacity
+     * @param fq residual of stationarity in force
+     * @param fp residual of equilibrium
+     */
+    private void getResiduals(double [] fx, double [] fq, double [] fp) {
+        final int nk = nCases;
+        for (int j = 0; j < fp.length; j++) {
+            fp[j] = -load[j];
+        }
+        for (int i = 0; i < nMembers; i++) {
+            double fxi = cost[i];
+            for (int k = 0; k < nk; k++) {
+                final int ik = i * nk + k;
+                double fqik = kt[i] * lt[ik] - kc[i] * lc[ik];
+                for (int p = 0; p < 4; p++) {
+                    final int eq = equation[4 * i + p];
+                    if (eq >= 0) {
+                        final int j = eq * nk + k;
+                        fp[j] += coefficient[4 * i + p] * q[ik];
+                        fqik -= coefficient[4 * i + p] * y[j];
+                        if ((p & 1) == 1) {
+                            fp[j] += weight[i] * x[i];
+                            fxi -= weight[i] * y[j];
+                        }
+                    }
+                }
+                fq[ik] = fqik;
+                fxi -= lt[ik] + lc[ik];
+            }
+            fx[i] = fxi;
+        }
+    }
+
+    /**
+     * Return the profile of the reduced Newton system.  Unknowns are numbered by equation, then load case.
+     *
+     * @return first row of each column
+     */
+    private int [] getProfile() {
+        final int nk = nCases;
+        final int [] firstRow = new int [load.length];
+        for (int j = 0; j < firstRow.length; j++) {
+            firstRow[j] = (j / nk) * nk;
+        }
+        for (int i = 0; i < nMembers; i++) {
+            int minEq = Integer.MAX_VALUE;
+            for (int p = 0; p < 4; p++) {
+                if (equation[4 * i + p] >= 0) {
+                    minEq = Math.min(minEq, equation[4 * i + p]);
+                }
+            }
+            for (int p = 0; p < 4; p++) {
+                final int eq = equation[4 * i + p];
+                if (eq >= 0) {
+                    for (int k = 0; k < nk; k++) {
+                        final int j = eq * nk + k;
+                        firstRow[j] = Math.min(firstRow[j], minEq * nk);
+                    }
+                }
+            }
+        }
+        return firstRow;
+    }
+
+    /**
+     * Assemble the reduced Newton system.  Each member contributes B_i B_i^T / a_ik to the block of each load case
+     * and g_i g_i^T / e_i across all of them, where g_i holds the columns of W - B diag(b/a) for the member.
+     *
+     * @param system system to assemble
+     * @param a force diagonal of each member and load case
+     * @param b capacity-force coupling of each member and load case
+     * @param e capacity diagonal of each member after eliminating forces
+     */
+    private void assemble(SkylineSolver system, double [] a, double [] b, double [] e) {
+        final int nk = nCases;
+        final int [] index = new int [4 * nk];
+        final double [] g = new double [4 * nk];
+        system.clear();
+        for (int i = 0; i < nMembers; i++) {
+            int n = 0;
+            for (int p = 0; p < 4; p++) {
+                final int eq = equation[4 * i + p];
+                if (eq < 0) {
+                    continue;
+                }
+                for (int k = 0; k < nk; k++) {
+                    final int ik = i * nk + k;
+                    index[n] = eq * nk + k;
+                    g[n] = ((p & 1) == 1 ? weight[i] : 0) - b[ik] / a[ik] * coefficient[4 * i + p];
+                    ++n;
+                }
+            }
+            final double eInverse = 1 / e[i];
+            for (int r = 0; r < n; r++) {
+                final double gr = g[r] * eInverse;
+                for (int s = r; s < n; s++) {
+                    system.add(index[r], index[s], gr * g[s]);
+                }
+            }
+            for (int k = 0; k < nk; k++) {
+                final double aInverse = 1 / a[i * nk + k];
+                for (int p = 0; p < 4; p++) {
+                    final int ep = equation[4 * i + p];
+                    if (ep < 0) {
+                        continue;
+                    }
+                    final double cp = coefficient[4 * i + p] * aInverse;
+                    for (int r = p; r < 4; r++) {
+                        final int er = equation[4 * i + r];
+                        if (er >= 0) {
+                            system.add(ep * nk + k, er * nk + k, cp * coefficient[4 * i + r]);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Find a Newton direction for given complementarity targets using the factored reduced system.  Since the
+     * reduced system grows ill-conditioned near the solution, its solution is improved by iterative refinement
+     * until the direction restores equilibrium.
+     *
+     * @param d direction to fill in
+     * @param system factored reduced system
+     * @param st tension slacks
+     * @param sc compression slacks
+     * @param dt tension multiplier to slack ratios
+     * @param dc compression multiplier to slack ratios
+     * @param a force diagonal of each member and load case
+     * @param b capacity-force coupling of each member and load case
+     * @param e capacity diagonal of each member after eliminating forces
+     * @param fx residual of stationarity in capacity
+     * @param fq residual of stationarity in force
+     * @param fp residual of equilibrium
+     * @param rt target change in tension complementarity products
+     * @param rc target change in compression complementarity products
+     */
+    private void getDirection(Direction d, SkylineSolver system, double [] st, double [] sc, double [] dt, double [] dc,
+            double [] a, double [] b, double [] e, double [] fx, double [] fq, double [] fp, double [] rt, double [] rc) {
+        final int nk = nCases;
+        final double [] hq = d.hq;
+        final double [] hx = d.hx;
+        final double [] rhs = d.y;
+        for (int j = 0; j < rhs.length; j++) {
+            rhs[j] = -fp[j];
+        }
+        for (int i = 0; i < nMembers; i++) {
+            double h = -fx[i];
+            for (int k = 0; k < nk; k++) {
+                final int ik = i * nk + k;
+                final double pt = rt[ik] / st[ik];
+                final double pc = rc[ik] / sc[ik];
+                hq[ik] = -fq[ik] - kt[i] * pt + kc[i] * pc;
+                h += pt + pc - b[ik] * hq[ik] / a[ik];
+            }
+            hx[i] = h;
+            final double v = h / e[i];
+            for (int k = 0; k < nk; k++) {
+                final int ik = i * nk + k;
+                final double u = (hq[ik] - b[ik] * v) / a[ik];
+                for (int p = 0; p < 4; p++) {
+                    final int eq = equation[4 * i + p];
+                    if (eq >= 0) {
+                        rhs[eq * nk + k] -= coefficient[4 * i + p] * u + ((p & 1) == 1 ? weight[i] * v : 0);
+                    }
+                }
+            }
+        }
+        system.solve(rhs);
+        backSubstitute(d, st, sc, dt, dc, a, b, e, rt, rc);
+        double residual = getEquilibriumResidual(d, fp);
+        for (int iter = 0; iter < maxRefinements && residual > 0; iter++) {
+            System.arraycopy(d.y, 0, d.savedY, 0, d.y.length);
+            system.solve(d.r);
+            for (int j = 0; j < d.y.length; j++) {
+                d.y[j] += d.r[j];
+            }
+            backSubstitute(d, st, sc, dt, dc, a, b, e, rt, rc);
+            final double refinedResidual = getEquilibriumResidual(d, fp);
+            if (refinedResidual >= residual) {
+                // No progress, so go back to the last solution.
+                System.arraycopy(d.savedY, 0, d.y, 0, d.y.length);
+                backSubstitute(d, st, sc, dt, dc, a, b, e, rt, rc);
+                break;
+            }
+            residual = refinedResidual;
+        }
+    }
+
+    /**
+     * Find the parts of a Newton direction other than the change in equilibrium multipliers, which is given.
+     *
+     * @param d direction with equilibrium multipliers and the eliminated right hand sides filled in
+     * @param st tension slacks
+     * @param sc compression slacks
+     * @param dt tension multiplier to slack ratios
+     * @param dc compression multiplier to slack ratios
+     * @param a force diagonal of each member and load case
+     * @param b capacity-force coupling of each member and load case
+     * @param e capacity diagonal of each member after eliminating forces
+     * @param rt target change in tension complementarity products
+     * @param rc target change in compression complementarity products
+     */
+    private void backSubstitute(Direction d, double [] st, double [] sc, double [] dt, double [] dc,
+            double [] a, double [] b, double [] e, double [] rt, double [] rc) {
+        final int nk = nCases;
+        for (int i = 0; i < nMembers; i++) {
+            double h = d.hx[i];
+            for (int k = 0; k < nk; k++) {
+                final int ik = i * nk + k;
+                double by = 0;
+                double wy = 0;
+                for (int p = 0; p < 4; p++) {
+                    final int eq = equation[4 * i + p];
+                    if (eq >= 0) {
+                        final double yj = d.y[eq * nk + k];
+                        by += coefficient[4 * i + p] * yj;
+                        if ((p & 1) == 1) {
+                            wy += yj;
+                        }
+                    }
+                }
+                h += weight[i] * wy - b[ik] / a[ik] * by;
+                d.by[ik] = by;
+            }
+            final double dx = h / e[i];
+            d.x[i] = dx;
+            for (int k = 0; k < nk; k++) {
+                final int ik = i * nk + k;
+                final double dq = (d.hq[ik] - b[ik] * dx + d.by[ik]) / a[ik];
+                d.q[ik] = dq;
+                d.st[ik] = dx - kt[i] * dq;
+                d.sc[ik] = dx + kc[i] * dq;
+                d.lt[ik] = rt[ik] / st[ik] - dt[ik] * d.st[ik];
+                d.lc[ik] = rc[ik] / sc[ik] - dc[ik] * d.sc[ik];
+            }
+        }
+    }
+
+    /**
+     * Find how far a direction is from restoring equilibrium.  This is also the residual of the reduced system.
+     *
+     * @param d direction, whose residual vector is filled in
+     * @param fp residual of equilibrium
+     * @return largest magnitude of the residual
+     */
+    private double getEquilibriumResidual(Direction d, double [] fp) {
+        final int nk = nCases;
+        final double [] r = d.r;
+        for (int j = 0; j < r.length; j++) {
+            r[j] = -fp[j];
+        }
+        for (int i = 0; i < nMembers; i++) {
+            for (int p = 0; p < 4; p++) {
+                final int eq = equation[4 * i + p];
+                if (eq < 0) {
+                    continue;
+                }
+                for (int k = 0; k < nk; k++) {
+                    r[eq * nk + k] -= coefficient[4 * i + p] * d.q[i * nk + k] + ((p & 1) == 1 ? weight[i] * d.x[i] : 0);
+                }
+            }
+        }
+        return norm(r);
+    }
+
+    /**
+     * Return the largest primal step, at most one, that keeps both capacity slacks positive.
+     *
+     * @param st tension slacks
+     * @param sc compression slacks
+     * @param d direction
+     * @return step
+     */
+    private static double getPrimalStep(double [] st, double [] sc, Direction d) {
+        double rtn = 1;
+        for (int ik = 0; ik < st.length; ik++) {
+            if (d.st[ik] < 0) {
+                rtn = Math.min(rtn, -st[ik] / d.st[ik]);
+            }
+            if (d.sc[ik] < 0) {
+                rtn = Math.min(rtn, -sc[ik] / d.sc[ik]);
+            }
+        }
+        return rtn;
+    }
+
+    /**
+     * Return the largest dual step, at most one, that keeps both capacity multipliers positive.
+     *
+     * @param d direction
+     * @return step
+     */
+    private double getDualStep(Direction d) {
+        double rtn = 1;
+        for (int ik = 0; ik < d.lt.length; ik++) {
+            if (d.lt[ik] < 0) {
+                rtn = Math.min(rtn, -lt[ik] / d.lt[ik]);
+            }
+            if (d.lc[ik] < 0) {
+                rtn = Math.min(rtn, -lc[ik] / d.lc[ik]);
+            }
+        }
+        return rtn;
+    }
+}
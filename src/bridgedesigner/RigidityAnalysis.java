@@ -0,0 +1,276 @@
+/*
+ * RigidityAnalysis.java
+ *
+ * Copyright (C) 2026 agent
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package bridgedesigner;
+
+/**
+ * Combinatorial rigidity of a truss with restraints, found with the pebble game.  Each joint starts with
+ * two pebbles, one per degree of freedom.  A member is independent if four pebbles can be gathered on its
+ * joints, the Laman count for bars, and is then covered by one of them.  A restraint is independent if one
+ * pebble can be gathered on its joint.  Gathering moves pebbles back along paths of covered members,
+ * reversing them.  Free pebbles left at the end are motions of a mechanism, and the joints that can reach
+ * them are the ones that move.
+ *
+ * This depends only on connectivity, so it holds for generic joint locations.  A truss that passes may still
+ * be unstable because of special geometry, e.g. two collinear members meeting at an otherwise free joint,
+ * but one that fails is unstable wherever its joints are.  Each joint covers at most two members at any time,
+ * and the work is usually close to linear in the number of members.
+ *
+ * @author agent
+ */
+public class RigidityAnalysis {
+
+    /**
+     * Joints covered by each joint's pebbles, two slots per joint, or -1 for an empty slot.
+     */
+    private final int [] cover;
+    /**
+     * Number of independent restraints of each joint.
+     */
+    private final int [] nRestraints;
+    /**
+     * Number of joints.
+     */
+    private final int nJoints;
+    /**
+     * Number of pebbles left free at the end, i.e. the degrees of freedom of the mechanism.
+     */
+    private int nFree;
+    /**
+     * Search workspace: parent of each joint in the current search and a visit mark per joint.
+     */
+    private final int [] parent;
+    private final int [] visited;
+    private int visitMark = 0;
+    private final int [] stack;
+
+    /**
+     * Play the pebble game for a truss with given connectivity and restraints.
+     *
+     * @param nJoints number of joints
+     * @param jointA index of first joint of each member
+     * @param jointB index of second joint of each member
+     * @param restrained restraint flags indexed by equation, x and y for each joint
+     */
+    public RigidityAnalysis(int nJoints, int [] jointA, int [] jointB, boolean [] restrained) {
+        this.nJoints = nJoints;
+        cover = new int [2 * nJoints];
+        nRestraints = new int [nJoints];
+        parent = new int [nJoints];
+        visited = new int [nJoints];
+        stack = new int [nJoints];
+        for (int i = 0; i < cover.length; i++) {
+            cover[i] = -1;
+        }
+        // Members first, so restraints are tested against the fullest set of independent members.
+        for (int im = 0; im < jointA.length; im++) {
+            addMember(jointA[im], jointB[im]);
+        }
+        for (int ie = 0; ie < restrained.length; ie++) {
+            if (restrained[ie]) {
+                addRestraint(ie / 2);
+            }
+        }
+        nFree = 0;
+        for (int ij = 0; ij < nJoints; ij++) {
+            nFree += getFreePebbles(ij);
+        }
+    }
+
+    /**
+     * Return the number of free pebbles at a joint.
+     *
+     * @param ij joint index
+     * @return free pebble count
+     */
+    private int getFreePebbles(int ij) {
+        int n = 2 - nRestraints[ij];
+        if (cover[2 * ij] >= 0) {
+            n--;
+        }
+        if (cover[2 * ij + 1] >= 0) {
+            n--;
+        }
+        return n;
+    }
+
+    /**
+     * Try to bring one more free pebble to a joint from elsewhere by depth first search along covered
+     * members, reversing the members on the path found.  Joints already visited in the current search,
+     * e.g. the other joint of a member being added, are not used.
+     *
+     * @param ij joint to receive the pebble
+     * @return true iff a pebble was found
+     */
+    private boolean gatherPebble(int ij) {
+        int top = 0;
+        stack[top++] = ij;
+        visited[ij] = visitMark;
+        while (top > 0) {
+            final int i = stack[--top];
+            for (int slot = 2 * i; slot < 2 * i + 2; slot++) {
+                final int j = cover[slot];
+                if (j < 0 || visited[j] == visitMark) {
+                    continue;
+                }
+                visited[j] = visitMark;
+                parent[j] = i;
+                if (getFreePebbles(j) > 0) {
+                    // Reverse the path from ij to j, which moves a pebble from j back to ij.
+                    for (int k = j; k != ij; k = parent[k]) {
+                        final int p = parent[k];
+                        uncover(p, k);
+                        cover[getEmptySlot(k)] = p;
+                    }
+                    return true;
+                }
+                stack[top++] = j;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Remove the member from joint i to joint j from the members covered by i.
+     *
+     * @param i covering joint
+     * @param j covered joint
+     */
+    private void uncover(int i, int j) {
+        cover[cover[2 * i] == j ? 2 * i : 2 * i + 1] = -1;
+    }
+
+    /**
+     * Return an empty cover slot of a joint with a free pebble.
+     *
+     * @param ij joint index
+     * @return slot index
+     */
+    private int getEmptySlot(int ij) {
+        return cover[2 * ij] < 0 ? 2 * ij : 2 * ij + 1;
+    }
+
+    /**
+     * Add a member if it's independent of those already added.
+     *
+     * @param ia index of first joint
+     * @param ib index of second joint
+     */
+    private void addMember(int ia, int ib) {
+        while (getFreePebbles(ia) + getFreePebbles(ib) < 4) {
+            ++visitMark;
+            visited[ib] = visitMark;
+            if (getFreePebbles(ia) < 2 && gatherPebble(ia)) {
+                continue;
+            }
+            ++visitMark;
+            visited[ia] = visitMark;
+            if (getFreePebbles(ib) < 2 && gatherPebble(ib)) {
+                continue;
+            }
+            // Redundant member.
+            return;
+        }
+        cover[getEmptySlot(ia)] = ib;
+    }
+
+    /**
+     * Add a restraint of a joint if it's independent of the members and restraints already added.
+     *
+     * @param ij joint index
+     */
+    private void addRestraint(int ij) {
+        if (getFreePebbles(ij) == 0) {
+            ++visitMark;
+            if (!gatherPebble(ij)) {
+                return;
+            }
+        }
+        nRestraints[ij]++;
+    }
+
+    /**
+     * Return true iff the truss is rigid, i.e. no joint can move without stretching a member.
+     *
+     * @return true iff the truss is rigid
+     */
+    public boolean isRigid() {
+        return nFree == 0;
+    }
+
+    /**
+     * Return the number of independent motions of the mechanism, zero if the truss is rigid.
+     *
+     * @return degrees of freedom
+     */
+    public int getDegreesOfFreedom() {
+        return nFree;
+    }
+
+    /**
+     * Return the indices of joints that can move, in increasing order.  These are the joints from which a
+     * free pebble can be reached along covered members.
+     *
+     * @return indices of mobile joints
+     */
+    public int [] getMobileJoints() {
+        if (nFree == 0) {
+            return new int [0];
+        }
+        // Reverse search from every joint with a free pebble.
+        final int [] inStart = new int [nJoints + 1];
+        for (int slot = 0; slot < cover.length; slot++) {
+            if (cover[slot] >= 0) {
+                inStart[cover[slot] + 1]++;
+            }
+        }
+        for (int ij = 0; ij < nJoints; ij++) {
+            inStart[ij + 1] += inStart[ij];
+        }
+        final int [] in = new int [inStart[nJoints]];
+        final int [] fill = new int [nJoints];
+        System.arraycopy(inStart, 0, fill, 0, nJoints);
+        for (int slot = 0; slot < cover.length; slot++) {
+            if (cover[slot] >= 0) {
+                in[fill[cover[slot]]++] = slot / 2;
+            }
+        }
+        final boolean [] mobile = new boolean [nJoints];
+        int top = 0;
+        int nMobile = 0;
+        for (int ij = 0; ij < nJoints; ij++) {
+            if (getFreePebbles(ij) > 0) {
+                mobile[ij] = true;
+                stack[top++] = ij;
+                nMobile++;
+            }
+        }
+        while (top > 0) {
+            final int j = stack[--top];
+            for (int k = inStart[j]; k < inStart[j + 1]; k++) {
+                if (!mobile[in[k]]) {
+                    mobile[in[k]] = true;
+                    stack[top++] = in[k];
+                    nMobile++;
+                }
+            }
+        }
+        final int [] rtn = new int [nMobile];
+        for (int ij = 0, i = 0; ij < nJoints; ij++) {
+            if (mobile[ij]) {
+                rtn[i++] = ij;
+            }
+        }
+        return rtn;
+    }
+}
@@ -0,0 +1,332 @@
+/*
+ * SkylineSolver.java
+ *
+ * Copyright (C) 2026 agent
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package bridgedesigner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Symmetric matrix stored in skyline (profile) form with an in-place LDL^T factorization.
+ *
+ * Column j is stored contiguously from its first structurally non-zero row down to the diagonal,
+ * so storage and factoring work are proportional to the profile of the matrix rather than to n^2 and n^3.
+ * After <code>factor</code> succeeds, the off-diagonal entries hold L and the diagonal holds D, and
+ * <code>solve</code> may be called any number of times with different right hand sides.
+ *
+ * @author agent
+ */
+public class SkylineSolver {
+
+    /**
+     * Number of equations.
+     */
+    private final int n;
+    /**
+     * Index of the first stored row of each column.
+     */
+    private final int [] firstRow;
+    /**
+     * Offset in <code>a</code> of the diagonal entry of each column.
+     */
+    private final int [] diagonal;
+    /**
+     * Packed column storage of the upper triangle.
+     */
+    private final double [] a;
+    /**
+     * Whether <code>a</code> currently holds a factorization.
+     */
+    private boolean factored = false;
+
+    /**
+     * Construct a zero matrix with given profile.  Entry (i, j) with i &lt;= j is stored
+     * iff <code>firstRow[j] &lt;= i</code>.
+     *
+     * @param firstRow index of the first stored row of each column; firstRow[j] &lt;= j
+     */
+    public SkylineSolver(int [] firstRow) {
+        n = firstRow.length;
+        this.firstRow = firstRow.clone();
+        diagonal = new int [n];
+        int size = 0;
+        for (int j = 0; j < n; j++) {
+            size += j - firstRow[j];
+            diagonal[j] = size;
+            size++;
+        }
+        a = new double [size];
+    }
+
+    /**
+     * Return the number of equations.
+     *
+     * @return number of equations
+     */
+    public int size() {
+        return n;
+    }
+
+    /**
+     * Return the number of stored entries, which is the profile of the matrix plus its diagonal.
+     *
+     * @return number of stored entries
+     */
+    public int getProfileSize() {
+        return a.length;
+    }
+
+    /**
+     * Return an estimate of the multiply-adds needed to factor a matrix with the given profile, the sum of
+     * squared column heights.
+     *
+     * @param firstRow index of the first stored row of each column
+     * @return factoring work estimate
+     */
+    public static long getFactorWork(int [] firstRow) {
+        long work = 0;
+        for (int j = 0; j < firstRow.length; j++) {
+            final long height = j - firstRow[j];
+            work += height * height;
+        }
+        return work;
+    }
+
+    /**
+     * Return true iff the matrix currently holds a factorization.
+     *
+     * @return true iff factored
+     */
+    public boolean isFactored() {
+        return factored;
+    }
+
+    /**
+     * Set all entries to zero so the matrix can be re-assembled with the same profile.
+     */
+    public void clear() {
+        Arrays.fill(a, 0);
+        factored = false;
+    }
+
+    /**
+     * Add a value to entry (i, j) and, implicitly, to its symmetric twin (j, i).  The entry must be in the profile.
+     *
+     * @param i row index
+     * @param j column index
+     * @param val value to add
+     */
+    public void add(int i, int j, double val) {
+        if (i > j) {
+            int t = i; i = j; j = t;
+        }
+        a[diagonal[j] - (j - i)] += val;
+    }
+
+    /**
+     * Return the storage offset of entry (i, j), which must be in the profile.  Offsets depend only on the
+     * profile, so they can be computed once and used with <code>addAt</code> for repeated assemblies.
+     *
+     * @param i row index
+     * @param j column index
+     * @return storage offset
+     */
+    public int getOffset(int i, int j) {
+        if (i > j) {
+            int t = i; i = j; j = t;
+        }
+        return diagonal[j] - (j - i);
+    }
+
+    /**
+     * Add a value to the entry at a given storage offset.
+     *
+     * @param offset storage offset from <code>getOffset</code>
+     * @param val value to add
+     */
+    public void addAt(int offset, double val) {
+        a[offset] += val;
+    }
+
+    /**
+     * Return entry (i, j).  Entries outside the profile are zero.  After factoring, this is an entry of L or D.
+     *
+     * @param i row index
+     * @param j column index
+     * @return matrix entry
+     */
+    public double get(int i, int j) {
+        if (i > j) {
+            int t = i; i = j; j = t;
+        }
+        return i < firstRow[j] ? 0 : a[diagonal[j] - (j - i)];
+    }
+
+    /**
+     * Factor the matrix in place as L D L^T.  Fails if the absolute value of any pivot falls
+     * below the given minimum, which for a stiffness matrix signals a mechanism.
+     *
+     * @param minPivot smallest acceptable pivot magnitude
+     * @return true iff factoring succeeded
+     */
+    public boolean factor(double minPivot) {
+        for (int j = 0; j < n; j++) {
+            final int fj = firstRow[j];
+            final int dj = diagonal[j];
+            // Reduce column j to g[i] = a[i][j] - sum_k L[k][i] g[k] in place.
+            for (int i = fj + 1; i < j; i++) {
+                final int fi = firstRow[i];
+                final int di = diagonal[i];
+                final int k0 = fi > fj ? fi : fj;
+                double s = 0;
+                for (int k = k0, pi = di - (i - k0), pj = dj - (j - k0); k < i; k++, pi++, pj++) {
+                    s += a[pi] * a[pj];
+                }
+                a[dj - (j - i)] -= s;
+            }
+            // Convert g to L and update the diagonal.
+            double d = a[dj];
+            for (int i = fj, pj = dj - (j - fj); i < j; i++, pj++) {
+                final double g = a[pj];
+                final double l = g / a[diagonal[i]];
+                d -= l * g;
+                a[pj] = l;
+            }
+            if (Math.abs(d) < minPivot) {
+                return false;
+            }
+            a[dj] = d;
+        }
+        factored = true;
+        return true;
+    }
+
+    /**
+     * Solve the factored system in place.
+     *
+     * @param b right hand side on entry, solution on return
+     */
+    public void solve(double [] b) {
+        // Forward substitution with L, then scale by D^-1.
+        for (int j = 0; j < n; j++) {
+            double s = b[j];
+            for (int i = firstRow[j], p = diagonal[j] - (j - firstRow[j]); i < j; i++, p++) {
+                s -= a[p] * b[i];
+            }
+            b[j] = s;
+        }
+        for (int j = 0; j < n; j++) {
+            b[j] /= a[diagonal[j]];
+        }
+        // Back substitution with L^T.
+        for (int j = n - 1; j > 0; j--) {
+            final double bj = b[j];
+            if (bj != 0) {
+                for (int i = firstRow[j], p = diagonal[j] - (j - firstRow[j]); i < j; i++, p++) {
+                    b[i] -= a[p] * bj;
+                }
+            }
+        }
+    }
+
+    /**
+     * Solve the factored system in place for several right hand sides at once.
+     *
+     * @param b right hand sides on entry, solutions on return; b[i] is the i'th system
+     */
+    public void solve(double [][] b) {
+        solve(b, 0, b.length);
+    }
+
+    /**
+     * Solve the factored system in place for a contiguous block of right hand sides.  The block is packed
+     * into one panel interleaved by equation, so each entry of the factor is loaded once per block
+     * rather than once per right hand side.
+     *
+     * @param b right hand sides on entry, solutions on return; b[i] is the i'th system
+     * @param first index of first right hand side of the block
+     * @param count number of right hand sides in the block
+     */
+    public void solve(double [][] b, int first, int count) {
+        if (count == 1) {
+            solve(b[first]);
+            return;
+        }
+        final int m = count;
+        final double [] x = new double [n * m];
+        for (int r = 0; r < m; r++) {
+            final double [] br = b[first + r];
+            for (int j = 0, q = r; j < n; j++, q += m) {
+                x[q] = br[j];
+            }
+        }
+        // Forward substitution with L, then scale by D^-1.
+        for (int j = 0; j < n; j++) {
+            final int xj = j * m;
+            for (int i = firstRow[j], p = diagonal[j] - (j - firstRow[j]); i < j; i++, p++) {
+                final double l = a[p];
+                if (l != 0) {
+                    for (int r = 0, xi = i * m; r < m; r++, xi++) {
+                        x[xj + r] -= l * x[xi];
+                    }
+                }
+            }
+        }
+        for (int j = 0; j < n; j++) {
+            final double d = a[diagonal[j]];
+            for (int r = 0, xj = j * m; r < m; r++) {
+                x[xj + r] /= d;
+            }
+        }
+        // Back substitution with L^T.
+        for (int j = n - 1; j > 0; j--) {
+            final int xj = j * m;
+            for (int i = firstRow[j], p = diagonal[j] - (j - firstRow[j]); i < j; i++, p++) {
+                final double l = a[p];
+                if (l != 0) {
+                    for (int r = 0, xi = i * m; r < m; r++, xi++) {
+                        x[xi] -= l * x[xj + r];
+                    }
+                }
+            }
+        }
+        for (int r = 0; r < m; r++) {
+            final double [] br = b[first + r];
+            for (int j = 0, q = r; j < n; j++, q += m) {
+                br[j] = x[q];
+            }
+        }
+    }
+
+    /**
+     * Solve the factored system in place for many right hand sides, splitting them into blocks
+     * that are solved in parallel on the shared compute pool.  The factor is only read, so
+     * blocks are independent, and the results don't depend on how they are split.
+     *
+     * @param b right hand sides on entry, solutions on return; b[i] is the i'th system
+     * @param blockSize maximum number of right hand sides per block
+     */
+    public void solveParallel(final double [][] b, int blockSize) {
+        ArrayList<Runnable> tasks = new ArrayList<Runnable>();
+        for (int first = 0; first < b.length; first += blockSize) {
+            final int f = first;
+            final int c = Math.min(blockSize, b.length - first);
+            tasks.add(new Runnable() {
+                public void run() {
+                    solve(b, f, c);
+                }
+            });
+        }
+        ComputePool.run(tasks);
+    }
+}
@@ -0,0 +1,330 @@
+/*
+ * StiffnessPattern.java
+ *
+ * Copyright (C) 2026 agent
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package bridgedesigner;
+
+/**
+ * Symbolic structure of a bridge stiffness matrix: restraints, equation order, skyline profile, and the
+ * storage offset of every entry each member contributes.  All of these depend only on member-joint
+ * connectivity and design conditions, so moving joints or changing member stock changes the values
+ * of the matrix but not this pattern.  Patterns are immutable, and the last one built is cached so
+ * that analyses of the same bridge share it.
+ *
+ * @author agent
+ */
+public class StiffnessPattern {
+
+    /**
+     * Design conditions and member joint indices, two per member, that the pattern was built for.
+     */
+    private final DesignConditions conditions;
+    private final int [] memberJoints;
+    /**
+     * Restraint flags indexed by joint-ordered equation number.
+     */
+    private final boolean [] restrained;
+    /**
+     * Map from joint-ordered equation numbers to the equation numbers of the matrix.
+     */
+    private final int [] equation;
+    /**
+     * Index of the first stored row of each column of the matrix.
+     */
+    private final int [] firstRow;
+    /**
+     * Storage offset of the upper triangle entry (p, q), p &lt;= q, of each member's 4x4 stiffness in
+     * the order given by <code>getMemberDofs</code>, ten per member, or -1 where p or q is restrained.
+     */
+    private final int [] memberOffsets;
+    /**
+     * Storage offsets of the diagonals of restrained equations.
+     */
+    private final int [] restrainedOffsets;
+    /**
+     * Joints left free to move by connectivity and restraints alone, empty if the truss is rigid.
+     */
+    private final int [] underbracedJoints;
+
+    /**
+     * The last pattern built.
+     */
+    private static StiffnessPattern cached = null;
+
+    /**
+     * Return a stiffness pattern for the given bridge, reusing the cached one if it matches.
+     *
+     * @param bridge bridge
+     * @return stiffness pattern
+     */
+    public static synchronized StiffnessPattern get(BridgeModel bridge) {
+        if (cached == null || !cached.matches(bridge)) {
+            cached = new StiffnessPattern(bridge);
+        }
+        return cached;
+    }
+
+    /**
+     * Construct the stiffness pattern of a bridge.
+     *
+     * @param bridge bridge
+     */
+    private StiffnessPattern(BridgeModel bridge) {
+        conditions = bridge.getDesignConditions();
+        final int nJoints = bridge.getJoints().size();
+        final int nEquations = 2 * nJoints;
+        final int nMembers = bridge.getMembers().size();
+        final int [] jointA = new int [nMembers];
+        final int [] jointB = new int [nMembers];
+        memberJoints = new int [2 * nMembers];
+        for (int im = 0; im < nMembers; im++) {
+            final Member member = bridge.getMembers().get(im);
+            jointA[im] = memberJoints[2 * im] = member.getJointA().getIndex();
+            jointB[im] = memberJoints[2 * im + 1] = member.getJointB().getIndex();
+        }
+        restrained = getRestraints(conditions, nJoints);
+        underbracedJoints = new RigidityAnalysis(nJoints, jointA, jointB, restrained).getMobileJoints();
+        // Renumber equations so the joints of each member are close together, which keeps the profile small.
+        final int [] jointOrder = new JointOrdering(nJoints, jointA, jointB).getReverseCuthillMcKee();
+        equation = new int [nEquations];
+        for (int ij = 0; ij < nJoints; ij++) {
+            equation[2 * ij] = 2 * jointOrder[ij];
+            equation[2 * ij + 1] = 2 * jointOrder[ij] + 1;
+        }
+        // Find the profile.  Restrained equations couple to nothing, so they don't widen it.
+        firstRow = new int [nEquations];
+        for (int ie = 0; ie < nEquations; ie++) {
+            firstRow[ie] = ie;
+        }
+        final int [] dofs = new int [4];
+        for (int im = 0; im < nMembers; im++) {
+            getMemberDofs(im, dofs);
+            int minEquation = nEquations;
+            for (int k = 0; k < 4; k++) {
+                if (!restrained[dofs[k]] && equation[dofs[k]] < minEquation) {
+                    minEquation = equation[dofs[k]];
+                }
+            }
+            for (int k = 0; k < 4; k++) {
+                if (!restrained[dofs[k]] && minEquation < firstRow[equation[dofs[k]]]) {
+                    firstRow[equation[dofs[k]]] = minEquation;
+                }
+            }
+        }
+        // Record where each member's entries go.  Restraints are applied by leaving restrained rows
+        // and columns out of the assembly.
+        final SkylineSolver layout = new SkylineSolver(firstRow);
+        memberOffsets = new int [10 * nMembers];
+        for (int im = 0, i = 0; im < nMembers; im++) {
+            getMemberDofs(im, dofs);
+            for (int p = 0; p < 4; p++) {
+                for (int q = p; q < 4; q++) {
+                    memberOffsets[i++] = (restrained[dofs[p]] || restrained[dofs[q]]) ?
+                        -1 : layout.getOffset(equation[dofs[p]], equation[dofs[q]]);
+                }
+            }
+        }
+        int nRestrained = 0;
+        for (int ie = 0; ie < nEquations; ie++) {
+            if (restrained[ie]) {
+                nRestrained++;
+            }
+        }
+        restrainedOffsets = new int [nRestrained];
+        for (int ie = 0, i = 0; ie < nEquations; ie++) {
+            if (restrained[ie]) {
+                restrainedOffsets[i++] = layout.getOffset(equation[ie], equation[ie]);
+            }
+        }
+    }
+
+    /**
+     * Return flags marking the restrained equations of a bridge with given design conditions.
+     * Restraints mimic the WPBD code exactly.
+     *
+     * @param conditions design conditions
+     * @param nJoints number of joints
+     * @return restraint flags indexed by equation
+     */
+    static boolean [] getRestraints(DesignConditions conditions, int nJoints) {
+        boolean xRestraint[] = new boolean[nJoints];
+        boolean yRestraint[] = new boolean[nJoints];
+        xRestraint[0] = yRestraint[0] = yRestraint[conditions.getNLoadedJoints() - 1] = true;
+        if (conditions.isPier()) {
+            int i = conditions.getPierJointIndex();
+            xRestraint[i] = yRestraint[i] = true;
+            if (conditions.isHiPier()) {
+                xRestraint[0] = false;
+            }
+        }
+        if (conditions.isArch()) {
+            int i = conditions.getArchJointIndex();
+            xRestraint[0] = yRestraint[0] = yRestraint[conditions.getNLoadedJoints() - 1] = false;
+            xRestraint[i] = yRestraint[i] = true;
+            xRestraint[i + 1] = yRestraint[i + 1] = true;
+        }
+        if (conditions.isLeftAnchorage()) {
+            int i = conditions.getLeftAnchorageJointIndex();
+            xRestraint[i] = yRestraint[i] = true;
+        }
+        if (conditions.isRightAnchorage()) {
+            int i = conditions.getRightAnchorageJointIndex();
+            xRestraint[i] = yRestraint[i] = true;
+        }
+        boolean rtn[] = new boolean[2 * nJoints];
+        for (int ij = 0; ij < nJoints; ij++) {
+            rtn[2 * ij] = xRestraint[ij];
+            rtn[2 * ij + 1] = yRestraint[ij];
+        }
+        return rtn;
+    }
+
+    /**
+     * Return true iff this pattern was built for the connectivity and design conditions of the given bridge.
+     *
+     * @param bridge bridge to check
+     * @return true iff the pattern fits the bridge
+     */
+    public boolean matches(BridgeModel bridge) {
+        if (bridge.getDesignConditions() != conditions ||
+                bridge.getJoints().size() * 2 != restrained.length ||
+                bridge.getMembers().size() * 2 != memberJoints.length) {
+            return false;
+        }
+        for (int im = 0; im < bridge.getMembers().size(); im++) {
+            final Member member = bridge.getMembers().get(im);
+            if (member.getJointA().getIndex() != memberJoints[2 * im] ||
+                    member.getJointB().getIndex() != memberJoints[2 * im + 1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Fill in the x- and y-equation numbers of both joints of a member, in joint order.
+     *
+     * @param im member index
+     * @param dofs array of four to receive equation numbers: a.x, a.y, b.x, b.y
+     */
+    public void getMemberDofs(int im, int [] dofs) {
+        final int j1 = memberJoints[2 * im];
+        final int j2 = memberJoints[2 * im + 1];
+        dofs[0] = 2 * j1;
+        dofs[1] = 2 * j1 + 1;
+        dofs[2] = 2 * j2;
+        dofs[3] = 2 * j2 + 1;
+    }
+
+    /**
+     * Return the restraint flags indexed by joint-ordered equation number.  The array is shared and must not be changed.
+     *
+     * @return restraint flags
+     */
+    public boolean [] getRestraints() {
+        return restrained;
+    }
+
+    /**
+     * Return the indices of joints that can move no matter where joints are located, i.e. because
+     * of missing members or restraints.  Any bridge with this pattern is unstable unless the array is
+     * empty.  The array is shared and must not be changed.
+     *
+     * @return indices of under-braced joints in increasing order
+     */
+    public int [] getUnderbracedJoints() {
+        return underbracedJoints;
+    }
+
+    /**
+     * Return the map from joint-ordered equation numbers to matrix equation numbers.  The array is shared
+     * and must not be changed.
+     *
+     * @return equation map
+     */
+    public int [] getEquations() {
+        return equation;
+    }
+
+    /**
+     * Return an estimate of the multiply-adds needed to factor a matrix with this pattern's profile.
+     *
+     * @return factoring work estimate
+     */
+    public long getFactorWork() {
+        return SkylineSolver.getFactorWork(firstRow);
+    }
+
+    /**
+     * Return a new zero matrix with this pattern's profile.
+     *
+     * @return matrix
+     */
+    public SkylineSolver newMatrix() {
+        return new SkylineSolver(firstRow);
+    }
+
+    /**
+     * Assemble the stiffness matrix of a bridge with this pattern into a matrix from <code>newMatrix</code>.
+     * Member entries are scattered directly to their precomputed offsets, and restrained equations get
+     * a unit diagonal.
+     *
+     * @param k matrix to receive the assembly; cleared first
+     * @param aeOverL axial stiffness of each member
+     * @param cosX x-direction cosine of each member
+     * @param cosY y-direction cosine of each member
+     */
+    public void assemble(SkylineSolver k, double [] aeOverL, double [] cosX, double [] cosY) {
+        assemble(k, aeOverL, cosX, cosY, null);
+    }
+
+    /**
+     * Assemble a stiffness matrix as above, but with each member also resisting displacement across its
+     * axis.  This is the tangent stiffness of a bar under axial force N, where the transverse stiffness is
+     * N / L, positive for tension and negative for compression.
+     *
+     * @param k matrix to receive the assembly; cleared first
+     * @param aeOverL axial stiffness of each member
+     * @param cosX x-direction cosine of each member
+     * @param cosY y-direction cosine of each member
+     * @param transverse transverse stiffness of each member or null for none
+     */
+    public void assemble(SkylineSolver k, double [] aeOverL, double [] cosX, double [] cosY, double [] transverse) {
+        k.clear();
+        final double [] v = new double [4];
+        final double [] w = new double [4];
+        for (int im = 0, i = 0; im < aeOverL.length; im++) {
+            v[0] = -cosX[im];
+            v[1] = -cosY[im];
+            v[2] = cosX[im];
+            v[3] = cosY[im];
+            // The transverse direction is the axis turned a quarter turn.
+            w[0] = cosY[im];
+            w[1] = -cosX[im];
+            w[2] = -cosY[im];
+            w[3] = cosX[im];
+            final double kt = (transverse == null) ? 0 : transverse[im];
+            for (int p = 0; p < 4; p++) {
+                final double kv = aeOverL[im] * v[p];
+                final double kw = kt * w[p];
+                for (int q = p; q < 4; q++, i++) {
+                    if (memberOffsets[i] >= 0) {
+                        k.addAt(memberOffsets[i], kv * v[q] + kw * w[q]);
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < restrainedOffsets.length; i++) {
+            k.addAt(restrainedOffsets[i], 1);
+        }
+    }
+}
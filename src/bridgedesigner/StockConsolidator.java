@@ -0,0 +1,797 @@
+/*
+ * StockConsolidator.java
+ *
+ * Copyright (C) 2026 agent
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package bridgedesigner;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Choice of a small set of stocks for the members of a bridge that trades the ordering fee charged for each
+ * stock against material cost.  With member forces held at those of the bridge as it stands, each member can
+ * use any stock strong and slender enough for it, and, once a set of stocks is chosen, it should use the
+ * cheapest one in the set.  Finding the set is then a facility location problem, solved by branch and bound.
+ *
+ * Stocks that are no cheaper per meter and no stronger for any member than some other stock are dropped first.
+ * The rest are decided in order of increasing cost per meter, to include or not.  Since a member uses the
+ * cheapest stock that fits, it's settled by the first included stock that fits it.  A bound on the cost of a
+ * partial decision gives each unsettled member the next stock that fits it whether or not it will be included,
+ * plus one more ordering fee.  Only capacity lookups are needed, no analysis.  A greedy solution seeds the
+ * search, which is split among the compute pool threads at a shallow depth, and a time budget stops it early
+ * if need be.  The best few sets are kept.
+ *
+ * Each set is then verified by analysis, since heavier members change the forces.  Members that are
+ * overstressed move to the next stock of the set that fits the new forces until the bridge passes or the set
+ * has nothing strong enough.  Alternatives that pass are returned ranked by total cost.
+ *
+ * The consolidator works on a private copy of the bridge, which is never changed.
+ *
+ * @author agent
+ */
+public class StockConsolidator {
+
+    /**
+     * Default time budget of the search in milliseconds.
+     */
+    private static final long defaultTimeBudget = 2000;
+    /**
+     * Default number of alternatives kept.
+     */
+    private static final int defaultAlternativeCount = 5;
+    /**
+     * Upper bound on analyses used to verify one alternative.
+     */
+    private static final int maxRepairIterations = 10;
+    /**
+     * Number of search nodes between checks of the time budget; a power of two.
+     */
+    private static final int deadlineCheckInterval = 1024;
+    /**
+     * Number of search subtrees per compute pool thread.
+     */
+    private static final int subtreesPerThread = 8;
+
+    /**
+     * Bridge to consolidate.
+     */
+    private final BridgeModel source;
+    /**
+     * Time budget of the search in milliseconds.
+     */
+    private long timeBudget = defaultTimeBudget;
+    /**
+     * Number of alternatives to keep.
+     */
+    private int alternativeCount = defaultAlternativeCount;
+    /**
+     * Whether the last search finished within its time budget.
+     */
+    private boolean exhaustive = false;
+    /**
+     * Private copy of the bridge used for verification.
+     */
+    private BridgeModel bridge;
+    /**
+     * Analysis of the copy.
+     */
+    private final Analysis analysis = new Analysis();
+    /**
+     * Properties of every stock for every member of the copy.
+     */
+    private StockTable table;
+    /**
+     * Stocks left after dominated ones are dropped, in increasing order of cost per meter.
+     */
+    private int [] candidate;
+    /**
+     * Material cost of each member in each candidate stock, indexed by member and candidate position.
+     */
+    private double [][] candidateCost;
+    /**
+     * Position of the first candidate at or after a given one that fits each member, or the number of
+     * candidates if none does, indexed by member and position.
+     */
+    private int [][] nextFit;
+    /**
+     * Ordering fee for each stock.
+     */
+    private double fee;
+    /**
+     * Time at which the search must stop in system nanoseconds.
+     */
+    private long deadline;
+    /**
+     * Whether the search ran out of time.
+     */
+    private volatile boolean timedOut;
+    /**
+     * Set to stop the search at the next check of the time budget.
+     */
+    private volatile boolean cancelled = false;
+    /**
+     * Best sets found so far in increasing order of cost.
+     */
+    private final ArrayList<Solution> incumbents = new ArrayList<Solution>();
+    /**
+     * Cost a partial decision must beat to matter: that of the worst incumbent once there are enough.
+     */
+    private volatile double bound;
+
+    /**
+     * Construct a consolidator for a bridge.
+     *
+     * @param bridge bridge whose stocks are to be consolidated
+     */
+    public StockConsolidator(BridgeModel bridge) {
+        this.source = bridge;
+    }
+
+    /**
+     * Set the time budget of the search.  When it runs out, the best sets found so far are verified.
+     *
+     * @param millis time budget in milliseconds
+     */
+    public void setTimeBudget(long millis) {
+        timeBudget = millis;
+    }
+
+    /**
+     * Stop the search at its next check of the time budget, as though the budget had run out.  This may be
+     * called from any thread.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Set the number of alternative sets of stocks to find.
+     *
+     * @param n number of alternatives
+     */
+    public void setAlternativeCount(int n) {
+        alternativeCount = Math.max(1, n);
+    }
+
+    /**
+     * Return true iff the last search finished within its time budget, so its sets were the best possible for
+     * the forces of the bridge as it stood.
+     *
+     * @return true iff the search was exhaustive
+     */
+    public boolean isExhaustive() {
+        return exhaustive;
+    }
+
+    /**
+     * A stock assignment that passes the load test.
+     */
+    public static class Alternative {
+
+        /**
+         * Stock of each member as indexed in a stock table.
+         */
+        private final int [] stock;
+        /**
+         * New members for those whose stock changes.
+         */
+        private final Member [] members;
+        /**
+         * Total cost of the bridge.
+         */
+        private final double cost;
+        /**
+         * Number of distinct stocks used.
+         */
+        private final int stockCount;
+
+        /**
+         * Construct an alternative.
+         *
+         * @param stock stock of each member as indexed in a stock table
+         * @param members new members for those whose stock changes
+         * @param cost total cost of the bridge
+         * @param stockCount number of distinct stocks used
+         */
+        Alternative(int [] stock, Member [] members, double cost, int stockCount) {
+            this.stock = stock;
+            this.members = members;
+            this.cost = cost;
+            this.stockCount = stockCount;
+        }
+
+        /**
+         * Return the total cost of the bridge with this alternative's stocks.
+         *
+         * @return total cost
+         */
+        public double getCost() {
+            return cost;
+        }
+
+        /**
+         * Return the number of distinct stocks used.
+         *
+         * @return number of stocks
+         */
+        public int getStockCount() {
+            return stockCount;
+        }
+
+        /**
+         * Return new members for those whose stock changes, each with the index of the member it replaces.
+         *
+         * @return changed members
+         */
+        public Member [] getMembers() {
+            return members;
+        }
+
+        /**
+         * Return the stock of each member as indexed in a <code>StockTable</code> of the bridge.
+         *
+         * @return stock indices
+         */
+        int [] getStocks() {
+            return stock;
+        }
+    }
+
+    /**
+     * A set of candidate stocks found by the search.
+     */
+    private static class Solution {
+        /**
+         * Candidate positions of the stocks in increasing order.
+         */
+        final int [] positions;
+        /**
+         * Material cost plus ordering fees.
+         */
+        final double cost;
+
+        /**
+         * Construct a solution.
+         *
+         * @param positions candidate positions of the stocks in increasing order
+         * @param cost material cost plus ordering fees
+         */
+        Solution(int [] positions, double cost) {
+            this.positions = positions;
+            this.cost = cost;
+        }
+    }
+
+    /**
+     * Find sets of stocks for the bridge that pass the load test at least cost.
+     *
+     * @return alternatives in increasing order of total cost, empty if the bridge is unstable or no set of
+     * stocks passes
+     */
+    public Alternative [] getAlternatives() {
+        bridge = new BridgeModel();
+        try {
+            bridge.parseBytes(source.toBytes());
+        } catch (IOException ex) {
+            return new Alternative[0];
+        }
+        table = new StockTable(bridge);
+        fee = bridge.getInventory().getOrderingFee();
+        analysis.update(bridge);
+        if (analysis.getStatus() <= Analysis.UNSTABLE) {
+            return new Alternative[0];
+        }
+        final int nMembers = bridge.getMembers().size();
+        final double [] compression = new double [nMembers];
+        final double [] tension = new double [nMembers];
+        for (int im = 0; im < nMembers; im++) {
+            compression[im] = analysis.getMemberCompressiveForce(im);
+            tension[im] = analysis.getMemberTensileForce(im);
+        }
+        if (!setCandidates(compression, tension)) {
+            return new Alternative[0];
+        }
+        search();
+        final int [] original = new int [nMembers];
+        for (int im = 0; im < nMembers; im++) {
+            original[im] = table.getStock(bridge.getMembers().get(im));
+        }
+        final ArrayList<Alternative> alternatives = new ArrayList<Alternative>();
+        for (int i = 0; i < incumbents.size(); i++) {
+            final int [] stock = verify(incumbents.get(i).positions, compression.clone(), tension.clone());
+            if (stock == null || isDuplicate(alternatives, stock)) {
+                continue;
+            }
+            final ArrayList<Member> changed = new ArrayList<Member>();
+            for (int im = 0; im < nMembers; im++) {
+                if (stock[im] != original[im]) {
+                    changed.add(table.getMember(source, im, stock[im]));
+                }
+            }
+            alternatives.add(new Alternative(stock, changed.toArray(new Member[changed.size()]),
+                    bridge.getTotalCost(), getStockCount(stock)));
+        }
+        final Alternative [] rtn = alternatives.toArray(new Alternative[alternatives.size()]);
+        Arrays.sort(rtn, new Comparator<Alternative>() {
+            public int compare(Alternative a, Alternative b) {
+                return Double.compare(a.cost, b.cost);
+            }
+        });
+        return rtn;
+    }
+
+    /**
+     * Choose the candidate stocks for given member forces: those that fit some member and aren't dominated by
+     * another that is no more costly per meter and fits every member this one does.  Tabulate member costs and
+     * the next fitting candidate of each member.
+     *
+     * @param compression largest compressive force of each member
+     * @param tension largest tensile force of each member
+     * @return true iff every member has a stock that fits
+     */
+    private boolean setCandidates(double [] compression, double [] tension) {
+        final int nMembers = compression.length;
+        final int nStocks = table.getStockCount();
+        final boolean [][] fit = new boolean [nStocks][nMembers];
+        final boolean [] useful = new boolean [nStocks];
+        for (int is = 0; is < nStocks; is++) {
+            for (int im = 0; im < nMembers; im++) {
+                fit[is][im] = table.fits(im, is, compression[im], tension[im]);
+                useful[is] |= fit[is][im];
+            }
+        }
+        final ArrayList<Integer> kept = new ArrayList<Integer>();
+        for (int is = 0; is < nStocks; is++) {
+            if (!useful[is]) {
+                continue;
+            }
+            boolean dominated = false;
+            for (int js = 0; js < nStocks && !dominated; js++) {
+                if (js == is || !useful[js] || table.getUnitCost(js) > table.getUnitCost(is) ||
+                        (table.getUnitCost(js) == table.getUnitCost(is) && js > is)) {
+                    continue;
+                }
+                dominated = true;
+                for (int im = 0; im < nMembers && dominated; im++) {
+                    dominated = !fit[is][im] || fit[js][im];
+                }
+            }
+            if (!dominated) {
+                kept.add(is);
+            }
+        }
+        final Integer [] sorted = kept.toArray(new Integer[kept.size()]);
+        Arrays.sort(sorted, new Comparator<Integer>() {
+            public int compare(Integer a, Integer b) {
+                final int c = Double.compare(table.getUnitCost(a), table.getUnitCost(b));
+                return c != 0 ? c : a - b;
+            }
+        });
+        final int nCandidates = sorted.length;
+        candidate = new int [nCandidates];
+        for (int p = 0; p < nCandidates; p++) {
+            candidate[p] = sorted[p];
+        }
+        candidateCost = new double [nMembers][nCandidates];
+        nextFit = new int [nMembers][nCandidates + 1];
+        for (int im = 0; im < nMembers; im++) {
+            nextFit[im][nCandidates] = nCandidates;
+            for (int p = nCandidates - 1; p >= 0; p--) {
+                candidateCost[im][p] = table.getCost(im, candidate[p]);
+                nextFit[im][p] = fit[candidate[p]][im] ? p : nextFit[im][p + 1];
+            }
+            if (nextFit[im][0] == nCandidates) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Find the best sets of candidate stocks by branch and bound, seeded with a greedy solution.
+     */
+    private void search() {
+        final int nMembers = candidateCost.length;
+        final int nCandidates = candidate.length;
+        incumbents.clear();
+        bound = Double.POSITIVE_INFINITY;
+        timedOut = false;
+        deadline = System.nanoTime() + timeBudget * 1000000L;
+        record(getGreedySolution());
+        // Split the tree into subtrees at a depth giving enough of them to keep all threads busy.
+        final int nThreads = ComputePool.getParallelism();
+        final ArrayList<Subtree> subtrees = new ArrayList<Subtree>();
+        final int [] all = new int [nMembers];
+        for (int im = 0; im < nMembers; im++) {
+            all[im] = im;
+        }
+        int depth = 0;
+        while ((1 << depth) < subtreesPerThread * nThreads && depth < nCandidates) {
+            ++depth;
+        }
+        split(new Subtree(0, 0, new int [0], all), depth, subtrees);
+        final ArrayList<Runnable> tasks = new ArrayList<Runnable>();
+        for (int i = 0; i < nThreads; i++) {
+            final int first = i;
+            tasks.add(new Runnable() {
+                public void run() {
+                    final Searcher searcher = new Searcher(nMembers, nCandidates);
+                    for (int j = first; j < subtrees.size(); j += nThreads) {
+                        searcher.search(subtrees.get(j));
+                    }
+                }
+            });
+        }
+        ComputePool.run(tasks);
+        exhaustive = !timedOut;
+    }
+
+    /**
+     * A node of the search tree: candidates before a position decided, some of them included.
+     */
+    private static class Subtree {
+        /**
+         * Position of the next candidate to decide.
+         */
+        final int position;
+        /**
+         * Cost of members settled by included candidates.
+         */
+        final double settledCost;
+        /**
+         * Positions of the included candidates.
+         */
+        final int [] included;
+        /**
+         * Members not yet settled.
+         */
+        final int [] unsettled;
+
+        /**
+         * Construct a search tree node.
+         *
+         * @param position position of the next candidate to decide
+         * @param settledCost cost of members settled by included candidates
+         * @param included positions of the included candidates
+         * @param unsettled members not yet settled
+         */
+        Subtree(int position, double settledCost, int [] included, int [] unsettled) {
+            this.position = position;
+            this.settledCost = settledCost;
+            this.included = included;
+            this.unsettled = unsettled;
+        }
+    }
+
+    /**
+     * Expand a node of the search tree to a given depth, including candidates before excluding them, and
+     * collect the nodes reached.  Leaves and nodes that can't lead to a solution are left out.
+     *
+     * @param node node to expand
+     * @param depth number of levels to expand
+     * @param subtrees list to which nodes at the given depth are added
+     */
+    private void split(Subtree node, int depth, ArrayList<Subtree> subtrees) {
+        final int p = node.position;
+        if (depth == 0 || node.unsettled.length == 0) {
+            subtrees.add(node);
+            return;
+        }
+        final int nCandidates = candidate.length;
+        int nSettled = 0;
+        boolean forced = false;
+        for (int i = 0; i < node.unsettled.length; i++) {
+            final int im = node.unsettled[i];
+            if (nextFit[im][p] == nCandidates) {
+                return;
+            }
+            if (nextFit[im][p] == p) {
+                ++nSettled;
+                forced |= nextFit[im][p + 1] == nCandidates;
+            }
+        }
+        if (nSettled > 0) {
+            final int [] unsettled = new int [node.unsettled.length - nSettled];
+            double settledCost = node.settledCost;
+            for (int i = 0, j = 0; i < node.unsettled.length; i++) {
+                final int im = node.unsettled[i];
+                if (nextFit[im][p] == p) {
+                    settledCost += candidateCost[im][p];
+                }
+                else {
+                    unsettled[j++] = im;
+                }
+            }
+            final int [] included = Arrays.copyOf(node.included, node.included.length + 1);
+            included[node.included.length] = p;
+            split(new Subtree(p + 1, settledCost, included, unsettled), depth - 1, subtrees);
+        }
+        if (!forced) {
+            split(new Subtree(p + 1, node.settledCost, node.included, node.unsettled), depth - 1, subtrees);
+        }
+    }
+
+    /**
+     * Depth first search of subtrees with storage reused from one node to the next.
+     */
+    private class Searcher {
+        /**
+         * Unsettled members at each depth below the subtree root.
+         */
+        private final int [][] unsettled;
+        /**
+         * Positions of included candidates.
+         */
+        private final int [] included;
+        /**
+         * Nodes visited, for checking the time budget.
+         */
+        private int nNodes = 0;
+
+        /**
+         * Construct a searcher with storage for the whole depth of the tree.
+         *
+         * @param nMembers number of members
+         * @param nCandidates number of candidate stocks
+         */
+        Searcher(int nMembers, int nCandidates) {
+            unsettled = new int [nCandidates + 2][nMembers];
+            included = new int [nCandidates];
+        }
+
+        /**
+         * Search a subtree.
+         *
+         * @param root root of the subtree
+         */
+        void search(Subtree root) {
+            System.arraycopy(root.included, 0, included, 0, root.included.length);
+            System.arraycopy(root.unsettled, 0, unsettled[0], 0, root.unsettled.length);
+            search(root.position, 0, root.settledCost, root.included.length, root.unsettled.length);
+        }
+
+        /**
+         * Search below a node.
+         *
+         * @param p position of the next candidate to decide
+         * @param depth depth below the subtree root, indexing the unsettled members
+         * @param settledCost cost of settled members
+         * @param nIncluded number of included candidates
+         * @param nUnsettled number of unsettled members
+         */
+        private void search(int p, int depth, double settledCost, int nIncluded, int nUnsettled) {
+            if ((++nNodes & (deadlineCheckInterval - 1)) == 0 && (cancelled || System.nanoTime() > deadline)) {
+                timedOut = true;
+            }
+            if (timedOut) {
+                return;
+            }
+            if (nUnsettled == 0) {
+                record(new Solution(Arrays.copyOf(included, nIncluded), settledCost + fee * nIncluded));
+                return;
+            }
+            final int nCandidates = candidate.length;
+            final int [] u = unsettled[depth];
+            double lowerBound = settledCost + fee * (nIncluded + 1);
+            int nSettled = 0;
+            boolean forced = false;
+            for (int i = 0; i < nUnsettled; i++) {
+                final int im = u[i];
+                final int next = nextFit[im][p];
+                if (next == nCandidates) {
+                    return;
+                }
+                lowerBound += candidateCost[im][next];
+                if (next == p) {
+                    ++nSettled;
+                    forced |= nextFit[im][p + 1] == nCandidates;
+                }
+            }
+            if (lowerBound >= bound) {
+                return;
+            }
+            if (nSettled > 0) {
+                final int [] v = unsettled[depth + 1];
+                double cost = settledCost;
+                int nLeft = 0;
+                for (int i = 0; i < nUnsettled; i++) {
+                    final int im = u[i];
+                    if (nextFit[im][p] == p) {
+                        cost += candidateCost[im][p];
+                    }
+                    else {
+                        v[nLeft++] = im;
+                    }
+                }
+                included[nIncluded] = p;
+                search(p + 1, depth + 1, cost, nIncluded + 1, nLeft);
+            }
+            if (!forced) {
+                // Excluding leaves the unsettled members as they are.
+                System.arraycopy(u, 0, unsettled[depth + 1], 0, nUnsettled);
+                search(p + 1, depth + 1, settledCost, nIncluded, nUnsettled);
+            }
+        }
+    }
+
+    /**
+     * Return the cost of a set of candidates with each member using the cheapest that fits it.
+     *
+     * @param in whether each candidate is in the set
+     * @param nIn number of candidates in the set
+     * @return material cost plus ordering fees, infinite if some member has nothing that fits
+     */
+    private double getCost(boolean [] in, int nIn) {
+        final int nCandidates = candidate.length;
+        double cost = fee * nIn;
+        for (int im = 0; im < candidateCost.length; im++) {
+            int p = nextFit[im][0];
+            while (p < nCandidates && !in[p]) {
+                p = nextFit[im][p + 1];
+            }
+            if (p == nCandidates) {
+                return Double.POSITIVE_INFINITY;
+            }
+            cost += candidateCost[im][p];
+        }
+        return cost;
+    }
+
+    /**
+     * Return a solution found by starting with all candidates and repeatedly dropping the one that lowers cost
+     * the most until none does.
+     *
+     * @return greedy solution
+     */
+    private Solution getGreedySolution() {
+        final int nCandidates = candidate.length;
+        final boolean [] in = new boolean [nCandidates];
+        Arrays.fill(in, true);
+        int nIn = nCandidates;
+        double cost = getCost(in, nIn);
+        while (true) {
+            int pBest = -1;
+            double bestCost = cost;
+            for (int p = 0; p < nCandidates; p++) {
+                if (in[p]) {
+                    in[p] = false;
+                    final double c = getCost(in, nIn - 1);
+                    in[p] = true;
+                    if (c < bestCost) {
+                        bestCost = c;
+                        pBest = p;
+                    }
+                }
+            }
+            if (pBest < 0) {
+                break;
+            }
+            in[pBest] = false;
+            --nIn;
+            cost = bestCost;
+        }
+        final int [] positions = new int [nIn];
+        for (int p = 0, i = 0; p < nCandidates; p++) {
+            if (in[p]) {
+                positions[i++] = p;
+            }
+        }
+        return new Solution(positions, cost);
+    }
+
+    /**
+     * Add a solution to the incumbents if it's among the best found, and tighten the bound.
+     *
+     * @param solution solution to add
+     */
+    private synchronized void record(Solution solution) {
+        if (solution.cost >= bound) {
+            return;
+        }
+        int i = incumbents.size();
+        while (i > 0 && incumbents.get(i - 1).cost > solution.cost) {
+            --i;
+        }
+        for (int j = 0; j < incumbents.size(); j++) {
+            if (Arrays.equals(incumbents.get(j).positions, solution.positions)) {
+                return;
+            }
+        }
+        incumbents.add(i, solution);
+        if (incumbents.size() > alternativeCount) {
+            incumbents.remove(incumbents.size() - 1);
+        }
+        if (incumbents.size() == alternativeCount) {
+            bound = incumbents.get(incumbents.size() - 1).cost;
+        }
+    }
+
+    /**
+     * Give each member of the copy the cheapest stock of a set that fits it and analyze.  While some member is
+     * overstressed, move it to the cheapest stock of the set that fits the largest forces it has seen and
+     * analyze again.
+     *
+     * @param positions candidate positions of the stocks in the set
+     * @param compression largest compressive force of each member, updated as forces are found
+     * @param tension largest tensile force of each member, updated as forces are found
+     * @return stock of each member if the copy passes, otherwise null
+     */
+    private int [] verify(int [] positions, double [] compression, double [] tension) {
+        final ArrayList<Member> members = bridge.getMembers();
+        final int nMembers = members.size();
+        final int [] stock = new int [nMembers];
+        for (int iter = 0; iter < maxRepairIterations; iter++) {
+            for (int im = 0; im < nMembers; im++) {
+                int is = -1;
+                for (int i = 0; i < positions.length && is < 0; i++) {
+                    if (table.fits(im, candidate[positions[i]], compression[im], tension[im])) {
+                        is = candidate[positions[i]];
+                    }
+                }
+                if (is < 0) {
+                    return null;
+                }
+                stock[im] = is;
+                members.get(im).setMaterial(table.getMaterial(is));
+                members.get(im).setShape(table.getShape(is));
+            }
+            analysis.update(bridge);
+            if (analysis.getStatus() == Analysis.PASSES) {
+                return stock;
+            }
+            if (analysis.getStatus() <= Analysis.UNSTABLE) {
+                return null;
+            }
+            for (int im = 0; im < nMembers; im++) {
+                compression[im] = Math.max(compression[im], analysis.getMemberCompressiveForce(im));
+                tension[im] = Math.max(tension[im], analysis.getMemberTensileForce(im));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Return true iff a list of alternatives already has one with given stocks.
+     *
+     * @param alternatives list of alternatives
+     * @param stock stock of each member
+     * @return true iff the stocks are a duplicate
+     */
+    private static boolean isDuplicate(ArrayList<Alternative> alternatives, int [] stock) {
+        for (int i = 0; i < alternatives.size(); i++) {
+            if (Arrays.equals(alternatives.get(i).stock, stock)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Return the number of distinct stocks in an assignment.
+     *
+     * @param stock stock of each member
+     * @return number of distinct stocks
+     */
+    private int getStockCount(int [] stock) {
+        final boolean [] used = new boolean [table.getStockCount()];
+        int n = 0;
+        for (int im = 0; im < stock.length; im++) {
+            if (!used[stock[im]]) {
+                used[stock[im]] = true;
+                ++n;
+            }
+        }
+        return n;
+    }
+}
@@ -18,8 +18,14 @@ import java.awt.event.ItemListener;
 import java.util.ArrayList;
 import java.util.Iterator;
 import javax.swing.JComboBox;
+import javax.swing.JList;
 import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
+import javax.swing.event.ListSelectionEvent;
+import javax.swing.event.ListSelectionListener;
+import javax.swing.event.PopupMenuEvent;
+import javax.swing.event.PopupMenuListener;
+import javax.swing.plaf.basic.ComboPopup;
 
 /**
  * A composite pattern implementation of components representing a stock selector.
@@ -34,7 +40,11 @@ public class StockSelector {
     private final ItemListener materialBoxSelectionListener;
     private final ItemListener sectionBoxSelectionListener;
     private final ItemListener sizeBoxSelectionListener;
+    private final ListSelectionListener sizeListHoverListener;
     private ArrayList<ChangeListener> changeListeners = new ArrayList<ChangeListener>();
+    private ArrayList<ChangeListener> previewListeners = new ArrayList<ChangeListener>();
+    private JList sizeList = null;
+    private int previewSizeIndex = -1;
 
     /**
      * Construct a new stock selector with given components.
@@ -83,6 +93,40 @@ public class StockSelector {
                 }
             }
         };
+        // The list in the size box popup follows the pointer, so its selection is the hovered size.  The
+        // look and feel may replace the popup, so the list is found again each time it opens.
+        sizeListHoverListener = new ListSelectionListener() {
+
+            public void valueChanged(ListSelectionEvent e) {
+                if (!e.getValueIsAdjusting() && sizeBox.isPopupVisible()) {
+                    setPreviewSizeIndex(sizeList.getSelectedIndex());
+                }
+            }
+        };
+        sizeBox.addPopupMenuListener(new PopupMenuListener() {
+
+            public void popupMenuWillBecomeVisible(PopupMenuEvent e) {
+                Object popup = sizeBox.getAccessibleContext().getAccessibleChild(0);
+                JList list = popup instanceof ComboPopup ? ((ComboPopup) popup).getList() : null;
+                if (list != sizeList) {
+                    if (sizeList != null) {
+                        sizeList.removeListSelectionListener(sizeListHoverListener);
+                    }
+                    sizeList = list;
+                    if (sizeList != null) {
+                        sizeList.addListSelectionListener(sizeListHoverListener);
+                    }
+                }
+            }
+
+            public void popupMenuWillBecomeInvisible(PopupMenuEvent e) {
+                setPreviewSizeIndex(-1);
+            }
+
+            public void popupMenuCanceled(PopupMenuEvent e) {
+                setPreviewSizeIndex(-1);
+            }
+        });
         enable();
     }
 
@@ -113,6 +157,15 @@ public class StockSelector {
         return sizeBox.getSelectedIndex();
     }
 
+    /**
+     * Return the index of the size under the pointer in the open size box popup.
+     * 
+     * @return hovered size index or -1 if the popup is closed or no size is hovered
+     */
+    public int getPreviewSizeIndex() {
+        return previewSizeIndex;
+    }
+
     /**
      * Clear the selection.  All comboboxes show blank.
      */
@@ -140,6 +193,24 @@ public class StockSelector {
         changeListeners.remove(listener);
     }
 
+    /**
+     * Add a listener for changes of the hovered size.
+     * 
+     * @param listener preview listener to add
+     */
+    public void addPreviewListener(ChangeListener listener) {
+        previewListeners.add(listener);
+    }
+
+    /**
+     * Remove a listener for changes of the hovered size.
+     * 
+     * @param listener preview listener to remove
+     */
+    public void removePreviewListener(ChangeListener listener) {
+        previewListeners.remove(listener);
+    }
+
     /**
      * Return a flag that indicates whether size selector can be
      * incremented or decremented (or neither).
@@ -331,6 +402,16 @@ public class StockSelector {
         materialBox.removeItemListener(materialBoxSelectionListener);
     }
 
+    private void setPreviewSizeIndex(int index) {
+        if (index != previewSizeIndex) {
+            previewSizeIndex = index;
+            Iterator<ChangeListener> e = new ArrayList<ChangeListener>(previewListeners).iterator();
+            while (e.hasNext()) {
+                e.next().stateChanged(new ChangeEvent(this));
+            }
+        }
+    }
+
     private void fireStateChanged() {
         Iterator<ChangeListener> e = new ArrayList<ChangeListener>(changeListeners).iterator();
         while (e.hasNext()) {
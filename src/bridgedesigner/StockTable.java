@@ -0,0 +1,251 @@
+/*
+ * StockTable.java
+ *
+ * Copyright (C) 2026 agent
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package bridgedesigner;
+
+import java.util.ArrayList;
+
+/**
+ * Table of every stock in the inventory as it would serve each member of a bridge: whether it meets the
+ * slenderness limit, its strengths, stiffness, weight, and cost.  Stocks are numbered by material, then
+ * section, then size.  The table depends only on member lengths, so optimizers that change stock but not
+ * geometry can try any stock for any member without recomputing its properties.
+ *
+ * @author agent
+ */
+class StockTable {
+
+    /**
+     * Fraction of strength held back when checking that a stock fits, so rounding in forces found by
+     * different means can't leave a member just overstressed.
+     */
+    private static final double strengthMargin = 1e-9;
+
+    /**
+     * Material of each stock.
+     */
+    private final Material [] material;
+    /**
+     * Shape of each stock.
+     */
+    private final Shape [] shape;
+    /**
+     * Material cost of both trusses per meter of member length for each stock.
+     */
+    private final double [] unitCost;
+    /**
+     * Member lengths.
+     */
+    private final double [] length;
+    /**
+     * Whether each stock meets the slenderness limit, indexed by member and stock.
+     */
+    private final boolean [][] admissible;
+    /**
+     * Compressive strength indexed by member and stock.
+     */
+    private final double [][] compressiveStrength;
+    /**
+     * Tensile strength indexed by stock.
+     */
+    private final double [] tensileStrength;
+
+    /**
+     * Construct a stock table for the members of a bridge.
+     *
+     * @param bridge bridge whose members the table is for
+     */
+    StockTable(BridgeModel bridge) {
+        final Inventory inventory = bridge.getInventory();
+        final ArrayList<Material> materials = new ArrayList<Material>();
+        final ArrayList<Shape> shapes = new ArrayList<Shape>();
+        for (int iMaterial = 0; iMaterial < inventory.getNMaterials(); iMaterial++) {
+            for (int iSection = 0; iSection < inventory.getNSections(); iSection++) {
+                for (int iSize = 0; iSize < inventory.getNShapes(iSection); iSize++) {
+                    materials.add(inventory.getMaterial(iMaterial));
+                    shapes.add(inventory.getShape(iSection, iSize));
+                }
+            }
+        }
+        final int nStocks = shapes.size();
+        material = materials.toArray(new Material[nStocks]);
+        shape = shapes.toArray(new Shape[nStocks]);
+        unitCost = new double [nStocks];
+        tensileStrength = new double [nStocks];
+        for (int is = 0; is < nStocks; is++) {
+            unitCost[is] = 2 * material[is].getCost(shape[is].getSection()) * shape[is].getArea() * material[is].getDensity();
+            tensileStrength[is] = Inventory.tensileStrength(material[is], shape[is]);
+        }
+        final int nMembers = bridge.getMembers().size();
+        final double allowableSlenderness = bridge.getDesignConditions().getAllowableSlenderness();
+        length = new double [nMembers];
+        admissible = new boolean [nMembers][nStocks];
+        compressiveStrength = new double [nMembers][nStocks];
+        for (int im = 0; im < nMembers; im++) {
+            length[im] = bridge.getMembers().get(im).getLength();
+            for (int is = 0; is < nStocks; is++) {
+                admissible[im][is] = length[im] * shape[is].getInverseRadiusOfGyration() <= allowableSlenderness;
+                compressiveStrength[im][is] = Inventory.compressiveStrength(material[is], shape[is], length[im]);
+            }
+        }
+    }
+
+    /**
+     * Return the number of stocks in the table.
+     *
+     * @return number of stocks
+     */
+    int getStockCount() {
+        return shape.length;
+    }
+
+    /**
+     * Return the index of a member's current stock.
+     *
+     * @param member member
+     * @return stock index
+     */
+    int getStock(Member member) {
+        for (int is = 0; is < shape.length; is++) {
+            if (material[is].getIndex() == member.getMaterial().getIndex() &&
+                    shape[is].getSection().getIndex() == member.getShape().getSection().getIndex() &&
+                    shape[is].getSizeIndex() == member.getShape().getSizeIndex()) {
+                return is;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Return the material of a stock.
+     *
+     * @param is stock index
+     * @return material
+     */
+    Material getMaterial(int is) {
+        return material[is];
+    }
+
+    /**
+     * Return the shape of a stock.
+     *
+     * @param is stock index
+     * @return shape
+     */
+    Shape getShape(int is) {
+        return shape[is];
+    }
+
+    /**
+     * Return a new member of a given bridge like one of its own but made of a stock of this table.
+     *
+     * @param bridge bridge with the same members as the one the table was built for
+     * @param im member index
+     * @param is stock index
+     * @return new member with the index of the one it replaces
+     */
+    Member getMember(BridgeModel bridge, int im, int is) {
+        return new Member(bridge.getMembers().get(im), bridge.getInventory(),
+                material[is].getIndex(), shape[is].getSection().getIndex(), shape[is].getSizeIndex());
+    }
+
+    /**
+     * Return the material cost of both trusses per meter of member length for a stock.
+     *
+     * @param is stock index
+     * @return cost per meter
+     */
+    double getUnitCost(int is) {
+        return unitCost[is];
+    }
+
+    /**
+     * Return the material cost of both trusses for a member made of a stock.
+     *
+     * @param im member index
+     * @param is stock index
+     * @return cost
+     */
+    double getCost(int im, int is) {
+        return unitCost[is] * length[im];
+    }
+
+    /**
+     * Return the axial stiffness AE/L of a member made of a stock.
+     *
+     * @param im member index
+     * @param is stock index
+     * @return axial stiffness
+     */
+    double getStiffness(int im, int is) {
+        return shape[is].getArea() * material[is].getE() / length[im];
+    }
+
+    /**
+     * Return the factored dead load on each joint of a member made of a stock.
+     *
+     * @param im member index
+     * @param is stock index
+     * @return dead load
+     */
+    double getDeadLoad(int im, int is) {
+        return Analysis.getMemberDeadLoad(material[is], shape[is], length[im]);
+    }
+
+    /**
+     * Return true iff a stock meets the slenderness limit for a member.
+     *
+     * @param im member index
+     * @param is stock index
+     * @return true iff the stock is slender enough
+     */
+    boolean isAdmissible(int im, int is) {
+        return admissible[im][is];
+    }
+
+    /**
+     * Return the compressive strength of a member made of a stock.
+     *
+     * @param im member index
+     * @param is stock index
+     * @return compressive strength
+     */
+    double getCompressiveStrength(int im, int is) {
+        return compressiveStrength[im][is];
+    }
+
+    /**
+     * Return the tensile strength of a stock.
+     *
+     * @param is stock index
+     * @return tensile strength
+     */
+    double getTensileStrength(int is) {
+        return tensileStrength[is];
+    }
+
+    /**
+     * Return true iff a stock meets the slenderness limit for a member and is strong enough for given forces.
+     *
+     * @param im member index
+     * @param is stock index
+     * @param compression largest compressive force, positive
+     * @param tension largest tensile force
+     * @return true iff the stock fits
+     */
+    boolean fits(int im, int is, double compression, double tension) {
+        return admissible[im][is] &&
+                compression <= compressiveStrength[im][is] * (1 - strengthMargin) &&
+                tension <= tensileStrength[is] * (1 - strengthMargin);
+    }
+}
@@ -0,0 +1,928 @@
+/*
+ * SuperelementSolver.java
+ *
+ * Copyright (C) 2026 agent
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package bridgedesigner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Stiffness solver that condenses the panels of a bridge into superelements.  A panel is the span between
+ * two neighboring deck joints.  Its interior joints are the unrestrained ones strictly between the deck joints
+ * that are connected only to joints of the same panel or to joints on the boundary, i.e. not interior to any
+ * panel.  Eliminating a panel's interior degrees of freedom leaves a dense stiffness, its Schur complement,
+ * that couples only the boundary joints it touches.  The bridge is then solved for boundary displacements
+ * alone, and interior displacements are recovered panel by panel.
+ *
+ * Panels with the same shape and the same member stiffnesses are condensed only once, so a long bridge of
+ * identical panels costs about one panel's condensation plus the much smaller boundary system.
+ *
+ * The same machinery splits a large bridge into domains, contiguous spans of joints, each condensed to the
+ * interface joints it shares with its neighbors.  Condensation and the per-panel parts of each solve run in
+ * parallel on the compute pool.  Contributions to the boundary system are always summed in panel order, so
+ * results are the same for any number of processors.
+ *
+ * @author agent
+ */
+public class SuperelementSolver {
+
+    /**
+     * Relative tolerance for deciding that two panels have the same member stiffnesses and directions.
+     */
+    private static final double tolerance = 1e-12;
+    /**
+     * Coordinate quantum for comparing panel shapes.  Much smaller than any drafting grid.
+     */
+    private static final double coordinateQuantum = 1e-3;
+    /**
+     * Bookkeeping cost of each panel in multiply-adds, so small bridges aren't condensed for no gain.
+     */
+    private static final long panelOverhead = 1000;
+    /**
+     * Approximate number of joints in each domain when a large bridge is split into domains.
+     */
+    private static final int jointsPerDomain = 500;
+    /**
+     * Largest number of domains.  Fixed so results don't depend on the processor count.
+     */
+    private static final int maxDomains = 16;
+
+    /**
+     * Condensed stiffness of a panel shape, shared by all identical panels.  Local joints are the panel's
+     * interior joints followed by the boundary joints it touches, each in order of position.  Local degree
+     * of freedom 2l is the x-component of local joint l and 2l+1 is the y-component.
+     */
+    private static class PanelType {
+
+        /**
+         * Panel whose members define the stiffness.
+         */
+        final Panel representative;
+        /**
+         * Number of interior degrees of freedom.
+         */
+        final int nInterior;
+        /**
+         * Number of boundary degrees of freedom.
+         */
+        final int nBoundary;
+        /**
+         * Interior matrix equation of each interior local degree of freedom.
+         */
+        final int [] interiorEquation;
+        /**
+         * Profile of the interior matrix.
+         */
+        final int [] firstRow;
+        /**
+         * Factored interior stiffness.
+         */
+        SkylineSolver interior;
+        /**
+         * Interior displacements due to unit displacement of each boundary degree of freedom with interior
+         * joints unloaded, negated, i.e. the inverse of the interior stiffness times the interior-boundary
+         * coupling.  Indexed by boundary local degree of freedom and interior matrix equation.
+         */
+        double [][] coupling;
+        /**
+         * Nonzero entries of the boundary-interior stiffness, indexed by boundary local degree of freedom:
+         * interior matrix equations and values.
+         */
+        int [][] boundaryCouplingIndex;
+        double [][] boundaryCouplingValue;
+        /**
+         * Number of members joining an interior joint to a boundary joint.
+         */
+        final int nCouplingMembers;
+        /**
+         * Condensed stiffness indexed by boundary local degrees of freedom.
+         */
+        double [][] condensed;
+
+        PanelType(Panel representative) {
+            this.representative = representative;
+            nInterior = 2 * representative.nInteriorJoints;
+            nBoundary = 2 * (representative.joint.length - representative.nInteriorJoints);
+            // Order interior joints to keep the interior profile small.
+            final int nInteriorJoints = representative.nInteriorJoints;
+            final int nMembers = representative.member.length;
+            int nInteriorMembers = 0;
+            for (int k = 0; k < nMembers; k++) {
+                if (representative.localB[k] < nInteriorJoints) {
+                    nInteriorMembers++;
+                }
+            }
+            final int [] jointA = new int [nInteriorMembers];
+            final int [] jointB = new int [nInteriorMembers];
+            for (int k = 0, i = 0; k < nMembers; k++) {
+                if (representative.localB[k] < nInteriorJoints) {
+                    jointA[i] = representative.localA[k];
+                    jointB[i] = representative.localB[k];
+                    i++;
+                }
+            }
+            nCouplingMembers = nMembers - nInteriorMembers;
+            final int [] order = new JointOrdering(nInteriorJoints, jointA, jointB).getReverseCuthillMcKee();
+            interiorEquation = new int [nInterior];
+            for (int l = 0; l < nInteriorJoints; l++) {
+                interiorEquation[2 * l] = 2 * order[l];
+                interiorEquation[2 * l + 1] = 2 * order[l] + 1;
+            }
+            firstRow = new int [nInterior];
+            for (int ie = 0; ie < nInterior; ie++) {
+                firstRow[ie] = ie;
+            }
+            for (int k = 0; k < nInteriorMembers; k++) {
+                final int a = 2 * order[jointA[k]];
+                final int b = 2 * order[jointB[k]];
+                final int minEquation = Math.min(a, b);
+                firstRow[a] = Math.min(firstRow[a], minEquation);
+                firstRow[a + 1] = Math.min(firstRow[a + 1], minEquation);
+                firstRow[b] = Math.min(firstRow[b], minEquation);
+                firstRow[b + 1] = Math.min(firstRow[b + 1], minEquation);
+            }
+        }
+
+        /**
+         * Return an estimate of the multiply-adds needed to condense the panel: factoring the interior,
+         * solving for the coupling, and forming the condensed stiffness.
+         *
+         * @return condensation work estimate
+         */
+        long getCondensationWork() {
+            long profileSize = 0;
+            for (int ie = 0; ie < nInterior; ie++) {
+                profileSize += ie - firstRow[ie] + 1;
+            }
+            return SkylineSolver.getFactorWork(firstRow) + 2L * nBoundary * profileSize + 4L * nBoundary * nCouplingMembers;
+        }
+
+        /**
+         * Assemble, factor, and condense the panel.
+         *
+         * @param aeOverL axial stiffness of each member
+         * @param cosX x-direction cosine of each member
+         * @param cosY y-direction cosine of each member
+         * @param minPivot smallest acceptable pivot magnitude
+         * @return true iff the interior is stable with boundary joints fixed
+         */
+        boolean condense(double [] aeOverL, double [] cosX, double [] cosY, double minPivot) {
+            interior = new SkylineSolver(firstRow);
+            coupling = new double [nBoundary][nInterior];
+            condensed = new double [nBoundary][nBoundary];
+            final int [] dofs = new int [4];
+            for (int k = 0; k < representative.member.length; k++) {
+                final int im = representative.member[k];
+                final int a = representative.localA[k];
+                final int b = representative.localB[k];
+                dofs[0] = 2 * a;
+                dofs[1] = 2 * a + 1;
+                dofs[2] = 2 * b;
+                dofs[3] = 2 * b + 1;
+                final double [] v = { -cosX[im], -cosY[im], cosX[im], cosY[im] };
+                for (int p = 0; p < 4; p++) {
+                    final double kv = aeOverL[im] * v[p];
+                    for (int q = 0; q < 4; q++) {
+                        addEntry(dofs[p], dofs[q], kv * v[q]);
+                    }
+                }
+            }
+            if (!interior.factor(minPivot)) {
+                return false;
+            }
+            // Form the condensed stiffness S = Kbb - Kbi Kii^-1 Kib, keeping Kii^-1 Kib for recovery.  Each
+            // row of Kbi has only a few nonzeros, those of members joining the boundary joint to the interior.
+            boundaryCouplingIndex = new int [nBoundary][];
+            boundaryCouplingValue = new double [nBoundary][];
+            for (int p = 0; p < nBoundary; p++) {
+                int n = 0;
+                for (int ie = 0; ie < nInterior; ie++) {
+                    if (coupling[p][ie] != 0) {
+                        n++;
+                    }
+                }
+                boundaryCouplingIndex[p] = new int [n];
+                boundaryCouplingValue[p] = new double [n];
+                for (int ie = 0, k = 0; ie < nInterior; ie++) {
+                    if (coupling[p][ie] != 0) {
+                        boundaryCouplingIndex[p][k] = ie;
+                        boundaryCouplingValue[p][k++] = coupling[p][ie];
+                    }
+                }
+            }
+            interior.solve(coupling);
+            for (int p = 0; p < nBoundary; p++) {
+                for (int q = 0; q < nBoundary; q++) {
+                    condensed[p][q] -= getBoundaryCoupling(p, coupling[q]);
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Return the product of a row of the boundary-interior stiffness with an interior vector.
+         *
+         * @param p boundary local degree of freedom
+         * @param x vector indexed by interior matrix equation
+         * @return product
+         */
+        double getBoundaryCoupling(int p, double [] x) {
+            final int [] index = boundaryCouplingIndex[p];
+            final double [] value = boundaryCouplingValue[p];
+            double sum = 0;
+            for (int k = 0; k < index.length; k++) {
+                sum += value[k] * x[index[k]];
+            }
+            return sum;
+        }
+
+        /**
+         * Add to a panel stiffness entry given by local degrees of freedom.  Interior-interior entries are
+         * added once for each symmetric pair, so only the upper triangle is kept.
+         *
+         * @param i row local degree of freedom
+         * @param j column local degree of freedom
+         * @param val value to add
+         */
+        private void addEntry(int i, int j, double val) {
+            if (i < nInterior) {
+                if (j < nInterior) {
+                    if (interiorEquation[i] <= interiorEquation[j]) {
+                        interior.add(interiorEquation[i], interiorEquation[j], val);
+                    }
+                }
+                else {
+                    coupling[j - nInterior][interiorEquation[i]] += val;
+                }
+            }
+            else if (j >= nInterior) {
+                condensed[i - nInterior][j - nInterior] += val;
+            }
+        }
+    }
+
+    /**
+     * One panel of the bridge with its joints and members in canonical order.
+     */
+    private static class Panel {
+
+        /**
+         * Local joints: interior joints then boundary joints, each sorted by position.
+         */
+        int [] joint;
+        /**
+         * Number of interior joints.
+         */
+        int nInteriorJoints;
+        /**
+         * Members with at least one interior joint, sorted by local joint pair.
+         */
+        int [] member;
+        /**
+         * Local joints of each member, lower index first.
+         */
+        int [] localA;
+        int [] localB;
+        /**
+         * Shape key.  Panels with equal keys have the same connectivity and nearly the same geometry.
+         */
+        String key;
+        /**
+         * Condensed stiffness of this panel's shape.
+         */
+        PanelType type;
+    }
+
+    /**
+     * Number of equations of the full system.
+     */
+    private final int nEquations;
+    /**
+     * Restraint flags of the full system indexed by joint-ordered equation number.
+     */
+    private final boolean [] restrained;
+    /**
+     * Panels with at least one interior joint.
+     */
+    private final Panel [] panels;
+    /**
+     * Distinct panel types.
+     */
+    private final List<PanelType> types;
+    /**
+     * Boundary matrix equation of each full joint-ordered equation of a boundary joint, otherwise -1.
+     */
+    private final int [] boundaryEquation;
+    /**
+     * Members with both joints on the boundary.
+     */
+    private final int [] boundaryMembers;
+    /**
+     * Profile of the boundary matrix.
+     */
+    private final int [] firstRow;
+    /**
+     * Factored boundary stiffness.
+     */
+    private SkylineSolver boundary;
+
+    /**
+     * Construct a superelement solver for a bridge with given panels.
+     *
+     * @param bridge bridge
+     * @param restrained restraint flags of the full system
+     * @param panels panels with interior joints
+     * @param types distinct panel types
+     * @param interiorPanel panel of each joint, or -1 for boundary joints
+     */
+    private SuperelementSolver(BridgeModel bridge, boolean [] restrained, Panel [] panels, List<PanelType> types,
+            int [] interiorPanel) {
+        final List<Member> members = bridge.getMembers();
+        final int nJoints = interiorPanel.length;
+        this.restrained = restrained;
+        this.panels = panels;
+        this.types = types;
+        nEquations = 2 * nJoints;
+        // Number the boundary joints.
+        final int [] boundaryJoint = new int [nJoints];
+        int nBoundaryJoints = 0;
+        for (int ij = 0; ij < nJoints; ij++) {
+            boundaryJoint[ij] = interiorPanel[ij] < 0 ? nBoundaryJoints++ : -1;
+        }
+        int nBoundaryMembers = 0;
+        for (int im = 0; im < members.size(); im++) {
+            if (isBoundaryMember(members.get(im), interiorPanel)) {
+                nBoundaryMembers++;
+            }
+        }
+        boundaryMembers = new int [nBoundaryMembers];
+        for (int im = 0, i = 0; im < members.size(); im++) {
+            if (isBoundaryMember(members.get(im), interiorPanel)) {
+                boundaryMembers[i++] = im;
+            }
+        }
+        // The boundary graph has the boundary members plus all pairs of boundary joints of each panel.
+        int nEdges = nBoundaryMembers;
+        for (Panel panel : panels) {
+            final int n = panel.joint.length - panel.nInteriorJoints;
+            nEdges += n * (n - 1) / 2;
+        }
+        final int [] jointA = new int [nEdges];
+        final int [] jointB = new int [nEdges];
+        int iEdge = 0;
+        for (int im : boundaryMembers) {
+            jointA[iEdge] = boundaryJoint[members.get(im).getJointA().getIndex()];
+            jointB[iEdge] = boundaryJoint[members.get(im).getJointB().getIndex()];
+            iEdge++;
+        }
+        for (Panel panel : panels) {
+            for (int i = panel.nInteriorJoints; i < panel.joint.length; i++) {
+                for (int j = i + 1; j < panel.joint.length; j++) {
+                    jointA[iEdge] = boundaryJoint[panel.joint[i]];
+                    jointB[iEdge] = boundaryJoint[panel.joint[j]];
+                    iEdge++;
+                }
+            }
+        }
+        final int [] order = new JointOrdering(nBoundaryJoints, jointA, jointB).getReverseCuthillMcKee();
+        boundaryEquation = new int [nEquations];
+        for (int ij = 0; ij < nJoints; ij++) {
+            final int bj = boundaryJoint[ij];
+            boundaryEquation[2 * ij] = bj < 0 ? -1 : 2 * order[bj];
+            boundaryEquation[2 * ij + 1] = bj < 0 ? -1 : 2 * order[bj] + 1;
+        }
+        // Find the profile.  Edges touching restrained equations don't widen it.
+        final int nBoundaryEquations = 2 * nBoundaryJoints;
+        final boolean [] boundaryRestrained = new boolean [nBoundaryEquations];
+        for (int ie = 0; ie < nEquations; ie++) {
+            if (boundaryEquation[ie] >= 0) {
+                boundaryRestrained[boundaryEquation[ie]] = restrained[ie];
+            }
+        }
+        firstRow = new int [nBoundaryEquations];
+        for (int ie = 0; ie < nBoundaryEquations; ie += 2) {
+            firstRow[ie] = ie;
+            firstRow[ie + 1] = boundaryRestrained[ie] || boundaryRestrained[ie + 1] ? ie + 1 : ie;
+        }
+        for (int k = 0; k < nEdges; k++) {
+            final int a = 2 * order[jointA[k]];
+            final int b = 2 * order[jointB[k]];
+            final int [] e = { a, a + 1, b, b + 1 };
+            int minEquation = nBoundaryEquations;
+            for (int p = 0; p < 4; p++) {
+                if (!boundaryRestrained[e[p]]) {
+                    minEquation = Math.min(minEquation, e[p]);
+                }
+            }
+            for (int p = 0; p < 4; p++) {
+                if (!boundaryRestrained[e[p]]) {
+                    firstRow[e[p]] = Math.min(firstRow[e[p]], minEquation);
+                }
+            }
+        }
+    }
+
+    private static boolean isBoundaryMember(Member member, int [] interiorPanel) {
+        return interiorPanel[member.getJointA().getIndex()] < 0 && interiorPanel[member.getJointB().getIndex()] < 0;
+    }
+
+    /**
+     * Return a superelement solver for a bridge with given member stiffnesses and directions, or null if
+     * no panel has interior joints.
+     *
+     * @param bridge bridge
+     * @param pattern stiffness pattern of the bridge
+     * @param aeOverL axial stiffness of each member
+     * @param cosX x-direction cosine of each member
+     * @param cosY y-direction cosine of each member
+     * @return superelement solver, not yet factored, or null
+     */
+    public static SuperelementSolver get(BridgeModel bridge, StiffnessPattern pattern,
+            double [] aeOverL, double [] cosX, double [] cosY) {
+        final List<Joint> joints = bridge.getJoints();
+        final List<Member> members = bridge.getMembers();
+        final int nJoints = joints.size();
+        final int nLoadedJoints = bridge.getDesignConditions().getNLoadedJoints();
+        final boolean [] restrained = pattern.getRestraints();
+        if (nLoadedJoints < 2) {
+            return null;
+        }
+        // Find the panel of each joint strictly between deck joints.
+        final double [] deckX = new double [nLoadedJoints];
+        for (int i = 0; i < nLoadedJoints; i++) {
+            deckX[i] = joints.get(i).getPointWorld().x;
+        }
+        final double eps = 0.5 * coordinateQuantum;
+        final int [] interiorPanel = new int [nJoints];
+        for (int ij = 0; ij < nJoints; ij++) {
+            interiorPanel[ij] = -1;
+            if (ij < nLoadedJoints || restrained[2 * ij] || restrained[2 * ij + 1]) {
+                continue;
+            }
+            final double x = joints.get(ij).getPointWorld().x;
+            final int i = Arrays.binarySearch(deckX, x);
+            final int iPanel = (i >= 0 ? i : -i - 1) - 1;
+            if (0 <= iPanel && iPanel < nLoadedJoints - 1 && deckX[iPanel] + eps < x && x < deckX[iPanel + 1] - eps) {
+                interiorPanel[ij] = iPanel;
+            }
+        }
+        // Joints coupled to the interior of another panel are on the boundary.
+        for (Member member : members) {
+            final int a = member.getJointA().getIndex();
+            final int b = member.getJointB().getIndex();
+            if (interiorPanel[a] >= 0 && interiorPanel[b] >= 0 && interiorPanel[a] != interiorPanel[b]) {
+                interiorPanel[a] = interiorPanel[b] = -1;
+            }
+        }
+        return newSolver(bridge, restrained, interiorPanel, nLoadedJoints - 1, true, aeOverL, cosX, cosY);
+    }
+
+    /**
+     * Return a superelement solver that splits a large bridge into domains, contiguous spans with about
+     * the same number of joints, or null if the bridge is too small to split.  Each member joining two
+     * domains puts its joint in the right-hand domain on the boundary.  The number of domains depends only
+     * on the bridge, not on the number of processors, so results are the same on any machine.
+     *
+     * @param bridge bridge
+     * @param pattern stiffness pattern of the bridge
+     * @param aeOverL axial stiffness of each member
+     * @param cosX x-direction cosine of each member
+     * @param cosY y-direction cosine of each member
+     * @return superelement solver, not yet factored, or null
+     */
+    public static SuperelementSolver getDomains(BridgeModel bridge, StiffnessPattern pattern,
+            double [] aeOverL, double [] cosX, double [] cosY) {
+        final List<Joint> joints = bridge.getJoints();
+        final int nJoints = joints.size();
+        final int nDomains = Math.min(maxDomains, nJoints / jointsPerDomain);
+        if (nDomains < 2) {
+            return null;
+        }
+        final boolean [] restrained = pattern.getRestraints();
+        final Integer [] byX = new Integer [nJoints];
+        for (int ij = 0; ij < nJoints; ij++) {
+            byX[ij] = ij;
+        }
+        Arrays.sort(byX, new Comparator<Integer>() {
+
+            public int compare(Integer a, Integer b) {
+                final double xa = joints.get(a).getPointWorld().x;
+                final double xb = joints.get(b).getPointWorld().x;
+                return xa < xb ? -1 : xa > xb ? 1 : a.compareTo(b);
+            }
+        });
+        final int [] domain = new int [nJoints];
+        for (int i = 0; i < nJoints; i++) {
+            domain[byX[i]] = (int)((long)i * nDomains / nJoints);
+        }
+        final int [] interiorPanel = new int [nJoints];
+        for (int ij = 0; ij < nJoints; ij++) {
+            interiorPanel[ij] = (restrained[2 * ij] || restrained[2 * ij + 1]) ? -1 : domain[ij];
+        }
+        for (Member member : bridge.getMembers()) {
+            final int a = member.getJointA().getIndex();
+            final int b = member.getJointB().getIndex();
+            if (domain[a] != domain[b]) {
+                interiorPanel[domain[a] > domain[b] ? a : b] = -1;
+            }
+        }
+        return newSolver(bridge, restrained, interiorPanel, nDomains, false, aeOverL, cosX, cosY);
+    }
+
+    /**
+     * Return a superelement solver for a given split of joints into panels and boundary, or null if
+     * there are no interior joints.
+     *
+     * @param bridge bridge
+     * @param restrained restraint flags of the full system
+     * @param interiorPanel panel of each joint, or -1 for boundary joints
+     * @param nPanels number of panels
+     * @param shareTypes whether identical panels should share one condensation
+     * @param aeOverL axial stiffness of each member
+     * @param cosX x-direction cosine of each member
+     * @param cosY y-direction cosine of each member
+     * @return superelement solver, not yet factored, or null
+     */
+    private static SuperelementSolver newSolver(BridgeModel bridge, boolean [] restrained, int [] interiorPanel,
+            int nPanels, boolean shareTypes, double [] aeOverL, double [] cosX, double [] cosY) {
+        final List<Joint> joints = bridge.getJoints();
+        final List<Member> members = bridge.getMembers();
+        final int nJoints = joints.size();
+        // Gather the joints and members of each panel.
+        final List<List<Integer>> panelJoints = new ArrayList<List<Integer>>();
+        final List<List<Integer>> panelMembers = new ArrayList<List<Integer>>();
+        for (int i = 0; i < nPanels; i++) {
+            panelJoints.add(new ArrayList<Integer>());
+            panelMembers.add(new ArrayList<Integer>());
+        }
+        for (int ij = 0; ij < nJoints; ij++) {
+            if (interiorPanel[ij] >= 0) {
+                panelJoints.get(interiorPanel[ij]).add(ij);
+            }
+        }
+        for (int im = 0; im < members.size(); im++) {
+            final Member member = members.get(im);
+            final int iPanel = Math.max(interiorPanel[member.getJointA().getIndex()],
+                    interiorPanel[member.getJointB().getIndex()]);
+            if (iPanel >= 0) {
+                panelMembers.get(iPanel).add(im);
+            }
+        }
+        final List<Panel> panels = new ArrayList<Panel>();
+        final List<PanelType> types = new ArrayList<PanelType>();
+        final HashMap<String, List<PanelType>> typesByKey = new HashMap<String, List<PanelType>>();
+        for (int iPanel = 0; iPanel < nPanels; iPanel++) {
+            if (panelJoints.get(iPanel).isEmpty()) {
+                continue;
+            }
+            // Panels are measured from their left deck joint.  Domains aren't shared, so any origin will do.
+            final Affine.Point origin = joints.get(shareTypes ? iPanel : 0).getPointWorld();
+            final Panel panel = newPanel(bridge, origin, interiorPanel, panelJoints.get(iPanel), panelMembers.get(iPanel));
+            if (shareTypes) {
+                List<PanelType> candidates = typesByKey.get(panel.key);
+                if (candidates == null) {
+                    candidates = new ArrayList<PanelType>();
+                    typesByKey.put(panel.key, candidates);
+                }
+                for (PanelType type : candidates) {
+                    if (isSameStiffness(panel, type.representative, aeOverL, cosX, cosY)) {
+                        panel.type = type;
+                        break;
+                    }
+                }
+                if (panel.type == null) {
+                    panel.type = new PanelType(panel);
+                    candidates.add(panel.type);
+                }
+            }
+            else {
+                panel.type = new PanelType(panel);
+            }
+            if (panel.type.representative == panel) {
+                types.add(panel.type);
+            }
+            panels.add(panel);
+        }
+        if (panels.isEmpty()) {
+            return null;
+        }
+        return new SuperelementSolver(bridge, restrained, panels.toArray(new Panel [panels.size()]), types, interiorPanel);
+    }
+
+    /**
+     * Make a panel with joints and members in canonical order and its shape key.
+     *
+     * @param bridge bridge
+     * @param origin point that panel positions are measured from
+     * @param interiorPanel panel of each joint, or -1 for boundary joints
+     * @param interiorJoints interior joints of the panel
+     * @param panelMembers members with at least one interior joint in the panel
+     * @return panel
+     */
+    private static Panel newPanel(BridgeModel bridge, final Affine.Point origin, int [] interiorPanel,
+            List<Integer> interiorJoints, List<Integer> panelMembers) {
+        final List<Joint> joints = bridge.getJoints();
+        final List<Member> members = bridge.getMembers();
+        final List<Integer> boundaryJoints = new ArrayList<Integer>();
+        for (int im : panelMembers) {
+            final Member member = members.get(im);
+            for (Joint joint : new Joint [] { member.getJointA(), member.getJointB() }) {
+                if (interiorPanel[joint.getIndex()] < 0 && !boundaryJoints.contains(joint.getIndex())) {
+                    boundaryJoints.add(joint.getIndex());
+                }
+            }
+        }
+        // Sort each kind of joint by position relative to the panel's left deck joint.
+        final Comparator<Integer> byPosition = new Comparator<Integer>() {
+
+            public int compare(Integer a, Integer b) {
+                final long [] pa = getRelativePoint(joints.get(a).getPointWorld(), origin);
+                final long [] pb = getRelativePoint(joints.get(b).getPointWorld(), origin);
+                return pa[0] != pb[0] ? (pa[0] < pb[0] ? -1 : 1) : pa[1] != pb[1] ? (pa[1] < pb[1] ? -1 : 1) : 0;
+            }
+        };
+        final List<Integer> sortedInterior = new ArrayList<Integer>(interiorJoints);
+        Collections.sort(sortedInterior, byPosition);
+        Collections.sort(boundaryJoints, byPosition);
+        final Panel panel = new Panel();
+        panel.nInteriorJoints = sortedInterior.size();
+        panel.joint = new int [sortedInterior.size() + boundaryJoints.size()];
+        final HashMap<Integer, Integer> local = new HashMap<Integer, Integer>();
+        final StringBuilder key = new StringBuilder();
+        key.append(sortedInterior.size()).append('/').append(boundaryJoints.size());
+        for (int l = 0; l < panel.joint.length; l++) {
+            final int ij = l < panel.nInteriorJoints ? sortedInterior.get(l) : boundaryJoints.get(l - panel.nInteriorJoints);
+            panel.joint[l] = ij;
+            local.put(ij, l);
+            final long [] pt = getRelativePoint(joints.get(ij).getPointWorld(), origin);
+            key.append(' ').append(pt[0]).append(',').append(pt[1]);
+        }
+        // Sort members by local joint pair.
+        final int nMembers = panelMembers.size();
+        final long [] pairs = new long [nMembers];
+        for (int k = 0; k < nMembers; k++) {
+            final Member member = members.get(panelMembers.get(k));
+            final int a = local.get(member.getJointA().getIndex());
+            final int b = local.get(member.getJointB().getIndex());
+            pairs[k] = ((long)Math.min(a, b) << 40) | ((long)Math.max(a, b) << 20) | k;
+        }
+        Arrays.sort(pairs);
+        panel.member = new int [nMembers];
+        panel.localA = new int [nMembers];
+        panel.localB = new int [nMembers];
+        key.append(" |");
+        for (int k = 0; k < nMembers; k++) {
+            panel.member[k] = panelMembers.get((int)(pairs[k] & 0xfffff));
+            panel.localA[k] = (int)(pairs[k] >> 40);
+            panel.localB[k] = (int)((pairs[k] >> 20) & 0xfffff);
+            key.append(' ').append(panel.localA[k]).append('-').append(panel.localB[k]);
+        }
+        panel.key = key.toString();
+        return panel;
+    }
+
+    /**
+     * Return a point relative to an origin, rounded to the coordinate quantum.
+     *
+     * @param pt point
+     * @param origin origin
+     * @return rounded x- and y-coordinates
+     */
+    private static long [] getRelativePoint(Affine.Point pt, Affine.Point origin) {
+        return new long [] {
+            Math.round((pt.x - origin.x) / coordinateQuantum),
+            Math.round((pt.y - origin.y) / coordinateQuantum)
+        };
+    }
+
+    /**
+     * Return true iff corresponding members of two panels with the same key have the same stiffness and
+     * direction.  Direction may be reversed, which doesn't change member stiffness.
+     *
+     * @param a first panel
+     * @param b second panel
+     * @param aeOverL axial stiffness of each member
+     * @param cosX x-direction cosine of each member
+     * @param cosY y-direction cosine of each member
+     * @return true iff the panels have the same stiffness
+     */
+    private static boolean isSameStiffness(Panel a, Panel b, double [] aeOverL, double [] cosX, double [] cosY) {
+        for (int k = 0; k < a.member.length; k++) {
+            final int ia = a.member[k];
+            final int ib = b.member[k];
+            final double sign = cosX[ia] * cosX[ib] + cosY[ia] * cosY[ib] < 0 ? -1 : 1;
+            if (Math.abs(aeOverL[ia] - aeOverL[ib]) > tolerance * aeOverL[ia] ||
+                    Math.abs(cosX[ia] - sign * cosX[ib]) > tolerance ||
+                    Math.abs(cosY[ia] - sign * cosY[ib]) > tolerance) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Return an estimate of the multiply-adds needed to condense all panel types and factor the boundary.
+     *
+     * @return factoring work estimate
+     */
+    public long getFactorWork() {
+        long work = SkylineSolver.getFactorWork(firstRow) + panels.length * panelOverhead;
+        for (PanelType type : types) {
+            work += type.getCondensationWork();
+        }
+        return work;
+    }
+
+    /**
+     * Condense each panel type, then assemble and factor the boundary system.
+     *
+     * @param bridge bridge
+     * @param aeOverL axial stiffness of each member
+     * @param cosX x-direction cosine of each member
+     * @param cosY y-direction cosine of each member
+     * @param minPivot smallest acceptable pivot magnitude
+     * @return true iff the bridge is stable
+     */
+    public boolean factor(BridgeModel bridge, final double [] aeOverL, final double [] cosX, final double [] cosY,
+            final double minPivot) {
+        // Panel types are independent, so condense them in parallel.
+        final boolean [] stable = new boolean [types.size()];
+        final ArrayList<Runnable> tasks = new ArrayList<Runnable>(types.size());
+        for (int i = 0; i < types.size(); i++) {
+            final int iType = i;
+            tasks.add(new Runnable() {
+                public void run() {
+                    stable[iType] = types.get(iType).condense(aeOverL, cosX, cosY, minPivot);
+                }
+            });
+        }
+        ComputePool.run(tasks);
+        for (int i = 0; i < stable.length; i++) {
+            if (!stable[i]) {
+                return false;
+            }
+        }
+        final List<Member> members = bridge.getMembers();
+        boundary = new SkylineSolver(firstRow);
+        for (int im : boundaryMembers) {
+            final Member member = members.get(im);
+            final int a = 2 * member.getJointA().getIndex();
+            final int b = 2 * member.getJointB().getIndex();
+            final int [] dofs = { a, a + 1, b, b + 1 };
+            final double [] v = { -cosX[im], -cosY[im], cosX[im], cosY[im] };
+            for (int p = 0; p < 4; p++) {
+                for (int q = p; q < 4; q++) {
+                    addBoundaryEntry(dofs[p], dofs[q], aeOverL[im] * v[p] * v[q]);
+                }
+            }
+        }
+        for (Panel panel : panels) {
+            final double [][] s = panel.type.condensed;
+            final int n = panel.type.nBoundary;
+            for (int p = 0; p < n; p++) {
+                for (int q = p; q < n; q++) {
+                    addBoundaryEntry(getBoundaryDof(panel, p), getBoundaryDof(panel, q), s[p][q]);
+                }
+            }
+        }
+        for (int ie = 0; ie < nEquations; ie++) {
+            if (boundaryEquation[ie] >= 0 && restrained[ie]) {
+                boundary.add(boundaryEquation[ie], boundaryEquation[ie], 1);
+            }
+        }
+        return boundary.factor(minPivot);
+    }
+
+    /**
+     * Return the full joint-ordered equation of a panel's boundary local degree of freedom.
+     *
+     * @param panel panel
+     * @param p boundary local degree of freedom
+     * @return joint-ordered equation
+     */
+    private static int getBoundaryDof(Panel panel, int p) {
+        return 2 * panel.joint[panel.nInteriorJoints + p / 2] + p % 2;
+    }
+
+    /**
+     * Add to a boundary stiffness entry given by joint-ordered equations unless either is restrained.
+     *
+     * @param i row equation
+     * @param j column equation
+     * @param val value to add
+     */
+    private void addBoundaryEntry(int i, int j, double val) {
+        if (!restrained[i] && !restrained[j]) {
+            boundary.add(boundaryEquation[i], boundaryEquation[j], val);
+        }
+    }
+
+    /**
+     * Solve the full system for a set of load vectors.  Loads on restrained equations are ignored.
+     *
+     * @param loads load vectors indexed by load case and joint-ordered equation
+     * @return displacement vectors indexed by load case and joint-ordered equation
+     */
+    public double [][] solve(final double [][] loads) {
+        final int nLoadInstances = loads.length;
+        final double [][] b = new double [nLoadInstances][firstRow.length];
+        for (int ilc = 0; ilc < nLoadInstances; ilc++) {
+            for (int ie = 0; ie < nEquations; ie++) {
+                if (boundaryEquation[ie] >= 0 && !restrained[ie]) {
+                    b[ilc][boundaryEquation[ie]] = loads[ilc][ie];
+                }
+            }
+        }
+        // Carry interior loads to the boundary: fb - Kbi Kii^-1 fi.  Panels are done in parallel, but
+        // their contributions are summed in panel order so results don't depend on the processor count.
+        final double [][][] interiorLoads = new double [panels.length][][];
+        final double [][][] boundaryLoads = new double [panels.length][][];
+        final ArrayList<Runnable> tasks = new ArrayList<Runnable>(panels.length);
+        for (int i = 0; i < panels.length; i++) {
+            final int iPanel = i;
+            tasks.add(new Runnable() {
+                public void run() {
+                    final Panel panel = panels[iPanel];
+                    final PanelType type = panel.type;
+                    final double [][] f = new double [nLoadInstances][type.nInterior];
+                    final double [][] g = new double [nLoadInstances][type.nBoundary];
+                    for (int ilc = 0; ilc < nLoadInstances; ilc++) {
+                        for (int ld = 0; ld < type.nInterior; ld++) {
+                            f[ilc][type.interiorEquation[ld]] = loads[ilc][2 * panel.joint[ld / 2] + ld % 2];
+                        }
+                    }
+                    type.interior.solve(f);
+                    for (int ilc = 0; ilc < nLoadInstances; ilc++) {
+                        for (int p = 0; p < type.nBoundary; p++) {
+                            g[ilc][p] = type.getBoundaryCoupling(p, f[ilc]);
+                        }
+                    }
+                    interiorLoads[iPanel] = f;
+                    boundaryLoads[iPanel] = g;
+                }
+            });
+        }
+        ComputePool.run(tasks);
+        for (int i = 0; i < panels.length; i++) {
+            for (int ilc = 0; ilc < nLoadInstances; ilc++) {
+                for (int p = 0; p < panels[i].type.nBoundary; p++) {
+                    final int ie = getBoundaryDof(panels[i], p);
+                    if (!restrained[ie]) {
+                        b[ilc][boundaryEquation[ie]] -= boundaryLoads[i][ilc][p];
+                    }
+                }
+            }
+        }
+        boundary.solve(b);
+        final double [][] displacement = new double [nLoadInstances][nEquations];
+        for (int ilc = 0; ilc < nLoadInstances; ilc++) {
+            for (int ie = 0; ie < nEquations; ie++) {
+                if (boundaryEquation[ie] >= 0) {
+                    displacement[ilc][ie] = b[ilc][boundaryEquation[ie]];
+                }
+            }
+        }
+        // Recover interior displacements: Kii^-1 fi - Kii^-1 Kib ub, reusing Kii^-1 fi from above.  Panels write disjoint joints.
+        tasks.clear();
+        for (int i = 0; i < panels.length; i++) {
+            final int iPanel = i;
+            tasks.add(new Runnable() {
+                public void run() {
+                    final Panel panel = panels[iPanel];
+                    final PanelType type = panel.type;
+                    final double [][] u = interiorLoads[iPanel];
+                    for (int ilc = 0; ilc < nLoadInstances; ilc++) {
+                        for (int p = 0; p < type.nBoundary; p++) {
+                            final double ub = displacement[ilc][getBoundaryDof(panel, p)];
+                            if (ub != 0) {
+                                final double [] x = type.coupling[p];
+                                for (int ie = 0; ie < type.nInterior; ie++) {
+                                    u[ilc][ie] -= x[ie] * ub;
+                                }
+                            }
+                        }
+                        for (int ld = 0; ld < type.nInterior; ld++) {
+                            displacement[ilc][2 * panel.joint[ld / 2] + ld % 2] = u[ilc][type.interiorEquation[ld]];
+                        }
+                    }
+                }
+            });
+        }
+        ComputePool.run(tasks);
+        return displacement;
+    }
+}
@@ -0,0 +1,909 @@
+/*
+ * TopologyOptimizer.java
+ *
+ * Copyright (C) 2026 agent
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package bridgedesigner;
+
+import java.awt.Point;
+import java.awt.geom.Rectangle2D;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+
+/**
+ * Ground structure topology optimizer.  Nodes are the prescribed joints and the valid joint locations of a
+ * coarse square lattice over the design space.  Candidate members join every pair of nodes close enough
+ * together with no third node between them.  Least-cost plastic design of the candidates under the dead load
+ * and every truck position of the load test is a linear program in member capacities and forces, solved by
+ * <code>PlasticDesignSolver</code>.
+ *
+ * The program is linear because each member's cost is taken to grow in proportion to the largest force it
+ * carries, at the rate of the stock that is cheapest per unit of strength at the member's length.  Real
+ * stocks come in discrete sizes, and buckling makes compressive strength grow faster than area, so the
+ * result is only a layout.  Members carrying little force are dropped, free joints left with two collinear
+ * members are removed by joining the members, the shortest candidates that brace any mechanism left are
+ * added back, and the stocks of the rest are chosen by a <code>MemberSizer</code>.  Several cutoffs for "little" are tried, and the cheapest bridge that passes
+ * the load test is the result.
+ *
+ * Most candidates carry no force in the optimum, so the program starts with only the short members between
+ * neighboring nodes.  After each solve, the virtual displacements price every candidate left out, those that
+ * would lower cost are added, and the program is solved again starting from the last solution.
+ *
+ * @author agent
+ */
+public class TopologyOptimizer {
+
+    /**
+     * Default distance between lattice nodes in meters.
+     */
+    private static final double defaultNodeSpacing = DesignConditions.panelSizeWorld;
+    /**
+     * Longest candidate member in meters.
+     */
+    private static final double maxReach = 2.5 * DesignConditions.panelSizeWorld;
+    /**
+     * Number of nearest neighbors each node is joined to in the starting member set.
+     */
+    private static final int nStartingNeighbors = 8;
+    /**
+     * Ratio of price to cost above which a candidate is added to the program.
+     */
+    private static final double minPriceRatio = 1 + 1e-4;
+    /**
+     * Largest number of candidates added in one round.
+     */
+    private static final int maxAddedPerRound = 400;
+    /**
+     * Largest number of rounds of adding candidates.
+     */
+    private static final int maxRounds = 20;
+    /**
+     * Cutoffs on member cost, relative to the most costly member, below which members are dropped.
+     */
+    private static final double [] cutoffs = { 0.1, 0.03, 0.01, 0.003, 0.001 };
+
+    /**
+     * Snapshot of the starting bridge.
+     */
+    private final byte [] startBytes;
+    /**
+     * Design conditions of the bridge.
+     */
+    private final DesignConditions conditions;
+    /**
+     * Distance between points of the drafting grid that joints snap to.
+     */
+    private final double gridSize;
+    /**
+     * Grid coordinates of the first column and row of valid points, in units of the grid size.
+     */
+    private final int iGridMin, jGridMin;
+    /**
+     * Whether each point of the drafting grid within the design space is a valid joint location, indexed
+     * by column and row.
+     */
+    private final boolean [][] valid;
+    /**
+     * Distance between lattice nodes.
+     */
+    private double nodeSpacing = defaultNodeSpacing;
+    /**
+     * Materials of the stocks.
+     */
+    private Material [] stockMaterial;
+    /**
+     * Shapes of the stocks.
+     */
+    private Shape [] stockShape;
+    /**
+     * Cost of both trusses per meter of each stock.
+     */
+    private double [] stockUnitCost;
+    /**
+     * Node locations.  The prescribed joints come first in their usual order.
+     */
+    private Affine.Point [] nodes;
+    /**
+     * End nodes of each candidate.
+     */
+    private int [] candidateA, candidateB;
+    /**
+     * Length of each candidate.
+     */
+    private double [] candidateLength;
+    /**
+     * Capacity per unit of tension of each candidate.
+     */
+    private double [] candidateKt;
+    /**
+     * Capacity per unit of compression of each candidate.
+     */
+    private double [] candidateKc;
+    /**
+     * Self weight at each joint per unit of capacity of each candidate.
+     */
+    private double [] candidateWeight;
+    /**
+     * Equation numbers of each node's displacements, -1 where restrained.
+     */
+    private int [] equation;
+    /**
+     * Number of unrestrained node displacements.
+     */
+    private int nEquations;
+    /**
+     * Index of each candidate in the linear program or -1 if it hasn't been added.
+     */
+    private int [] programIndex;
+    /**
+     * Total iterations of the linear program solver in the last run.
+     */
+    private int solverIterations = 0;
+    /**
+     * Set to stop the optimizer at the next chance.
+     */
+    private volatile boolean cancelled = false;
+
+    /**
+     * Construct a topology optimizer for a bridge.  Only the bridge's design conditions and inventory are
+     * used.  The valid joint locations are the valid points of the given drafting coordinates at their
+     * current density.  This must be called on the event dispatch thread, but the optimizer itself may run
+     * on any other.
+     *
+     * @param bridge bridge to optimize
+     * @param coordinates drafting coordinates of the view of the bridge
+     */
+    public TopologyOptimizer(BridgeModel bridge, DraftingCoordinates coordinates) {
+        startBytes = bridge.toBytes();
+        conditions = bridge.getDesignConditions();
+        gridSize = coordinates.getGridSize();
+        final Rectangle2D.Double extent = coordinates.getExtent();
+        iGridMin = (int)Math.ceil(extent.getMinX() / gridSize);
+        jGridMin = (int)Math.ceil(extent.getMinY() / gridSize);
+        final int nColumns = (int)Math.floor(extent.getMaxX() / gridSize) - iGridMin + 1;
+        final int nRows = (int)Math.floor(extent.getMaxY() / gridSize) - jGridMin + 1;
+        valid = new boolean [Math.max(0, nColumns)][Math.max(0, nRows)];
+        final Affine.Point src = new Affine.Point();
+        final Affine.Point dst = new Affine.Point();
+        final Point dstGrid = new Point();
+        for (int i = 0; i < valid.length; i++) {
+            for (int j = 0; j < valid[i].length; j++) {
+                src.x = (iGridMin + i) * gridSize;
+                src.y = (jGridMin + j) * gridSize;
+                coordinates.shiftToNearestValidWorldPoint(dst, dstGrid, src);
+                valid[i][j] = dst.distanceSq(src) < Utility.smallSq;
+            }
+        }
+    }
+
+    /**
+     * Set the distance between lattice nodes.  It's rounded to a multiple of the grid the coordinates snap to.
+     *
+     * @param nodeSpacing spacing in meters
+     */
+    public void setNodeSpacing(double nodeSpacing) {
+        this.nodeSpacing = nodeSpacing;
+    }
+
+    /**
+     * Stop the optimizer after the current solve or sizing.  This may be called from any thread.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Return true iff the optimizer was cancelled.
+     *
+     * @return true iff cancelled
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Return the total number of iterations taken by the linear program solver in the last run.
+     *
+     * @return number of iterations
+     */
+    public int getSolverIterations() {
+        return solverIterations;
+    }
+
+    /**
+     * Find a least-cost layout and size its members.
+     *
+     * @return new bridge with the result or null if none was found that passes the load test or the
+     * optimizer was cancelled
+     */
+    public BridgeModel run() {
+        final BridgeModel start = copyStart();
+        if (start == null) {
+            return null;
+        }
+        initializeStocks(start.getInventory());
+        initializeNodes(start);
+        initializeCandidates();
+        initializeEquations();
+        final PlasticDesignSolver solver = solve();
+        if (solver == null) {
+            return null;
+        }
+        // Program members are indices into the candidates.
+        final int [] programCandidate = new int [solver.getMemberCount()];
+        for (int ic = 0; ic < candidateLength.length; ic++) {
+            if (programIndex[ic] >= 0) {
+                programCandidate[programIndex[ic]] = ic;
+            }
+        }
+        double maxMemberCost = 0;
+        for (int i = 0; i < programCandidate.length; i++) {
+            maxMemberCost = Math.max(maxMemberCost, solver.getCapacity(i) * candidateLength[programCandidate[i]]);
+        }
+        BridgeModel best = null;
+        double bestCost = Double.POSITIVE_INFINITY;
+        for (int ic = 0; ic < cutoffs.length; ic++) {
+            if (cancelled) {
+                return null;
+            }
+            final BridgeModel design = getDesign(solver, programCandidate, cutoffs[ic] * maxMemberCost);
+            if (design != null && design.getTotalCost() < bestCost) {
+                best = design;
+                bestCost = design.getTotalCost();
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Return a new copy of the starting bridge.
+     *
+     * @return copy or null if the snapshot can't be read
+     */
+    private BridgeModel copyStart() {
+        final BridgeModel rtn = new BridgeModel();
+        try {
+            rtn.parseBytes(startBytes);
+        } catch (IOException ex) {
+            return null;
+        }
+        return rtn;
+    }
+
+    /**
+     * Make tables of the material, shape, and unit cost of every stock in the inventory.
+     *
+     * @param inventory inventory
+     */
+    private void initializeStocks(Inventory inventory) {
+        final ArrayList<Material> materials = new ArrayList<Material>();
+        final ArrayList<Shape> shapes = new ArrayList<Shape>();
+        for (int iMaterial = 0; iMaterial < inventory.getNMaterials(); iMaterial++) {
+            for (int iSection = 0; iSection < inventory.getNSections(); iSection++) {
+                for (int iSize = 0; iSize < inventory.getNShapes(iSection); iSize++) {
+                    materials.add(inventory.getMaterial(iMaterial));
+                    shapes.add(inventory.getShape(iSection, iSize));
+                }
+            }
+        }
+        final int nStocks = shapes.size();
+        stockMaterial = materials.toArray(new Material[nStocks]);
+        stockShape = shapes.toArray(new Shape[nStocks]);
+        stockUnitCost = new double [nStocks];
+        for (int is = 0; is < nStocks; is++) {
+            stockUnitCost[is] = 2 * stockMaterial[is].getCost(stockShape[is].getSection()) *
+                    stockShape[is].getArea() * stockMaterial[is].getDensity();
+        }
+    }
+
+    /**
+     * Return true iff a stock meets the slenderness limit at a given length.
+     *
+     * @param is stock index
+     * @param length member length
+     * @return true iff the stock is slender enough
+     */
+    private boolean isAdmissible(int is, double length) {
+        return length * stockShape[is].getInverseRadiusOfGyration() <= conditions.getAllowableSlenderness();
+    }
+
+    /**
+     * Find the nodes: prescribed joints first, then valid points of the lattice that don't coincide with them.
+     *
+     * @param start copy of the starting bridge
+     */
+    private void initializeNodes(BridgeModel start) {
+        final ArrayList<Affine.Point> points = new ArrayList<Affine.Point>();
+        final int nPrescribedJoints = conditions.getNPrescribedJoints();
+        for (int i = 0; i < nPrescribedJoints; i++) {
+            points.add(new Affine.Point(start.getJoints().get(i).getPointWorld()));
+        }
+        // Lattice nodes are the valid grid points at multiples of the node spacing.
+        final int step = (int)Math.max(1, Math.round(nodeSpacing / gridSize));
+        final int iMin = step * (int)Math.ceil((double)iGridMin / step);
+        final int jMin = step * (int)Math.ceil((double)jGridMin / step);
+        for (int i = iMin; i < iGridMin + valid.length; i += step) {
+            for (int j = jMin; j < jGridMin + valid[i - iGridMin].length; j += step) {
+                if (!valid[i - iGridMin][j - jGridMin]) {
+                    continue;
+                }
+                final Affine.Point src = new Affine.Point(i * gridSize, j * gridSize);
+                boolean prescribed = false;
+                for (int k = 0; k < nPrescribedJoints; k++) {
+                    if (points.get(k).distanceSq(src) < Utility.smallSq) {
+                        prescribed = true;
+                        break;
+                    }
+                }
+                if (!prescribed) {
+                    points.add(src);
+                }
+            }
+        }
+        nodes = points.toArray(new Affine.Point[points.size()]);
+    }
+
+    /**
+     * Find the candidate members: pairs of nodes within reach, with no node between them, and with at least
+     * one stock slender enough.  Each gets the linearized costs of its cheapest stocks.
+     */
+    private void initializeCandidates() {
+        final int nStocks = stockShape.length;
+        final ArrayList<int []> pairs = new ArrayList<int []>();
+        for (int a = 0; a < nodes.length; a++) {
+            for (int b = a + 1; b < nodes.length; b++) {
+                final double length = nodes[a].distance(nodes[b]);
+                if (length > maxReach) {
+                    continue;
+                }
+                boolean primitive = true;
+                for (int c = 0; c < nodes.length; c++) {
+                    if (c != a && c != b && nodes[c].onSegment(nodes[a], nodes[b])) {
+                        primitive = false;
+                        break;
+                    }
+                }
+                if (primitive) {
+                    pairs.add(new int [] { a, b });
+                }
+            }
+        }
+        final int [] a = new int [pairs.size()];
+        final int [] b = new int [pairs.size()];
+        final double [] length = new double [pairs.size()];
+        final double [] kt = new double [pairs.size()];
+        final double [] kc = new double [pairs.size()];
+        final double [] weight = new double [pairs.size()];
+        int n = 0;
+        for (int ip = 0; ip < pairs.size(); ip++) {
+            final int [] pair = pairs.get(ip);
+            final double l = nodes[pair[0]].distance(nodes[pair[1]]);
+            double ktMin = Double.POSITIVE_INFINITY;
+            double kcMin = Double.POSITIVE_INFINITY;
+            int isTension = -1;
+            for (int is = 0; is < nStocks; is++) {
+                if (!isAdmissible(is, l)) {
+                    continue;
+                }
+                final double t = stockUnitCost[is] / Inventory.tensileStrength(stockMaterial[is], stockShape[is]);
+                if (t < ktMin) {
+                    ktMin = t;
+                    isTension = is;
+                }
+                kcMin = Math.min(kcMin,
+                        stockUnitCost[is] / Inventory.compressiveStrength(stockMaterial[is], stockShape[is], l));
+            }
+            if (isTension < 0) {
+                continue;
+            }
+            a[n] = pair[0];
+            b[n] = pair[1];
+            length[n] = l;
+            kt[n] = ktMin;
+            kc[n] = kcMin;
+            weight[n] = Analysis.getMemberDeadLoad(stockMaterial[isTension], stockShape[isTension], l) /
+                    (stockUnitCost[isTension] * l);
+            ++n;
+        }
+        candidateA = Arrays.copyOf(a, n);
+        candidateB = Arrays.copyOf(b, n);
+        candidateLength = Arrays.copyOf(length, n);
+        candidateKt = Arrays.copyOf(kt, n);
+        candidateKc = Arrays.copyOf(kc, n);
+        candidateWeight = Arrays.copyOf(weight, n);
+    }
+
+    /**
+     * Number the unrestrained node displacements in order of node location, left to right, then bottom to top,
+     * which keeps the profile of the solver's system small.
+     */
+    private void initializeEquations() {
+        final boolean [] restrained = StiffnessPattern.getRestraints(conditions, nodes.length);
+        final Integer [] order = new Integer [nodes.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            public int compare(Integer a, Integer b) {
+                final int cmp = Double.compare(nodes[a].x, nodes[b].x);
+                return cmp != 0 ? cmp : Double.compare(nodes[a].y, nodes[b].y);
+            }
+        });
+        equation = new int [2 * nodes.length];
+        int n = 0;
+        for (int i = 0; i < order.length; i++) {
+            for (int k = 0; k < 2; k++) {
+                final int dof = 2 * order[i] + k;
+                equation[dof] = restrained[dof] ? -1 : n++;
+            }
+        }
+        nEquations = n;
+    }
+
+    /**
+     * Return the loads of the load test on the nodes without member self weight: the deck's dead load in
+     * every case, plus the truck with its front axle at each deck joint after the first in every case but
+     * the first.
+     *
+     * @return loads indexed by load case and equation
+     */
+    private double [][] getLoads() {
+        final int nLoadedJoints = conditions.getNLoadedJoints();
+        final double pointDeadLoad = Analysis.getPointDeadLoad(conditions);
+        final double front = Analysis.getFrontAxleLoad(conditions);
+        final double rear = Analysis.getRearAxleLoad(conditions);
+        final double [][] loads = new double [nLoadedJoints][nEquations];
+        for (int k = 0; k < nLoadedJoints; k++) {
+            for (int ij = 0; ij < nLoadedJoints; ij++) {
+                final int e = equation[2 * ij + 1];
+                if (e < 0) {
+                    continue;
+                }
+                double load = (ij == 0 || ij == nLoadedJoints - 1) ? 0.5 * pointDeadLoad : pointDeadLoad;
+                if (k > 0 && ij == k) {
+                    load += front;
+                }
+                if (k > 0 && ij == k - 1) {
+                    load += rear;
+                }
+                loads[k][e] = -load;
+            }
+        }
+        return loads;
+    }
+
+    /**
+     * Fill in the equation numbers of a candidate's end displacements.
+     *
+     * @param ic candidate index
+     * @param dofs equation numbers of x and y at joint a, then at joint b
+     */
+    private void getDofs(int ic, int [] dofs) {
+        dofs[0] = equation[2 * candidateA[ic]];
+        dofs[1] = equation[2 * candidateA[ic] + 1];
+        dofs[2] = equation[2 * candidateB[ic]];
+        dofs[3] = equation[2 * candidateB[ic] + 1];
+    }
+
+    /**
+     * Add a candidate to the program.
+     *
+     * @param solver solver of the program
+     * @param ic candidate index
+     * @param dofs scratch array for equation numbers
+     */
+    private void addCandidate(PlasticDesignSolver solver, int ic, int [] dofs) {
+        getDofs(ic, dofs);
+        final Affine.Point a = nodes[candidateA[ic]];
+        final Affine.Point b = nodes[candidateB[ic]];
+        final double length = candidateLength[ic];
+        programIndex[ic] = solver.addMember(dofs, (b.x - a.x) / length, (b.y - a.y) / length, length,
+                candidateKt[ic], candidateKc[ic], candidateWeight[ic]);
+    }
+
+    /**
+     * Solve the program, adding candidates until none would lower cost.
+     *
+     * @return solver holding the solution or null if none was found
+     */
+    private PlasticDesignSolver solve() {
+        final PlasticDesignSolver solver = new PlasticDesignSolver(nEquations, getLoads());
+        final int [] dofs = new int [4];
+        programIndex = new int [candidateLength.length];
+        Arrays.fill(programIndex, -1);
+        // Start with each node joined to its nearest neighbors.
+        final Integer [] byLength = new Integer [candidateLength.length];
+        for (int ic = 0; ic < byLength.length; ic++) {
+            byLength[ic] = ic;
+        }
+        Arrays.sort(byLength, new Comparator<Integer>() {
+            public int compare(Integer a, Integer b) {
+                return Double.compare(candidateLength[a], candidateLength[b]);
+            }
+        });
+        final int [] degree = new int [nodes.length];
+        for (int i = 0; i < byLength.length; i++) {
+            final int ic = byLength[i];
+            if (degree[candidateA[ic]] < nStartingNeighbors || degree[candidateB[ic]] < nStartingNeighbors) {
+                ++degree[candidateA[ic]];
+                ++degree[candidateB[ic]];
+                addCandidate(solver, ic, dofs);
+            }
+        }
+        solverIterations = 0;
+        final double [] ratio = new double [candidateLength.length];
+        final Integer [] byRatio = new Integer [candidateLength.length];
+        for (int round = 0; round < maxRounds; round++) {
+            final boolean converged = solver.solve();
+            solverIterations += solver.getIterations();
+            if (!converged || cancelled) {
+                return null;
+            }
+            // Price the candidates left out and add those that would lower cost, most valuable first.
+            int nViolated = 0;
+            for (int ic = 0; ic < ratio.length; ic++) {
+                if (programIndex[ic] >= 0) {
+                    continue;
+                }
+                final Affine.Point a = nodes[candidateA[ic]];
+                final Affine.Point b = nodes[candidateB[ic]];
+                final double length = candidateLength[ic];
+                getDofs(ic, dofs);
+                ratio[ic] = solver.getPrice(dofs, (b.x - a.x) / length, (b.y - a.y) / length,
+                        candidateKt[ic], candidateKc[ic], candidateWeight[ic]) / length;
+                if (ratio[ic] > minPriceRatio) {
+                    byRatio[nViolated++] = ic;
+                }
+            }
+            if (nViolated == 0) {
+                break;
+            }
+            Arrays.sort(byRatio, 0, nViolated, new Comparator<Integer>() {
+                public int compare(Integer a, Integer b) {
+                    return Double.compare(ratio[b], ratio[a]);
+                }
+            });
+            for (int i = 0; i < Math.min(nViolated, maxAddedPerRound); i++) {
+                addCandidate(solver, byRatio[i], dofs);
+            }
+        }
+        return solver;
+    }
+
+    /**
+     * Return the bridge made of the program members costing at least a cutoff, sized for the load test.
+     *
+     * @param solver solver holding the solution
+     * @param programCandidate candidate index of each program member
+     * @param cutoff least member cost kept
+     * @return sized bridge or null if it is too big or doesn't pass the load test
+     */
+    private BridgeModel getDesign(PlasticDesignSolver solver, int [] programCandidate, double cutoff) {
+        final int nPrescribedJoints = conditions.getNPrescribedJoints();
+        final int nCases = conditions.getNLoadedJoints();
+        // Members kept, as pairs of nodes with their largest tension and compression.
+        final ArrayList<int []> ends = new ArrayList<int []>();
+        final ArrayList<double []> forces = new ArrayList<double []>();
+        for (int i = 0; i < programCandidate.length; i++) {
+            final int ic = programCandidate[i];
+            if (solver.getCapacity(i) * candidateLength[ic] < cutoff) {
+                continue;
+            }
+            double tension = 0;
+            double compression = 0;
+            for (int k = 0; k < nCases; k++) {
+                tension = Math.max(tension, solver.getForce(i, k));
+                compression = Math.max(compression, -solver.getForce(i, k));
+            }
+            ends.add(new int [] { candidateA[ic], candidateB[ic] });
+            forces.add(new double [] { tension, compression });
+        }
+        // Drop dangling free joints and join members that meet in line at free joints with nothing else.
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            final int [][] incident = getIncidentMembers(ends);
+            for (int n = nPrescribedJoints; n < nodes.length && !changed; n++) {
+                final int [] at = incident[n];
+                if (at.length == 1) {
+                    ends.remove(at[0]);
+                    forces.remove(at[0]);
+                    changed = true;
+                }
+                else if (at.length == 2) {
+                    final int a = otherEnd(ends.get(at[0]), n);
+                    final int b = otherEnd(ends.get(at[1]), n);
+                    if (canJoin(a, n, b, ends)) {
+                        final double [] fa = forces.get(at[0]);
+                        final double [] fb = forces.get(at[1]);
+                        final int first = Math.min(at[0], at[1]);
+                        final int second = Math.max(at[0], at[1]);
+                        ends.set(first, new int [] { a, b });
+                        forces.set(first, new double [] { Math.max(fa[0], fb[0]), Math.max(fa[1], fb[1]) });
+                        ends.remove(second);
+                        forces.remove(second);
+                        changed = true;
+                    }
+                }
+            }
+        }
+        brace(ends, forces);
+        // Number the joints in use.
+        final int [] jointIndex = new int [nodes.length];
+        Arrays.fill(jointIndex, -1);
+        for (int n = 0; n < nPrescribedJoints; n++) {
+            jointIndex[n] = n;
+        }
+        int nJoints = nPrescribedJoints;
+        for (int i = 0; i < ends.size(); i++) {
+            for (int k = 0; k < 2; k++) {
+                final int n = ends.get(i)[k];
+                if (jointIndex[n] < 0) {
+                    jointIndex[n] = nJoints++;
+                }
+            }
+        }
+        if (nJoints > DesignConditions.getMaxJointCount() || ends.size() > DesignConditions.getMaxMemberCount()) {
+            return null;
+        }
+        // Build the bridge with the cheapest stock that carries each member's forces.
+        final BridgeModel design = copyStart();
+        if (design == null) {
+            return null;
+        }
+        design.initialize(conditions, null, null);
+        final Joint [] joints = new Joint [nJoints];
+        for (int n = 0; n < nPrescribedJoints; n++) {
+            joints[n] = design.getJoints().get(n);
+        }
+        for (int n = nPrescribedJoints; n < nodes.length; n++) {
+            if (jointIndex[n] >= 0) {
+                joints[jointIndex[n]] = new Joint(jointIndex[n], new Affine.Point(nodes[n]));
+            }
+        }
+        for (int ij = nPrescribedJoints; ij < nJoints; ij++) {
+            design.getJoints().add(joints[ij]);
+        }
+        for (int i = 0; i < ends.size(); i++) {
+            final Joint a = joints[jointIndex[ends.get(i)[0]]];
+            final Joint b = joints[jointIndex[ends.get(i)[1]]];
+            final int is = getCheapestStock(a.getPointWorld().distance(b.getPointWorld()), forces.get(i));
+            design.getMembers().add(new Member(i, a, b, stockMaterial[is], stockShape[is]));
+        }
+        final Member [] sized = new MemberSizer(design).getSizedMembers();
+        if (sized == null) {
+            return null;
+        }
+        for (int i = 0; i < sized.length; i++) {
+            final Member member = design.getMembers().get(sized[i].getIndex());
+            member.setMaterial(sized[i].getMaterial());
+            member.setShape(sized[i].getShape());
+        }
+        return design;
+    }
+
+    /**
+     * Return the indices of the members incident on each node.
+     *
+     * @param ends end nodes of each member
+     * @return member indices indexed by node
+     */
+    private int [][] getIncidentMembers(ArrayList<int []> ends) {
+        final int [] count = new int [nodes.length];
+        for (int i = 0; i < ends.size(); i++) {
+            ++count[ends.get(i)[0]];
+            ++count[ends.get(i)[1]];
+        }
+        final int [][] rtn = new int [nodes.length][];
+        for (int n = 0; n < nodes.length; n++) {
+            rtn[n] = new int [count[n]];
+            count[n] = 0;
+        }
+        for (int i = 0; i < ends.size(); i++) {
+            for (int k = 0; k < 2; k++) {
+                final int n = ends.get(i)[k];
+                rtn[n][count[n]++] = i;
+            }
+        }
+        return rtn;
+    }
+
+    /**
+     * Add the shortest candidates needed to keep joints from moving.  The program holds joints only in the
+     * directions that loads push them, so its layout is often a mechanism, e.g. a roller with only a vertical
+     * member or a free joint on a line of members.  Each candidate added joins joints already in use and
+     * lowers the mobility of the layout.
+     *
+     * @param ends end nodes of each member, to which bracing is added
+     * @param forces largest tension and compression of each member, zero for bracing
+     */
+    private void brace(ArrayList<int []> ends, ArrayList<double []> forces) {
+        final boolean [] restrained = StiffnessPattern.getRestraints(conditions, nodes.length);
+        final boolean [] used = new boolean [nodes.length];
+        for (int n = 0; n < conditions.getNPrescribedJoints(); n++) {
+            used[n] = true;
+        }
+        for (int i = 0; i < ends.size(); i++) {
+            used[ends.get(i)[0]] = used[ends.get(i)[1]] = true;
+        }
+        final boolean [] member = new boolean [candidateLength.length];
+        final ArrayList<Integer> bracing = new ArrayList<Integer>();
+        for (int ic = 0; ic < candidateLength.length; ic++) {
+            if (used[candidateA[ic]] && used[candidateB[ic]]) {
+                for (int i = 0; i < ends.size(); i++) {
+                    final int [] e = ends.get(i);
+                    if ((e[0] == candidateA[ic] && e[1] == candidateB[ic]) ||
+                            (e[0] == candidateB[ic] && e[1] == candidateA[ic])) {
+                        member[ic] = true;
+                        break;
+                    }
+                }
+                if (!member[ic]) {
+                    bracing.add(ic);
+                }
+            }
+        }
+        Collections.sort(bracing, new Comparator<Integer>() {
+            public int compare(Integer a, Integer b) {
+                return Double.compare(candidateLength[a], candidateLength[b]);
+            }
+        });
+        int mobility = getMobility(ends, restrained, used);
+        while (mobility > 0) {
+            boolean braced = false;
+            for (int i = 0; i < bracing.size() && !braced; i++) {
+                final int ic = bracing.get(i);
+                ends.add(new int [] { candidateA[ic], candidateB[ic] });
+                final int newMobility = getMobility(ends, restrained, used);
+                if (newMobility < mobility) {
+                    forces.add(new double [] { 0, 0 });
+                    bracing.remove(i);
+                    mobility = newMobility;
+                    braced = true;
+                }
+                else {
+                    ends.remove(ends.size() - 1);
+                }
+            }
+            if (!braced) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Return a measure of how far a layout is from being stable: the degrees of freedom of its joints in use
+     * as a generic truss plus the number of joints whose members all lie on a line that nothing restrains
+     * them from moving across.
+     *
+     * @param ends end nodes of each member
+     * @param restrained restraint flags of the nodes indexed by equation
+     * @param used whether each node is in use
+     * @return mobility, zero if the layout may be stable
+     */
+    private int getMobility(ArrayList<int []> ends, boolean [] restrained, boolean [] used) {
+        final int [] jointA = new int [ends.size()];
+        final int [] jointB = new int [ends.size()];
+        for (int i = 0; i < ends.size(); i++) {
+            jointA[i] = ends.get(i)[0];
+            jointB[i] = ends.get(i)[1];
+        }
+        int rtn = new RigidityAnalysis(nodes.length, jointA, jointB, restrained).getDegreesOfFreedom();
+        // Unused nodes are free and count two each.
+        for (int n = 0; n < nodes.length; n++) {
+            if (!used[n]) {
+                rtn -= 2 - (restrained[2 * n] ? 1 : 0) - (restrained[2 * n + 1] ? 1 : 0);
+            }
+        }
+        final int [][] incident = getIncidentMembers(ends);
+        for (int n = 0; n < nodes.length; n++) {
+            if (!used[n] || incident[n].length == 0) {
+                continue;
+            }
+            // Direction across the first member.
+            final Affine.Point a = nodes[n];
+            final Affine.Point b = nodes[otherEnd(ends.get(incident[n][0]), n)];
+            final double px = a.y - b.y;
+            final double py = b.x - a.x;
+            boolean inLine = true;
+            for (int k = 1; k < incident[n].length && inLine; k++) {
+                final Affine.Point c = nodes[otherEnd(ends.get(incident[n][k]), n)];
+                inLine = Math.abs(px * (c.x - a.x) + py * (c.y - a.y)) < Utility.small * Math.hypot(px, py);
+            }
+            if (inLine && !(restrained[2 * n] && Math.abs(px) > Utility.small) &&
+                    !(restrained[2 * n + 1] && Math.abs(py) > Utility.small)) {
+                ++rtn;
+            }
+        }
+        return rtn;
+    }
+
+    /**
+     * Return the end of a member other than a given one.
+     *
+     * @param ends end nodes of the member
+     * @param n one end node
+     * @return other end node
+     */
+    private static int otherEnd(int [] ends, int n) {
+        return ends[0] == n ? ends[1] : ends[0];
+    }
+
+    /**
+     * Return true iff members a-n and n-b can be replaced by a member a-b: they are in line, a-b isn't already
+     * a member, no other joint in use lies on it, and some stock is slender enough for it.
+     *
+     * @param a end node of the first member
+     * @param n node the members share
+     * @param b end node of the second member
+     * @param ends end nodes of each member
+     * @return true iff the members can be joined
+     */
+    private boolean canJoin(int a, int n, int b, ArrayList<int []> ends) {
+        if (!nodes[n].onSegment(nodes[a], nodes[b])) {
+            return false;
+        }
+        for (int i = 0; i < ends.size(); i++) {
+            final int [] e = ends.get(i);
+            if ((e[0] == a && e[1] == b) || (e[0] == b && e[1] == a)) {
+                return false;
+            }
+            for (int k = 0; k < 2; k++) {
+                final int c = e[k];
+                if (c != a && c != b && c != n && nodes[c].onSegment(nodes[a], nodes[b])) {
+                    return false;
+                }
+            }
+        }
+        for (int c = 0; c < conditions.getNPrescribedJoints(); c++) {
+            if (c != a && c != b && nodes[c].onSegment(nodes[a], nodes[b])) {
+                return false;
+            }
+        }
+        final double length = nodes[a].distance(nodes[b]);
+        for (int is = 0; is < stockShape.length; is++) {
+            if (isAdmissible(is, length)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Return the cheapest stock slender enough for a member of given length that carries given forces, or
+     * the cheapest slender enough if none is strong enough.
+     *
+     * @param length member length
+     * @param force largest tension, then largest compression
+     * @return stock index
+     */
+    private int getCheapestStock(double length, double [] force) {
+        int rtn = -1;
+        int fallback = -1;
+        for (int is = 0; is < stockShape.length; is++) {
+            if (!isAdmissible(is, length)) {
+                continue;
+            }
+            if (fallback < 0 || stockUnitCost[is] < stockUnitCost[fallback]) {
+                fallback = is;
+            }
+            if (force[0] <= Inventory.tensileStrength(stockMaterial[is], stockShape[is]) &&
+                    force[1] <= Inventory.compressiveStrength(stockMaterial[is], stockShape[is], length) &&
+                    (rtn < 0 || stockUnitCost[is] < stockUnitCost[rtn])) {
+                rtn = is;
+            }
+        }
+        return rtn >= 0 ? rtn : Math.max(0, fallback);
+    }
+}
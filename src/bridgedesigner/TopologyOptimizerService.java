@@ -0,0 +1,178 @@
+/*
+ * TopologyOptimizerService.java
+ *
+ * Copyright (C) 2026 agent
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package bridgedesigner;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import javax.swing.SwingUtilities;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+
+/**
+ * Background topology optimization of an editable bridge.  The optimizer runs on its own thread.  When it
+ * finishes, its design replaces the joints and members of the bridge as one undoable command.  Any edit of
+ * the bridge while the optimizer runs stops it, and nothing is installed.
+ *
+ * All methods must be called on the event dispatch thread.
+ *
+ * @author agent
+ */
+public class TopologyOptimizerService {
+
+    /**
+     * Bridge being optimized.
+     */
+    private final EditableBridgeModel bridge;
+    /**
+     * Optimizer in progress or null if none.
+     */
+    private TopologyOptimizer optimizer = null;
+    /**
+     * Undo manager mark at the start of the optimization.
+     */
+    private Object mark = null;
+    /**
+     * Whether the last optimization ended without finding any design that passes the load test.
+     */
+    private boolean failed = false;
+    /**
+     * Listeners for the end of an optimization.
+     */
+    private final ArrayList<ChangeListener> changeListeners = new ArrayList<ChangeListener>();
+    /**
+     * Listener that stops the optimizer when someone edits the bridge.
+     */
+    private final ChangeListener structureChangeListener = new ChangeListener() {
+
+        public void stateChanged(ChangeEvent e) {
+            if (!bridge.getUndoManager().isAtMark(mark)) {
+                stop();
+            }
+        }
+    };
+
+    /**
+     * Construct a topology optimizer service for the given bridge.
+     *
+     * @param bridge bridge to optimize
+     */
+    public TopologyOptimizerService(EditableBridgeModel bridge) {
+        this.bridge = bridge;
+    }
+
+    /**
+     * Add a listener for the end of an optimization.
+     *
+     * @param l listener
+     */
+    public void addChangeListener(ChangeListener l) {
+        changeListeners.add(l);
+    }
+
+    /**
+     * Remove a listener for the end of an optimization.
+     *
+     * @param l listener
+     */
+    public void removeChangeListener(ChangeListener l) {
+        changeListeners.remove(l);
+    }
+
+    /**
+     * Return true iff an optimization is running.
+     *
+     * @return true iff running
+     */
+    public boolean isRunning() {
+        return optimizer != null;
+    }
+
+    /**
+     * Return true iff the last optimization ended without finding any design that passes the load test.
+     *
+     * @return true iff the optimization failed
+     */
+    public boolean isFailed() {
+        return failed;
+    }
+
+    /**
+     * Start optimizing the topology of the bridge.
+     *
+     * @param coordinates drafting coordinates giving the valid joint locations
+     */
+    public void start(DraftingCoordinates coordinates) {
+        stop();
+        final TopologyOptimizer runOptimizer = new TopologyOptimizer(bridge, coordinates);
+        optimizer = runOptimizer;
+        mark = bridge.getUndoManager().getMark();
+        failed = false;
+        bridge.addStructureChangeListener(structureChangeListener);
+        Thread thread = new Thread(new Runnable() {
+
+            public void run() {
+                final BridgeModel design = runOptimizer.run();
+                SwingUtilities.invokeLater(new Runnable() {
+
+                    public void run() {
+                        if (optimizer == runOptimizer) {
+                            install(design);
+                        }
+                    }
+                });
+            }
+        }, "TopologyOptimizer");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.NORM_PRIORITY - 1);
+        thread.start();
+    }
+
+    /**
+     * Stop the optimization in progress, if any, without changing the bridge.
+     */
+    public void stop() {
+        if (optimizer != null) {
+            optimizer.cancel();
+            finish();
+        }
+    }
+
+    /**
+     * Install the result of an optimization in the bridge.
+     *
+     * @param design design to install or null if none was found
+     */
+    private void install(BridgeModel design) {
+        bridge.removeStructureChangeListener(structureChangeListener);
+        if (design == null) {
+            failed = true;
+        }
+        else {
+            bridge.changeTopology(design);
+        }
+        finish();
+    }
+
+    /**
+     * End the current optimization and tell listeners.
+     */
+    private void finish() {
+        optimizer = null;
+        bridge.removeStructureChangeListener(structureChangeListener);
+        Iterator<ChangeListener> e = new ArrayList<ChangeListener>(changeListeners).iterator();
+        while (e.hasNext()) {
+            e.next().stateChanged(new ChangeEvent(this));
+        }
+    }
+}
@@ -76,6 +76,19 @@ public class UnstableModelDialog extends JDialog {
         update();
     }
 
+    /**
+     * Tailor the explanation to the number of joints found to be under-braced, which are marked on the
+     * drawing board.  Zero gives the general explanation, e.g. for instability due to special geometry.
+     * 
+     * @param n number of under-braced joints
+     */
+    public void setUnderbracedJointCount(int n) {
+        explanationTextPane.setText(
+                n == 0 ? resourceMap.getString("explanationTextPane.text") :
+                n == 1 ? resourceMap.getString("underbracedTextSingle") :
+                resourceMap.getString("underbracedTextMany", n));
+    }
+
     /**
      * Return the index of the example currently displayed.  This is just the selected tab index.
      * Note: example number is example index plus one
@@ -0,0 +1,121 @@
+/*
+ * VibrationModes.java
+ *
+ * Copyright (C) 2026 agent
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package bridgedesigner;
+
+/**
+ * Results of a modal analysis of a bridge: its lowest natural frequencies of free vibration and the mode
+ * shape of each, with mass lumped at the joints.  Mode shapes are joint displacements scaled so the largest
+ * component is one.  Only shape matters, so they are suitable for drawing with any exaggeration, e.g. by
+ * oscillating the bridge through a mode at its frequency.  Vibration modes are immutable.
+ *
+ * @author agent
+ */
+public class VibrationModes {
+
+    /**
+     * Natural frequencies in Hertz in increasing order.
+     */
+    private final double [] frequency;
+    /**
+     * Mode shapes indexed by mode and equation.
+     */
+    private final double [][] shape;
+    /**
+     * Whether all frequencies converged.
+     */
+    private final boolean converged;
+
+    /**
+     * Construct vibration modes.
+     *
+     * @param frequency natural frequencies in Hertz in increasing order
+     * @param shape mode shapes indexed by mode and equation, scaled so the largest component is one
+     * @param converged whether all frequencies converged
+     */
+    VibrationModes(double [] frequency, double [][] shape, boolean converged) {
+        this.frequency = frequency;
+        this.shape = shape;
+        this.converged = converged;
+    }
+
+    /**
+     * Return the number of modes found.
+     *
+     * @return number of modes
+     */
+    public int getModeCount() {
+        return frequency.length;
+    }
+
+    /**
+     * Return the natural frequency of a mode.  Frequencies are in increasing order.
+     *
+     * @param mode mode index
+     * @return frequency in Hertz
+     */
+    public double getFrequency(int mode) {
+        return frequency[mode];
+    }
+
+    /**
+     * Return the period of a mode.
+     *
+     * @param mode mode index
+     * @return period in seconds
+     */
+    public double getPeriod(int mode) {
+        return 1 / frequency[mode];
+    }
+
+    /**
+     * Return the x-component of the displacement of a joint in a mode shape.
+     *
+     * @param mode mode index
+     * @param ij joint index
+     * @return x-displacement
+     */
+    public double getXJointDisplacement(int mode, int ij) {
+        return shape[mode][2 * ij];
+    }
+
+    /**
+     * Return the y-component of the displacement of a joint in a mode shape.
+     *
+     * @param mode mode index
+     * @param ij joint index
+     * @return y-displacement
+     */
+    public double getYJointDisplacement(int mode, int ij) {
+        return shape[mode][2 * ij + 1];
+    }
+
+    /**
+     * Return a mode shape.  The caller must not change it.
+     *
+     * @param mode mode index
+     * @return mode shape indexed by equation
+     */
+    double [] getShape(int mode) {
+        return shape[mode];
+    }
+
+    /**
+     * Return true iff all frequencies converged to full accuracy.
+     *
+     * @return true iff converged
+     */
+    public boolean isConverged() {
+        return converged;
+    }
+}